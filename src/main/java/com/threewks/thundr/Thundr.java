@@ -18,30 +18,52 @@
 package com.threewks.thundr;
 
 import com.atomicleopard.expressive.Cast;
+import com.google.gson.GsonBuilder;
 import com.threewks.thundr.configuration.ConfigurationModule;
+import com.threewks.thundr.exception.BaseException;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.http.exception.HttpStatusException;
 import com.threewks.thundr.injection.InjectionContextImpl;
 import com.threewks.thundr.injection.Module;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
 import com.threewks.thundr.json.GsonModule;
+import com.threewks.thundr.json.SharedGson;
 import com.threewks.thundr.logger.Logger;
 import com.threewks.thundr.module.Modules;
 import com.threewks.thundr.module.ModulesModule;
+import com.threewks.thundr.profiler.StartupProfiler;
+import com.threewks.thundr.request.AsyncResult;
+import com.threewks.thundr.request.CompressingResponse;
 import com.threewks.thundr.request.MutableRequestContainer;
 import com.threewks.thundr.request.Request;
+import com.threewks.thundr.request.RequestExecutors;
 import com.threewks.thundr.request.RequestModule;
 import com.threewks.thundr.request.Response;
+import com.threewks.thundr.request.ResponseCompression;
 import com.threewks.thundr.route.HttpMethod;
 import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteMatch;
 import com.threewks.thundr.route.RouteResolverException;
+import com.threewks.thundr.route.RouteResult;
 import com.threewks.thundr.route.Router;
 import com.threewks.thundr.route.RouterModule;
+import com.threewks.thundr.route.controller.Controller;
 import com.threewks.thundr.transformer.TransformerModule;
 import com.threewks.thundr.view.ViewResolverNotFoundException;
 import com.threewks.thundr.view.ViewResolverRegistry;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  *
@@ -49,12 +71,16 @@ import java.util.List;
 public class Thundr {
 	@SuppressWarnings("unchecked")
 	private static final Class<? extends Module>[] None = new Class[0];
+	public static final String AsyncTimeoutProperty = "asyncTimeout";
+	public static final long DefaultAsyncTimeout = 30000;
 
 	protected UpdatableInjectionContext injectionContext;
 	protected Modules modules;
+	protected StartupProfiler startupProfiler;
 	protected boolean started = false;
 	protected boolean stopped = false;
 	protected List<Class<? extends Module>> coreModules = new ArrayList<>();
+	protected volatile long asyncTimeout = DefaultAsyncTimeout;
 
 	public Thundr() {
 		this(None);
@@ -62,8 +88,12 @@ public class Thundr {
 
 	@SafeVarargs
 	public Thundr(Class<? extends Module>... modules) {
-		this.injectionContext = new InjectionContextImpl();
+		this.startupProfiler = new StartupProfiler();
+		InjectionContextImpl injectionContext = new InjectionContextImpl();
+		injectionContext.setStartupProfiler(startupProfiler);
+		this.injectionContext = injectionContext;
 		this.modules = new Modules();
+		this.modules.setStartupProfiler(startupProfiler);
 		this.coreModules.addAll(Arrays.asList(modules));
 	}
 
@@ -75,6 +105,26 @@ public class Thundr {
 		return modules;
 	}
 
+	/**
+	 * @return the timeline of work done by {@link #start()}, which can be exported as JSON or as a Chrome trace
+	 */
+	public StartupProfiler getStartupProfiler() {
+		return startupProfiler;
+	}
+
+	public long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
+	/**
+	 * @param asyncTimeout the milliseconds {@link #resolve(Request, Response)} waits for an {@link AsyncResult} to complete before failing
+	 *            the request with a 503 Service Unavailable, or 0 to wait indefinitely. This can also be set using the
+	 *            {@value #AsyncTimeoutProperty} configuration property.
+	 */
+	public void setAsyncTimeout(long asyncTimeout) {
+		this.asyncTimeout = asyncTimeout;
+	}
+
 	public boolean isStopped() {
 		return stopped;
 	}
@@ -85,8 +135,17 @@ public class Thundr {
 
 	public void start() {
 		long start = System.currentTimeMillis();
-		initModules(injectionContext, modules);
+		startupProfiler.activate();
+		try {
+			initModules(injectionContext, modules);
+		} finally {
+			startupProfiler.deactivate();
+		}
+		configureAsyncTimeout(injectionContext);
 		debugRoutes(injectionContext);
+		precomputeViewResolvers(injectionContext);
+		shareGson(injectionContext);
+		freeze(injectionContext);
 		this.started = true;
 		Logger.info("Started up in %dms", System.currentTimeMillis() - start);
 	}
@@ -96,6 +155,17 @@ public class Thundr {
 		stopped = true;
 	}
 
+	private void configureAsyncTimeout(UpdatableInjectionContext injectionContext) {
+		if (injectionContext.containsNamed(String.class, AsyncTimeoutProperty)) {
+			String timeout = injectionContext.get(String.class, AsyncTimeoutProperty);
+			try {
+				setAsyncTimeout(Long.parseLong(timeout.trim()));
+			} catch (NumberFormatException e) {
+				throw new BaseException(e, "The configuration property %s must be a number of milliseconds, but was '%s'", AsyncTimeoutProperty, timeout);
+			}
+		}
+	}
+
 	private void debugRoutes(UpdatableInjectionContext injectionContext) {
 		Router router = injectionContext.get(Router.class);
 		if (router == null || router.isEmpty()) {
@@ -106,8 +176,46 @@ public class Thundr {
 		}
 	}
 
+	/**
+	 * Finds the {@link com.threewks.thundr.view.ViewResolver} for the view type of every controller route up front, so that requests do not
+	 * search the type hierarchy of their views.
+	 */
+	private void precomputeViewResolvers(UpdatableInjectionContext injectionContext) {
+		if (injectionContext.contains(Router.class) && injectionContext.contains(ViewResolverRegistry.class)) {
+			Set<Class<?>> viewTypes = new LinkedHashSet<>();
+			for (RouteResult action : injectionContext.get(Router.class).listActions()) {
+				Controller controller = Cast.as(action, Controller.class);
+				if (controller != null) {
+					viewTypes.add(controller.viewType());
+				}
+			}
+			injectionContext.get(ViewResolverRegistry.class).precompute(viewTypes);
+		}
+	}
+
+	/**
+	 * Modules may have changed the injected {@link GsonBuilder} while starting, directly or through a component exposing it, so the
+	 * {@link com.google.gson.Gson} created from it is recreated and shared from here on.
+	 */
+	private void shareGson(UpdatableInjectionContext injectionContext) {
+		if (injectionContext.contains(GsonBuilder.class)) {
+			SharedGson.forBuilder(injectionContext.get(GsonBuilder.class)).invalidate();
+		}
+	}
+
+	/**
+	 * Startup is complete, so the injected instances are published once for lookups by requests.
+	 */
+	private void freeze(UpdatableInjectionContext injectionContext) {
+		InjectionContextImpl injectionContextImpl = Cast.as(injectionContext, InjectionContextImpl.class);
+		if (injectionContextImpl != null) {
+			injectionContextImpl.freeze();
+		}
+	}
+
 	protected Modules initModules(UpdatableInjectionContext injectionContext, Modules modules) {
 		injectionContext.inject(modules).as(Modules.class);
+		injectionContext.inject(startupProfiler).as(StartupProfiler.class);
 
 		for (Class<? extends Module> module : getBaseModules()) {
 			modules.addModule(module);
@@ -135,47 +243,309 @@ public class Thundr {
 		return router.findMatchingRoute(method, routePath);
 	}
 
+	public RouteMatch findRouteMatch(HttpMethod method, String routePath) {
+		Router router = injectionContext.get(Router.class);
+		return router.findMatch(method, routePath);
+	}
+
 	/**
 	 * Resolves the given request into the given response.
 	 * 
+	 * If a {@link ResponseCompression} is available, the response body is compressed when the request accepts it.
+	 * 
+	 * If the request is resolved to an {@link AsyncResult}, this blocks until it completes and its view is resolved. Containers which
+	 * can suspend requests should use {@link #resolveAsync(Request, Response)} instead. If it does not complete within the
+	 * {@link #getAsyncTimeout()}, or the waiting thread is interrupted, the request is failed and the failure resolved to the response
+	 * instead, as if the {@link AsyncResult} had failed. If its view is already being resolved by then, this waits for it to be written.
+	 * 
 	 * @param req
 	 * @param resp
 	 */
 	public void resolve(Request req, Response resp) {
+		ResponseCompletion result = start(req, resp);
+		try {
+			await(result, req);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw Cast.is(cause, RuntimeException.class) ? (RuntimeException) cause : new BaseException(cause);
+		}
+	}
+
+	/**
+	 * Waits for the given result, failing it with a 503 Service Unavailable if it does not complete within the {@link #getAsyncTimeout()}.
+	 * Whichever of the failure and the completion of the request claims the response writes it, so this only returns once nothing else
+	 * can write to the response, and only a failure to resolve it is rethrown.
+	 */
+	private void await(ResponseCompletion result, Request req) throws ExecutionException {
+		long timeout = asyncTimeout;
+		boolean interrupted = false;
+		RuntimeException failure;
+		try {
+			if (timeout <= 0) {
+				result.get();
+			} else {
+				result.get(timeout, TimeUnit.MILLISECONDS);
+			}
+			return;
+		} catch (TimeoutException e) {
+			failure = new HttpStatusException(e, StatusCode.ServiceUnavailable, "%s %s did not complete within %dms", req.getMethod(), req.getRequestPath(), timeout);
+		} catch (InterruptedException e) {
+			interrupted = true;
+			failure = new BaseException(e, "Interrupted while waiting for %s %s to complete", req.getMethod(), req.getRequestPath());
+		}
+		try {
+			if (result.fail(failure)) {
+				if (!interrupted) {
+					Logger.warn(failure.getMessage());
+				}
+				return;
+			}
+			// the request completed and claimed the response first, so wait for it to be written
+			while (true) {
+				try {
+					result.get();
+					return;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Resolves the given request into the given response as its own task on the given {@link Executor}, so that the calling thread is not
+	 * held while the request blocks. Using an executor which starts a thread per task, such as {@link RequestExecutors#perRequest()}, runs
+	 * each request on its own virtual thread where the runtime supports them.
+	 * 
+	 * The returned result completes once the response has been written, or fails with the exception which could not be resolved to a view.
+	 * 
+	 * @param executor
+	 * @param req
+	 * @param resp
+	 * @return
+	 */
+	public AsyncResult<Void> resolveOn(Executor executor, final Request req, final Response resp) {
+		return AsyncResult.submit(executor, new Callable<Void>() {
+			@Override
+			public Void call() {
+				resolve(req, resp);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Resolves the given request into the given response without waiting on any {@link AsyncResult} the request resolves to.
+	 * 
+	 * The returned result completes once the response has been written, on the thread which completed the {@link AsyncResult}, or
+	 * fails with the exception which could not be resolved to a view. Until then the container should keep the request open. Requests
+	 * which do not resolve to an {@link AsyncResult} complete before this method returns.
+	 * 
+	 * Failing the returned result, for example because the request timed out or the client went away, fails the {@link AsyncResult} it
+	 * is waiting on with the same exception and resolves it to the response on the calling thread, before returning true. Output produced
+	 * once the {@link AsyncResult} does complete is ignored. If the {@link AsyncResult} has already completed and its view is being
+	 * written, failing returns false and the returned result completes once the view has been written.
+	 * 
+	 * @param req
+	 * @param resp
+	 * @return
+	 */
+	public AsyncResult<Void> resolveAsync(Request req, Response resp) {
+		return start(req, resp);
+	}
+
+	private ResponseCompletion start(Request req, Response resp) {
 		MutableRequestContainer requestContainer = injectionContext.get(MutableRequestContainer.class);
-		ViewResolverRegistry viewResolverRegistry = injectionContext.get(ViewResolverRegistry.class);
 		Router router = injectionContext.get(Router.class);
+		if (injectionContext.contains(ResponseCompression.class)) {
+			resp = injectionContext.get(ResponseCompression.class).wrap(req, resp);
+		}
+		ResponseCompletion completion = new ResponseCompletion(req, resp);
 
+		Object view = null;
+		RuntimeException failure = null;
+		Request outerReq = requestContainer.getRequest();
+		Response outerResp = requestContainer.getResponse();
+		requestContainer.set(req, resp);
 		try {
-			requestContainer.set(req, resp);
-			Object view = router.resolve(req, resp);
-			if (view != null) {
-				viewResolverRegistry.resolve(req, resp, view);
+			view = router.resolve(req, resp);
+		} catch (RuntimeException e) {
+			failure = e;
+		} finally {
+			restore(requestContainer, outerReq, outerResp);
+		}
+
+		AsyncResult<?> asyncResult = Cast.as(view, AsyncResult.class);
+		if (asyncResult == null) {
+			completion.resolved(view, failure);
+		} else {
+			completion.waitOn(asyncResult);
+		}
+		return completion;
+	}
+
+	/**
+	 * Completes once the response to a request has been written. The response is claimed by whichever comes first of the completion of
+	 * the {@link AsyncResult} the request resolved to and a failure of this result, such as a timeout, and only the one which claims it
+	 * writes to it.
+	 */
+	private final class ResponseCompletion extends AsyncResult<Void> {
+		private final AtomicBoolean claimed = new AtomicBoolean();
+		private final Request req;
+		private final Response resp;
+		private volatile AsyncResult<?> waitingOn;
+
+		private ResponseCompletion(Request req, Response resp) {
+			this.req = req;
+			this.resp = resp;
+		}
+
+		/**
+		 * Fails the request with the given exception, failing the {@link AsyncResult} it is waiting on and resolving the exception to the
+		 * response on the calling thread, unless the response has already been claimed.
+		 * 
+		 * @return true if the failure was resolved to the response, false if the response was already claimed
+		 */
+		@Override
+		public boolean fail(Throwable cause) {
+			if (cause == null) {
+				throw new IllegalArgumentException("An AsyncResult cannot fail without an exception");
+			}
+			if (!claimed.compareAndSet(false, true)) {
+				return false;
 			}
-		} catch (RuntimeException original) {
-			Throwable throwable = original;
+			AsyncResult<?> asyncResult = waitingOn;
+			if (asyncResult != null) {
+				asyncResult.fail(cause);
+			}
+			respond(null, toRuntimeException(cause));
+			return true;
+		}
+
+		private void waitOn(AsyncResult<?> asyncResult) {
+			this.waitingOn = asyncResult;
+			asyncResult.onComplete(new AsyncResult.Callback<Object>() {
+				@Override
+				public void completed(Object result) {
+					resolved(result, null);
+				}
 
-			if (Cast.is(original, RouteResolverException.class)) {
-				// unwrap RouteResolverException if it is one
-				throwable = Cast.as(original, RouteResolverException.class).getCause();
+				@Override
+				public void failed(Throwable cause) {
+					resolved(null, toRuntimeException(cause));
+				}
+			});
+		}
+
+		private void resolved(Object view, RuntimeException failure) {
+			if (claimed.compareAndSet(false, true)) {
+				respond(view, failure);
 			}
-			if (Cast.is(throwable, ViewResolverNotFoundException.class)) {
-				// if there was an error finding a view resolver, propagate this
-				throw (ViewResolverNotFoundException) throwable;
+		}
+
+		private RuntimeException toRuntimeException(Throwable cause) {
+			return Cast.is(cause, RuntimeException.class) ? (RuntimeException) cause
+					: new RouteResolverException(cause, "Failed to resolve %s %s: %s", req.getMethod(), req.getRequestPath(), cause.getMessage());
+		}
+
+		/**
+		 * Resolves the view, or the failure if there is one, then completes the response and this result.
+		 */
+		private void respond(Object view, RuntimeException failure) {
+			Throwable error = write(req, resp, view, failure);
+			boolean completed = error == null ? super.complete(null) : super.fail(error);
+			if (!completed && error != null) {
+				Logger.error(error, "Failed to resolve the failure of %s %s: %s", req.getMethod(), req.getRequestPath(), error.getMessage());
 			}
-			if (resp.isUncommitted()) {
+		}
+	}
+
+	/**
+	 * Resolves the view, or the failure if there is one, then completes the response.
+	 * 
+	 * @return the exception thrown resolving the failure, or null if the response was written
+	 */
+	private Throwable write(Request req, Response resp, Object view, RuntimeException failure) {
+		MutableRequestContainer requestContainer = injectionContext.get(MutableRequestContainer.class);
+		ViewResolverRegistry viewResolverRegistry = injectionContext.get(ViewResolverRegistry.class);
+
+		Throwable error = null;
+		Request outerReq = requestContainer.getRequest();
+		Response outerResp = requestContainer.getResponse();
+		requestContainer.set(req, resp);
+		try {
+			if (failure == null && view != null) {
 				try {
-					viewResolverRegistry.resolve(req, resp, throwable);
-					resp.finaliseHeaders();
-				} catch (ViewResolverNotFoundException exceptionViewNotFound) {
-					if (Cast.is(throwable, RuntimeException.class)) {
-						throw (RuntimeException) throwable;
-					}
-					throw original;
+					viewResolverRegistry.resolve(req, resp, view);
+				} catch (RuntimeException e) {
+					failure = e;
 				}
 			}
+			if (failure != null) {
+				resolveException(viewResolverRegistry, req, resp, failure);
+			}
+		} catch (RuntimeException | Error e) {
+			error = e;
 		} finally {
+			try {
+				finish(resp);
+			} finally {
+				restore(requestContainer, outerReq, outerResp);
+			}
+		}
+		return error;
+	}
+
+	/**
+	 * Restores whatever request was bound before, as this thread may be completing an {@link AsyncResult} while resolving another request.
+	 */
+	private static void restore(MutableRequestContainer requestContainer, Request req, Response resp) {
+		if (req == null && resp == null) {
 			requestContainer.clear();
+		} else {
+			requestContainer.set(req, resp);
+		}
+	}
+
+	private void resolveException(ViewResolverRegistry viewResolverRegistry, Request req, Response resp, RuntimeException original) {
+		Throwable throwable = original;
+
+		if (Cast.is(original, RouteResolverException.class)) {
+			// unwrap RouteResolverException if it is one
+			throwable = Cast.as(original, RouteResolverException.class).getCause();
+		}
+		if (Cast.is(throwable, ViewResolverNotFoundException.class)) {
+			// if there was an error finding a view resolver, propagate this
+			throw (ViewResolverNotFoundException) throwable;
+		}
+		if (resp.isUncommitted()) {
+			try {
+				viewResolverRegistry.resolve(req, resp, throwable);
+				resp.finaliseHeaders();
+			} catch (ViewResolverNotFoundException exceptionViewNotFound) {
+				if (Cast.is(throwable, RuntimeException.class)) {
+					throw (RuntimeException) throwable;
+				}
+				throw original;
+			}
+		}
+	}
+
+	private void finish(Response resp) {
+		CompressingResponse compressingResponse = Cast.as(resp, CompressingResponse.class);
+		if (compressingResponse != null) {
+			try {
+				compressingResponse.finish();
+			} catch (IOException e) {
+				Logger.debug("Failed to complete the compressed response: %s", e.getMessage());
+			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -17,28 +17,42 @@
  */
 package com.threewks.thundr.bind;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Binders may be added while modules start concurrently, and are listed on every request, so changes are made under a lock and
+ * publish a new snapshot for {@link #list()} to return.
+ */
 public class BinderRegistry {
 	private Map<Class<? extends Binder>, Binder> methodBinders = new LinkedHashMap<Class<? extends Binder>, Binder>();
+	private volatile List<Binder> binders = Collections.emptyList();
 
 	public BinderRegistry() {
 	}
 
-	public void add(Binder binder) {
+	public synchronized void add(Binder binder) {
 		methodBinders.put(binder.getClass(), binder);
+		binders = snapshot();
 	}
 
-	public boolean contains(Class<? extends Binder> type) {
+	public synchronized boolean contains(Class<? extends Binder> type) {
 		return methodBinders.containsKey(type);
 	}
 
-	public void remove(Class<? extends Binder> type) {
+	public synchronized void remove(Class<? extends Binder> type) {
 		methodBinders.remove(type);
+		binders = snapshot();
 	}
 
 	public Iterable<Binder> list() {
-		return methodBinders.values();
+		return binders;
+	}
+
+	private List<Binder> snapshot() {
+		return Collections.unmodifiableList(new ArrayList<Binder>(methodBinders.values()));
 	}
 }
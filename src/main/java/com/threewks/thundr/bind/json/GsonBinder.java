@@ -17,17 +17,21 @@
  */
 package com.threewks.thundr.bind.json;
 
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.Reader;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.atomicleopard.expressive.Expressive;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 import com.threewks.thundr.bind.BindException;
 import com.threewks.thundr.bind.Binder;
 import com.threewks.thundr.bind.http.request.CookieBinder;
@@ -35,6 +39,7 @@ import com.threewks.thundr.bind.http.request.RequestClassBinder;
 import com.threewks.thundr.http.ContentType;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.introspection.TypeIntrospector;
+import com.threewks.thundr.json.SharedGson;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
 
@@ -49,18 +54,21 @@ public class GsonBinder implements Binder {
 	 */
 
 	private GsonBuilder gsonBuilder;
+	private SharedGson gson;
 
 	public GsonBinder(GsonBuilder gsonBuilder) {
 		this.gsonBuilder = gsonBuilder;
+		this.gson = SharedGson.forBuilder(gsonBuilder);
 	}
 
 	/**
 	 * Exposes the underlying builder, allowing the modification of how Json is bound.
 	 * 
 	 * @return
+	 * @see SharedGson#modify()
 	 */
 	public GsonBuilder getGsonBuilder() {
-		return gsonBuilder;
+		return gson.modify();
 	}
 
 	public boolean canBind(ContentType contentType) {
@@ -72,7 +80,7 @@ public class GsonBinder implements Binder {
 		if (!bindings.isEmpty() && bindings.containsValue(null)) {
 			if (canBind(req.getContentType())) {
 				ParameterDescription jsonParameterDescription = findParameterDescriptionForJsonParameter(bindings);
-				Gson gson = gsonBuilder.create();
+				Gson gson = this.gson.get();
 				if (jsonParameterDescription != null) {
 					bindToSingleParameter(bindings, req, gson, jsonParameterDescription);
 				} else {
@@ -82,27 +90,22 @@ public class GsonBinder implements Binder {
 		}
 	}
 
+	/**
+	 * Reads the top level members of the json object in the request body, binding those named for unbound parameters and skipping
+	 * the rest.
+	 */
 	private void bindToUnboundParameters(Map<ParameterDescription, Object> bindings, Request req, Gson gson) {
 		if (shouldBindToUnboundParameters(bindings)) {
 			try {
 				Reader reader = req.getReader();
 				if (reader != null) {
-					JsonObject json = new JsonParser().parse(reader).getAsJsonObject();
-
+					Map<String, ParameterDescription> unbound = new HashMap<>();
 					for (Map.Entry<ParameterDescription, Object> entry : bindings.entrySet()) {
-						if (entry.getValue() == null) {
-							ParameterDescription parameterDescription = entry.getKey();
-							try {
-								JsonElement jsonElement = json.get(parameterDescription.name());
-								if (jsonElement != null) {
-									Object value = gson.fromJson(jsonElement, parameterDescription.type());
-									bindings.put(parameterDescription, value);
-								}
-							} catch (Exception e) {
-								throw new BindException(e, "Failed to bind parameter '%s' as %s using JSON: %s", parameterDescription.name(), parameterDescription.type(), e.getMessage());
-							}
+						if (entry.getValue() == null && entry.getKey().name() != null) {
+							unbound.put(entry.getKey().name(), entry.getKey());
 						}
 					}
+					readMembers(bindings, unbound, new JsonReader(reader), gson);
 				}
 			} catch (BindException e) {
 				throw e;
@@ -112,6 +115,31 @@ public class GsonBinder implements Binder {
 		}
 	}
 
+	private void readMembers(Map<ParameterDescription, Object> bindings, Map<String, ParameterDescription> unbound, JsonReader json, Gson gson) {
+		try {
+			json.setLenient(true);
+			json.beginObject();
+			while (json.hasNext()) {
+				ParameterDescription parameterDescription = unbound.get(json.nextName());
+				if (parameterDescription == null) {
+					json.skipValue();
+				} else {
+					try {
+						Object value = gson.fromJson(json, parameterDescription.type());
+						bindings.put(parameterDescription, value);
+					} catch (Exception e) {
+						throw new BindException(e, "Failed to bind parameter '%s' as %s using JSON: %s", parameterDescription.name(), parameterDescription.type(), e.getMessage());
+					}
+				}
+			}
+			json.endObject();
+		} catch (EOFException | MalformedJsonException | NumberFormatException e) {
+			throw new JsonSyntaxException(e);
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+	}
+
 	protected boolean shouldBindToUnboundParameters(Map<ParameterDescription, Object> bindings) {
 		for (ParameterDescription parameterDescription : bindings.keySet()) {
 			if (RequestBodyConsumingTypes.contains(parameterDescription.classType())) {
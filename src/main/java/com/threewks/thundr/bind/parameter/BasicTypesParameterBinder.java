@@ -24,11 +24,13 @@ import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.transformer.TransformerManager;
 
 public class BasicTypesParameterBinder implements ParameterBinder<Object> {
-
 	@Override
 	public Object bind(ParameterBinderRegistry binder, ParameterDescription parameterDescription, RequestDataMap pathMap, TransformerManager transformerManager) {
 		List<String> values = pathMap.get(Collections.singletonList(parameterDescription.name()));
-		return values != null && values.size() > 0 ? transformerManager.transform(String.class, parameterDescription.classType(), values.get(0)) : null;
+		if (values == null || values.isEmpty()) {
+			return null;
+		}
+		return transformerManager.transform(String.class, parameterDescription.classType(), values.get(0));
 	}
 
 	@Override
@@ -0,0 +1,284 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.bind.parameter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.introspection.TypeIntrospector;
+import com.threewks.thundr.transformer.TransformerManager;
+
+/**
+ * Everything {@link JavaBeanParameterBinder} needs to know to bind request data onto a javabean, determined once per class.
+ * 
+ * The no-arg constructor, and the setter and getter (or public field) of each property are held as {@link MethodHandle}s.
+ * The transformer from {@link String} to the type of each property is resolved the first time it is needed and then reused.
+ */
+final class BeanBinder<T> {
+	private static final MethodType ConstructorType = MethodType.methodType(Object.class);
+	private static final MethodType GetterType = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SetterType = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final Class<T> type;
+	private final MethodHandle constructor;
+	private final Map<String, BeanProperty> properties;
+
+	BeanBinder(Class<T> type) {
+		this.type = type;
+		this.constructor = findConstructor(type);
+		this.properties = findProperties(type);
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * @param name
+	 * @return the named property, or null if the type has no such property or it cannot be bound directly
+	 */
+	public BeanProperty getProperty(String name) {
+		return properties.get(name);
+	}
+
+	@SuppressWarnings("unchecked")
+	public T newInstance() throws Exception {
+		if (constructor == null) {
+			throw new InstantiationException(type.getName() + " has no accessible no-arg constructor");
+		}
+		try {
+			return (T) constructor.invokeExact();
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new InstantiationException(t.getMessage());
+		}
+	}
+
+	private static MethodHandle findConstructor(Class<?> type) {
+		MethodHandle constructor = TypeIntrospector.getNoArgConstructor(type);
+		if (constructor != null) {
+			return constructor;
+		}
+		try {
+			Constructor<?> ctor = type.getDeclaredConstructor();
+			ctor.setAccessible(true);
+			return MethodHandles.lookup().unreflectConstructor(ctor).asType(ConstructorType);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Properties are found from public setters, falling back to public fields. Properties with overloaded setters are left out, so that they
+	 * continue to be bound by the more general mechanism.
+	 */
+	private static Map<String, BeanProperty> findProperties(Class<?> type) {
+		Map<String, Method> setters = new HashMap<>();
+		Set<String> ambiguous = new HashSet<>();
+		for (Method method : type.getMethods()) {
+			String name = method.getName();
+			if (!Modifier.isStatic(method.getModifiers()) && name.length() > 3 && name.startsWith("set") && method.getParameterTypes().length == 1) {
+				String property = getPropertyName(name.substring(3));
+				if (setters.put(property, method) != null) {
+					ambiguous.add(property);
+				}
+			}
+		}
+
+		Map<String, BeanProperty> properties = new HashMap<>();
+		for (Map.Entry<String, Method> entry : setters.entrySet()) {
+			String name = entry.getKey();
+			Method setter = entry.getValue();
+			if (!ambiguous.contains(name)) {
+				try {
+					MethodHandle getter = findGetter(type, setter.getName().substring(3), setter.getParameterTypes()[0]);
+					addProperty(properties, new BeanProperty(name, setter.getParameterTypes()[0], setter.getGenericParameterTypes()[0], unreflect(setter).asType(SetterType), getter));
+				} catch (Exception e) {
+					// leave the property to be bound reflectively
+				}
+			}
+		}
+		for (Field field : type.getFields()) {
+			int modifiers = field.getModifiers();
+			if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !setters.containsKey(field.getName())) {
+				try {
+					field.setAccessible(true);
+					MethodHandles.Lookup lookup = MethodHandles.lookup();
+					addProperty(properties, new BeanProperty(field.getName(), field.getType(), field.getGenericType(), lookup.unreflectSetter(field).asType(SetterType), lookup.unreflectGetter(field)
+							.asType(GetterType)));
+				} catch (Exception e) {
+					// leave the property to be bound reflectively
+				}
+			}
+		}
+		return properties;
+	}
+
+	/**
+	 * A property 'URL' (from setURL) is bound from both 'URL' and 'uRL'
+	 */
+	private static void addProperty(Map<String, BeanProperty> properties, BeanProperty property) {
+		properties.put(property.getName(), property);
+		String lowerFirst = Character.toLowerCase(property.getName().charAt(0)) + property.getName().substring(1);
+		if (!properties.containsKey(lowerFirst)) {
+			properties.put(lowerFirst, property);
+		}
+	}
+
+	private static String getPropertyName(String name) {
+		if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+			return name;
+		}
+		return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static MethodHandle findGetter(Class<?> type, String name, Class<?> propertyType) {
+		for (String prefix : new String[] { "get", "is" }) {
+			try {
+				Method getter = type.getMethod(prefix + name);
+				if (!Modifier.isStatic(getter.getModifiers()) && propertyType.isAssignableFrom(getter.getReturnType())) {
+					return unreflect(getter).asType(GetterType);
+				}
+			} catch (Exception e) {
+				// no usable getter with this prefix
+			}
+		}
+		return null;
+	}
+
+	private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+		try {
+			method.setAccessible(true);
+		} catch (SecurityException e) {
+			// public methods of public types remain accessible
+		}
+		return MethodHandles.lookup().unreflect(method);
+	}
+
+	/**
+	 * Converts request values to a given type. The transformer is looked up on each conversion, which the {@link TransformerManager}
+	 * answers from its cache, so that transformers registered after a bean was first bound are used.
+	 */
+	static class ValueConverter {
+		private final Class<?> type;
+
+		ValueConverter(Class<?> type) {
+			this.type = type;
+		}
+
+		public Class<?> getType() {
+			return type;
+		}
+
+		/**
+		 * @param values the request values, converted as a single {@link String} if there is only one
+		 * @param transformerManager
+		 * @return the converted value
+		 * @throws IllegalArgumentException if no transformer is available
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public Object convert(List<String> values, TransformerManager transformerManager) {
+			if (values.size() > 1) {
+				ETransformer transformer = transformerManager.getBestTransformer(values.getClass(), type);
+				return transform(transformer, values);
+			}
+			return transform((ETransformer<Object, Object>) transformerManager.getBestTransformer(String.class, type), values.get(0));
+		}
+
+		private Object transform(ETransformer<Object, Object> transformer, Object value) {
+			if (transformer == null) {
+				throw new IllegalArgumentException("No transformer available to " + type.getName());
+			}
+			return transformer.from(value);
+		}
+	}
+
+	static class BeanProperty extends ValueConverter {
+		private final String name;
+		private final MethodHandle setter;
+		private final MethodHandle getter;
+		private final boolean javabean;
+		private final boolean list;
+		private final ValueConverter element;
+		private final boolean javabeanElements;
+
+		BeanProperty(String name, Class<?> type, Type genericType, MethodHandle setter, MethodHandle getter) {
+			super(type);
+			this.name = name;
+			this.setter = setter;
+			this.getter = getter;
+			this.javabean = TypeIntrospector.isAJavabean(type);
+			Class<?> elementType = TypeIntrospector.getCollectionType(genericType);
+			this.list = elementType != null && Collection.class.isAssignableFrom(type) && type.isAssignableFrom(ArrayList.class);
+			this.element = list ? new ValueConverter(elementType) : null;
+			this.javabeanElements = list && TypeIntrospector.isAJavabean(elementType);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return true if this property is a javabean, bound from nested request data
+		 */
+		public boolean isJavabean() {
+			return javabean;
+		}
+
+		/**
+		 * @return true if this property is a list with a known element type, bound from indexed request data
+		 */
+		public boolean isList() {
+			return list;
+		}
+
+		public ValueConverter getElement() {
+			return element;
+		}
+
+		public boolean hasJavabeanElements() {
+			return javabeanElements;
+		}
+
+		public void set(Object bean, Object value) throws Throwable {
+			setter.invokeExact(bean, value);
+		}
+
+		/**
+		 * @return the current value of the property, or null if it has no getter
+		 */
+		public Object get(Object bean) throws Throwable {
+			return getter == null ? null : (Object) getter.invokeExact(bean);
+		}
+	}
+}
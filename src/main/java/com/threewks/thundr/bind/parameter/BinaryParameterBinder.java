@@ -21,6 +21,13 @@ import com.threewks.thundr.http.MultipartFile;
 import com.threewks.thundr.introspection.ParameterDescription;
 
 public interface BinaryParameterBinder<T> {
+	/**
+	 * The result must depend only on the type of the given parameter, as {@link ParameterBinderRegistry} remembers it for each
+	 * parameter type.
+	 * 
+	 * @param parameterDescription
+	 * @return true if this binder can bind parameters of the type of the given parameter
+	 */
 	public boolean willBind(ParameterDescription parameterDescription);
 	public T bind(ParameterDescription parameterDescription, MultipartFile file);
 }
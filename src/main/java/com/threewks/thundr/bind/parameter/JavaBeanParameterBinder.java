@@ -17,27 +17,40 @@
  */
 package com.threewks.thundr.bind.parameter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.atomicleopard.expressive.ETransformer;
 import com.threewks.thundr.bind.BindException;
+import com.threewks.thundr.bind.parameter.BeanBinder.BeanProperty;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.introspection.TypeIntrospector;
 import com.threewks.thundr.transformer.TransformerManager;
 
 import jodd.bean.BeanUtilBean;
 
+/**
+ * Binds request data onto javabeans.
+ * 
+ * Each bean class is introspected once into a {@link BeanBinder}, which sets properties directly through method handles,
+ * constructing nested beans and lists of values or beans as it descends the {@link RequestDataMap}. Request data this cannot
+ * handle directly, such as maps, arrays or overloaded setters, is bound using a {@link BeanUtilBean} as before.
+ * As before, values which cannot be bound onto a property are ignored.
+ */
 public class JavaBeanParameterBinder implements ParameterBinder<Object> {
+	private ConcurrentMap<Class<?>, BeanBinder<?>> beanBinders = new ConcurrentHashMap<>();
+
 	@Override
 	public Object bind(ParameterBinderRegistry binders, ParameterDescription parameterDescription, RequestDataMap pathMap, final TransformerManager transformerManager) {
-		Map<String, Object> stringMap = pathMap.toStringMap(parameterDescription.name());
-		if (!stringMap.isEmpty()) {
+		RequestDataMap data = pathMap.pathMapFor(parameterDescription.name());
+		if (data.size() > 0) {
 			try {
-				Object bean = parameterDescription.classType().newInstance();
-				BeanUtilBean beaner = beanLoader(transformerManager);
-				for (Map.Entry<String, Object> entry : stringMap.entrySet()) {
-					beaner.setPropertyForcedSilent(bean, entry.getKey(), entry.getValue());
-				}
+				BeanBinder<?> beanBinder = getBeanBinder(parameterDescription.classType());
+				Object bean = beanBinder.newInstance();
+				bindProperties(new Binding(transformerManager), beanBinder, bean, data);
 				return bean;
 			} catch (Exception e) {
 				throw new BindException(e, "Failed to bind onto %s: %s", parameterDescription.classType(), e.getMessage());
@@ -56,6 +69,181 @@ public class JavaBeanParameterBinder implements ParameterBinder<Object> {
 		return TypeIntrospector.isAJavabean(type);
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	<T> BeanBinder<T> getBeanBinder(Class<T> type) {
+		BeanBinder<T> beanBinder = (BeanBinder<T>) beanBinders.get(type);
+		if (beanBinder == null) {
+			beanBinder = new BeanBinder(type);
+			BeanBinder<T> existing = (BeanBinder<T>) beanBinders.putIfAbsent(type, beanBinder);
+			beanBinder = existing == null ? beanBinder : existing;
+		}
+		return beanBinder;
+	}
+
+	private void bindProperties(Binding binding, BeanBinder<?> beanBinder, Object bean, RequestDataMap data) throws Exception {
+		for (String name : data.uniqueChildren()) {
+			List<String> values = data.get(name);
+			RequestDataMap nested = data.pathMapFor(name);
+			boolean hasValues = values != null && !values.isEmpty();
+			boolean hasNested = !nested.uniqueChildren().isEmpty();
+			BeanProperty property = beanBinder.getProperty(name);
+			if (property != null && hasValues && !hasNested) {
+				bindValue(binding, property, bean, values);
+			} else if (property != null && !hasValues && hasNested && property.isJavabean()) {
+				bindJavabean(binding, property, bean, nested);
+			} else if (property != null && !hasValues && hasNested && property.isList() && canBindList(property, nested)) {
+				bindList(binding, property, bean, nested);
+			} else {
+				bindReflectively(binding, bean, name, data);
+			}
+		}
+	}
+
+	private void bindValue(Binding binding, BeanProperty property, Object bean, List<String> values) {
+		try {
+			property.set(bean, property.convert(values, binding.transformerManager));
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable t) {
+			// values which cannot be bound are ignored
+		}
+	}
+
+	private void bindJavabean(Binding binding, BeanProperty property, Object bean, RequestDataMap data) throws Exception {
+		BeanBinder<?> nestedBinder = getBeanBinder(property.getType());
+		Object nested = get(property, bean);
+		boolean created = nested == null;
+		nested = created ? nestedBinder.newInstance() : nested;
+		bindProperties(binding, nestedBinder, nested, data);
+		if (created) {
+			set(property, bean, nested);
+		}
+	}
+
+	/**
+	 * Lists are bound directly when every entry is indexed, i.e. list[0], and is either a single value or a nested javabean.
+	 */
+	private boolean canBindList(BeanProperty property, RequestDataMap data) {
+		for (String index : data.uniqueChildren()) {
+			if (toIndex(index) < 0) {
+				return false;
+			}
+			List<String> values = data.get(index);
+			boolean hasValues = values != null && !values.isEmpty();
+			boolean hasNested = !data.pathMapFor(index).uniqueChildren().isEmpty();
+			if (hasValues == hasNested || hasNested && !property.hasJavabeanElements()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void bindList(Binding binding, BeanProperty property, Object bean, RequestDataMap data) throws Exception {
+		List<Object> list = (List<Object>) get(property, bean);
+		boolean created = list == null;
+		list = created ? new ArrayList<>() : list;
+		BeanBinder<?> elementBinder = property.hasJavabeanElements() ? getBeanBinder(property.getElement().getType()) : null;
+		try {
+			for (String index : data.uniqueChildren()) {
+				int i = toIndex(index);
+				while (list.size() <= i) {
+					list.add(null);
+				}
+				List<String> values = data.get(index);
+				if (values != null && !values.isEmpty()) {
+					try {
+						list.set(i, property.getElement().convert(values, binding.transformerManager));
+					} catch (RuntimeException e) {
+						// values which cannot be bound are ignored
+					}
+				} else {
+					Object element = list.get(i);
+					if (element == null) {
+						element = elementBinder.newInstance();
+						list.set(i, element);
+					}
+					bindProperties(binding, elementBinder, element, data.pathMapFor(index));
+				}
+			}
+		} catch (UnsupportedOperationException e) {
+			// an existing list which cannot be modified is left as it is
+		}
+		if (created) {
+			set(property, bean, list);
+		}
+	}
+
+	/**
+	 * Binds the named entry and everything nested within it using a {@link BeanUtilBean}
+	 */
+	private void bindReflectively(Binding binding, Object bean, String name, RequestDataMap data) {
+		BeanUtilBean beaner = binding.getBeanUtilBean();
+		List<String> values = data.get(name);
+		if (values != null && !values.isEmpty()) {
+			beaner.setPropertyForcedSilent(bean, name, values.size() > 1 ? values : values.get(0));
+		}
+		for (Map.Entry<String, Object> entry : data.toStringMap(name).entrySet()) {
+			String key = entry.getKey();
+			beaner.setPropertyForcedSilent(bean, key.startsWith("[") ? name + key : name + "." + key, entry.getValue());
+		}
+	}
+
+	private static int toIndex(String segment) {
+		int length = segment.length();
+		if (length < 3 || length > 11 || segment.charAt(0) != '[' || segment.charAt(length - 1) != ']') {
+			return -1;
+		}
+		int index = 0;
+		for (int i = 1; i < length - 1; i++) {
+			char c = segment.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			index = index * 10 + (c - '0');
+		}
+		return index;
+	}
+
+	private static Object get(BeanProperty property, Object bean) throws Exception {
+		try {
+			return property.get(bean);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new BindException(t, "Failed to read %s: %s", property.getName(), t.getMessage());
+		}
+	}
+
+	private static void set(BeanProperty property, Object bean, Object value) {
+		try {
+			property.set(bean, value);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable t) {
+			// values which cannot be bound are ignored
+		}
+	}
+
+	/**
+	 * State for binding a single parameter. The {@link BeanUtilBean} is only created if it is needed.
+	 */
+	private class Binding {
+		private final TransformerManager transformerManager;
+		private BeanUtilBean beanUtilBean;
+
+		private Binding(TransformerManager transformerManager) {
+			this.transformerManager = transformerManager;
+		}
+
+		private BeanUtilBean getBeanUtilBean() {
+			if (beanUtilBean == null) {
+				beanUtilBean = beanLoader(transformerManager);
+			}
+			return beanUtilBean;
+		}
+	}
+
 	static class TransformerManagerBeanUtilBean extends BeanUtilBean {
 		private TransformerManager transformerManager;
 
@@ -31,6 +31,14 @@ import com.threewks.thundr.transformer.TransformerManager;
  * @param <T>
  */
 public interface ParameterBinder<T> {
+	/**
+	 * The result must depend only on the type of the given parameter, and on the transformers available from the given
+	 * {@link TransformerManager}, as {@link ParameterBinderRegistry} remembers it for each parameter type.
+	 * 
+	 * @param parameterDescription
+	 * @param transformerManager
+	 * @return true if this binder can bind parameters of the type of the given parameter
+	 */
 	public boolean willBind(ParameterDescription parameterDescription, TransformerManager transformerManager);
 
 	public T bind(ParameterBinderRegistry binders, ParameterDescription parameterDescription, RequestDataMap pathMap, TransformerManager transformerManager);
@@ -17,8 +17,10 @@
  */
 package com.threewks.thundr.bind.parameter;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -30,6 +32,10 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.atomicleopard.expressive.EList;
 import com.atomicleopard.expressive.EListImpl;
@@ -39,11 +45,27 @@ import com.threewks.thundr.http.MultipartFile;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.transformer.TransformerManager;
 
+/**
+ * Binds request data onto parameters using the registered {@link ParameterBinder}s and {@link BinaryParameterBinder}s, in the order
+ * they were added.
+ * 
+ * The binders which will bind a given parameter type are determined the first time a parameter of that type is bound and then
+ * remembered, until a binder is added or removed, or for {@link ParameterBinder}s, until the transformers available change. This
+ * assumes {@link ParameterBinder#willBind(ParameterDescription, TransformerManager)} and
+ * {@link BinaryParameterBinder#willBind(ParameterDescription)} depend only on the parameter's type.
+ * 
+ * Each change to the binders increments a version, and remembered binders determined with an earlier version are determined
+ * again, so binders determined while a binder is being added or removed are not remembered past the change.
+ */
 public class ParameterBinderRegistry {
 	private static final String[] emptyStringArray = new String[0];
 
-	private List<ParameterBinder<?>> binders = new ArrayList<ParameterBinder<?>>();
-	private List<BinaryParameterBinder<?>> binaryBinders = new ArrayList<BinaryParameterBinder<?>>();
+	private List<ParameterBinder<?>> binders = new CopyOnWriteArrayList<ParameterBinder<?>>();
+	private List<BinaryParameterBinder<?>> binaryBinders = new CopyOnWriteArrayList<BinaryParameterBinder<?>>();
+	private ConcurrentMap<Type, RememberedBinders<ParameterBinder<?>>> bindersForType = new ConcurrentHashMap<>();
+	private ConcurrentMap<Type, RememberedBinders<BinaryParameterBinder<?>>> binaryBindersForType = new ConcurrentHashMap<>();
+	private final AtomicInteger bindersVersion = new AtomicInteger();
+	private final AtomicInteger binaryBindersVersion = new AtomicInteger();
 
 	private TransformerManager transformerManager;
 
@@ -58,6 +80,7 @@ public class ParameterBinderRegistry {
 	 */
 	public <T> ParameterBinderRegistry addBinder(ParameterBinder<T> binder) {
 		binders.add(binder);
+		bindersChanged();
 		return this;
 	}
 
@@ -68,6 +91,7 @@ public class ParameterBinderRegistry {
 	 */
 	public <T> ParameterBinderRegistry addBinder(BinaryParameterBinder<T> binder) {
 		binaryBinders.add(binder);
+		binaryBindersChanged();
 		return this;
 	}
 
@@ -80,6 +104,7 @@ public class ParameterBinderRegistry {
 	 */
 	public <T> ParameterBinderRegistry removeBinder(ParameterBinder<T> binder) {
 		this.binders.remove(binder);
+		bindersChanged();
 		return this;
 	}
 
@@ -92,35 +117,79 @@ public class ParameterBinderRegistry {
 	 */
 	public <T> ParameterBinderRegistry removeBinder(BinaryParameterBinder<T> binder) {
 		this.binaryBinders.remove(binder);
+		binaryBindersChanged();
 		return this;
 	}
 
 	public Object createFor(ParameterDescription parameterDescription, RequestDataMap pathMap) {
-		for (ParameterBinder<?> binder : binders) {
-			if (binder.willBind(parameterDescription, transformerManager)) {
-				// return the first non-null object
-				Object result = binder.bind(this, parameterDescription, pathMap, transformerManager);
-				if (result != null) {
-					return result;
-				}
+		for (ParameterBinder<?> binder : getBindersFor(parameterDescription)) {
+			// return the first non-null object
+			Object result = binder.bind(this, parameterDescription, pathMap, transformerManager);
+			if (result != null) {
+				return result;
 			}
 		}
 		return null;
 	}
 
 	public Object createFor(ParameterDescription parameterDescription, MultipartFile file) {
-		for (BinaryParameterBinder<?> binder : binaryBinders) {
-			if (binder.willBind(parameterDescription)) {
-				// return the first non-null object
-				Object result = binder.bind(parameterDescription, file);
-				if (result != null) {
-					return result;
-				}
+		for (BinaryParameterBinder<?> binder : getBinaryBindersFor(parameterDescription)) {
+			// return the first non-null object
+			Object result = binder.bind(parameterDescription, file);
+			if (result != null) {
+				return result;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * @param parameterDescription
+	 * @return the binders which will bind the given parameter, in the order they should be tried
+	 */
+	public List<ParameterBinder<?>> getBindersFor(ParameterDescription parameterDescription) {
+		Type type = parameterDescription.type();
+		int version = bindersVersion.get();
+		int transformersVersion = transformerManager.getVersion();
+		RememberedBinders<ParameterBinder<?>> remembered = type == null ? null : bindersForType.get(type);
+		if (remembered == null || !remembered.isCurrent(version, transformersVersion)) {
+			List<ParameterBinder<?>> result = new ArrayList<ParameterBinder<?>>();
+			for (ParameterBinder<?> binder : binders) {
+				if (binder.willBind(parameterDescription, transformerManager)) {
+					result.add(binder);
+				}
+			}
+			remembered = new RememberedBinders<ParameterBinder<?>>(version, transformersVersion, result);
+			if (type != null) {
+				bindersForType.put(type, remembered);
+			}
+		}
+		return remembered.binders;
+	}
+
+	/**
+	 * @param parameterDescription
+	 * @return the binary binders which will bind the given parameter, in the order they should be tried
+	 */
+	public List<BinaryParameterBinder<?>> getBinaryBindersFor(ParameterDescription parameterDescription) {
+		Type type = parameterDescription.type();
+		int version = binaryBindersVersion.get();
+		RememberedBinders<BinaryParameterBinder<?>> remembered = type == null ? null : binaryBindersForType.get(type);
+		if (remembered == null || !remembered.isCurrent(version, 0)) {
+			List<BinaryParameterBinder<?>> result = new ArrayList<BinaryParameterBinder<?>>();
+			for (BinaryParameterBinder<?> binder : binaryBinders) {
+				if (binder.willBind(parameterDescription)) {
+					result.add(binder);
+				}
+			}
+			remembered = new RememberedBinders<BinaryParameterBinder<?>>(version, 0, result);
+			if (type != null) {
+				binaryBindersForType.put(type, remembered);
+			}
+		}
+		return remembered.binders;
+	}
+
 	public void bind(Map<ParameterDescription, Object> bindings, Map<String, List<String>> parameterMap, Map<String, MultipartFile> fileMap) {
 		RequestDataMap pathMap = new RequestDataMap(parameterMap);
 		for (ParameterDescription parameterDescription : bindings.keySet()) {
@@ -170,6 +239,16 @@ public class ParameterBinderRegistry {
 		registry.addBinder(new InputStreamBinaryParameterBinder());
 	}
 
+	private void bindersChanged() {
+		bindersVersion.incrementAndGet();
+		bindersForType.clear();
+	}
+
+	private void binaryBindersChanged() {
+		binaryBindersVersion.incrementAndGet();
+		binaryBindersForType.clear();
+	}
+
 	public static Map<String, String[]> convertListMapToArrayMap(Map<String, List<String>> formFields) {
 		Map<String, String[]> parameterMap = new HashMap<String, String[]>();
 		for (Map.Entry<String, List<String>> formFieldEntry : formFields.entrySet()) {
@@ -177,4 +256,23 @@ public class ParameterBinderRegistry {
 		}
 		return parameterMap;
 	}
+
+	/**
+	 * The binders for a parameter type, along with the versions of the binders and transformers they were determined with.
+	 */
+	private static final class RememberedBinders<B> {
+		private final int bindersVersion;
+		private final int transformersVersion;
+		private final List<B> binders;
+
+		private RememberedBinders(int bindersVersion, int transformersVersion, List<B> binders) {
+			this.bindersVersion = bindersVersion;
+			this.transformersVersion = transformersVersion;
+			this.binders = Collections.unmodifiableList(binders);
+		}
+
+		private boolean isCurrent(int bindersVersion, int transformersVersion) {
+			return this.bindersVersion == bindersVersion && this.transformersVersion == transformersVersion;
+		}
+	}
 }
@@ -17,85 +17,80 @@
  */
 package com.threewks.thundr.bind.parameter;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 /**
  * Represents post parameters or query parameters in a structured hierarchical way so that
  * they can be meaningfully parsed to java objects.
  * 
- * Given a request map, alters the key to represent the path as components.
+ * Given a request map, splits each key into its path components.
  * For example object[0].name should be a key of object, [0], name
  * 
- * This allows us to pop keys as we walk a path.
- * For the above example, when dealing with object, the path should then be [0], name
+ * The components are held as a tree, which allows us to descend the tree as we walk a path.
+ * For the above example, when dealing with object, the path should then be [0], name.
+ * Keys are parsed once on construction, {@link #pathMapFor(String)} is a view of part of the tree and does
+ * not copy any entries.
  */
 public class RequestDataMap {
+	private static final RequestDataMap Empty = new RequestDataMap(new Node());
 
-	private Map<List<String>, List<String>> delegate = new LinkedHashMap<>();
-
-	private RequestDataMap() {
+	private final Node root;
 
+	private RequestDataMap(Node root) {
+		this.root = root;
 	}
 
 	public RequestDataMap(Map<String, List<String>> input) {
-		this();
+		this(new Node());
 		if (input != null) {
+			List<String> path = new ArrayList<String>();
+			StringBuilder segment = new StringBuilder();
 			for (Map.Entry<String, List<String>> entry : input.entrySet()) {
-				String key = entry.getKey();
-				String removeDashes = key.replaceAll("-", "");
-				String expandedKey = removeDashes.replaceAll("\\.", "\r");
-				expandedKey = expandedKey.replaceAll("\\[([^\\]])", "\r[$1");
-				List<String> path = Collections.unmodifiableList(Arrays.asList(expandedKey.split("\r")));
-				delegate.put(path, entry.getValue());
+				parsePath(entry.getKey(), path, segment);
+				if (!path.isEmpty()) {
+					root.put(path, entry.getValue());
+				}
 			}
 		}
 	}
 
 	public RequestDataMap pathMapFor(String key) {
-		RequestDataMap pathMap = new RequestDataMap();
-		for (Map.Entry<List<String>, List<String>> entry : delegate.entrySet()) {
-			List<String> path = entry.getKey();
-			if (path.size() > 1 && path.get(0).equals(key)) {
-				List<String> newPath = path.subList(1, path.size());
-				pathMap.delegate.put(newPath, entry.getValue());
-			}
-		}
-		return pathMap;
+		Node node = root.child(key);
+		return node == null ? Empty : new RequestDataMap(node);
 	}
 
 	public Set<String> uniqueChildren() {
-		Set<String> results = new HashSet<String>();
-		for (Map.Entry<List<String>, List<String>> entry : delegate.entrySet()) {
-			List<String> path = entry.getKey();
-			String child = path.get(0);
-			results.add(child);
-		}
-		return results;
+		return root.children == null ? Collections.<String> emptySet() : Collections.unmodifiableSet(root.children.keySet());
 	}
 
 	public List<String> get(List<String> arg0) {
-		return delegate.get(arg0);
+		Node node = root;
+		for (int i = 0; node != null && i < arg0.size(); i++) {
+			node = node.child(arg0.get(i));
+		}
+		return node == null || node == root ? null : node.values;
 	}
 
 	public List<String> get(String arg0) {
-		return delegate.get(Collections.singletonList(arg0));
+		Node node = root.child(arg0);
+		return node == null ? null : node.values;
 	}
 
 	public int size() {
-		return delegate.size();
+		return root.size();
 	}
 
 	@Override
 	public String toString() {
-		return delegate.toString();
+		Map<List<String>, List<String>> entries = new LinkedHashMap<>();
+		root.collect(new ArrayList<String>(), entries);
+		return entries.toString();
 	}
 
 	/**
@@ -115,26 +110,9 @@ public class RequestDataMap {
 	 */
 	public Map<String, Object> toStringMap(String pathElement) {
 		Map<String, Object> stringMap = new HashMap<String, Object>();
-		for (Entry<List<String>, List<String>> entry : delegate.entrySet()) {
-			List<String> key = entry.getKey();
-
-			if (pathElement.equals(key.get(0))) {
-				StringBuilder joinedKey = new StringBuilder();
-				boolean first = true;
-				for (int i = 1; i < key.size(); i++) {
-					String string = key.get(i);
-					if (!first && !string.startsWith("[")) {
-						joinedKey.append(".");
-					}
-					joinedKey.append(string);
-					first = false;
-				}
-				String stringKey = joinedKey.toString();
-				if (stringKey.length() > 0) {
-					List<String> value = entry.getValue();
-					stringMap.put(stringKey, value == null || value.size() > 1 ? value : value.get(0));
-				}
-			}
+		Node node = root.child(pathElement);
+		if (node != null) {
+			node.join(new StringBuilder(), 0, stringMap, true);
 		}
 		return stringMap;
 	}
@@ -152,26 +130,136 @@ public class RequestDataMap {
 	 * a -&gt; value A
 	 * b -&gt; value B
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public Map<String, List<String>> toStringMap() {
-		Map<String, List<String>> stringMap = new HashMap<String, List<String>>();
-		for (Entry<List<String>, List<String>> entry : delegate.entrySet()) {
-			List<String> key = entry.getKey();
-
-			StringBuilder joinedKey = new StringBuilder();
-			boolean first = true;
-			for (int i = 0; i < key.size(); i++) {
-				String string = key.get(i);
-				if (!first && !string.startsWith("[")) {
-					joinedKey.append(".");
+		Map stringMap = new HashMap<String, List<String>>();
+		root.join(new StringBuilder(), 0, stringMap, false);
+		return stringMap;
+	}
+
+	/**
+	 * Splits the given key into the given path, reusing the given segment buffer.
+	 * Dashes are removed, and the key is split on each '.' and before each '[' which opens a non-empty index (i.e. not before '[]').
+	 * Empty trailing components are dropped.
+	 */
+	static void parsePath(String key, List<String> path, StringBuilder segment) {
+		path.clear();
+		segment.setLength(0);
+		int length = key.length();
+		boolean split = false;
+		boolean afterIndex = false;
+		for (int i = 0; i < length; i++) {
+			char c = key.charAt(i);
+			if (c == '-') {
+				continue;
+			}
+			if (c == '.') {
+				path.add(segment.toString());
+				segment.setLength(0);
+				split = true;
+				afterIndex = false;
+			} else if (c == '[' && !afterIndex && opensIndex(key, i + 1)) {
+				path.add(segment.toString());
+				segment.setLength(0);
+				segment.append(c);
+				split = true;
+				afterIndex = true;
+			} else {
+				segment.append(c);
+				afterIndex = false;
+			}
+		}
+		path.add(segment.toString());
+		if (split) {
+			while (!path.isEmpty() && path.get(path.size() - 1).isEmpty()) {
+				path.remove(path.size() - 1);
+			}
+		}
+	}
+
+	private static boolean opensIndex(String key, int from) {
+		for (int i = from; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (c != '-') {
+				return c != ']';
+			}
+		}
+		return false;
+	}
+
+	private static final class Node {
+		private Map<String, Node> children;
+		private List<String> values;
+		private boolean present;
+
+		private Node child(String segment) {
+			return children == null ? null : children.get(segment);
+		}
+
+		private void put(List<String> path, List<String> values) {
+			Node node = this;
+			for (String segment : path) {
+				if (node.children == null) {
+					node.children = new LinkedHashMap<>();
 				}
-				joinedKey.append(string);
-				first = false;
+				Node child = node.children.get(segment);
+				if (child == null) {
+					child = new Node();
+					node.children.put(segment, child);
+				}
+				node = child;
 			}
-			String stringKey = joinedKey.toString();
-			if (stringKey.length() > 0) {
-				stringMap.put(stringKey, entry.getValue());
+			node.values = values;
+			node.present = true;
+		}
+
+		private int size() {
+			int size = 0;
+			if (children != null) {
+				for (Node child : children.values()) {
+					size += (child.present ? 1 : 0) + child.size();
+				}
+			}
+			return size;
+		}
+
+		/**
+		 * Adds an entry to the given map for each descendant with values, keyed by the path from this node joined as a property path
+		 */
+		private void join(StringBuilder key, int depth, Map<String, Object> stringMap, boolean collapseSingleValues) {
+			if (children == null) {
+				return;
+			}
+			int length = key.length();
+			for (Map.Entry<String, Node> entry : children.entrySet()) {
+				String segment = entry.getKey();
+				Node child = entry.getValue();
+				if (depth > 0 && !segment.startsWith("[")) {
+					key.append('.');
+				}
+				key.append(segment);
+				if (child.present && key.length() > 0) {
+					List<String> value = child.values;
+					stringMap.put(key.toString(), !collapseSingleValues || value == null || value.size() > 1 ? value : value.get(0));
+				}
+				child.join(key, depth + 1, stringMap, collapseSingleValues);
+				key.setLength(length);
+			}
+		}
+
+		private void collect(List<String> path, Map<List<String>, List<String>> entries) {
+			if (children == null) {
+				return;
+			}
+			for (Map.Entry<String, Node> entry : children.entrySet()) {
+				path.add(entry.getKey());
+				Node child = entry.getValue();
+				if (child.present) {
+					entries.put(new ArrayList<String>(path), child.values);
+				}
+				child.collect(path, entries);
+				path.remove(path.size() - 1);
 			}
 		}
-		return stringMap;
 	}
 }
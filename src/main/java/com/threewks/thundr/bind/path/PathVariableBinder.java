@@ -17,22 +17,36 @@
  */
 package com.threewks.thundr.bind.path;
 
-import static com.atomicleopard.expressive.Expressive.isNotEmpty;
-
 import java.lang.reflect.Type;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import com.atomicleopard.expressive.Cast;
+import com.atomicleopard.expressive.ETransformer;
 import com.atomicleopard.expressive.Expressive;
 import com.threewks.thundr.bind.Binder;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
-import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteMatch;
 import com.threewks.thundr.transformer.TransformerManager;
 
+/**
+ * Binds path variables onto parameters of any type which can be transformed from a {@link String}, or any enum.
+ * 
+ * The transformer for each parameter type is determined the first time it is bound and then remembered, until the transformers
+ * registered with the {@link TransformerManager} change.
+ */
 public class PathVariableBinder implements Binder {
+	private static final ETransformer<String, Object> None = new ETransformer<String, Object>() {
+		@Override
+		public Object from(String from) {
+			return null;
+		}
+	};
+
 	private TransformerManager transformerManager;
+	private ConcurrentMap<Type, RememberedTransformer> transformers = new ConcurrentHashMap<>();
 
 	public PathVariableBinder(TransformerManager transformerManager) {
 		super();
@@ -41,44 +55,53 @@ public class PathVariableBinder implements Binder {
 
 	@Override
 	public void bindAll(Map<ParameterDescription, Object> bindings, Request req, Response resp) {
-		Route route = req.getRoute();
-		Map<String, String> pathVars = route == null ? null : route.getPathVars(req.getRequestPath());
-		if (isNotEmpty(pathVars)) {
-			for (ParameterDescription parameterDescription : bindings.keySet()) {
-				if (bindings.get(parameterDescription) == null) {
-					if (canBindFromPathVariable(parameterDescription)) {
-						Object value = bind(parameterDescription, pathVars);
-						bindings.put(parameterDescription, value);
+		RouteMatch routeMatch = req.getRouteMatch();
+		if (routeMatch != null && routeMatch.hasPathVars()) {
+			for (Map.Entry<ParameterDescription, Object> binding : bindings.entrySet()) {
+				if (binding.getValue() == null) {
+					ParameterDescription parameterDescription = binding.getKey();
+					ETransformer<String, ?> transformer = getTransformer(parameterDescription);
+					if (transformer != None) {
+						String value = routeMatch.getPathVar(parameterDescription.name());
+						binding.setValue(value == null ? null : transformer.from(value));
 					}
 				}
 			}
 		}
 	}
 
-	private boolean canBindFromPathVariable(ParameterDescription parameterDescription) {
-		if (isEnum(parameterDescription)) {
-			return true;
-		}
+	/**
+	 * @return the transformer for the type of the given parameter, or {@link #None} if it cannot be bound from a path variable
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private ETransformer<String, ?> getTransformer(ParameterDescription parameterDescription) {
 		Type type = parameterDescription.type();
-		Class<?> classType = Cast.as(type, Class.class);
-		return classType != null && transformerManager.getTransformer(String.class, classType) != null;
+		int transformersVersion = transformerManager.getVersion();
+		RememberedTransformer remembered = transformers.get(type);
+		if (remembered == null || remembered.transformersVersion != transformersVersion) {
+			ETransformer<String, ?> transformer = null;
+			Class<?> classType = parameterDescription.classType();
+			if (classType != null && classType.isEnum()) {
+				transformer = Expressive.Transformers.toEnum((Class<Enum>) classType);
+			} else if (type instanceof Class) {
+				transformer = transformerManager.getTransformer(String.class, classType);
+			}
+			remembered = new RememberedTransformer(transformersVersion, transformer == null ? None : transformer);
+			transformers.put(type, remembered);
+		}
+		return remembered.transformer;
 	}
 
-	private boolean isEnum(ParameterDescription parameterDescription) {
-		Class<?> classType = parameterDescription.classType();
-		return classType != null && classType.isEnum();
-	}
+	/**
+	 * The transformer for a parameter type, along with the version of the transformers it was determined with.
+	 */
+	private static final class RememberedTransformer {
+		private final int transformersVersion;
+		private final ETransformer<String, ?> transformer;
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private Object bind(ParameterDescription parameterDescription, Map<String, String> pathVariables) {
-		String value = pathVariables.get(parameterDescription.name());
-		if (value == null) {
-			return null;
-		}
-		Class<?> type = parameterDescription.classType();
-		if (type.isEnum()) {
-			return Expressive.Transformers.toEnum((Class<Enum>) type).from(value);
+		private RememberedTransformer(int transformersVersion, ETransformer<String, ?> transformer) {
+			this.transformersVersion = transformersVersion;
+			this.transformer = transformer;
 		}
-		return transformerManager.transform(String.class, type, value);
 	}
 }
@@ -0,0 +1,75 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.http;
+
+/**
+ * Reads the content codings a client will accept from the Accept-Encoding header, as described in RFC 7231.
+ */
+public class AcceptEncoding {
+	public static final String Gzip = "gzip";
+	public static final String Deflate = "deflate";
+	public static final String Brotli = "br";
+	public static final String Identity = "identity";
+
+	/**
+	 * @param header the value of the Accept-Encoding header, which may be null
+	 * @param coding
+	 * @return true if the given content coding is named, or covered by '*', with a quality greater than zero
+	 */
+	public static boolean accepts(String header, String coding) {
+		return quality(header, coding) > 0;
+	}
+
+	/**
+	 * @param header the value of the Accept-Encoding header, which may be null
+	 * @param coding
+	 * @return the quality the client gives the content coding, between 0 and 1, with 0 meaning it is not acceptable
+	 */
+	public static float quality(String header, String coding) {
+		if (header == null) {
+			return 0;
+		}
+		float wildcard = 0;
+		for (String element : header.split(",")) {
+			int semicolon = element.indexOf(';');
+			String name = (semicolon < 0 ? element : element.substring(0, semicolon)).trim();
+			float quality = semicolon < 0 ? 1 : parseQuality(element.substring(semicolon + 1));
+			if (name.equalsIgnoreCase(coding)) {
+				return quality;
+			}
+			if ("*".equals(name)) {
+				wildcard = quality;
+			}
+		}
+		return wildcard;
+	}
+
+	private static float parseQuality(String parameters) {
+		for (String parameter : parameters.split(";")) {
+			String trimmed = parameter.trim();
+			if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+				try {
+					return Math.max(0, Math.min(1, Float.parseFloat(trimmed.substring(2).trim())));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+}
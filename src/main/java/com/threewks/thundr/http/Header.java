@@ -28,19 +28,25 @@ public class Header {
 	public static final String AccessControlRequestMethod = "Access-Control-Request-Method";
 	public static final String AccessControlRequestHeaders = "Access-Control-Request-Headers";
 	public static final String AcceptEncoding = "Accept-Encoding";
+	public static final String AcceptRanges = "Accept-Ranges";
 	public static final String Authorization = "Authorization";
 	public static final String CacheControl = "Cache-Control";
 	public static final String ContentDisposition = "Content-Disposition";
 	public static final String ContentEncoding = "Content-Encoding";
 	public static final String ContentLength = "Content-Length";
+	public static final String ContentRange = "Content-Range";
 	public static final String ContentTransferEncoding = "Content-Transfer-Encoding";
 	public static final String ContentType = "Content-Type";
+	public static final String ETag = "ETag";
 	public static final String Expires = "Expires";
 	public static final String IfModifiedSince = "If-Modified-Since";
+	public static final String IfNoneMatch = "If-None-Match";
+	public static final String IfRange = "If-Range";
 	public static final String LastModified = "Last-Modified";
 	public static final String Location = "Location";
 	public static final String Origin = "Origin";
 	public static final String Pragma = "Pragma";
+	public static final String Range = "Range";
 	public static final String SetCookie = "Set-Cookie";
 	public static final String SetCookie2 = "Set-Cookie2";
 	public static final String UserAgent = "User-Agent";
@@ -0,0 +1,96 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.http;
+
+import java.util.Locale;
+
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import com.threewks.thundr.request.Request;
+
+/**
+ * Support for the validators used by conditional requests, the ETag and Last-Modified headers, as described in RFC 7232.
+ */
+public class Validators {
+	private static final DateTimeFormatter HttpDateFormat = DateTimeFormat.forPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'").withZoneUTC().withLocale(Locale.US);
+
+	/**
+	 * @param millis
+	 * @return the given time formatted as an HTTP date, for example 'Thu, 01 Jan 1970 00:00:00 GMT'
+	 */
+	public static String formatDate(long millis) {
+		return HttpDateFormat.print(millis);
+	}
+
+	/**
+	 * @param value
+	 * @return the time in milliseconds of the given HTTP date, or null if it is absent or not a valid date
+	 */
+	public static Long parseDate(String value) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			return HttpDateFormat.parseMillis(value.trim());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param header a list of entity tags, as sent in an If-None-Match header
+	 * @param etag
+	 * @return true if the header is '*' or contains the given entity tag, using weak comparison
+	 */
+	public static boolean matchesETag(String header, String etag) {
+		String trimmed = header.trim();
+		if ("*".equals(trimmed)) {
+			return true;
+		}
+		String opaqueTag = stripWeakIndicator(etag);
+		for (String candidate : trimmed.split(",")) {
+			if (opaqueTag.equals(stripWeakIndicator(candidate.trim()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines whether the client already has the current version of a resource, in which case a 304 Not Modified can be returned.
+	 * If-None-Match takes precedence over If-Modified-Since when both are present.
+	 * 
+	 * @param req
+	 * @param etag the current entity tag of the resource, or null if there is none
+	 * @param lastModified the last modified time of the resource in milliseconds, or null if it is not known
+	 * @return
+	 */
+	public static boolean isNotModified(Request req, String etag, Long lastModified) {
+		String ifNoneMatch = req.getHeader(Header.IfNoneMatch);
+		if (ifNoneMatch != null) {
+			return etag != null && matchesETag(ifNoneMatch, etag);
+		}
+		Long ifModifiedSince = parseDate(req.getHeader(Header.IfModifiedSince));
+		return ifModifiedSince != null && lastModified != null && lastModified / 1000 <= ifModifiedSince / 1000;
+	}
+
+	private static String stripWeakIndicator(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+}
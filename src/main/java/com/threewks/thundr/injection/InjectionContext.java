@@ -54,4 +54,14 @@ public interface InjectionContext {
 	 * @return
 	 */
 	public <T> boolean contains(Class<T> type, String name);
+
+	/**
+	 * Returns true if an object instance or class type was registered into this {@link InjectionContext} for the given type using the
+	 * given name. Unlike {@link #contains(Class, String)}, those registered without a name are not considered.
+	 * 
+	 * @param type
+	 * @param name
+	 * @return
+	 */
+	public <T> boolean containsNamed(Class<T> type, String name);
 }
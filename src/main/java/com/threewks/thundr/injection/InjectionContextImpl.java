@@ -18,12 +18,9 @@
 package com.threewks.thundr.injection;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +28,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -41,20 +42,37 @@ import com.atomicleopard.expressive.collection.Triplets;
 import com.threewks.thundr.aop.AdviceRegistry;
 import com.threewks.thundr.aop.AdviceRegistryImpl;
 import com.threewks.thundr.configuration.Environment;
+import com.threewks.thundr.injection.InjectionRecipe.ConstructorRecipe;
+import com.threewks.thundr.injection.InjectionRecipe.PropertyRecipe;
 import com.threewks.thundr.introspection.ClassIntrospector;
-import com.threewks.thundr.introspection.MethodIntrospector;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.introspection.TypeIntrospector;
+import com.threewks.thundr.profiler.StartupProfiler;
+import com.threewks.thundr.profiler.StartupProfiler.Span;
 
 public class InjectionContextImpl implements UpdatableInjectionContext {
 	private static final String ENVIRONMENT_SEPARATOR = "%";
 	private static final Set<Class<?>> TypesRequiringAName = createListOfTypesRequiringAName();
 
-	private Triplets<Class<?>, String, Class<?>> types = map();
-	private Triplets<Class<?>, String, Object> instances = map();
+	// modules may inject concurrently when started in parallel, so these maps are synchronized
+	private Map<Pair<Class<?>, String>, Object> instanceMap = synchronizedMap();
+	private Triplets<Class<?>, String, Class<?>> types = new Triplets<Class<?>, String, Class<?>>(this.<Class<?>, String, Class<?>> synchronizedMap());
+	private Triplets<Class<?>, String, Object> instances = new Triplets<Class<?>, String, Object>(instanceMap);
+	// a lock rather than a monitor, as proxying a new instance can be slow and would otherwise pin a virtual thread to its carrier
+	private final Lock instanceLock = new ReentrantLock();
 
 	private ClassIntrospector classIntrospector = new ClassIntrospector();
+	private ConcurrentMap<Class<?>, InjectionRecipe<?>> recipes = new ConcurrentHashMap<>();
 	protected AdviceRegistry adviceRegistry;
+	private volatile StartupProfiler startupProfiler;
+
+	/*
+	 * Once frozen, the injected instances are published as an immutable snapshot, so lookups are a single unsynchronized map read.
+	 * Until then, and for anything the snapshot does not hold, lookups use the maps above. Any change once frozen rebuilds the snapshot.
+	 */
+	private final Object lookupLock = new Object();
+	private volatile boolean frozen = false;
+	private volatile LookupSnapshot lookups;
 
 	public InjectionContextImpl() {
 		this(new AdviceRegistryImpl());
@@ -67,6 +85,15 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 		}
 	}
 
+	/**
+	 * Sets the {@link StartupProfiler} which records the time taken to instantiate each injected type.
+	 * 
+	 * @param startupProfiler
+	 */
+	public void setStartupProfiler(StartupProfiler startupProfiler) {
+		this.startupProfiler = startupProfiler;
+	}
+
 	@Override
 	public <T> InjectorBuilder<T> inject(Class<T> type) {
 
@@ -83,31 +110,53 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <T> T get(Class<T> type) {
-		T instance = getExistingInstance(type, null);
-		if (instance == null) {
-			instance = createAndAddInstance(type, null);
-		}
+		LookupSnapshot snapshot = lookups;
+		T instance = snapshot == null ? null : (T) snapshot.get(type, null, Environment.get());
 		if (instance == null) {
-			instance = getOnlyExistingNamedInstanceForNonBasicType(type);
+			instance = getExistingInstance(type, null);
+			if (instance == null) {
+				instance = createAndAddInstance(type, null);
+			}
+			if (instance == null) {
+				instance = getOnlyExistingNamedInstanceForNonBasicType(type);
+			}
 		}
 		return instance;
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <T> T get(Class<T> type, String name) {
-		T instance = getExistingInstance(type, name);
-		if (instance == null) {
-			instance = createAndAddInstance(type, name);
-		}
+		LookupSnapshot snapshot = lookups;
+		T instance = snapshot == null ? null : (T) snapshot.get(type, name, Environment.get());
 		if (instance == null) {
-			instance = get(type);
+			instance = getExistingInstance(type, name);
+			if (instance == null) {
+				instance = createAndAddInstance(type, name);
+			}
+			if (instance == null) {
+				instance = get(type);
+			}
 		}
 		return instance;
 	}
 
+	/**
+	 * Publishes the injected instances as a snapshot which later lookups read without locking. Thundr freezes its context once
+	 * started. Types and instances can still be injected afterwards, each change rebuilds the snapshot.
+	 */
+	public void freeze() {
+		synchronized (lookupLock) {
+			frozen = true;
+			lookups = buildLookups();
+		}
+	}
+
 	protected <T> void addType(Class<T> type, String name, Class<? extends T> as) {
 		types.put(type, name, as);
+		lookupsChanged();
 	}
 
 	protected <T> void addInstance(Class<T> type, String name, T as) {
@@ -119,11 +168,14 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 		T instance = null;
 		T newInstance = instantiate((Class<T>) types.get(type, name));
 		if (newInstance != null) {
-			synchronized (instances) {
+			instanceLock.lock();
+			try {
 				if (!instances.containsKey(type, name)) {
 					putInstanceInternal(type, name, newInstance);
 				}
 				instance = (T) instances.get(type, name);
+			} finally {
+				instanceLock.unlock();
 			}
 		}
 		return instance;
@@ -133,35 +185,46 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 		if (type == null) {
 			return null;
 		}
-		List<Constructor<T>> ctors = classIntrospector.listConstructors(type);
-		List<ParameterDescription> minimalParameters = Collections.emptyList();
-		for (int i = ctors.size() - 1; i >= 0; i--) {
-			Constructor<T> constructor = ctors.get(i);
-			MethodIntrospector methodIntrospector = new MethodIntrospector(constructor);
-			List<ParameterDescription> parameterDescriptions = methodIntrospector.getParameterDescriptions();
-			minimalParameters = parameterDescriptions;
-			if (canSatisfy(parameterDescriptions)) {
-				Object[] args = getAll(parameterDescriptions);
-				T instance = invokeConstructor(constructor, args);
-				instance = invokeSetters(type, instance);
-				return setFields(type, instance);
+		Span span = StartupProfiler.begin(startupProfiler, StartupProfiler.Injection, type.getName());
+		try {
+			InjectionRecipe<T> recipe = getRecipe(type);
+			for (ConstructorRecipe<T> constructor : recipe.getConstructors()) {
+				Object[] args = getAll(constructor.getParameters());
+				if (args != null) {
+					T instance = invokeConstructor(constructor.getConstructor(), args);
+					instance = invokeSetters(recipe, instance);
+					return setFields(recipe, instance);
+				}
 			}
+
+			throw new InjectionException("Could not create a %s - cannot match parameters of any available constructors. The minimal set of parameters required is %s", type.getName(),
+					recipe.getMinimalParameters());
+		} finally {
+			span.end();
 		}
+	}
 
-		throw new InjectionException("Could not create a %s - cannot match parameters of any available constructors. The minimal set of parameters required is %s", type.getName(), minimalParameters);
+	@SuppressWarnings("unchecked")
+	<T> InjectionRecipe<T> getRecipe(Class<T> type) {
+		InjectionRecipe<T> recipe = (InjectionRecipe<T>) recipes.get(type);
+		if (recipe == null) {
+			recipe = new InjectionRecipe<T>(type, classIntrospector);
+			InjectionRecipe<T> existing = (InjectionRecipe<T>) recipes.putIfAbsent(type, recipe);
+			recipe = existing == null ? recipe : existing;
+		}
+		return recipe;
 	}
 
-	private <T> T invokeSetters(Class<T> type, T instance) {
-		List<Method> setters = classIntrospector.listSetters(type);
-		for (Method method : setters) {
-			String name = getPropertyNameFromSetMethod(method);
+	private <T> T invokeSetters(InjectionRecipe<T> recipe, T instance) {
+		for (PropertyRecipe setter : recipe.getSetters()) {
 			try {
-				Class<?> argumentType = method.getParameterTypes()[0];
-				if (contains(argumentType, name)) {
-					method.invoke(instance, get(argumentType, name));
+				if (contains(setter.getType(), setter.getName())) {
+					setter.set(instance, get(setter.getType(), setter.getName()));
 				}
-			} catch (Exception e) {
-				throw new InjectionException(e, "Failed to inject into %s.%s: %s", type.getName(), method.getName(), getRootMessage(e));
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new InjectionException(e, "Failed to inject into %s.%s: %s", recipe.getType().getName(), setter.getMember(), getRootMessage(e));
 			}
 		}
 		return instance;
@@ -169,30 +232,36 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 
 	// TODO - Stack Overflow - A thread local storing types being created could bail
 	// out early in the case of stack overflow
-	private <T> T setFields(Class<T> type, T instance) {
-		List<Field> fields = classIntrospector.listInjectionFields(type);
-		for (Field field : fields) {
+	private <T> T setFields(InjectionRecipe<T> recipe, T instance) {
+		for (PropertyRecipe field : recipe.getFields()) {
 			try {
 				Object beanProperty = get(field.getType(), field.getName());
-				boolean accessible = field.isAccessible();
-				field.setAccessible(true);
 				field.set(instance, beanProperty);
-				field.setAccessible(accessible);
-			} catch (Exception e) {
-				throw new InjectionException(e, "Failed to inject into %s.%s: %s", type.getName(), field.getName(), getRootMessage(e));
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new InjectionException(e, "Failed to inject into %s.%s: %s", recipe.getType().getName(), field.getMember(), getRootMessage(e));
 			}
 		}
 
 		return instance;
 	}
 
+	/**
+	 * Resolves all the given parameters, returning null if any of them cannot be satisfied.
+	 * Resolved instances are retained by this context, so resolving them again when constructing would yield the same instances.
+	 */
 	private Object[] getAll(List<ParameterDescription> parameterDescriptions) {
-		List<Object> args = new ArrayList<Object>(parameterDescriptions.size());
-		for (ParameterDescription parameterDescription : parameterDescriptions) {
+		Object[] args = new Object[parameterDescriptions.size()];
+		for (int i = 0; i < args.length; i++) {
+			ParameterDescription parameterDescription = parameterDescriptions.get(i);
 			Object arg = get(parameterDescription.classType(), parameterDescription.name());
-			args.add(arg);
+			if (arg == null) {
+				return null;
+			}
+			args[i] = arg;
 		}
-		return args.toArray();
+		return args;
 	}
 
 	@Override
@@ -202,14 +271,7 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 
 	@Override
 	public <T> boolean contains(Class<T> type, String name) {
-		boolean contains = false;
-		if (name != null) {
-			String envName = environmentSpecificName(name);
-			// named or environment named instance
-			contains = contains || instances.containsKey(type, envName) || instances.containsKey(type, name);
-			// named or environment named type
-			contains = contains || types.containsKey(type, envName) || types.containsKey(type, name);
-		}
+		boolean contains = containsNamed(type, name);
 		// unnamed instance
 		contains = contains || instances.containsKey(type, null);
 		// unnamed type
@@ -217,6 +279,18 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 		return contains;
 	}
 
+	@Override
+	public <T> boolean containsNamed(Class<T> type, String name) {
+		if (name == null) {
+			return false;
+		}
+		String envName = environmentSpecificName(name);
+		// named or environment named instance
+		boolean contains = instances.containsKey(type, envName) || instances.containsKey(type, name);
+		// named or environment named type
+		return contains || types.containsKey(type, envName) || types.containsKey(type, name);
+	}
+
 	@Override
 	public String toString() {
 		return String.format("Injection context (%s instances, %s classes)", instances.size(), types.size());
@@ -237,11 +311,13 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 		boolean isBasicType = TypesRequiringAName.contains(type);
 		if (!isBasicType) {
 			Map<String, T> existing = new HashMap<String, T>();
-			for (Entry<Pair<Class<?>, String>, Object> entry : instances.entrySet()) {
-				Pair<Class<?>, String> key = entry.getKey();
-				if (type.equals(key.getA())) {
-					T t = (T) entry.getValue();
-					existing.put(key.getB(), t);
+			synchronized (instanceMap) {
+				for (Entry<Pair<Class<?>, String>, Object> entry : instanceMap.entrySet()) {
+					Pair<Class<?>, String> key = entry.getKey();
+					if (type.equals(key.getA())) {
+						T t = (T) entry.getValue();
+						existing.put(key.getB(), t);
+					}
 				}
 			}
 			if (existing.size() > 1) {
@@ -261,19 +337,58 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 			as = proxy == null ? as : proxy;
 		}
 		instances.put(type, name, as);
+		lookupsChanged();
 	}
 
-	private String environmentSpecificName(String name) {
-		return name + ENVIRONMENT_SEPARATOR + Environment.get();
+	private void lookupsChanged() {
+		if (frozen) {
+			synchronized (lookupLock) {
+				lookups = buildLookups();
+			}
+		}
 	}
 
-	private boolean canSatisfy(List<ParameterDescription> parameterDescriptions) {
-		for (ParameterDescription parameterDescription : parameterDescriptions) {
-			if (get(parameterDescription.classType(), parameterDescription.name()) == null) {
-				return false;
+	/**
+	 * Resolves every injected instance for the current environment in one pass, as {@link #get(Class, String)} would: an
+	 * environment specific name in place of the plain name, and for a type with neither an unnamed instance nor an unnamed type
+	 * the only instance injected under any name.
+	 */
+	private LookupSnapshot buildLookups() {
+		String environment = Environment.get();
+		String suffix = ENVIRONMENT_SEPARATOR + environment;
+		Map<Class<?>, Map<String, Object>> byType = new HashMap<Class<?>, Map<String, Object>>();
+		synchronized (instanceMap) {
+			for (Entry<Pair<Class<?>, String>, Object> entry : instanceMap.entrySet()) {
+				Class<?> type = entry.getKey().getA();
+				Map<String, Object> named = byType.get(type);
+				if (named == null) {
+					named = new HashMap<String, Object>();
+					byType.put(type, named);
+				}
+				named.put(entry.getKey().getB(), entry.getValue());
+			}
+		}
+		LookupSnapshot.Builder builder = new LookupSnapshot.Builder(environment);
+		for (Entry<Class<?>, Map<String, Object>> typeEntry : byType.entrySet()) {
+			Class<?> type = typeEntry.getKey();
+			Map<String, Object> named = typeEntry.getValue();
+			for (Entry<String, Object> entry : named.entrySet()) {
+				String name = entry.getKey();
+				if (name != null && name.endsWith(suffix)) {
+					builder.add(type, name.substring(0, name.length() - suffix.length()), entry.getValue());
+				} else if (!named.containsKey(name + suffix)) {
+					builder.add(type, name, entry.getValue());
+				}
+			}
+			if (!named.containsKey(null) && !named.containsKey(null + suffix) && named.size() == 1 && !TypesRequiringAName.contains(type) && !types.containsKey(type, null)) {
+				builder.add(type, null, named.values().iterator().next());
 			}
 		}
-		return true;
+		return builder.build();
+	}
+
+	private String environmentSpecificName(String name) {
+		return name + ENVIRONMENT_SEPARATOR + Environment.get();
 	}
 
 	private <T> T invokeConstructor(Constructor<T> constructor, Object[] args) {
@@ -284,19 +399,14 @@ public class InjectionContextImpl implements UpdatableInjectionContext {
 		}
 	}
 
-	private String getRootMessage(Exception e) {
+	private String getRootMessage(Throwable e) {
 		Throwable rootCause = ExceptionUtils.getRootCause(e);
 		String message = rootCause == null ? e.getMessage() : rootCause.getMessage();
 		return message;
 	}
 
-	private String getPropertyNameFromSetMethod(Method method) {
-		String nameWithUpperCaseFirstLetter = method.getName().replace("set", "");
-		return nameWithUpperCaseFirstLetter.substring(0, 1).toLowerCase() + nameWithUpperCaseFirstLetter.substring(1);
-	}
-
-	private <K1, K2, V> Triplets<K1, K2, V> map() {
-		return new Triplets<K1, K2, V>();
+	private <K1, K2, V> Map<Pair<K1, K2>, V> synchronizedMap() {
+		return Collections.synchronizedMap(new HashMap<Pair<K1, K2>, V>());
 	}
 
 	private static Set<Class<?>> createListOfTypesRequiringAName() {
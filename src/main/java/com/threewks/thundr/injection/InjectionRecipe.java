@@ -0,0 +1,213 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.injection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.threewks.thundr.introspection.ClassIntrospector;
+import com.threewks.thundr.introspection.MethodIntrospector;
+import com.threewks.thundr.introspection.ParameterDescription;
+
+/**
+ * Everything {@link InjectionContextImpl} needs to know about a class to create and inject an instance of it, determined once
+ * per class.
+ * 
+ * Constructors are listed in the order they should be attempted, with their parameters already introspected. Setters and
+ * injection fields are held as {@link MethodHandle}s.
+ */
+final class InjectionRecipe<T> {
+	private static final MethodType PropertyType = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final Class<T> type;
+	private final List<ConstructorRecipe<T>> constructors;
+	private final List<PropertyRecipe> setters;
+	private final List<PropertyRecipe> fields;
+
+	InjectionRecipe(Class<T> type, ClassIntrospector classIntrospector) {
+		this.type = type;
+		this.constructors = createConstructorRecipes(classIntrospector.listConstructors(type));
+		this.setters = createSetterRecipes(type, classIntrospector.listSetters(type));
+		this.fields = createFieldRecipes(type, classIntrospector.listInjectionFields(type));
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * @return the constructors of the type, in the order they should be tried (most parameters first)
+	 */
+	public List<ConstructorRecipe<T>> getConstructors() {
+		return constructors;
+	}
+
+	/**
+	 * @return the parameters of the constructor requiring the fewest parameters
+	 */
+	public List<ParameterDescription> getMinimalParameters() {
+		return constructors.isEmpty() ? Collections.<ParameterDescription> emptyList() : constructors.get(constructors.size() - 1).getParameters();
+	}
+
+	public List<PropertyRecipe> getSetters() {
+		return setters;
+	}
+
+	public List<PropertyRecipe> getFields() {
+		return fields;
+	}
+
+	private static <T> List<ConstructorRecipe<T>> createConstructorRecipes(List<Constructor<T>> ctors) {
+		List<ConstructorRecipe<T>> recipes = new ArrayList<>(ctors.size());
+		for (int i = ctors.size() - 1; i >= 0; i--) {
+			recipes.add(new ConstructorRecipe<T>(ctors.get(i)));
+		}
+		return Collections.unmodifiableList(recipes);
+	}
+
+	private static List<PropertyRecipe> createSetterRecipes(Class<?> type, List<Method> setters) {
+		List<PropertyRecipe> recipes = new ArrayList<>(setters.size());
+		for (Method method : setters) {
+			try {
+				MethodHandle handle = unreflect(method).asType(PropertyType);
+				recipes.add(new PropertyRecipe(getPropertyNameFromSetMethod(method), method.getParameterTypes()[0], method.getName(), handle));
+			} catch (Exception e) {
+				throw new InjectionException(e, "Failed to inspect %s.%s for injection: %s", type.getName(), method.getName(), e.getMessage());
+			}
+		}
+		return Collections.unmodifiableList(recipes);
+	}
+
+	private static List<PropertyRecipe> createFieldRecipes(Class<?> type, List<Field> fields) {
+		List<PropertyRecipe> recipes = new ArrayList<>(fields.size());
+		for (Field field : fields) {
+			try {
+				field.setAccessible(true);
+				MethodHandle handle = unreflectSetter(field).asType(PropertyType);
+				recipes.add(new PropertyRecipe(field.getName(), field.getType(), field.getName(), handle));
+			} catch (Exception e) {
+				throw new InjectionException(e, "Failed to inspect %s.%s for injection: %s", type.getName(), field.getName(), e.getMessage());
+			}
+		}
+		return Collections.unmodifiableList(recipes);
+	}
+
+	/**
+	 * Setters which are not accessible are invoked reflectively, failing in the same way when injected as they always have.
+	 */
+	private static MethodHandle unreflect(Method method) throws NoSuchMethodException, IllegalAccessException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			return lookup.unreflect(method);
+		} catch (IllegalAccessException e) {
+			MethodHandle invoke = lookup.findVirtual(Method.class, "invoke", MethodType.methodType(Object.class, Object.class, Object[].class)).bindTo(method);
+			return invoke.asCollector(Object[].class, 1);
+		}
+	}
+
+	/**
+	 * Method handles may not be able to write some fields, final fields for example, so these are written reflectively.
+	 */
+	private static MethodHandle unreflectSetter(Field field) throws NoSuchMethodException, IllegalAccessException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			return lookup.unreflectSetter(field);
+		} catch (IllegalAccessException e) {
+			return lookup.findVirtual(Field.class, "set", MethodType.methodType(void.class, Object.class, Object.class)).bindTo(field);
+		}
+	}
+
+	private static String getPropertyNameFromSetMethod(Method method) {
+		String nameWithUpperCaseFirstLetter = method.getName().replace("set", "");
+		return nameWithUpperCaseFirstLetter.substring(0, 1).toLowerCase() + nameWithUpperCaseFirstLetter.substring(1);
+	}
+
+	static final class ConstructorRecipe<T> {
+		private final Constructor<T> constructor;
+		private final List<ParameterDescription> parameters;
+
+		ConstructorRecipe(Constructor<T> constructor) {
+			this.constructor = constructor;
+			this.parameters = Collections.unmodifiableList(new MethodIntrospector(constructor).getParameterDescriptions());
+		}
+
+		public Constructor<T> getConstructor() {
+			return constructor;
+		}
+
+		public List<ParameterDescription> getParameters() {
+			return parameters;
+		}
+
+		@Override
+		public String toString() {
+			return constructor.toString();
+		}
+	}
+
+	static final class PropertyRecipe {
+		private final String name;
+		private final Class<?> type;
+		private final String member;
+		private final MethodHandle handle;
+
+		PropertyRecipe(String name, Class<?> type, String member, MethodHandle handle) {
+			this.name = name;
+			this.type = type;
+			this.member = member;
+			this.handle = handle;
+		}
+
+		/**
+		 * @return the name of the value to inject
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the type of the value to inject
+		 */
+		public Class<?> getType() {
+			return type;
+		}
+
+		/**
+		 * @return the name of the setter method or field
+		 */
+		public String getMember() {
+			return member;
+		}
+
+		public void set(Object instance, Object value) throws Throwable {
+			handle.invokeExact(instance, value);
+		}
+
+		@Override
+		public String toString() {
+			return member;
+		}
+	}
+}
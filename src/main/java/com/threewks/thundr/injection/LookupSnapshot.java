@@ -0,0 +1,103 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.injection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * An immutable record of the instances resolved by an {@link InjectionContextImpl}, valid for a single environment.
+ * 
+ * Lookups read the snapshot without locking or allocating, as instances are keyed by type and then by name rather than by a
+ * composite key. A snapshot is built in one pass using a {@link Builder}.
+ */
+final class LookupSnapshot {
+	private final String environment;
+	private final Map<Class<?>, Object> unnamed;
+	private final Map<Class<?>, Map<String, Object>> named;
+
+	LookupSnapshot(String environment) {
+		this(environment, Collections.<Class<?>, Object> emptyMap(), Collections.<Class<?>, Map<String, Object>> emptyMap());
+	}
+
+	private LookupSnapshot(String environment, Map<Class<?>, Object> unnamed, Map<Class<?>, Map<String, Object>> named) {
+		this.environment = environment;
+		this.unnamed = unnamed;
+		this.named = named;
+	}
+
+	boolean isFor(String environment) {
+		return StringUtils.equals(this.environment, environment);
+	}
+
+	/**
+	 * @return the resolved instance for the given type and name in the given environment, or null if there is none
+	 */
+	Object get(Class<?> type, String name, String environment) {
+		if (!isFor(environment)) {
+			return null;
+		}
+		if (name == null) {
+			return unnamed.get(type);
+		}
+		Map<String, Object> instances = named.get(type);
+		return instances == null ? null : instances.get(name);
+	}
+
+	int size() {
+		int size = unnamed.size();
+		for (Map<String, Object> instances : named.values()) {
+			size += instances.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Collects resolved instances for a {@link LookupSnapshot}. A builder should not be used once it has built its snapshot.
+	 */
+	static final class Builder {
+		private final String environment;
+		private final Map<Class<?>, Object> unnamed = new HashMap<Class<?>, Object>();
+		private final Map<Class<?>, Map<String, Object>> named = new HashMap<Class<?>, Map<String, Object>>();
+
+		Builder(String environment) {
+			this.environment = environment;
+		}
+
+		Builder add(Class<?> type, String name, Object instance) {
+			if (name == null) {
+				unnamed.put(type, instance);
+			} else {
+				Map<String, Object> instances = named.get(type);
+				if (instances == null) {
+					instances = new HashMap<String, Object>();
+					named.put(type, instances);
+				}
+				instances.put(name, instance);
+			}
+			return this;
+		}
+
+		LookupSnapshot build() {
+			return new LookupSnapshot(environment, unnamed, named);
+		}
+	}
+}
@@ -28,9 +28,6 @@ import java.util.List;
 
 import javax.inject.Inject;
 
-import org.apache.commons.lang3.ClassUtils;
-
-import com.atomicleopard.expressive.EList;
 import com.atomicleopard.expressive.Expressive;
 
 import jodd.introspector.ClassDescriptor;
@@ -85,11 +82,12 @@ public class ClassIntrospector {
 		return injectionFields;
 	}
 
+	/**
+	 * @param type
+	 * @return a new list of the given type, all its superclasses and then all its interfaces
+	 */
 	public List<Class<?>> listImplementedTypes(Class<?> type) {
-		EList<Class<?>> types = Expressive.<Class<?>> list(type);
-		types.addItems(ClassUtils.getAllSuperclasses(type));
-		types.addItems(ClassUtils.getAllInterfaces(type));
-		return types;
+		return Expressive.list(TypeInfo.of(type).getImplementedTypes());
 	}
 
 	public Method getMethod(Class<?> type, String methodName) {
@@ -29,6 +29,7 @@ import com.atomicleopard.expressive.Cast;
 public class ParameterDescription {
 	private String name;
 	private Type type;
+	private Class<?> classType;
 
 	public ParameterDescription(String name, Type type) {
 		super();
@@ -89,7 +90,10 @@ public class ParameterDescription {
 	}
 
 	public Class<?> classType() {
-		return TypeIntrospector.asClass(type);
+		if (classType == null) {
+			classType = TypeIntrospector.asClass(type);
+		}
+		return classType;
 	}
 
 	public Type type() {
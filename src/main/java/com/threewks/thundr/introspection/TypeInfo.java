@@ -0,0 +1,182 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.introspection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.ClassUtils;
+
+/**
+ * The classification of a {@link Class} used by {@link TypeIntrospector} and {@link ClassIntrospector}, determined once per class
+ * and held in a {@link ClassValue}.
+ * 
+ * Whether a type is a javabean is decided by looking for a no-arg constructor accessible to the introspection package, rather than
+ * by creating an instance.
+ * 
+ * Only the classification and the implemented types are held here. The constructors, setters, fields and methods listed by
+ * {@link ClassIntrospector} are still read reflectively on each call, as their callers, such as the injection context, already
+ * remember what they need per class.
+ */
+final class TypeInfo {
+	private static final Map<Class<?>, Class<?>> PrimitiveToBoxed = primitiveToBoxed();
+	private static final Map<Class<?>, Class<?>> BoxedToPrimitive = boxedToPrimitive(PrimitiveToBoxed);
+
+	private static final ClassValue<TypeInfo> Types = new ClassValue<TypeInfo>() {
+		@Override
+		protected TypeInfo computeValue(Class<?> type) {
+			return new TypeInfo(type);
+		}
+	};
+
+	private final Class<?> type;
+	private final Class<?> boxed;
+	private final Class<?> unboxed;
+	private final boolean collection;
+	private final boolean enumType;
+	private final MethodHandle constructor;
+	private final boolean javabean;
+	private volatile List<Class<?>> implementedTypes;
+
+	private TypeInfo(Class<?> type) {
+		this.type = type;
+		this.boxed = PrimitiveToBoxed.get(type);
+		this.unboxed = BoxedToPrimitive.get(type);
+		this.collection = Collection.class.isAssignableFrom(type);
+		this.enumType = type.isEnum();
+		this.constructor = findConstructor(type);
+		this.javabean = constructor != null && boxed == null && unboxed == null && type != Object.class && type != String.class && !enumType && !type.isArray()
+				&& !type.isAnnotation();
+	}
+
+	static TypeInfo of(Class<?> type) {
+		return Types.get(type);
+	}
+
+	static Map<Class<?>, Class<?>> primitiveTypes() {
+		return PrimitiveToBoxed;
+	}
+
+	static Map<Class<?>, Class<?>> boxedTypes() {
+		return BoxedToPrimitive;
+	}
+
+	/**
+	 * @return true if this is a primitive type, including void
+	 */
+	public boolean isBasic() {
+		return boxed != null;
+	}
+
+	/**
+	 * @return true if this is the boxed form of a primitive type, including Void
+	 */
+	public boolean isBoxed() {
+		return unboxed != null;
+	}
+
+	/**
+	 * @return the boxed type if this is a primitive type, otherwise null
+	 */
+	public Class<?> getBoxed() {
+		return boxed;
+	}
+
+	/**
+	 * @return the primitive type if this is a boxed type, otherwise null
+	 */
+	public Class<?> getUnboxed() {
+		return unboxed;
+	}
+
+	public boolean isCollection() {
+		return collection;
+	}
+
+	public boolean isEnum() {
+		return enumType;
+	}
+
+	public boolean isJavabean() {
+		return javabean;
+	}
+
+	/**
+	 * @return a handle to the no-arg constructor, of type ()Object, if there is one accessible to the introspection package, otherwise null
+	 */
+	public MethodHandle getConstructor() {
+		return constructor;
+	}
+
+	/**
+	 * @return an unmodifiable list of the type, all its superclasses and then all its interfaces
+	 */
+	public List<Class<?>> getImplementedTypes() {
+		List<Class<?>> types = implementedTypes;
+		if (types == null) {
+			types = new ArrayList<>();
+			types.add(type);
+			types.addAll(ClassUtils.getAllSuperclasses(type));
+			types.addAll(ClassUtils.getAllInterfaces(type));
+			types = Collections.unmodifiableList(types);
+			implementedTypes = types;
+		}
+		return types;
+	}
+
+	private static MethodHandle findConstructor(Class<?> type) {
+		if (type.isPrimitive() || type.isInterface() || type.isArray() || Modifier.isAbstract(type.getModifiers())) {
+			return null;
+		}
+		try {
+			return MethodHandles.lookup().findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+		} catch (Exception | LinkageError e) {
+			return null;
+		}
+	}
+
+	private static Map<Class<?>, Class<?>> primitiveToBoxed() {
+		Map<Class<?>, Class<?>> map = new HashMap<>();
+		map.put(boolean.class, Boolean.class);
+		map.put(byte.class, Byte.class);
+		map.put(char.class, Character.class);
+		map.put(double.class, Double.class);
+		map.put(float.class, Float.class);
+		map.put(int.class, Integer.class);
+		map.put(long.class, Long.class);
+		map.put(short.class, Short.class);
+		map.put(void.class, Void.class);
+		return Collections.unmodifiableMap(map);
+	}
+
+	private static Map<Class<?>, Class<?>> boxedToPrimitive(Map<Class<?>, Class<?>> primitiveToBoxed) {
+		Map<Class<?>, Class<?>> map = new HashMap<>();
+		for (Map.Entry<Class<?>, Class<?>> entry : primitiveToBoxed.entrySet()) {
+			map.put(entry.getValue(), entry.getKey());
+		}
+		return Collections.unmodifiableMap(map);
+	}
+}
@@ -17,33 +17,26 @@
  */
 package com.threewks.thundr.introspection;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
-import com.atomicleopard.expressive.Expressive;
 
 import jodd.util.ReflectUtil;
 
 /**
  * Provides convenience methods for determining information about {@link Class} and {@link Type} objects.
  * 
+ * Classifications are determined once per class and cached.
+ * 
  * @see ClassIntrospector
  */
 public class TypeIntrospector {
-	private static Map<Class<?>, Class<?>> primitiveTypes = primitiveTypes();
-	private static Map<Class<?>, Class<?>> boxedTypes = boxedTypes(primitiveTypes);
-	private static Set<Class<?>> NonJavabeanBasicClasses = nonJavabeanClasses(primitiveTypes);
-
 	private TypeIntrospector() {
 	}
 
 	public static boolean isABasicType(Class<?> type) {
-		return primitiveTypes.containsKey(type);
+		return type != null && TypeInfo.of(type).isBasic();
 	}
 
 	/**
@@ -51,21 +44,20 @@ public class TypeIntrospector {
 	 * @return
 	 */
 	public static boolean isABoxedType(Class<?> type) {
-		return boxedTypes.containsKey(type);
+		return type != null && TypeInfo.of(type).isBoxed();
 	}
 
 	public static List<Class<?>> getPrimitiveTypes() {
-		return new ArrayList<>(primitiveTypes.keySet());
+		return new ArrayList<>(TypeInfo.primitiveTypes().keySet());
 	}
 
 	public static List<Class<?>> getBoxedTypes() {
-		return new ArrayList<>(boxedTypes.keySet());
+		return new ArrayList<>(TypeInfo.boxedTypes().keySet());
 	}
 
-	@SuppressWarnings("rawtypes")
 	public static boolean isACollection(Type type) {
-		Class class1 = asClass(type);
-		return Collection.class.isAssignableFrom(class1);
+		Class<?> class1 = asClass(type);
+		return TypeInfo.of(class1).isCollection();
 	}
 
 	/**
@@ -87,7 +79,7 @@ public class TypeIntrospector {
 	 * @return
 	 */
 	public static Class<?> unbox(Class<?> type) {
-		return boxedTypes.get(type);
+		return type == null ? null : TypeInfo.of(type).getUnboxed();
 	}
 
 	/**
@@ -97,7 +89,7 @@ public class TypeIntrospector {
 	 * @return
 	 */
 	public static Class<?> box(Class<?> type) {
-		return primitiveTypes.get(type);
+		return type == null ? null : TypeInfo.of(type).getBoxed();
 	}
 
 	public static boolean classExists(String name) {
@@ -110,26 +102,35 @@ public class TypeIntrospector {
 	}
 
 	/**
-	 * A basic to test to see is a type qualifies as a javabean.
+	 * A basic to test to see is a type qualifies as a javabean - that is it is not a basic type, enum, array or annotation,
+	 * and has an accessible no-arg constructor.
 	 * 
 	 * @param type
 	 * @return
 	 */
 	public static boolean isAJavabean(Class<?> type) {
-		try {
-			// TODO - Given this is expensive, a cache would be a good idea.
-			// newInstance is the only way to find default ctors if they exist
+		// TODO - Should take into account a more extensive set of 'basic' types
+		// TODO - Should take into account collection types
+		return type != null && TypeInfo.of(type).isJavabean();
+	}
 
-			// TODO - Should take into account a more extensive set of 'basic' types
-			// TODO - Should take into account collection types
-			return type != null && !NonJavabeanBasicClasses.contains(type) && !type.isEnum() && !type.isArray() && !type.isAnnotation() && (type.newInstance() != null);
-		} catch (Exception e) {
-			return false;
-		}
+	public static boolean isAnEnum(Class<?> type) {
+		return type != null && TypeInfo.of(type).isEnum();
+	}
+
+	/**
+	 * @param type
+	 * @return a handle to the no-arg constructor of the given type, of type ()Object, or null if it has no accessible no-arg constructor
+	 */
+	public static MethodHandle getNoArgConstructor(Class<?> type) {
+		return type == null ? null : TypeInfo.of(type).getConstructor();
 	}
 
 	@SuppressWarnings("unchecked")
 	public static <T> Class<T> asClass(Type type) {
+		if (type instanceof Class) {
+			return (Class<T>) type;
+		}
 		return ReflectUtil.getRawType(type);
 	}
 
@@ -137,39 +138,7 @@ public class TypeIntrospector {
 		return ReflectUtil.getComponentType(type, 0) != null;
 	}
 
-	private static Map<Class<?>, Class<?>> boxedTypes(Map<Class<?>, Class<?>> primitiveTypes2) {
-		Map<Class<?>, Class<?>> map = new HashMap<>();
-		for (Map.Entry<Class<?>, Class<?>> entry : primitiveTypes2.entrySet()) {
-			map.put(entry.getValue(), entry.getKey());
-		}
-		return map;
-	}
-
-	private static Map<Class<?>, Class<?>> primitiveTypes() {
-		Map<Class<?>, Class<?>> map = new HashMap<>();
-		map.put(boolean.class, Boolean.class);
-		map.put(byte.class, Byte.class);
-		map.put(char.class, Character.class);
-		map.put(double.class, Double.class);
-		map.put(float.class, Float.class);
-		map.put(int.class, Integer.class);
-		map.put(long.class, Long.class);
-		map.put(short.class, Short.class);
-		map.put(void.class, Void.class);
-		return map;
-	}
-
-	private static Set<Class<?>> nonJavabeanClasses(Map<Class<?>, Class<?>> primitiveTypes) {
-		Set<Class<?>> set = Expressive.<Class<?>> set(Object.class, String.class);
-		for (Map.Entry<Class<?>, Class<?>> entry : primitiveTypes.entrySet()) {
-			set.add(entry.getKey());
-			set.add(entry.getValue());
-		}
-		return set;
-	}
-
 	public static boolean canBoxOrUnbox(Class<?> type1, Class<?> type2) {
-		return (primitiveTypes.containsKey(type1) && primitiveTypes.get(type1) == type2) || 
-			   (boxedTypes.containsKey(type1) && boxedTypes.get(type1) == type2);
+		return type1 != null && type2 != null && (box(type1) == type2 || unbox(type1) == type2);
 	}
 }
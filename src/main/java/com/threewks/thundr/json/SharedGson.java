@@ -0,0 +1,121 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.json;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The {@link Gson} created from a {@link GsonBuilder}, shared by everything using that builder so that it is not recreated for each
+ * request or response.
+ * 
+ * A {@link GsonBuilder} cannot report when it has been changed. Anything exposing the builder for modification should obtain it
+ * using {@link #modify()}. Until {@link #invalidate()} is first called, a new {@link Gson} is then created for every use so that
+ * changes are seen as soon as they are made. Thundr invalidates the {@link Gson} for the injected {@link GsonBuilder} once it has
+ * started, so changes made by modules are included, after which obtaining the builder only causes the {@link Gson} to be created
+ * once more and then shared again.
+ */
+public final class SharedGson {
+	private static final Map<GsonBuilder, SharedGson> shared = new WeakHashMap<>();
+
+	private final Reference<GsonBuilder> gsonBuilder;
+	private volatile Gson gson;
+	private volatile boolean modifying = false;
+	// set once invalidated, after which the builder is expected to be modified rarely, so the Gson is always shared
+	private volatile boolean settled = false;
+	// changes whenever the builder is modified or invalidated, so that a Gson created before then is not shared afterwards
+	private volatile int version = 0;
+
+	private SharedGson(GsonBuilder gsonBuilder) {
+		this.gsonBuilder = new WeakReference<>(gsonBuilder);
+	}
+
+	/**
+	 * @param gsonBuilder
+	 * @return the {@link SharedGson} for the given builder, callers should retain a reference to the builder for as long as they use it
+	 */
+	public static SharedGson forBuilder(GsonBuilder gsonBuilder) {
+		synchronized (shared) {
+			SharedGson sharedGson = shared.get(gsonBuilder);
+			if (sharedGson == null) {
+				sharedGson = new SharedGson(gsonBuilder);
+				shared.put(gsonBuilder, sharedGson);
+			}
+			return sharedGson;
+		}
+	}
+
+	/**
+	 * @return the {@link Gson} for the builder, created if this is the first use since it was invalidated, or if the builder is being modified
+	 */
+	public Gson get() {
+		Gson gson = this.gson;
+		if (gson == null) {
+			int version = this.version;
+			boolean modifying = this.modifying;
+			gson = builder().create();
+			if (!modifying) {
+				synchronized (this) {
+					if (this.version == version) {
+						this.gson = gson;
+					}
+				}
+			}
+		}
+		return gson;
+	}
+
+	/**
+	 * Returns the builder to be modified. Until {@link #invalidate()} is first called, a new {@link Gson} is created from the builder
+	 * each time one is used, so that changes are seen. After that, the {@link Gson} is created once more on its next use and then
+	 * shared, so {@link #invalidate()} should be called again once any later changes are complete.
+	 * 
+	 * @return the builder
+	 */
+	public synchronized GsonBuilder modify() {
+		GsonBuilder builder = builder();
+		modifying = !settled;
+		version++;
+		gson = null;
+		return builder;
+	}
+
+	/**
+	 * Causes the {@link Gson} to be recreated from the builder the next time it is used, and then shared. Call this once any changes to
+	 * the builder are complete.
+	 */
+	public synchronized void invalidate() {
+		settled = true;
+		modifying = false;
+		version++;
+		gson = null;
+	}
+
+	private GsonBuilder builder() {
+		GsonBuilder builder = gsonBuilder.get();
+		if (builder == null) {
+			throw new IllegalStateException("The GsonBuilder for this " + getClass().getSimpleName() + " is no longer available");
+		}
+		return builder;
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.module;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.threewks.thundr.injection.Module;
+
+/**
+ * Records how long each lifecycle phase of a {@link Module} took to run.
+ */
+public class ModuleTiming {
+	private final Class<? extends Module> module;
+	private final Map<ModulePhase, Long> durations = new EnumMap<ModulePhase, Long>(ModulePhase.class);
+
+	public ModuleTiming(Class<? extends Module> module) {
+		this.module = module;
+	}
+
+	public Class<? extends Module> getModule() {
+		return module;
+	}
+
+	/**
+	 * @param phase
+	 * @param unit
+	 * @return the time taken to run the given phase for this module, or 0 if the phase has not been run
+	 */
+	public synchronized long getDuration(ModulePhase phase, TimeUnit unit) {
+		Long nanos = durations.get(phase);
+		return nanos == null ? 0 : unit.convert(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param unit
+	 * @return the time taken to run all phases of this module which have been run
+	 */
+	public synchronized long getTotalDuration(TimeUnit unit) {
+		long total = 0;
+		for (Long nanos : durations.values()) {
+			total += nanos;
+		}
+		return unit.convert(total, TimeUnit.NANOSECONDS);
+	}
+
+	public synchronized void record(ModulePhase phase, long nanos) {
+		Long existing = durations.get(phase);
+		durations.put(phase, existing == null ? nanos : existing + nanos);
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder(module.getSimpleName());
+		sb.append(": ");
+		sb.append(getTotalDuration(TimeUnit.MILLISECONDS));
+		sb.append("ms");
+		for (Map.Entry<ModulePhase, Long> entry : durations.entrySet()) {
+			sb.append(", ");
+			sb.append(entry.getKey().name().toLowerCase());
+			sb.append(" ");
+			sb.append(TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+			sb.append("ms");
+		}
+		return sb.toString();
+	}
+}
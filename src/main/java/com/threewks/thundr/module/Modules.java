@@ -25,6 +25,12 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -37,31 +43,83 @@ import com.threewks.thundr.injection.InjectionContext;
 import com.threewks.thundr.injection.Module;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
 import com.threewks.thundr.logger.Logger;
+import com.threewks.thundr.profiler.StartupProfiler;
+import com.threewks.thundr.profiler.StartupProfiler.Span;
 
+/**
+ * Loads {@link Module}s and their dependencies, and runs them through their lifecycle.
+ * 
+ * Each lifecycle phase is run for a module only after it has been run for all of the modules it depends on.
+ * By default modules are run one at a time, in dependency order. If an {@link Executor} is available, modules at
+ * the same depth in the dependency graph run each phase concurrently using it, so they must be safe to run
+ * alongside each other. The executor is the one given to {@link #setExecutor(Executor)}, otherwise an {@link Executor}
+ * injected with the name {@value #ExecutorName}, otherwise a pool of the size given by the {@value #ThreadsProperty}
+ * configuration property. Injected and configured executors are looked up before each phase, so they take effect once
+ * the modules providing them have been initialised.
+ */
 public class Modules {
+	public static final String ExecutorName = "moduleExecutor";
+	public static final String ThreadsProperty = "moduleStartupThreads";
+
 	private Map<Class<? extends Module>, Collection<Class<? extends Module>>> moduleDependencies = new LinkedHashMap<Class<? extends Module>, Collection<Class<? extends Module>>>();
 	private Map<Class<? extends Module>, Module> instances = new LinkedHashMap<Class<? extends Module>, Module>();
-	private Map<Module, ModuleStatus> status = new HashMap<Module, ModuleStatus>();
+	private Map<Module, ModuleStatus> status = new LinkedHashMap<Module, ModuleStatus>();
+	private Map<Class<? extends Module>, ModuleTiming> timings = new LinkedHashMap<Class<? extends Module>, ModuleTiming>();
 	private List<Module> orderedModules = null;
+	private Map<Module, Integer> depths = null;
+	private Executor executor = null;
+	private StartupProfiler startupProfiler = null;
 
 	public Modules() {
 	}
 
-	public void addModule(Class<? extends Module> module) {
+	/**
+	 * Sets the {@link StartupProfiler} which records the time taken by each lifecycle phase of each module.
+	 * 
+	 * @param startupProfiler
+	 */
+	public void setStartupProfiler(StartupProfiler startupProfiler) {
+		this.startupProfiler = startupProfiler;
+	}
+
+	/**
+	 * Sets the {@link Executor} used to run lifecycle phases concurrently for modules which do not depend on each other.
+	 * When null, which is the default, an injected or configured executor is used if there is one, otherwise modules are
+	 * run one at a time on the thread starting the application.
+	 * 
+	 * @param executor
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	public synchronized void addModule(Class<? extends Module> module) {
 		if (!hasModule(module)) {
 			Module instance = loadModule(module);
 			moduleDependencies.put(module, null);
 			instances.put(module, instance);
 			status.put(instance, ModuleStatus.Added);
+			timings.put(module, new ModuleTiming(module));
 			Logger.debug("Added module %s", Transformers.toModuleName.from(module));
 		}
 	}
 
-	public <T extends Module> T getModule(Class<T> moduleClass) {
+	public synchronized <T extends Module> T getModule(Class<T> moduleClass) {
 		return Cast.as(instances.get(moduleClass), moduleClass);
 	}
 
-	public List<? extends Module> getModules(Collection<Class<? extends Module>> moduleClasses) {
+	/**
+	 * @return the time taken by each phase of the lifecycle for each module, in the order modules were added
+	 */
+	public synchronized List<ModuleTiming> getTimings() {
+		return new ArrayList<ModuleTiming>(timings.values());
+	}
+
+	public synchronized List<? extends Module> getModules(Collection<Class<? extends Module>> moduleClasses) {
 		List<Module> result = new ArrayList<Module>();
 		for (Class<? extends Module> moduleClass : moduleClasses) {
 			Module instance = instances.get(moduleClass);
@@ -72,36 +130,49 @@ public class Modules {
 		return result;
 	}
 
-	public boolean hasModule(Class<? extends Module> moduleClass) {
+	public synchronized boolean hasModule(Class<? extends Module> moduleClass) {
 		return instances.containsKey(moduleClass);
 	}
 
-	public List<Module> listModules() {
+	public synchronized List<Module> listModules() {
 		return new ArrayList<Module>(instances.values());
 	}
 
 	public void runStartupLifecycle(UpdatableInjectionContext injectionContext) {
 		Logger.debug("Loading modules...");
+		long start = System.currentTimeMillis();
 		List<Module> startupOrder = new ArrayList<Module>();
-		while (!allModulesStarted()) {
-			if (status.values().contains(ModuleStatus.Added)) {
-				resolveDependencies();
-				orderedModules = determineDependencyOrder();
-			} else {
-				boolean allInitialised = initialiseNext(injectionContext);
-				boolean allConfigured = false;
-				if (allInitialised) {
-					allConfigured = configureNext(injectionContext);
+		ExecutorService configuredExecutor = null;
+		try {
+			while (!allModulesStarted()) {
+				Executor executor = this.executor;
+				// only named registrations, as contains and get would fall back to any Executor the application injects without a name
+				if (executor == null && injectionContext.containsNamed(Executor.class, ExecutorName)) {
+					executor = injectionContext.get(Executor.class, ExecutorName);
 				}
-				if (allConfigured) {
-					Module started = startNext(injectionContext);
-					if (started != null) {
-						startupOrder.add(started);
+				if (executor == null) {
+					if (configuredExecutor == null) {
+						configuredExecutor = createConfiguredExecutor(injectionContext);
 					}
+					executor = configuredExecutor;
 				}
+				if (hasStatus(ModuleStatus.Added)) {
+					resolveDependencies();
+					orderedModules = determineDependencyOrder();
+				} else if (hasStatus(ModuleStatus.DependenciesResolved)) {
+					runNext(ModulePhase.Initialise, ModuleStatus.DependenciesResolved, ModuleStatus.Initialised, injectionContext, executor);
+				} else if (hasStatus(ModuleStatus.Initialised)) {
+					runNext(ModulePhase.Configure, ModuleStatus.Initialised, ModuleStatus.Configured, injectionContext, executor);
+				} else {
+					startupOrder.addAll(runNext(ModulePhase.Start, ModuleStatus.Configured, ModuleStatus.Started, injectionContext, executor));
+				}
+			}
+		} finally {
+			if (configuredExecutor != null) {
+				configuredExecutor.shutdown();
 			}
 		}
-		Logger.info("Modules loaded");
+		Logger.info("Modules loaded in %dms", System.currentTimeMillis() - start);
 		if (Logger.willDebug()) {
 			StringBuilder sb = new StringBuilder();
 			for (Module injectionConfiguration : startupOrder) {
@@ -109,56 +180,158 @@ public class Modules {
 				sb.append(injectionConfiguration.getClass().getSimpleName());
 			}
 			Logger.debug("Modules started in this order:%s", sb.toString());
+			Logger.debug("Module timings:%s", describeTimings(startupOrder));
+		}
+	}
 
+	/**
+	 * @return a pool of the size given by the {@value #ThreadsProperty} property, or null if it is not configured
+	 */
+	private ExecutorService createConfiguredExecutor(InjectionContext injectionContext) {
+		if (!injectionContext.containsNamed(String.class, ThreadsProperty)) {
+			return null;
+		}
+		String threads = injectionContext.get(String.class, ThreadsProperty);
+		try {
+			int count = Integer.parseInt(threads.trim());
+			return count > 1 ? Executors.newFixedThreadPool(count) : null;
+		} catch (NumberFormatException e) {
+			throw new ModuleLoadingException(e, "The configuration property %s must be a number of threads, but was '%s'", ThreadsProperty, threads);
 		}
 	}
 
 	/**
-	 * @param injectionContext
-	 * @return true if all modules are initialised
+	 * Runs the given phase for the next set of modules with the given status, updating them to the given status once complete.
+	 * 
+	 * @return the modules the phase was run for
 	 */
-	private boolean initialiseNext(UpdatableInjectionContext injectionContext) {
-		Module initialise = getFirstModuleWithStatus(ModuleStatus.DependenciesResolved);
-		if (initialise != null) {
-			initialise.initialise(injectionContext);
-			status.put(initialise, ModuleStatus.Initialised);
+	private List<Module> runNext(final ModulePhase phase, ModuleStatus from, ModuleStatus to, final UpdatableInjectionContext injectionContext, Executor executor) {
+		List<Module> next = getNextModulesWithStatus(from, executor);
+		if (executor == null || next.size() == 1) {
+			for (Module module : next) {
+				run(phase, module, injectionContext);
+			}
+		} else {
+			List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(next.size());
+			for (final Module module : next) {
+				FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						run(phase, module, injectionContext);
+						return null;
+					}
+				});
+				tasks.add(task);
+				executor.execute(task);
+			}
+			awaitAll(phase, next, tasks);
+		}
+		synchronized (this) {
+			for (Module module : next) {
+				status.put(module, to);
+			}
 		}
-		return initialise == null;
+		return next;
 	}
 
 	/**
-	 * @param injectionContext
-	 * @return true if all modules are already initialised
+	 * Waits for all the given tasks to complete, then rethrows the first failure if any failed.
 	 */
-	private boolean configureNext(UpdatableInjectionContext injectionContext) {
-		Module configure = getFirstModuleWithStatus(ModuleStatus.Initialised);
-		if (configure != null) {
-			configure.configure(injectionContext);
-			status.put(configure, ModuleStatus.Configured);
+	private void awaitAll(ModulePhase phase, List<Module> modules, List<FutureTask<Void>> tasks) {
+		RuntimeException failure = null;
+		for (int i = 0; i < tasks.size(); i++) {
+			try {
+				tasks.get(i).get();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				if (failure == null) {
+					failure = cause instanceof RuntimeException ? (RuntimeException) cause
+							: new ModuleLoadingException(cause, "Failed to %s module %s: %s", phase.name().toLowerCase(), Transformers.toModuleNameFromInstance.from(modules.get(i)), cause.getMessage());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ModuleLoadingException(e, "Interrupted while waiting for modules to %s", phase.name().toLowerCase());
+			}
+		}
+		if (failure != null) {
+			throw failure;
 		}
-		return configure == null;
 	}
 
-	private Module startNext(UpdatableInjectionContext injectionContext) {
-		Module start = getFirstModuleWithStatus(ModuleStatus.Configured);
-		if (start != null) {
-			start.start(injectionContext);
-			status.put(start, ModuleStatus.Started);
+	private void run(ModulePhase phase, Module module, UpdatableInjectionContext injectionContext) {
+		Span span = StartupProfiler.begin(startupProfiler, StartupProfiler.Module, profileName(module, phase));
+		long start = System.nanoTime();
+		try {
+			switch (phase) {
+			case Initialise:
+				module.initialise(injectionContext);
+				break;
+			case Configure:
+				module.configure(injectionContext);
+				break;
+			case Start:
+				module.start(injectionContext);
+				break;
+			default:
+				throw new IllegalArgumentException("Cannot run the phase " + phase + " during startup");
+			}
+			timing(module).record(phase, System.nanoTime() - start);
+		} finally {
+			span.end();
 		}
-		return start;
 	}
 
-	private Module getFirstModuleWithStatus(ModuleStatus status) {
-		Module result = null;
-		for (Module injectionConfiguration : orderedModules) {
-			if (status.equals(this.status.get(injectionConfiguration))) {
-				return injectionConfiguration;
+	private static String profileName(Module module, ModulePhase phase) {
+		return Transformers.toModuleName.from(module.getClass()) + " " + phase.name().toLowerCase();
+	}
+
+	/**
+	 * Without an executor, this is the first module in dependency order with the given status. With an executor, it is all modules with the given
+	 * status at the shallowest depth of the dependency graph. None of these depend on each other, and all their dependencies have already
+	 * completed the phase being run.
+	 */
+	private List<Module> getNextModulesWithStatus(ModuleStatus status, Executor executor) {
+		List<Module> result = new ArrayList<Module>();
+		int depth = Integer.MAX_VALUE;
+		for (Module module : orderedModules) {
+			if (status.equals(this.status.get(module))) {
+				if (executor == null) {
+					return Collections.singletonList(module);
+				}
+				int moduleDepth = depths.get(module);
+				if (moduleDepth < depth) {
+					depth = moduleDepth;
+					result.clear();
+				}
+				if (moduleDepth == depth) {
+					result.add(module);
+				}
 			}
 		}
 		return result;
 	}
 
-	private boolean allModulesStarted() {
+	private synchronized ModuleTiming timing(Module module) {
+		return timings.get(module.getClass());
+	}
+
+	private String describeTimings(List<Module> modules) {
+		StringBuilder sb = new StringBuilder();
+		for (Module module : modules) {
+			sb.append("\n\t");
+			sb.append(timing(module));
+		}
+		return sb.toString();
+	}
+
+	private synchronized boolean hasStatus(ModuleStatus moduleStatus) {
+		return status.values().contains(moduleStatus);
+	}
+
+	private synchronized boolean allModulesStarted() {
 		Collection<ModuleStatus> values = status.values();
 		return !values.contains(ModuleStatus.Added) && !values.contains(ModuleStatus.DependenciesResolved) && !values.contains(ModuleStatus.Initialised) && !values.contains(ModuleStatus.Configured);
 	}
@@ -167,7 +340,9 @@ public class Modules {
 		List<Module> reverseOrder = new LinkedList<Module>(orderedModules);
 		Collections.reverse(reverseOrder);
 		for (Module injectionConfiguration : reverseOrder) {
+			long start = System.nanoTime();
 			injectionConfiguration.stop(injectionContext);
+			timing(injectionConfiguration).record(ModulePhase.Stop, System.nanoTime() - start);
 			status.put(injectionConfiguration, ModuleStatus.Stopped);
 		}
 	}
@@ -177,21 +352,23 @@ public class Modules {
 	 * 
 	 * @return
 	 */
-	protected List<Module> determineDependencyOrder() {
+	protected synchronized List<Module> determineDependencyOrder() {
 		List<Module> orderedModules = new ArrayList<Module>();
+		Map<Module, Integer> depths = new HashMap<Module, Integer>();
 
-		while (!orderedModules.containsAll(instances.values())) {
+		while (orderedModules.size() < instances.size()) {
 			boolean anyAdded = false;
 			for (Map.Entry<Class<? extends Module>, Module> entry : instances.entrySet()) {
 				Module instance = entry.getValue();
 
-				if (!orderedModules.contains(instance)) {
+				if (!depths.containsKey(instance)) {
 					Class<? extends Module> configurationClass = entry.getKey();
 
 					Collection<Class<? extends Module>> dependencies = moduleDependencies.get(configurationClass);
 					List<? extends Module> injectionConfigurations = getModules(dependencies);
-					if (orderedModules.containsAll(injectionConfigurations)) {
+					if (depths.keySet().containsAll(injectionConfigurations)) {
 						orderedModules.add(instance);
+						depths.put(instance, depthOf(injectionConfigurations, depths));
 						anyAdded = true;
 					}
 				}
@@ -204,20 +381,39 @@ public class Modules {
 						StringUtils.join(moduleNames, " "));
 			}
 		}
+		this.depths = depths;
 		return orderedModules;
 	}
 
+	/**
+	 * @return the depth in the dependency graph of a module with the given dependencies, one deeper than its deepest dependency
+	 */
+	private int depthOf(List<? extends Module> dependencies, Map<Module, Integer> depths) {
+		int depth = 0;
+		for (Module dependency : dependencies) {
+			depth = Math.max(depth, depths.get(dependency) + 1);
+		}
+		return depth;
+	}
+
 	/**
 	 * Causes the dependent modules for any modules already added to be added as well.
 	 */
-	public void resolveDependencies() {
+	public synchronized void resolveDependencies() {
 		while (hasMoreDependenciesToResolve()) {
 			for (Module injectionConfiguration : getModulesWithUnresolvedDependencies()) {
 
 				Class<? extends Module> moduleClass = injectionConfiguration.getClass();
 
 				DependencyRegistry dependencyRegistry = new DependencyRegistry();
-				injectionConfiguration.requires(dependencyRegistry);
+				Span span = StartupProfiler.begin(startupProfiler, StartupProfiler.Module, profileName(injectionConfiguration, ModulePhase.Requires));
+				long start = System.nanoTime();
+				try {
+					injectionConfiguration.requires(dependencyRegistry);
+					timing(injectionConfiguration).record(ModulePhase.Requires, System.nanoTime() - start);
+				} finally {
+					span.end();
+				}
 				Collection<Class<? extends Module>> dependencies = dependencyRegistry.getDependencies();
 				String moduleName = Transformers.toModuleName.from(moduleClass);
 				for (Class<? extends Module> dependencyClass : dependencies) {
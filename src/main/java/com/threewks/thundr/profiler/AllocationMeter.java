@@ -0,0 +1,65 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.profiler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread where the JVM supports it (HotSpot's com.sun.management.ThreadMXBean).
+ * On other JVMs, or where management classes are not available such as on Google App Engine, allocation is reported as -1.
+ */
+class AllocationMeter {
+	private static final MethodHandle getThreadAllocatedBytes = findThreadAllocatedBytes();
+
+	static boolean isSupported() {
+		return getThreadAllocatedBytes != null;
+	}
+
+	/**
+	 * @return the total bytes allocated by the current thread so far, or -1 if this cannot be measured
+	 */
+	static long currentThreadAllocatedBytes() {
+		if (getThreadAllocatedBytes == null) {
+			return -1;
+		}
+		try {
+			return (long) getThreadAllocatedBytes.invokeExact(Thread.currentThread().getId());
+		} catch (Throwable e) {
+			return -1;
+		}
+	}
+
+	private static MethodHandle findThreadAllocatedBytes() {
+		try {
+			Object threadMXBean = ManagementFactory.getThreadMXBean();
+			Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+			if (!type.isInstance(threadMXBean)) {
+				return null;
+			}
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			boolean supported = (boolean) lookup.findVirtual(type, "isThreadAllocatedMemorySupported", MethodType.methodType(boolean.class)).invoke(threadMXBean);
+			boolean enabled = supported && (boolean) lookup.findVirtual(type, "isThreadAllocatedMemoryEnabled", MethodType.methodType(boolean.class)).invoke(threadMXBean);
+			return enabled ? lookup.findVirtual(type, "getThreadAllocatedBytes", MethodType.methodType(long.class, long.class)).bindTo(threadMXBean) : null;
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+}
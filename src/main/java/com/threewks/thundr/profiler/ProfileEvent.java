@@ -0,0 +1,86 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.profiler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single timed piece of work recorded by a {@link StartupProfiler}.
+ */
+public class ProfileEvent {
+	private final String category;
+	private final String name;
+	private final String thread;
+	private final long threadId;
+	private final long startNanos;
+	private final long durationNanos;
+	private final long allocatedBytes;
+
+	public ProfileEvent(String category, String name, String thread, long threadId, long startNanos, long durationNanos, long allocatedBytes) {
+		this.category = category;
+		this.name = name;
+		this.thread = thread;
+		this.threadId = threadId;
+		this.startNanos = startNanos;
+		this.durationNanos = durationNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * @return the kind of work recorded, for example {@link StartupProfiler#Module}
+	 */
+	public String getCategory() {
+		return category;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getThread() {
+		return thread;
+	}
+
+	public long getThreadId() {
+		return threadId;
+	}
+
+	/**
+	 * @param unit
+	 * @return when the work started, relative to the start of profiling
+	 */
+	public long getStart(TimeUnit unit) {
+		return unit.convert(startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public long getDuration(TimeUnit unit) {
+		return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return the bytes allocated by the thread doing the work while it was done, or -1 if the JVM cannot measure allocation
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s: %dms", category, name, getDuration(TimeUnit.MILLISECONDS));
+	}
+}
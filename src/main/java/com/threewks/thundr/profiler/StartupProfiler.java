@@ -0,0 +1,259 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.profiler;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.threewks.thundr.exception.BaseException;
+
+/**
+ * Records a timeline of the work done while thundr starts up - module phases, instantiation by the injection context,
+ * route registration and view resolver registration - along with the bytes allocated by each piece of work where the
+ * JVM can measure it.
+ * 
+ * Thundr activates its profiler for the duration of {@link com.threewks.thundr.Thundr#start()}, the result is available
+ * from {@link com.threewks.thundr.Thundr#getStartupProfiler()} or by injection. The timeline can be exported as JSON
+ * using {@link #writeJson(Writer)}, or in the Chrome trace event format using {@link #writeChromeTrace(Writer)} which
+ * can be loaded into chrome://tracing or https://ui.perfetto.dev.
+ * 
+ * Each profiler records only the work of the application it belongs to. Thundr gives its profiler to its injection context
+ * and {@link com.threewks.thundr.module.Modules}, and the router and view resolver registry are given it when they are created,
+ * so several applications in one JVM keep separate timelines. Instrumented code calls {@link #begin(StartupProfiler, String, String)}
+ * with the profiler it was given, which is free when that profiler is null or not active.
+ */
+public class StartupProfiler {
+	public static final String Module = "module";
+	public static final String Injection = "injection";
+	public static final String Route = "route";
+	public static final String View = "view";
+
+	private static final Span NoopSpan = new Span();
+
+	private final List<ProfileEvent> events = Collections.synchronizedList(new ArrayList<ProfileEvent>());
+	private volatile long startNanos = System.nanoTime();
+	private volatile boolean active = false;
+
+	/**
+	 * Begin recording the given piece of work against the given profiler. The returned {@link Span} must be ended
+	 * when the work completes, normally in a finally block.
+	 * 
+	 * @param profiler the profiler to record against, which may be null
+	 * @param category
+	 * @param name
+	 * @return a span to end when the work is complete, which does nothing if the profiler is null or not active
+	 */
+	public static Span begin(StartupProfiler profiler, String category, String name) {
+		return profiler == null ? NoopSpan : profiler.begin(category, name);
+	}
+
+	/**
+	 * Begin recording the given piece of work. The returned {@link Span} must be ended when the work completes, normally in a finally block.
+	 * 
+	 * @param category
+	 * @param name
+	 * @return a span to end when the work is complete, which does nothing if this profiler is not active
+	 */
+	public Span begin(String category, String name) {
+		return active ? new Span(this, category, name) : NoopSpan;
+	}
+
+	/**
+	 * @return true if this profiler is currently recording
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Start recording work begun against this profiler, until {@link #deactivate()} is called. Any previously recorded events are discarded.
+	 * 
+	 * @return this profiler
+	 */
+	public StartupProfiler activate() {
+		startNanos = System.nanoTime();
+		events.clear();
+		active = true;
+		return this;
+	}
+
+	/**
+	 * Stop recording.
+	 */
+	public void deactivate() {
+		active = false;
+	}
+
+	/**
+	 * @return the recorded events, in the order they completed
+	 */
+	public List<ProfileEvent> getEvents() {
+		synchronized (events) {
+			return new ArrayList<>(events);
+		}
+	}
+
+	/**
+	 * @param category
+	 * @return the recorded events for the given category, in the order they completed
+	 */
+	public List<ProfileEvent> getEvents(String category) {
+		List<ProfileEvent> results = new ArrayList<>();
+		for (ProfileEvent event : getEvents()) {
+			if (event.getCategory().equals(category)) {
+				results.add(event);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * @return true if allocation is measured by this JVM, otherwise all events report -1 allocated bytes
+	 */
+	public boolean isAllocationSupported() {
+		return AllocationMeter.isSupported();
+	}
+
+	public void writeJson(Writer writer) {
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (ProfileEvent event : getEvents()) {
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("category", event.getCategory());
+			result.put("name", event.getName());
+			result.put("thread", event.getThread());
+			result.put("startMicros", event.getStart(TimeUnit.MICROSECONDS));
+			result.put("durationMicros", event.getDuration(TimeUnit.MICROSECONDS));
+			result.put("allocatedBytes", event.getAllocatedBytes());
+			results.add(result);
+		}
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("allocationSupported", isAllocationSupported());
+		json.put("events", results);
+		write(json, writer);
+	}
+
+	/**
+	 * Writes the recorded events as complete ('X') events in the Chrome trace event format.
+	 * 
+	 * @param writer
+	 */
+	public void writeChromeTrace(Writer writer) {
+		List<Map<String, Object>> traceEvents = new ArrayList<>();
+		for (ProfileEvent event : getEvents()) {
+			Map<String, Object> args = new LinkedHashMap<>();
+			args.put("thread", event.getThread());
+			if (event.getAllocatedBytes() >= 0) {
+				args.put("allocatedBytes", event.getAllocatedBytes());
+			}
+			Map<String, Object> traceEvent = new LinkedHashMap<>();
+			traceEvent.put("name", event.getName());
+			traceEvent.put("cat", event.getCategory());
+			traceEvent.put("ph", "X");
+			traceEvent.put("ts", event.getStart(TimeUnit.MICROSECONDS));
+			traceEvent.put("dur", event.getDuration(TimeUnit.MICROSECONDS));
+			traceEvent.put("pid", 1);
+			traceEvent.put("tid", event.getThreadId());
+			traceEvent.put("args", args);
+			traceEvents.add(traceEvent);
+		}
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("traceEvents", traceEvents);
+		json.put("displayTimeUnit", "ms");
+		write(json, writer);
+	}
+
+	public String toJson() {
+		StringWriter writer = new StringWriter();
+		writeJson(writer);
+		return writer.toString();
+	}
+
+	public String toChromeTrace() {
+		StringWriter writer = new StringWriter();
+		writeChromeTrace(writer);
+		return writer.toString();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d events", getClass().getSimpleName(), events.size());
+	}
+
+	void record(String category, String name, long start, long end, long allocatedBytes) {
+		Thread thread = Thread.currentThread();
+		events.add(new ProfileEvent(category, name, thread.getName(), thread.getId(), start - startNanos, end - start, allocatedBytes));
+	}
+
+	private void write(Object json, Writer writer) {
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		try {
+			gson.toJson(json, writer);
+			writer.flush();
+		} catch (IOException e) {
+			throw new BaseException(e, "Failed to write startup profile: %s", e.getMessage());
+		}
+	}
+
+	/**
+	 * A piece of work being recorded. Obtain one using {@link StartupProfiler#begin(String, String)}.
+	 */
+	public static class Span {
+		private final StartupProfiler profiler;
+		private final String category;
+		private final String name;
+		private final long allocatedBytes;
+		private final long start;
+
+		private Span() {
+			this.profiler = null;
+			this.category = null;
+			this.name = null;
+			this.allocatedBytes = -1;
+			this.start = 0;
+		}
+
+		private Span(StartupProfiler profiler, String category, String name) {
+			this.profiler = profiler;
+			this.category = category;
+			this.name = name;
+			this.allocatedBytes = AllocationMeter.currentThreadAllocatedBytes();
+			this.start = System.nanoTime();
+		}
+
+		/**
+		 * Complete this piece of work, recording it against the profiler it began on.
+		 */
+		public void end() {
+			if (profiler != null) {
+				long end = System.nanoTime();
+				long allocated = allocatedBytes < 0 ? -1 : AllocationMeter.currentThreadAllocatedBytes() - allocatedBytes;
+				profiler.record(category, name, start, end, allocated);
+			}
+		}
+	}
+
+}
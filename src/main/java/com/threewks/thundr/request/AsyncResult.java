@@ -0,0 +1,226 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.threewks.thundr.logger.Logger;
+
+/**
+ * A result which becomes available later, usually on another thread.
+ * 
+ * Controllers can return an {@link AsyncResult} instead of a view to release the request thread while they wait on slow work, such
+ * as a call to another service. The view it completes with is resolved on the thread which completes it, after the after interceptors
+ * and filters have run. If it fails, the exception interceptors and filters are run and the exception is resolved as it would have been
+ * had the controller thrown it.
+ * 
+ * Callbacks are run exactly once, either on the thread completing the result or, if it has already completed, on the thread adding the
+ * callback.
+ * 
+ * @param <T>
+ */
+public class AsyncResult<T> implements Future<T> {
+	/**
+	 * Receives the outcome of an {@link AsyncResult}.
+	 * 
+	 * @param <T>
+	 */
+	public interface Callback<T> {
+		public void completed(T result);
+
+		public void failed(Throwable failure);
+	}
+
+	private final CountDownLatch latch = new CountDownLatch(1);
+	private List<Callback<? super T>> callbacks = new ArrayList<Callback<? super T>>(2);
+	private boolean done;
+	private T result;
+	private Throwable failure;
+
+	/**
+	 * @param result
+	 * @return an {@link AsyncResult} which has already completed with the given result
+	 */
+	public static <T> AsyncResult<T> completed(T result) {
+		AsyncResult<T> asyncResult = new AsyncResult<T>();
+		asyncResult.complete(result);
+		return asyncResult;
+	}
+
+	/**
+	 * @param failure
+	 * @return an {@link AsyncResult} which has already failed with the given exception
+	 */
+	public static <T> AsyncResult<T> failed(Throwable failure) {
+		AsyncResult<T> asyncResult = new AsyncResult<T>();
+		asyncResult.fail(failure);
+		return asyncResult;
+	}
+
+	/**
+	 * Runs the given {@link Callable} using the given {@link Executor}, completing with its result or failing with anything it throws.
+	 * 
+	 * @param executor
+	 * @param callable
+	 * @return
+	 */
+	public static <T> AsyncResult<T> submit(Executor executor, final Callable<T> callable) {
+		final AsyncResult<T> asyncResult = new AsyncResult<T>();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				T result;
+				try {
+					result = callable.call();
+				} catch (Throwable t) {
+					asyncResult.fail(t);
+					return;
+				}
+				asyncResult.complete(result);
+			}
+		});
+		return asyncResult;
+	}
+
+	/**
+	 * Completes this result, running any callbacks on the current thread.
+	 * 
+	 * @param result
+	 * @return true if this call completed the result, false if it had already completed
+	 */
+	public boolean complete(T result) {
+		return finish(result, null);
+	}
+
+	/**
+	 * Fails this result, running any callbacks on the current thread.
+	 * 
+	 * @param failure
+	 * @return true if this call failed the result, false if it had already completed
+	 */
+	public boolean fail(Throwable failure) {
+		if (failure == null) {
+			throw new IllegalArgumentException("An AsyncResult cannot fail without an exception");
+		}
+		return finish(null, failure);
+	}
+
+	/**
+	 * Adds a callback to be run when this result completes. If it has already completed, the callback is run immediately.
+	 * 
+	 * @param callback
+	 * @return this result
+	 */
+	public AsyncResult<T> onComplete(Callback<? super T> callback) {
+		synchronized (this) {
+			if (!done) {
+				callbacks.add(callback);
+				return this;
+			}
+		}
+		runCallback(callback, result, failure);
+		return this;
+	}
+
+	/**
+	 * Fails this result with a {@link CancellationException}. Work already running to produce the result is not interrupted.
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return fail(new CancellationException());
+	}
+
+	@Override
+	public synchronized boolean isCancelled() {
+		return failure instanceof CancellationException;
+	}
+
+	@Override
+	public synchronized boolean isDone() {
+		return done;
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		latch.await();
+		return outcome();
+	}
+
+	@Override
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!latch.await(timeout, unit)) {
+			throw new TimeoutException();
+		}
+		return outcome();
+	}
+
+	private synchronized T outcome() throws ExecutionException {
+		if (failure instanceof CancellationException) {
+			throw (CancellationException) failure;
+		}
+		if (failure != null) {
+			throw new ExecutionException(failure);
+		}
+		return result;
+	}
+
+	private boolean finish(T result, Throwable failure) {
+		List<Callback<? super T>> toNotify;
+		synchronized (this) {
+			if (done) {
+				return false;
+			}
+			this.done = true;
+			this.result = result;
+			this.failure = failure;
+			toNotify = callbacks;
+			callbacks = null;
+		}
+		latch.countDown();
+		for (Callback<? super T> callback : toNotify) {
+			runCallback(callback, result, failure);
+		}
+		return true;
+	}
+
+	private static <T> void runCallback(Callback<? super T> callback, T result, Throwable failure) {
+		try {
+			if (failure == null) {
+				callback.completed(result);
+			} else {
+				callback.failed(failure);
+			}
+		} catch (RuntimeException e) {
+			Logger.error(e, "AsyncResult callback %s failed: %s", callback, e.getMessage());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("AsyncResult[%s]", isDone() ? (failure == null ? result : failure) : "pending");
+	}
+}
@@ -23,11 +23,13 @@ import com.atomicleopard.expressive.Cast;
 import com.threewks.thundr.http.ContentType;
 import com.threewks.thundr.route.HttpMethod;
 import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteMatch;
 
 public abstract class BaseRequest implements Request {
 	protected HttpMethod httpMethod;
 	protected UUID id;
 	protected Route route;
+	protected RouteMatch routeMatch;
 
 	public BaseRequest(HttpMethod httpMethod, Route route) {
 		this.id = UUID.randomUUID();
@@ -35,6 +37,11 @@ public abstract class BaseRequest implements Request {
 		this.route = route;
 	}
 
+	public BaseRequest(HttpMethod httpMethod, RouteMatch routeMatch) {
+		this(httpMethod, routeMatch == null ? null : routeMatch.getRoute());
+		this.routeMatch = routeMatch;
+	}
+
 	protected abstract Object getRawRequest();
 
 	@Override
@@ -66,4 +73,12 @@ public abstract class BaseRequest implements Request {
 	public Route getRoute() {
 		return route;
 	}
+
+	@Override
+	public RouteMatch getRouteMatch() {
+		if (routeMatch == null && route != null) {
+			routeMatch = route.match(getRequestPath());
+		}
+		return routeMatch;
+	}
 }
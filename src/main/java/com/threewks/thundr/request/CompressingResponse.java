@@ -0,0 +1,558 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.threewks.thundr.exception.BaseException;
+import com.threewks.thundr.http.AcceptEncoding;
+import com.threewks.thundr.http.ContentType;
+import com.threewks.thundr.http.Cookie;
+import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+
+/**
+ * A {@link Response} which compresses its body as it is written to the wrapped response, using the content coding negotiated by
+ * {@link ResponseCompression}.
+ * 
+ * Whether the body is compressed is decided when headers are finalised or the body is first written. If the content length is not
+ * known at that point, up to {@link ResponseCompression#getMinimumSize()} bytes are held back until it is clear whether the body is
+ * large enough to be worth compressing, so views can stream their output without setting a content length. When the body is
+ * compressed the content length is dropped and the wrapped response is left to choose a transfer encoding. A strong ETag is made weak
+ * when the body is compressed, as the compressed body is not byte for byte the representation the ETag was derived from.
+ * 
+ * {@link #finish()} must be called once the body has been written.
+ */
+public class CompressingResponse implements Response {
+	private static final int BufferSize = 8192;
+
+	private final Response delegate;
+	private final ResponseCompression compression;
+	private final String encoding;
+	private Long contentLength;
+	private Boolean compressing;
+	private boolean finaliseHeaders;
+	private CompressingOutputStream outputStream;
+
+	public CompressingResponse(Response delegate, ResponseCompression compression, String encoding) {
+		this.delegate = delegate;
+		this.compression = compression;
+		this.encoding = encoding;
+	}
+
+	public Response getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @return the content coding applied when this response is compressed
+	 */
+	public String getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * @return true if the body is being compressed, false if it is not, or null if this has not been decided yet
+	 */
+	public Boolean isCompressing() {
+		return compressing;
+	}
+
+	/**
+	 * @param contentType
+	 * @return true if a body of the given content type may be compressed, in which case there is no benefit in buffering it to
+	 *         determine its length
+	 */
+	public boolean mayCompress(String contentType) {
+		return !Boolean.FALSE.equals(compressing) && compression.isCompressible(contentType);
+	}
+
+	/**
+	 * Completes the body, writing any held back content and the end of the compressed stream. This does not close the wrapped
+	 * response's output stream.
+	 * 
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		if (outputStream == null && Boolean.TRUE.equals(compressing)) {
+			outputStream = new CompressingOutputStream();
+		}
+		if (outputStream != null) {
+			outputStream.finish();
+		} else if (compressing == null) {
+			decide(false);
+		}
+	}
+
+	@Override
+	public <T> T getRawResponse(Class<T> type) {
+		return delegate.getRawResponse(type);
+	}
+
+	@Override
+	public boolean isCommitted() {
+		return delegate.isCommitted();
+	}
+
+	@Override
+	public boolean isUncommitted() {
+		return delegate.isUncommitted();
+	}
+
+	@Override
+	public Response withHeader(String header, Object value) {
+		delegate.withHeader(header, compressedHeaderValue(header, value));
+		return this;
+	}
+
+	@Override
+	public Response withHeader(String header, Object value, boolean include) {
+		delegate.withHeader(header, compressedHeaderValue(header, value), include);
+		return this;
+	}
+
+	@Override
+	public Response withHeaders(String header, Collection<?> values) {
+		delegate.withHeaders(header, values);
+		return this;
+	}
+
+	@Override
+	public Response withHeaders(String header, Collection<?> values, boolean include) {
+		delegate.withHeaders(header, values, include);
+		return this;
+	}
+
+	@Override
+	public Response withHeaders(Map<String, ?> headers) {
+		delegate.withHeaders(headers);
+		return this;
+	}
+
+	@Override
+	public Response withStatusCode(StatusCode statusCode) {
+		delegate.withStatusCode(statusCode);
+		return this;
+	}
+
+	@Override
+	public Response withStatusCode(StatusCode statusCode, boolean include) {
+		delegate.withStatusCode(statusCode, include);
+		return this;
+	}
+
+	@Override
+	public Response withStatusMessage(String message) {
+		delegate.withStatusMessage(message);
+		return this;
+	}
+
+	@Override
+	public Response withContentType(String contentType) {
+		delegate.withContentType(contentType);
+		return this;
+	}
+
+	@Override
+	public Response withContentType(ContentType contentType) {
+		delegate.withContentType(contentType);
+		return this;
+	}
+
+	@Override
+	public Response withContentType(String contentType, boolean include) {
+		delegate.withContentType(contentType, include);
+		return this;
+	}
+
+	@Override
+	public Response withCookie(Cookie cookie) {
+		delegate.withCookie(cookie);
+		return this;
+	}
+
+	@Override
+	public Response withCookies(Cookie... cookies) {
+		delegate.withCookies(cookies);
+		return this;
+	}
+
+	@Override
+	public Response withCookies(Collection<Cookie> cookies) {
+		delegate.withCookies(cookies);
+		return this;
+	}
+
+	@Override
+	public Response withCharacterEncoding(String characterEncoding) {
+		delegate.withCharacterEncoding(characterEncoding);
+		return this;
+	}
+
+	@Override
+	public Response withCharacterEncoding(String characterEncoding, boolean include) {
+		delegate.withCharacterEncoding(characterEncoding, include);
+		return this;
+	}
+
+	@Override
+	public Response withContentLength(long length) {
+		if (compressing == null) {
+			this.contentLength = length;
+		} else if (!compressing) {
+			delegate.withContentLength(length);
+		}
+		return this;
+	}
+
+	@Override
+	public Response withBody(String body) {
+		try {
+			String characterEncoding = StringUtils.defaultIfBlank(getCharacterEncoding(), "UTF-8");
+			return withBody(body.getBytes(characterEncoding));
+		} catch (UnsupportedEncodingException e) {
+			throw new BaseException(e);
+		}
+	}
+
+	@Override
+	public Response withBody(byte[] body) {
+		try {
+			getOutputStream().write(body);
+			return this;
+		} catch (IOException e) {
+			throw new BaseException(e);
+		}
+	}
+
+	@Override
+	public OutputStream getOutputStream() throws IOException {
+		if (outputStream == null) {
+			if (compressing == null) {
+				decideIfPossible();
+			}
+			if (Boolean.FALSE.equals(compressing)) {
+				return delegate.getOutputStream();
+			}
+			outputStream = new CompressingOutputStream();
+		}
+		return outputStream;
+	}
+
+	@Override
+	public StatusCode getStatusCode() {
+		return delegate.getStatusCode();
+	}
+
+	@Override
+	public ContentType getContentType() {
+		return delegate.getContentType();
+	}
+
+	@Override
+	public String getContentTypeString() {
+		return delegate.getContentTypeString();
+	}
+
+	@Override
+	public List<Cookie> getCookies(String name) {
+		return delegate.getCookies(name);
+	}
+
+	@Override
+	public String getCharacterEncoding() {
+		return delegate.getCharacterEncoding();
+	}
+
+	@Override
+	public Long getContentLength() {
+		if (compressing == null) {
+			return contentLength;
+		}
+		return compressing ? null : delegate.getContentLength();
+	}
+
+	@Override
+	public String getHeader(String name) {
+		return delegate.getHeader(name);
+	}
+
+	@Override
+	public List<String> getHeaders(String name) {
+		return delegate.getHeaders(name);
+	}
+
+	@Override
+	public Map<String, List<String>> getAllHeaders() {
+		return delegate.getAllHeaders();
+	}
+
+	@Override
+	public Cookie getCookie(String name) {
+		return delegate.getCookie(name);
+	}
+
+	@Override
+	public List<Cookie> getAllCookies() {
+		return delegate.getAllCookies();
+	}
+
+	/**
+	 * Finalises the headers of the wrapped response once it is known whether the body will be compressed, which may not be until
+	 * some of the body has been written.
+	 */
+	@Override
+	public Response finaliseHeaders() {
+		if (compressing != null) {
+			delegate.finaliseHeaders();
+		} else {
+			finaliseHeaders = true;
+			if (outputStream == null) {
+				decideIfPossible();
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	private void decideIfPossible() {
+		boolean compressible = delegate.isUncommitted()
+				&& compression.shouldCompress(delegate.getStatusCode(), delegate.getContentTypeString(), contentLength, delegate.getHeader(Header.ContentEncoding));
+		if (!compressible) {
+			decide(false);
+		} else if (contentLength != null) {
+			decide(true);
+		}
+	}
+
+	private void decide(boolean compress) {
+		compressing = compress;
+		if (compress) {
+			delegate.withHeader(Header.ContentEncoding, encoding);
+			delegate.withHeaders(Header.Vary, vary(delegate.getHeaders(Header.Vary)));
+			String etag = delegate.getHeader(Header.ETag);
+			if (etag != null) {
+				delegate.withHeader(Header.ETag, weaken(etag));
+			}
+		} else if (contentLength != null) {
+			delegate.withContentLength(contentLength);
+		}
+		if (finaliseHeaders) {
+			delegate.finaliseHeaders();
+		}
+	}
+
+	private Object compressedHeaderValue(String header, Object value) {
+		return Boolean.TRUE.equals(compressing) && value != null && Header.ETag.equalsIgnoreCase(header) ? weaken(value.toString()) : value;
+	}
+
+	private static String weaken(String etag) {
+		return etag.startsWith("W/") ? etag : "W/" + etag;
+	}
+
+	private static List<String> vary(List<String> existing) {
+		List<String> vary = existing == null ? new ArrayList<String>() : new ArrayList<String>(existing);
+		for (String value : vary) {
+			for (String header : StringUtils.split(value, ", ")) {
+				if (Header.AcceptEncoding.equalsIgnoreCase(header) || "*".equals(header)) {
+					return vary;
+				}
+			}
+		}
+		vary.add(Header.AcceptEncoding);
+		return vary;
+	}
+
+	private DeflaterOutputStream deflate(OutputStream out) throws IOException {
+		final int level = compression.getLevel();
+		if (AcceptEncoding.Gzip.equals(encoding)) {
+			return new GZIPOutputStream(out, BufferSize, true) {
+				{
+					def.setLevel(level);
+				}
+
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						def.end();
+					}
+				}
+			};
+		}
+		return new DeflaterOutputStream(out, new Deflater(level), BufferSize, true) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					def.end();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Holds back the start of the body until it is large enough to compress, then compresses it to the wrapped response.
+	 */
+	private class CompressingOutputStream extends OutputStream {
+		private byte[] held;
+		private int count;
+		private OutputStream target;
+		private DeflaterOutputStream deflater;
+		private boolean finished;
+
+		CompressingOutputStream() throws IOException {
+			if (compressing != null) {
+				start();
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (target == null && hold(1)) {
+				held[count++] = (byte) b;
+			} else {
+				target.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (target == null && hold(len)) {
+				System.arraycopy(b, off, held, count, len);
+				count += len;
+			} else {
+				target.write(b, off, len);
+			}
+		}
+
+		/**
+		 * Held back content is not flushed, as it is less than the minimum size and so only waits on the rest of the body.
+		 */
+		@Override
+		public void flush() throws IOException {
+			if (target != null) {
+				target.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+			target.close();
+		}
+
+		void finish() throws IOException {
+			if (!finished) {
+				finished = true;
+				if (target == null) {
+					contentLength = (long) count;
+					decide(false);
+					start();
+				}
+				if (deflater != null) {
+					try {
+						deflater.finish();
+					} finally {
+						deflater.close();
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return true if the given number of bytes should be held back, starting to write to the wrapped response if not
+		 */
+		private boolean hold(int len) throws IOException {
+			if (finished) {
+				throw new IOException("Stream is closed");
+			}
+			if (count + len < compression.getMinimumSize()) {
+				if (held == null) {
+					held = new byte[compression.getMinimumSize()];
+				}
+				return true;
+			}
+			decide(true);
+			start();
+			return false;
+		}
+
+		private void start() throws IOException {
+			OutputStream out = delegate.getOutputStream();
+			if (compressing) {
+				deflater = deflate(new UnclosableOutputStream(out));
+				target = deflater;
+			} else {
+				target = out;
+			}
+			if (count > 0) {
+				target.write(held, 0, count);
+			}
+			held = null;
+		}
+	}
+
+	/**
+	 * Lets the compressed stream be closed to release its deflater without closing the wrapped response's output stream.
+	 */
+	private static class UnclosableOutputStream extends OutputStream {
+		private final OutputStream out;
+
+		UnclosableOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.flush();
+		}
+	}
+}
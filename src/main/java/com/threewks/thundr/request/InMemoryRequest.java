@@ -33,6 +33,7 @@ import com.threewks.thundr.exception.BaseException;
 import com.threewks.thundr.http.ContentType;
 import com.threewks.thundr.http.Cookie;
 import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.Route;
 
 public class InMemoryRequest extends BaseRequest {
 	protected String contentType = ContentType.TextPlain.value();
@@ -42,11 +43,11 @@ public class InMemoryRequest extends BaseRequest {
 	protected byte[] requestData;
 
 	public InMemoryRequest() {
-		super(null, null);
+		super(null, (Route) null);
 	}
 
 	public InMemoryRequest(HttpMethod httpMethod, String path) {
-		super(httpMethod, null);
+		super(httpMethod, (Route) null);
 		this.path = path;
 	}
 
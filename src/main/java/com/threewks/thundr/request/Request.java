@@ -29,6 +29,7 @@ import com.threewks.thundr.http.ContentType;
 import com.threewks.thundr.http.Cookie;
 import com.threewks.thundr.route.HttpMethod;
 import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteMatch;
 
 public interface Request {
 
@@ -138,6 +139,13 @@ public interface Request {
 	 */
 	public Route getRoute();
 
+	/**
+	 * Returns the result of matching this request to its route, including any path variables, if any
+	 * 
+	 * @return
+	 */
+	public RouteMatch getRouteMatch();
+
 	public Cookie getCookie(String name);
 
 	public Map<String, List<Cookie>> getAllCookies();
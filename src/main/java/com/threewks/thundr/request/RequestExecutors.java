@@ -0,0 +1,55 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.threewks.thundr.logger.Logger;
+
+/**
+ * Creates executors suitable for running each request as its own task, see {@link com.threewks.thundr.Thundr#resolveOn}.
+ */
+public class RequestExecutors {
+	/**
+	 * Creates an executor which runs each task on a new virtual thread when the runtime supports them (Java 21 and later), allowing very
+	 * large numbers of requests to block concurrently. On earlier runtimes this falls back to a cached pool of platform threads.
+	 * 
+	 * @return
+	 */
+	public static ExecutorService perRequest() {
+		ExecutorService virtual = virtualThreadPerTask();
+		return virtual == null ? Executors.newCachedThreadPool() : virtual;
+	}
+
+	/**
+	 * @return an executor which starts a new virtual thread for each task, or null if the runtime does not support virtual threads
+	 */
+	public static ExecutorService virtualThreadPerTask() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (Exception e) {
+			Logger.warn("Virtual threads are not available, falling back to platform threads: %s", e.getMessage());
+			return null;
+		}
+	}
+}
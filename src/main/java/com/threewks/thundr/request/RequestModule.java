@@ -17,14 +17,53 @@
  */
 package com.threewks.thundr.request;
 
+import org.apache.commons.lang3.StringUtils;
+
 import com.threewks.thundr.injection.BaseModule;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
 
 public class RequestModule extends BaseModule {
+	/**
+	 * When this property is "true", the {@link RequestContainer} is a {@link ScopedRequestContainer} rather than a
+	 * {@link ThreadLocalRequestContainer}.
+	 */
+	public static final String ScopedRequestContainerProperty = "scopedRequestContainer";
 
 	@Override
 	public void initialise(UpdatableInjectionContext injectionContext) {
 		super.initialise(injectionContext);
-		injectionContext.inject(new ThreadLocalRequestContainer()).as(RequestContainer.class, MutableRequestContainer.class);
+		if (useScopedRequestContainer(injectionContext)) {
+			injectionContext.inject(new ScopedRequestContainer()).as(RequestContainer.class, MutableRequestContainer.class);
+		} else {
+			injectionContext.inject(new ThreadLocalRequestContainer()).as(RequestContainer.class, MutableRequestContainer.class);
+		}
+		injectionContext.inject(createResponseCompression(injectionContext)).as(ResponseCompression.class);
+	}
+
+	protected boolean useScopedRequestContainer(UpdatableInjectionContext injectionContext) {
+		String scoped = property(injectionContext, ScopedRequestContainerProperty);
+		return StringUtils.isNotBlank(scoped) && Boolean.parseBoolean(scoped.trim());
+	}
+
+	protected ResponseCompression createResponseCompression(UpdatableInjectionContext injectionContext) {
+		ResponseCompression compression = new ResponseCompression();
+		String enabled = property(injectionContext, ResponseCompression.EnabledProperty);
+		String level = property(injectionContext, ResponseCompression.LevelProperty);
+		String minimumSize = property(injectionContext, ResponseCompression.MinimumSizeProperty);
+		if (StringUtils.isNotBlank(enabled)) {
+			compression.withEnabled(Boolean.parseBoolean(enabled.trim()));
+		}
+		if (StringUtils.isNotBlank(level)) {
+			compression.withLevel(Integer.parseInt(level.trim()));
+		}
+		if (StringUtils.isNotBlank(minimumSize)) {
+			compression.withMinimumSize(Integer.parseInt(minimumSize.trim()));
+		}
+		return compression;
+	}
+
+	// only a property injected by name, get would otherwise fall back to any unnamed string
+	private String property(UpdatableInjectionContext injectionContext, String name) {
+		return injectionContext.containsNamed(String.class, name) ? injectionContext.get(String.class, name) : null;
 	}
 }
@@ -0,0 +1,162 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import static com.atomicleopard.expressive.Expressive.list;
+
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.threewks.thundr.http.AcceptEncoding;
+import com.threewks.thundr.http.ContentType;
+import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.route.HttpMethod;
+
+/**
+ * Decides which responses are compressed, and how.
+ * 
+ * Compression is off unless enabled, for example by setting the {@value #EnabledProperty} configuration property to true, as a
+ * compressed response may disclose secrets through its length and is often better left to a proxy in front of the application.
+ * 
+ * Responses are compressed using gzip or deflate when the client accepts it, the content type is compressible, the content is not
+ * already encoded and it is not known to be smaller than the minimum size. Content types are compressible if they are one of the
+ * {@link #CompressibleTypes}, are text, or are a json or xml based type. Images, archives and other already compressed types are not,
+ * nor are event streams, whose events should not wait on the compressor.
+ * 
+ * @see CompressingResponse
+ */
+public class ResponseCompression {
+	public static final String EnabledProperty = "compressionEnabled";
+	public static final String LevelProperty = "compressionLevel";
+	public static final String MinimumSizeProperty = "compressionMinimumSize";
+
+	public static final int DefaultLevel = 6;
+	public static final int DefaultMinimumSize = 1024;
+	public static final String EventStream = "text/event-stream";
+
+	public static final List<ContentType> CompressibleTypes = list(ContentType.TextPlain, ContentType.TextHtml, ContentType.TextCss, ContentType.TextCsv, ContentType.TextJavascript,
+			ContentType.ApplicationJavascript, ContentType.ApplicationJson, ContentType.ApplicationXml, ContentType.ApplicationXmlDtd, ContentType.ApplicationSoapXml);
+
+	private boolean enabled = false;
+	private int level = DefaultLevel;
+	private int minimumSize = DefaultMinimumSize;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public ResponseCompression withEnabled(boolean enabled) {
+		this.enabled = enabled;
+		return this;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * @param level the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+	 * @return
+	 */
+	public ResponseCompression withLevel(int level) {
+		if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException(String.format("Compression level must be between %d and %d, not %d", Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION, level));
+		}
+		this.level = level;
+		return this;
+	}
+
+	public int getMinimumSize() {
+		return minimumSize;
+	}
+
+	/**
+	 * @param minimumSize responses with a content length smaller than this number of bytes are not compressed
+	 * @return
+	 */
+	public ResponseCompression withMinimumSize(int minimumSize) {
+		this.minimumSize = minimumSize;
+		return this;
+	}
+
+	/**
+	 * @param req
+	 * @param resp
+	 * @return a {@link CompressingResponse} wrapping the given response if the request accepts a supported content coding, otherwise
+	 *         the given response
+	 */
+	public Response wrap(Request req, Response resp) {
+		if (enabled && !req.isA(HttpMethod.HEAD)) {
+			String encoding = selectEncoding(req.getHeader(Header.AcceptEncoding));
+			if (encoding != null) {
+				return new CompressingResponse(resp, this, encoding);
+			}
+		}
+		return resp;
+	}
+
+	/**
+	 * @param acceptEncoding
+	 * @return the content coding to use for a request with the given Accept-Encoding header, or null if none are acceptable
+	 */
+	public String selectEncoding(String acceptEncoding) {
+		if (acceptEncoding != null) {
+			float gzip = AcceptEncoding.quality(acceptEncoding, AcceptEncoding.Gzip);
+			float deflate = AcceptEncoding.quality(acceptEncoding, AcceptEncoding.Deflate);
+			if (gzip > 0 && gzip >= deflate) {
+				return AcceptEncoding.Gzip;
+			}
+			if (deflate > 0) {
+				return AcceptEncoding.Deflate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param statusCode
+	 * @param contentType
+	 * @param contentLength the length of the content in bytes, or null if it is not known
+	 * @param contentEncoding any content coding already applied to the content
+	 * @return true if a response with the given properties should be compressed
+	 */
+	public boolean shouldCompress(StatusCode statusCode, String contentType, Long contentLength, String contentEncoding) {
+		if (statusCode != null && (statusCode.getCode() < 200 || statusCode == StatusCode.NoContent || statusCode == StatusCode.PartialContent || statusCode == StatusCode.NotModified)) {
+			return false;
+		}
+		if (contentLength != null && contentLength < minimumSize) {
+			return false;
+		}
+		return StringUtils.isBlank(contentEncoding) && isCompressible(contentType);
+	}
+
+	/**
+	 * @param contentType
+	 * @return true if content of the given type is likely to be reduced in size by compression
+	 */
+	public boolean isCompressible(String contentType) {
+		String type = StringUtils.lowerCase(ContentType.cleanContentType(contentType));
+		if (type == null || EventStream.equals(type)) {
+			return false;
+		}
+		return ContentType.matchesAny(type, CompressibleTypes) || type.startsWith("text/") || type.endsWith("+json") || type.endsWith("+xml");
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * A {@link ScopedRequestContainer} binds the {@link Request} and {@link Response} to the current thread as a single immutable scope.
+ * 
+ * Unlike the {@link ThreadLocalRequestContainer}, a scope can be bound for the duration of a unit of work using
+ * {@link #call(Request, Response, Callable)}, after which the outer scope is restored, and the scope of the current thread can be carried
+ * onto another thread using {@link #propagate(Runnable)}. This makes it suitable for containers which run each request as its own task,
+ * including on a virtual thread per request, as well as for the thread per request model.
+ * 
+ * The {@link RequestModule} provides a {@link ScopedRequestContainer} when the {@link RequestModule#ScopedRequestContainerProperty}
+ * property is "true".
+ */
+public class ScopedRequestContainer implements RequestContainer, MutableRequestContainer {
+	private final ThreadLocal<Scope> scope = new ThreadLocal<Scope>();
+
+	@Override
+	public UUID getId() {
+		Request request = getRequest();
+		return request == null ? null : request.getId();
+	}
+
+	@Override
+	public Request getRequest() {
+		Scope current = scope.get();
+		return current == null ? null : current.req;
+	}
+
+	@Override
+	public Response getResponse() {
+		Scope current = scope.get();
+		return current == null ? null : current.resp;
+	}
+
+	@Override
+	public void set(Request req, Response resp) {
+		bind(req == null && resp == null ? null : new Scope(req, resp));
+	}
+
+	@Override
+	public void clear() {
+		scope.remove();
+	}
+
+	/**
+	 * Invokes the given callable with the given request and response bound, restoring whatever was bound beforehand once it returns.
+	 * 
+	 * @param req
+	 * @param resp
+	 * @param callable
+	 * @return the result of the callable
+	 * @throws Exception if the callable throws
+	 */
+	public <T> T call(Request req, Response resp, Callable<T> callable) throws Exception {
+		Scope outer = scope.get();
+		set(req, resp);
+		try {
+			return callable.call();
+		} finally {
+			bind(outer);
+		}
+	}
+
+	/**
+	 * Wraps the given runnable so that it runs with the request and response bound to the calling thread, for example when handing part of
+	 * the work for a request to an executor. Whatever was bound on the thread that runs it is restored once it returns.
+	 * 
+	 * @param runnable
+	 * @return
+	 */
+	public Runnable propagate(final Runnable runnable) {
+		final Scope captured = scope.get();
+		return new Runnable() {
+			@Override
+			public void run() {
+				Scope outer = scope.get();
+				bind(captured);
+				try {
+					runnable.run();
+				} finally {
+					bind(outer);
+				}
+			}
+		};
+	}
+
+	private void bind(Scope bound) {
+		if (bound == null) {
+			scope.remove();
+		} else {
+			scope.set(bound);
+		}
+	}
+
+	private static final class Scope {
+		private final Request req;
+		private final Response resp;
+
+		private Scope(Request req, Response resp) {
+			this.req = req;
+			this.resp = resp;
+		}
+	}
+}
@@ -75,10 +75,34 @@ public class Route {
 		return method;
 	}
 
+	public List<String> getPathParameters() {
+		return pathParameters;
+	}
+
 	public boolean matches(String routePath) {
 		return routeMatchRegex.matcher(routePath).matches();
 	}
 
+	/**
+	 * Matches the given path against this route, returning the {@link RouteMatch} or null if the path does not match.
+	 * 
+	 * @param routePath
+	 * @return
+	 */
+	public RouteMatch match(String routePath) {
+		Matcher matcher = routeMatchRegex.matcher(routePath);
+		if (!matcher.matches()) {
+			return null;
+		}
+		int count = Math.min(matcher.groupCount(), pathParameters.size());
+		int[] offsets = new int[count * 2];
+		for (int i = 0; i < count; i++) {
+			offsets[i * 2] = matcher.start(i + 1);
+			offsets[i * 2 + 1] = matcher.end(i + 1);
+		}
+		return new RouteMatch(this, routePath, offsets);
+	}
+
 	public String getReverseRoutePath(Map<String, Object> pathVars) {
 		return getReverseRoute(pathVars).getUri();
 	}
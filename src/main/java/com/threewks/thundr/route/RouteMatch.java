@@ -0,0 +1,105 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.threewks.thundr.http.URLEncoder;
+
+/**
+ * The result of matching a request path to a {@link Route}.
+ * 
+ * Path variables are held as offsets into the matched path, and are only decoded when they are asked for,
+ * so that binding from the path does not need to match the route a second time.
+ */
+public class RouteMatch {
+	private final Route route;
+	private final String path;
+	private final int[] offsets;
+	private final String[] decoded;
+	private Map<String, String> pathVars;
+
+	/**
+	 * @param route the matched route
+	 * @param path the matched request path
+	 * @param offsets the start (inclusive) and end (exclusive) of each of the route's path parameters in the path, in pairs
+	 */
+	RouteMatch(Route route, String path, int[] offsets) {
+		this.route = route;
+		this.path = path;
+		this.offsets = offsets;
+		this.decoded = new String[offsets.length / 2];
+	}
+
+	public Route getRoute() {
+		return route;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public boolean hasPathVars() {
+		return decoded.length > 0;
+	}
+
+	/**
+	 * Returns the decoded value of the given path variable, or null if the route has no such path variable
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public String getPathVar(String name) {
+		int index = route.getPathParameters().indexOf(name);
+		return index < 0 || index >= decoded.length ? null : getPathVar(index);
+	}
+
+	/**
+	 * Returns the decoded values of all path variables, keyed by name.
+	 * 
+	 * @return
+	 */
+	public Map<String, String> getPathVars() {
+		if (pathVars == null) {
+			List<String> names = route.getPathParameters();
+			Map<String, String> results = new LinkedHashMap<String, String>();
+			for (int i = 0; i < decoded.length; i++) {
+				results.put(names.get(i), getPathVar(i));
+			}
+			pathVars = Collections.unmodifiableMap(results);
+		}
+		return pathVars;
+	}
+
+	private String getPathVar(int index) {
+		String value = decoded[index];
+		if (value == null) {
+			value = URLEncoder.decodePathComponent(path.substring(offsets[index * 2], offsets[index * 2 + 1]));
+			decoded[index] = value;
+		}
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return route + " " + path;
+	}
+}
@@ -0,0 +1,341 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the {@link Route}s for a single {@link HttpMethod} as a tree of path segments so that
+ * matching a request path costs a walk over its segments, rather than a regular expression evaluation
+ * for each registered route.
+ * 
+ * Literal segments, <code>{var}</code> segments and the <code>*</code> and <code>**</code> wildcards are each
+ * held as their own kind of node. Routes which contain anything else (for example a partial wildcard like
+ * <code>/images/*.jpg</code>, or regex characters) are matched using {@link Route#matches(String)} as before.
+ * 
+ * Where more than one route matches a path, the route which was added first is returned, the same as
+ * evaluating each route in the order it was registered.
+ */
+class RouteMatcher {
+	private static final boolean[] AcceptableCharacters = createAcceptableCharacters();
+	private static final String RegexCharacters = "\\^$.|?*+()[]{};";
+	private static final String LineTerminators = "\n\r\u0085\u2028\u2029";
+
+	private Node root = new Node();
+	private List<Entry> fallbackRoutes = new ArrayList<Entry>();
+	private Map<Route, Entry> entries = new HashMap<Route, Entry>();
+	private int order = 0;
+
+	public void add(Route route) {
+		String[] segments = compile(route.getRoute());
+		Entry entry = new Entry(route, order++, segments);
+		entries.put(route, entry);
+		if (segments == null) {
+			fallbackRoutes.add(entry);
+		} else {
+			root.add(entry, 0);
+		}
+	}
+
+	public void remove(Route route) {
+		Entry entry = entries.remove(route);
+		if (entry != null) {
+			if (entry.segments == null) {
+				fallbackRoutes.remove(entry);
+			} else {
+				root.remove(entry, 0);
+			}
+		}
+	}
+
+	public RouteMatch find(String routePath) {
+		if (routePath == null) {
+			return null;
+		}
+		Entry best = null;
+		String[] pathSegments = split(routePath);
+		if (pathSegments != null) {
+			best = root.find(pathSegments, 0, null);
+		}
+		for (Entry entry : fallbackRoutes) {
+			if (best != null && entry.order > best.order) {
+				break;
+			}
+			RouteMatch match = entry.route.match(routePath);
+			if (match != null) {
+				return match;
+			}
+		}
+		return best == null ? null : best.match(routePath, pathSegments);
+	}
+
+	/**
+	 * Splits the given route into path segments, returning null if the route contains anything
+	 * that cannot be represented as a literal, variable or wildcard segment.
+	 */
+	static String[] compile(String route) {
+		String[] segments = route.split("/", -1);
+		for (String segment : segments) {
+			if (!isWildcard(segment) && !isVariable(segment) && containsAny(segment, RegexCharacters)) {
+				return null;
+			}
+		}
+		return segments;
+	}
+
+	/**
+	 * Splits the given request path into path segments. Anything from the first semi-colon is treated as request parameters
+	 * and ignored (see {@link Route#SemiColonDelimitedRequestParameters}). Returns null if the path cannot be matched at all.
+	 */
+	static String[] split(String routePath) {
+		int semiColon = routePath.indexOf(';');
+		if (semiColon > -1) {
+			if (containsAny(routePath.substring(semiColon), LineTerminators)) {
+				return null;
+			}
+			routePath = routePath.substring(0, semiColon);
+		}
+		return routePath.split("/", -1);
+	}
+
+	static boolean isAcceptable(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c >= AcceptableCharacters.length || !AcceptableCharacters[c]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isWildcard(String segment) {
+		return "*".equals(segment) || "**".equals(segment);
+	}
+
+	private static boolean isVariable(String segment) {
+		int length = segment.length();
+		return length > 2 && segment.charAt(0) == '{' && segment.charAt(length - 1) == '}' && !containsAny(segment.substring(1, length - 1), "{}*");
+	}
+
+	private static boolean containsAny(String string, String characters) {
+		for (int i = 0; i < string.length(); i++) {
+			if (characters.indexOf(string.charAt(i)) > -1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean[] createAcceptableCharacters() {
+		boolean[] acceptable = new boolean[128];
+		for (char c = 'a'; c <= 'z'; c++) {
+			acceptable[c] = true;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			acceptable[c] = true;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			acceptable[c] = true;
+		}
+		for (char c : "_%:@&=+$,!~*'().-".toCharArray()) {
+			acceptable[c] = true;
+		}
+		return acceptable;
+	}
+
+	private static class Entry {
+		private final Route route;
+		private final int order;
+		private final String[] segments;
+
+		private Entry(Route route, int order, String[] segments) {
+			this.route = route;
+			this.order = order;
+			this.segments = segments;
+		}
+
+		/**
+		 * Captures the offsets of each path variable in a path already known to match this entry.
+		 */
+		private RouteMatch match(String routePath, String[] path) {
+			int[] starts = new int[path.length + 1];
+			for (int i = 0; i < path.length; i++) {
+				starts[i + 1] = starts[i] + path[i].length() + 1;
+			}
+			int[] offsets = new int[route.getPathParameters().size() * 2];
+			capture(0, path, 0, starts, offsets, 0);
+			return new RouteMatch(route, routePath, offsets);
+		}
+
+		// ** is tried against as few segments as possible first, the same as the lazy quantifier in the route regex
+		private boolean capture(int index, String[] path, int pathIndex, int[] starts, int[] offsets, int variable) {
+			if (index == segments.length) {
+				return pathIndex == path.length;
+			}
+			if (pathIndex == path.length) {
+				return false;
+			}
+			String segment = segments[index];
+			if ("**".equals(segment)) {
+				for (int i = pathIndex; i < path.length && isAcceptable(path[i]); i++) {
+					if (capture(index + 1, path, i + 1, starts, offsets, variable)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			if ("*".equals(segment)) {
+				return isAcceptable(path[pathIndex]) && capture(index + 1, path, pathIndex + 1, starts, offsets, variable);
+			}
+			if (isVariable(segment)) {
+				if (path[pathIndex].isEmpty() || !isAcceptable(path[pathIndex])) {
+					return false;
+				}
+				offsets[variable * 2] = starts[pathIndex];
+				offsets[variable * 2 + 1] = starts[pathIndex] + path[pathIndex].length();
+				return capture(index + 1, path, pathIndex + 1, starts, offsets, variable + 1);
+			}
+			return segment.equals(path[pathIndex]) && capture(index + 1, path, pathIndex + 1, starts, offsets, variable);
+		}
+	}
+
+	private static class Node {
+		private Map<String, Node> literals = new HashMap<String, Node>();
+		private Node variable;
+		private Node wildcard;
+		private Node multiWildcard;
+		private Entry entry;
+		// the earliest registered route at or below this node, used to avoid searching branches which cannot win
+		private int lowestOrder = Integer.MAX_VALUE;
+
+		private void add(Entry newEntry, int index) {
+			lowestOrder = Math.min(lowestOrder, newEntry.order);
+			if (index == newEntry.segments.length) {
+				entry = newEntry;
+				return;
+			}
+			String segment = newEntry.segments[index];
+			Node child;
+			if ("**".equals(segment)) {
+				child = multiWildcard = multiWildcard == null ? new Node() : multiWildcard;
+			} else if ("*".equals(segment)) {
+				child = wildcard = wildcard == null ? new Node() : wildcard;
+			} else if (isVariable(segment)) {
+				child = variable = variable == null ? new Node() : variable;
+			} else {
+				child = literals.get(segment);
+				if (child == null) {
+					child = new Node();
+					literals.put(segment, child);
+				}
+			}
+			child.add(newEntry, index + 1);
+		}
+
+		private void remove(Entry oldEntry, int index) {
+			if (index == oldEntry.segments.length) {
+				if (entry == oldEntry) {
+					entry = null;
+				}
+			} else {
+				String segment = oldEntry.segments[index];
+				Node child = child(segment);
+				if (child != null) {
+					child.remove(oldEntry, index + 1);
+					if (child.isEmpty()) {
+						removeChild(segment);
+					}
+				}
+			}
+			lowestOrder = calculateLowestOrder();
+		}
+
+		private Entry find(String[] path, int index, Entry best) {
+			if (lowestOrder == Integer.MAX_VALUE || best != null && lowestOrder > best.order) {
+				return best;
+			}
+			if (index == path.length) {
+				return entry != null && (best == null || entry.order < best.order) ? entry : best;
+			}
+			String segment = path[index];
+			Node literal = literals.get(segment);
+			if (literal != null) {
+				best = literal.find(path, index + 1, best);
+			}
+			if (variable != null || wildcard != null || multiWildcard != null) {
+				boolean acceptable = isAcceptable(segment);
+				if (acceptable && variable != null && !segment.isEmpty()) {
+					best = variable.find(path, index + 1, best);
+				}
+				if (acceptable && wildcard != null) {
+					best = wildcard.find(path, index + 1, best);
+				}
+				// ** consumes one or more whole segments
+				for (int i = index; multiWildcard != null && i < path.length && isAcceptable(path[i]); i++) {
+					best = multiWildcard.find(path, i + 1, best);
+				}
+			}
+			return best;
+		}
+
+		private Node child(String segment) {
+			if ("**".equals(segment)) {
+				return multiWildcard;
+			}
+			if ("*".equals(segment)) {
+				return wildcard;
+			}
+			if (isVariable(segment)) {
+				return variable;
+			}
+			return literals.get(segment);
+		}
+
+		private void removeChild(String segment) {
+			if ("**".equals(segment)) {
+				multiWildcard = null;
+			} else if ("*".equals(segment)) {
+				wildcard = null;
+			} else if (isVariable(segment)) {
+				variable = null;
+			} else {
+				literals.remove(segment);
+			}
+		}
+
+		private boolean isEmpty() {
+			return entry == null && variable == null && wildcard == null && multiWildcard == null && literals.isEmpty();
+		}
+
+		private int calculateLowestOrder() {
+			int lowest = entry == null ? Integer.MAX_VALUE : entry.order;
+			for (Node child : literals.values()) {
+				lowest = Math.min(lowest, child.lowestOrder);
+			}
+			for (Node child : new Node[] { variable, wildcard, multiWildcard }) {
+				if (child != null) {
+					lowest = Math.min(lowest, child.lowestOrder);
+				}
+			}
+			return lowest;
+		}
+	}
+}
@@ -31,6 +31,8 @@ import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 
 import com.threewks.thundr.logger.Logger;
+import com.threewks.thundr.profiler.StartupProfiler;
+import com.threewks.thundr.profiler.StartupProfiler.Span;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
 import com.threewks.thundr.route.controller.Controller;
@@ -39,11 +41,22 @@ public class Router {
 	private Map<Route, RouteResult> actionsForRoutes = new HashMap<Route, RouteResult>();
 
 	private Map<HttpMethod, Map<String, Route>> routes = createRoutesMap();
+	private Map<HttpMethod, RouteMatcher> routeMatchers = createRouteMatchers();
 	private Map<String, Route> namedRoutes = new HashMap<String, Route>();
 
 	private Map<Class<? extends RouteResult>, RouteResolver<?>> actionResolvers = new LinkedHashMap<Class<? extends RouteResult>, RouteResolver<?>>();
 
 	private boolean debug = false;
+	private StartupProfiler startupProfiler;
+
+	/**
+	 * Sets the {@link StartupProfiler} which records the time taken to add each route.
+	 * 
+	 * @param startupProfiler
+	 */
+	public void setStartupProfiler(StartupProfiler startupProfiler) {
+		this.startupProfiler = startupProfiler;
+	}
 
 	public Router get(String route, Class<?> controller, String controllerMethod) {
 		return this.get(route, controller, controllerMethod, null);
@@ -157,7 +170,17 @@ public class Router {
 		return actionsForRoutes.isEmpty();
 	}
 
-	public <T extends RouteResult> Router add(HttpMethod httpMethod, String routePath, T action, String name) {
+	public synchronized <T extends RouteResult> Router add(HttpMethod httpMethod, String routePath, T action, String name) {
+		Span span = StartupProfiler.begin(startupProfiler, StartupProfiler.Route, httpMethod + " " + routePath);
+		try {
+			addRoute(httpMethod, routePath, action, name);
+			return this;
+		} finally {
+			span.end();
+		}
+	}
+
+	private <T extends RouteResult> void addRoute(HttpMethod httpMethod, String routePath, T action, String name) {
 		Route route = new Route(httpMethod, routePath, name);
 		String path = route.getRouteMatchRegex();
 		Map<String, Route> routesForMethod = this.routes.get(httpMethod);
@@ -176,8 +199,8 @@ public class Router {
 			this.namedRoutes.put(name, route);
 		}
 		routesForMethod.put(path, route);
+		this.routeMatchers.get(httpMethod).add(route);
 		this.actionsForRoutes.put(route, action);
-		return this;
 	}
 
 	public Route getNamedRoute(String name) {
@@ -216,13 +239,20 @@ public class Router {
 	}
 
 	public Route findMatchingRoute(HttpMethod method, String routePath) {
-		Map<String, Route> routesForMethod = routes.get(method);
-		for (Route route : routesForMethod.values()) {
-			if (route.matches(routePath)) {
-				return route;
-			}
-		}
-		return null;
+		RouteMatch match = findMatch(method, routePath);
+		return match == null ? null : match.getRoute();
+	}
+
+	/**
+	 * Finds the first registered route matching the given method and path, returning the {@link RouteMatch}
+	 * including any path variables, or null if no route matches.
+	 * 
+	 * @param method
+	 * @param routePath
+	 * @return
+	 */
+	public RouteMatch findMatch(HttpMethod method, String routePath) {
+		return routeMatchers.get(method).find(routePath);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -231,6 +261,13 @@ public class Router {
 		return actionResolver.resolve(action, req, resp);
 	}
 
+	/**
+	 * @return the actions of all registered routes
+	 */
+	public synchronized List<RouteResult> listActions() {
+		return new ArrayList<RouteResult>(actionsForRoutes.values());
+	}
+
 	private static final String routeDisplayFormat = "%s: %s\n";
 
 	public String listRoutes() {
@@ -255,7 +292,7 @@ public class Router {
 		return sb.toString();
 	}
 
-	public <A extends RouteResult> void addResolver(Class<A> actionType, RouteResolver<A> actionResolver) {
+	public synchronized <A extends RouteResult> void addResolver(Class<A> actionType, RouteResolver<A> actionResolver) {
 		actionResolvers.put(actionType, actionResolver);
 		Logger.debug("Added action resolver %s for actions of type %s", actionResolver.getClass().getSimpleName(), actionType);
 	}
@@ -273,10 +310,19 @@ public class Router {
 		return routesMap;
 	}
 
-	private void remove(Route route) {
+	private Map<HttpMethod, RouteMatcher> createRouteMatchers() {
+		Map<HttpMethod, RouteMatcher> routeMatchers = new HashMap<HttpMethod, RouteMatcher>();
+		for (HttpMethod type : HttpMethod.all()) {
+			routeMatchers.put(type, new RouteMatcher());
+		}
+		return routeMatchers;
+	}
+
+	private synchronized void remove(Route route) {
 		if (route != null) {
 			Map<String, Route> routesForMethod = this.routes.get(route.getMethod());
 			routesForMethod.remove(route.getRouteMatchRegex());
+			routeMatchers.get(route.getMethod()).remove(route);
 			actionsForRoutes.remove(route);
 			if (route.getName() != null) {
 				namedRoutes.remove(route.getName());
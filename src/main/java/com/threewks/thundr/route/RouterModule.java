@@ -22,6 +22,7 @@ import com.threewks.thundr.bind.BinderRegistry;
 import com.threewks.thundr.injection.BaseModule;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
 import com.threewks.thundr.module.DependencyRegistry;
+import com.threewks.thundr.profiler.StartupProfiler;
 import com.threewks.thundr.route.controller.Controller;
 import com.threewks.thundr.route.controller.ControllerRouteResolver;
 import com.threewks.thundr.route.controller.FilterRegistry;
@@ -29,6 +30,8 @@ import com.threewks.thundr.route.controller.FilterRegistryImpl;
 import com.threewks.thundr.route.controller.InterceptorRegistry;
 import com.threewks.thundr.route.redirect.Redirect;
 import com.threewks.thundr.route.redirect.RedirectRouteResolver;
+import com.threewks.thundr.route.resource.StaticResource;
+import com.threewks.thundr.route.resource.StaticResourceRouteResolver;
 import com.threewks.thundr.route.xsrf.Xsrf;
 import com.threewks.thundr.route.xsrf.XsrfInterceptor;
 import com.threewks.thundr.view.ViewModule;
@@ -43,7 +46,11 @@ public class RouterModule extends BaseModule {
 	@Override
 	public void initialise(UpdatableInjectionContext injectionContext) {
 		super.initialise(injectionContext);
-		injectionContext.inject(new Router()).as(Router.class);
+		Router router = new Router();
+		if (injectionContext.contains(StartupProfiler.class)) {
+			router.setStartupProfiler(injectionContext.get(StartupProfiler.class));
+		}
+		injectionContext.inject(router).as(Router.class);
 		injectionContext.inject(new FilterRegistryImpl()).as(FilterRegistry.class);
 	}
 
@@ -58,6 +65,7 @@ public class RouterModule extends BaseModule {
 		injectionContext.inject(controllerRouteResolver).as(InterceptorRegistry.class);
 
 		router.addResolver(Redirect.class, new RedirectRouteResolver());
+		router.addResolver(StaticResource.class, new StaticResourceRouteResolver());
 		router.addResolver(Controller.class, controllerRouteResolver);
 
 		controllerRouteResolver.registerInterceptor(Xsrf.class, new XsrfInterceptor());
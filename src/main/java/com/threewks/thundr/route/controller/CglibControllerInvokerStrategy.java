@@ -0,0 +1,60 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.controller;
+
+import java.lang.reflect.Method;
+
+import com.threewks.thundr.logger.Logger;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+/**
+ * Invokes controller methods through a cglib {@link FastClass}, a generated class which calls the controller
+ * method directly, selected by index.
+ * 
+ * Where a {@link FastClass} cannot be generated for a controller (for example if it is not public) the method is invoked
+ * reflectively instead.
+ */
+public class CglibControllerInvokerStrategy implements ControllerInvokerStrategy {
+	private ControllerInvokerStrategy fallback = new ReflectionControllerInvokerStrategy();
+
+	@Override
+	public ControllerInvoker createInvoker(Method method) {
+		try {
+			FastClass fastClass = FastClass.create(method.getDeclaringClass());
+			return new CglibControllerInvoker(fastClass.getMethod(method));
+		} catch (RuntimeException e) {
+			Logger.debug("Unable to generate a FastClass for %s, invoking %s reflectively: %s", method.getDeclaringClass().getName(), method.getName(), e.getMessage());
+			return fallback.createInvoker(method);
+		}
+	}
+
+	private static class CglibControllerInvoker implements ControllerInvoker {
+		private final FastMethod fastMethod;
+
+		private CglibControllerInvoker(FastMethod fastMethod) {
+			this.fastMethod = fastMethod;
+		}
+
+		@Override
+		public Object invoke(Object controller, Object[] arguments) throws Exception {
+			return fastMethod.invoke(controller, arguments);
+		}
+	}
+}
@@ -18,6 +18,7 @@
 package com.threewks.thundr.route.controller;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.threewks.thundr.introspection.ClassIntrospector;
 import com.threewks.thundr.introspection.ParameterDescription;
+import com.threewks.thundr.request.AsyncResult;
 import com.threewks.thundr.route.RouteResolverException;
 import com.threewks.thundr.route.RouteResult;
 
@@ -58,7 +60,11 @@ public class Controller implements RouteResult {
 	}
 
 	public Object invoke(Object controller, List<?> args) throws Exception {
-		return method.invoke(controller, args.toArray());
+		return invoke(controller, args.toArray());
+	}
+
+	public Object invoke(Object controller, Object[] args) throws Exception {
+		return method.invoke(controller, args);
 	}
 
 	@Override
@@ -75,6 +81,21 @@ public class Controller implements RouteResult {
 		return method;
 	}
 
+	/**
+	 * @return the type of view this controller method declares it returns, or the declared result type of an {@link AsyncResult}
+	 */
+	public Class<?> viewType() {
+		Type returnType = method.getGenericReturnType();
+		if (returnType instanceof ParameterizedType) {
+			ParameterizedType parameterized = (ParameterizedType) returnType;
+			Type result = parameterized.getActualTypeArguments()[0];
+			if (parameterized.getRawType() == AsyncResult.class && result instanceof Class) {
+				return (Class<?>) result;
+			}
+		}
+		return method.getReturnType();
+	}
+
 	static final String classNameForAction(String actionName) {
 		return StringUtils.substringBeforeLast(actionName, ".");
 	}
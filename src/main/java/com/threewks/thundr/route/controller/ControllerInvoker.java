@@ -0,0 +1,36 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.controller;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Calls a single controller method. Instances are created by a {@link ControllerInvokerStrategy}.
+ */
+public interface ControllerInvoker {
+	/**
+	 * Invokes the controller method on the given controller with the given arguments.
+	 * 
+	 * @param controller the controller instance
+	 * @param arguments an argument for each of the method's parameters, in order
+	 * @return the value returned by the controller method, or null for void methods
+	 * @throws InvocationTargetException wrapping anything thrown by the controller method itself
+	 * @throws Exception if the method could not be invoked with the given arguments
+	 */
+	public Object invoke(Object controller, Object[] arguments) throws Exception;
+}
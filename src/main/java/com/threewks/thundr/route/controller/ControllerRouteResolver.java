@@ -22,12 +22,17 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.atomicleopard.expressive.Cast;
 import com.threewks.thundr.bind.Binder;
@@ -36,20 +41,26 @@ import com.threewks.thundr.exception.BaseException;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.logger.Logger;
+import com.threewks.thundr.request.AsyncResult;
+import com.threewks.thundr.request.MutableRequestContainer;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
 import com.threewks.thundr.route.RouteResolver;
 import com.threewks.thundr.route.RouteResolverException;
 
 public class ControllerRouteResolver implements RouteResolver<Controller>, InterceptorRegistry {
+	private static final Object[] NoArguments = new Object[0];
 
-	private Map<Class<?>, Object> controllerInstances = new HashMap<Class<?>, Object>();
-	private Map<Class<? extends Annotation>, Interceptor<? extends Annotation>> interceptors = new HashMap<Class<? extends Annotation>, Interceptor<? extends Annotation>>();
-	private Map<Method, Map<Annotation, Interceptor<Annotation>>> interceptorCache = new WeakHashMap<Method, Map<Annotation, Interceptor<Annotation>>>();
+	private ConcurrentMap<Class<?>, FutureTask<Object>> controllerInstances = new ConcurrentHashMap<Class<?>, FutureTask<Object>>();
+	private Map<Class<? extends Annotation>, Interceptor<? extends Annotation>> interceptors = new ConcurrentHashMap<Class<? extends Annotation>, Interceptor<? extends Annotation>>();
+	private Map<Controller, InvocationPlan> invocationPlans = new ConcurrentHashMap<Controller, InvocationPlan>();
+	// incremented after each change which plans depend on, a plan created from an earlier version is created again
+	private final AtomicInteger planVersion = new AtomicInteger();
 
 	private UpdatableInjectionContext injectionContext;
 	private BinderRegistry binderRegistry;
 	private FilterRegistry filters;
+	private volatile ControllerInvokerStrategy invokerStrategy = new MethodHandleControllerInvokerStrategy();
 
 	public ControllerRouteResolver(UpdatableInjectionContext injectionContext, FilterRegistry filters, BinderRegistry binderRegistry) {
 		this.injectionContext = injectionContext;
@@ -57,34 +68,131 @@ public class ControllerRouteResolver implements RouteResolver<Controller>, Inter
 		this.filters = filters;
 	}
 
+	/**
+	 * Resolves the given controller. If the controller returns an {@link AsyncResult}, an {@link AsyncResult} is returned which completes
+	 * with the view once the after interceptors and filters, or the exception interceptors and filters, have run on the thread which
+	 * completed the controller's result.
+	 */
 	@Override
 	public Object resolve(Controller action, Request req, Response resp) throws RouteResolverException {
-		Object controller = getOrCreateController(action);
-		Map<Annotation, Interceptor<Annotation>> interceptors = getInterceptors(action);
+		InvocationPlan plan = getInvocationPlan(action);
 		Object result = beforeFilters(req, resp);
 		try {
-			result = beforeInterceptors(interceptors, req, resp, result);
-			result = invokeAction(action, req, resp, controller, result);
-			result = afterInterceptors(result, interceptors, req, resp);
-			result = afterFilters(req, resp, result);
-		} catch (Exception e) {
-			result = exceptionInterceptors(interceptors, req, resp, e);
-			result = exceptionFilters(req, resp, e, result);
-			if (result == null) {
-				throw new RouteResolverException(e, "Failed in %s: %s", action, e.getMessage());
+			result = beforeInterceptors(plan, req, resp, result);
+			result = invokeAction(plan, req, resp, result);
+			AsyncResult<?> asyncResult = Cast.as(result, AsyncResult.class);
+			if (asyncResult != null) {
+				Logger.debug("%s: %s %s suspended by %s", req.getId(), req.getMethod(), req.getRequestPath(), action);
+				return resolveAsync(asyncResult, action, plan, req, resp);
 			}
+			result = after(plan, req, resp, result);
+		} catch (Exception e) {
+			result = exception(action, plan, req, resp, e);
 		}
 		Logger.debug("%s: %s %s resolved using %s", req.getId(), req.getMethod(), req.getRequestPath(), action);
 		return result;
 	}
 
-	private Object invokeAction(Controller action, Request req, Response resp, Object controller, Object existingResult) throws Exception {
+	private Object after(InvocationPlan plan, Request req, Response resp, Object result) {
+		result = afterInterceptors(result, plan, req, resp);
+		return afterFilters(req, resp, result);
+	}
+
+	private Object exception(Controller action, InvocationPlan plan, Request req, Response resp, Exception e) {
+		Object result = exceptionInterceptors(plan, req, resp, e);
+		result = exceptionFilters(req, resp, e, result);
+		if (result == null) {
+			throw new RouteResolverException(e, "Failed in %s: %s", action, e.getMessage());
+		}
+		return result;
+	}
+
+	private AsyncResult<Object> resolveAsync(AsyncResult<?> controllerResult, final Controller action, final InvocationPlan plan, final Request req, final Response resp) {
+		final AsyncResult<Object> result = new AsyncResult<Object>();
+		controllerResult.onComplete(new AsyncResult.Callback<Object>() {
+			@Override
+			public void completed(Object view) {
+				resume(view, null);
+			}
+
+			@Override
+			public void failed(Throwable failure) {
+				resume(null, failure);
+			}
+
+			private void resume(Object view, Throwable failure) {
+				// the container is only set here when resuming on another thread, not when the result completed before it was returned,
+				// and whatever that thread had bound, such as another request completing this result, is restored afterwards
+				MutableRequestContainer requestContainer = getRequestContainer();
+				boolean scoped = requestContainer != null && requestContainer.getRequest() != req;
+				Request outerReq = scoped ? requestContainer.getRequest() : null;
+				Response outerResp = scoped ? requestContainer.getResponse() : null;
+				if (scoped) {
+					requestContainer.set(req, resp);
+				}
+				Object outcome = null;
+				Throwable error = null;
+				try {
+					outcome = resumeWith(action, plan, req, resp, view, failure);
+				} catch (RuntimeException | Error e) {
+					error = e;
+				} finally {
+					if (scoped) {
+						restore(requestContainer, outerReq, outerResp);
+					}
+				}
+				Logger.debug("%s: %s %s resumed using %s", req.getId(), req.getMethod(), req.getRequestPath(), action);
+				if (error == null) {
+					result.complete(outcome);
+				} else {
+					result.fail(error);
+				}
+			}
+		});
+		return result;
+	}
+
+	private static void restore(MutableRequestContainer requestContainer, Request req, Response resp) {
+		if (req == null && resp == null) {
+			requestContainer.clear();
+		} else {
+			requestContainer.set(req, resp);
+		}
+	}
+
+	/**
+	 * Runs the after interceptors and filters on the view an {@link AsyncResult} completed with, or the exception interceptors and
+	 * filters on the exception it failed with, as {@link #resolve(Controller, Request, Response)} would have.
+	 */
+	private Object resumeWith(Controller action, InvocationPlan plan, Request req, Response resp, Object view, Throwable failure) {
+		if (failure == null) {
+			try {
+				return after(plan, req, resp, view);
+			} catch (Exception e) {
+				failure = e;
+			}
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		Exception exception = Cast.as(failure, Exception.class);
+		if (exception == null) {
+			throw new RouteResolverException(failure, "Failed in %s: %s", action, failure.getMessage());
+		}
+		return exception(action, plan, req, resp, exception);
+	}
+
+	private MutableRequestContainer getRequestContainer() {
+		return injectionContext.contains(MutableRequestContainer.class) ? injectionContext.get(MutableRequestContainer.class) : null;
+	}
+
+	private Object invokeAction(InvocationPlan plan, Request req, Response resp, Object existingResult) throws Exception {
 		if (existingResult != null) {
 			return existingResult;
 		}
 		try {
-			List<?> arguments = bindArguments(action, req, resp);
-			return action.invoke(controller, arguments);
+			Object[] arguments = bindArguments(plan, req, resp);
+			return plan.invoke(arguments);
 		} catch (InvocationTargetException e) {
 			// we need to unwrap InvocationTargetExceptions to get at the real exception
 			Exception exception = Cast.as(e.getTargetException(), Exception.class);
@@ -116,32 +224,44 @@ public class ControllerRouteResolver implements RouteResolver<Controller>, Inter
 		return existingResult;
 	}
 
-	private Map<Annotation, Interceptor<Annotation>> getInterceptors(Controller action) {
-		Method method = action.method();
-		Map<Annotation, Interceptor<Annotation>> results = interceptorCache.get(method);
-		if (results == null) {
-			results = findInterceptors(method);
-			interceptorCache.put(method, results);
+	/**
+	 * Returns the {@link InvocationPlan} for the given controller, creating it the first time the controller is resolved, and again
+	 * after interceptors or the invoker strategy change. The version is read before the plan is created, so a plan created while they
+	 * change is created again on the next request.
+	 */
+	InvocationPlan getInvocationPlan(Controller action) {
+		InvocationPlan plan = invocationPlans.get(action);
+		int version = planVersion.get();
+		if (plan == null || plan.getVersion() != version) {
+			Map<Annotation, Interceptor<Annotation>> interceptors = findInterceptors(action.method());
+			Object controller = getOrCreateController(action);
+			ControllerInvoker invoker = invokerStrategy.createInvoker(action.method());
+			plan = new InvocationPlan(action, controller, invoker, interceptors, version);
+			invocationPlans.put(action, plan);
 		}
-		return results;
+		return plan;
 	}
 
 	List<Object> bindArguments(Controller action, Request req, Response resp) {
-		Map<ParameterDescription, Object> boundParameters = new LinkedHashMap<ParameterDescription, Object>();
-		for (ParameterDescription parameterDescription : action.parameters()) {
-			boundParameters.put(parameterDescription, null);
+		InvocationPlan plan = new InvocationPlan(action, null, null, Collections.<Annotation, Interceptor<Annotation>> emptyMap());
+		return Arrays.asList(bindArguments(plan, req, resp));
+	}
+
+	private Object[] bindArguments(InvocationPlan plan, Request req, Response resp) {
+		if (!plan.hasParameters()) {
+			return NoArguments;
 		}
-		if (!boundParameters.isEmpty()) {
-			for (Binder binder : binderRegistry.list()) {
-				binder.bindAll(boundParameters, req, resp);
-			}
+		Object[] arguments = plan.createArguments();
+		Map<ParameterDescription, Object> bindings = plan.bindings(arguments);
+		for (Binder binder : binderRegistry.list()) {
+			binder.bindAll(bindings, req, resp);
 		}
-		return new ArrayList<Object>(boundParameters.values());
+		return arguments;
 	}
 
-	private Object afterInterceptors(Object result, Map<Annotation, Interceptor<Annotation>> interceptors, Request req, Response resp) {
-		for (Map.Entry<Annotation, Interceptor<Annotation>> interceptorEntry : interceptors.entrySet()) {
-			Object interceptorResult = interceptorEntry.getValue().after(interceptorEntry.getKey(), result, req, resp);
+	private Object afterInterceptors(Object result, InvocationPlan plan, Request req, Response resp) {
+		for (int i = 0; i < plan.interceptorCount(); i++) {
+			Object interceptorResult = plan.interceptor(i).after(plan.annotation(i), result, req, resp);
 			if (interceptorResult != null) {
 				return interceptorResult;
 			}
@@ -150,9 +270,9 @@ public class ControllerRouteResolver implements RouteResolver<Controller>, Inter
 		return result;
 	}
 
-	private Object exceptionInterceptors(Map<Annotation, Interceptor<Annotation>> interceptors, Request req, Response resp, Exception e) {
-		for (Map.Entry<Annotation, Interceptor<Annotation>> interceptorEntry : interceptors.entrySet()) {
-			Object interceptorResult = interceptorEntry.getValue().exception(interceptorEntry.getKey(), e, req, resp);
+	private Object exceptionInterceptors(InvocationPlan plan, Request req, Response resp, Exception e) {
+		for (int i = 0; i < plan.interceptorCount(); i++) {
+			Object interceptorResult = plan.interceptor(i).exception(plan.annotation(i), e, req, resp);
 			if (interceptorResult != null) {
 				return interceptorResult;
 			}
@@ -160,12 +280,12 @@ public class ControllerRouteResolver implements RouteResolver<Controller>, Inter
 		return null;
 	}
 
-	private Object beforeInterceptors(Map<Annotation, Interceptor<Annotation>> interceptors, Request req, Response resp, Object existingResult) {
+	private Object beforeInterceptors(InvocationPlan plan, Request req, Response resp, Object existingResult) {
 		if (existingResult != null) {
 			return existingResult;
 		}
-		for (Map.Entry<Annotation, Interceptor<Annotation>> interceptorEntry : interceptors.entrySet()) {
-			Object interceptorResult = interceptorEntry.getValue().before(interceptorEntry.getKey(), req, resp);
+		for (int i = 0; i < plan.interceptorCount(); i++) {
+			Object interceptorResult = plan.interceptor(i).before(plan.annotation(i), req, resp);
 			if (interceptorResult != null) {
 				return interceptorResult;
 			}
@@ -173,18 +293,40 @@ public class ControllerRouteResolver implements RouteResolver<Controller>, Inter
 		return null;
 	}
 
-	private Object getOrCreateController(Controller methodAction) {
-		Object controller = controllerInstances.get(methodAction.type());
+	private Object getOrCreateController(final Controller methodAction) {
+		Class<?> type = methodAction.type();
+		FutureTask<Object> controller = controllerInstances.get(type);
 		if (controller == null) {
-			synchronized (controllerInstances) {
-				controller = controllerInstances.get(methodAction.type());
-				if (controller == null) {
-					controller = createController(methodAction);
-					controllerInstances.put(methodAction.type(), controller);
+			// only the request which publishes its task creates the controller, any racing it wait for that instance without holding a lock
+			FutureTask<Object> creation = new FutureTask<Object>(new Callable<Object>() {
+				@Override
+				public Object call() {
+					return createController(methodAction);
 				}
+			});
+			controller = controllerInstances.putIfAbsent(type, creation);
+			if (controller == null) {
+				controller = creation;
+				creation.run();
 			}
 		}
-		return controller;
+		try {
+			return controller.get();
+		} catch (ExecutionException e) {
+			// allow a later request to try again
+			controllerInstances.remove(type, controller);
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RouteResolverException(cause, "Failed to create controller %s: %s", type.toString(), cause.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RouteResolverException(e, "Interrupted while waiting for controller %s to be created", type.toString());
+		}
 	}
 
 	<T> T createController(Controller actionMethod) {
@@ -216,6 +358,8 @@ public class ControllerRouteResolver implements RouteResolver<Controller>, Inter
 	public <A extends Annotation> void registerInterceptor(Class<A> annotation, Interceptor<A> interceptor) {
 		verifyHasRetentionRuntime(annotation);
 		interceptors.put(annotation, interceptor);
+		// plans created before this interceptor was registered need to be created again to include it
+		plansChanged();
 		Logger.info("Added Interceptor %s for methods annotated with %s", interceptor, annotation);
 	}
 
@@ -228,6 +372,25 @@ public class ControllerRouteResolver implements RouteResolver<Controller>, Inter
 		return binderRegistry;
 	}
 
+	public ControllerInvokerStrategy getInvokerStrategy() {
+		return invokerStrategy;
+	}
+
+	/**
+	 * Changes how controller methods are invoked, for example to {@link CglibControllerInvokerStrategy} or {@link ReflectionControllerInvokerStrategy}.
+	 * 
+	 * @param invokerStrategy
+	 */
+	public void setInvokerStrategy(ControllerInvokerStrategy invokerStrategy) {
+		this.invokerStrategy = invokerStrategy;
+		plansChanged();
+	}
+
+	private void plansChanged() {
+		planVersion.incrementAndGet();
+		invocationPlans.clear();
+	}
+
 	private void verifyHasRetentionRuntime(Class<? extends Annotation> a) {
 		boolean ok = false;
 		for (Annotation annotation : a.getAnnotations()) {
@@ -18,10 +18,16 @@
 package com.threewks.thundr.route.controller;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import com.atomicleopard.expressive.collection.Pair;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
 import com.threewks.thundr.route.Route;
@@ -34,9 +40,30 @@ import com.threewks.thundr.route.Route;
  * controller method.
  * 
  * Filters are registered with this class at startup.
+ * 
+ * Filter paths are compiled once when they are added, and indexed by their first path segment where it is a plain
+ * literal, so that only filters which could apply to a request are evaluated. The filters matching a given request path
+ * are kept in a bounded concurrent cache, which is emptied when it fills, which means that the before, after and exception
+ * phases of a request only evaluate the filter paths once between them without request threads contending on a lock.
  */
 public class FilterRegistryImpl implements FilterRegistry {
-	private List<Pair<String, Filter>> filters = new ArrayList<>();
+	public static final int DefaultCacheSize = 1000;
+
+	private List<FilterMapping> filters = new ArrayList<>();
+	private int cacheSize;
+	private volatile FilterIndex index;
+
+	public FilterRegistryImpl() {
+		this(DefaultCacheSize);
+	}
+
+	/**
+	 * @param cacheSize the number of request paths to cache matching filters for before the cache is emptied
+	 */
+	public FilterRegistryImpl(int cacheSize) {
+		this.cacheSize = cacheSize;
+		this.index = new FilterIndex(filters, cacheSize);
+	}
 
 	/**
 	 * Add the given filter for all controller methods on the given path.
@@ -47,11 +74,11 @@ public class FilterRegistryImpl implements FilterRegistry {
 	 * @param paths
 	 */
 	@Override
-	public void add(Filter filter, String... paths) {
+	public synchronized void add(Filter filter, String... paths) {
 		for (String path : paths) {
-			String regex = convertPathStringToRegex(path);
-			filters.add(new Pair<>(regex, filter));
+			filters.add(new FilterMapping(path, filter));
 		}
+		reindex();
 	}
 
 	/**
@@ -61,14 +88,13 @@ public class FilterRegistryImpl implements FilterRegistry {
 	 * @param paths
 	 */
 	@Override
-	public void remove(Filter filter, String... paths) {
-		List<Pair<String, Filter>> toRemove = new ArrayList<>();
+	public synchronized void remove(Filter filter, String... paths) {
+		List<FilterMapping> toRemove = new ArrayList<>();
 		for (String path : paths) {
-			String regex = convertPathStringToRegex(path);
-			Pair<String, Filter> pair = new Pair<String, Filter>(regex, filter);
-			toRemove.add(pair);
+			toRemove.add(new FilterMapping(path, filter));
 		}
 		filters.removeAll(toRemove);
+		reindex();
 	}
 
 	/**
@@ -77,39 +103,42 @@ public class FilterRegistryImpl implements FilterRegistry {
 	 * @param filter
 	 */
 	@Override
-	public void remove(Filter filter) {
-		List<Pair<String, Filter>> toRemove = new ArrayList<>();
-		for (Pair<String, Filter> pair : filters) {
-			if (pair.getB().equals(filter)) {
-				toRemove.add(pair);
+	public synchronized void remove(Filter filter) {
+		List<FilterMapping> toRemove = new ArrayList<>();
+		for (FilterMapping mapping : filters) {
+			if (mapping.filter.equals(filter)) {
+				toRemove.add(mapping);
 			}
 		}
 		filters.removeAll(toRemove);
+		reindex();
 	}
 
 	@Override
-	public void remove(Class<? extends Filter> filter) {
-		List<Pair<String, Filter>> toRemove = new ArrayList<>();
-		for (Pair<String, Filter> pair : filters) {
-			if (filter.equals(pair.getB().getClass())) {
-				toRemove.add(pair);
+	public synchronized void remove(Class<? extends Filter> filter) {
+		List<FilterMapping> toRemove = new ArrayList<>();
+		for (FilterMapping mapping : filters) {
+			if (filter.equals(mapping.filter.getClass())) {
+				toRemove.add(mapping);
 			}
 		}
 		filters.removeAll(toRemove);
+		reindex();
 	}
 
 	@Override
-	public void remove(Class<? extends Filter> filter, String... paths) {
-		List<Pair<String, Filter>> toRemove = new ArrayList<>();
+	public synchronized void remove(Class<? extends Filter> filter, String... paths) {
+		List<FilterMapping> toRemove = new ArrayList<>();
 		for (String path : paths) {
 			String regex = convertPathStringToRegex(path);
-			for (Pair<String, Filter> pair : filters) {
-				if (filter.equals(pair.getB().getClass()) && pair.getA().equals(regex)) {
-					toRemove.add(pair);
+			for (FilterMapping mapping : filters) {
+				if (filter.equals(mapping.filter.getClass()) && mapping.regex.equals(regex)) {
+					toRemove.add(mapping);
 				}
 			}
 		}
 		filters.removeAll(toRemove);
+		reindex();
 	}
 
 	/**
@@ -118,17 +147,15 @@ public class FilterRegistryImpl implements FilterRegistry {
 	 * @return true if the given filter has already been added on the given path
 	 */
 	@Override
-	public boolean has(Filter filter, String path) {
-		String regex = convertPathStringToRegex(path);
-		Pair<String, Filter> pair = new Pair<String, Filter>(regex, filter);
-		return filters.contains(pair);
+	public synchronized boolean has(Filter filter, String path) {
+		return filters.contains(new FilterMapping(path, filter));
 	}
 
 	@Override
-	public boolean has(Class<? extends Filter> filter, String path) {
+	public synchronized boolean has(Class<? extends Filter> filter, String path) {
 		String regex = convertPathStringToRegex(path);
-		for (Pair<String, Filter> pair : filters) {
-			if (pair.getA().equals(regex) && pair.getB().getClass().equals(filter)) {
+		for (FilterMapping mapping : filters) {
+			if (mapping.regex.equals(regex) && mapping.filter.getClass().equals(filter)) {
 				return true;
 			}
 		}
@@ -196,16 +223,12 @@ public class FilterRegistryImpl implements FilterRegistry {
 		return null;
 	}
 
-	private List<Filter> findMatchingFilters(String path) {
-		List<Filter> filters = new ArrayList<Filter>();
-		if (path != null) {
-			for (Pair<String, Filter> entry : this.filters) {
-				if (path.matches(entry.getA())) {
-					filters.add(entry.getB());
-				}
-			}
-		}
-		return filters;
+	List<Filter> findMatchingFilters(String path) {
+		return path == null ? Collections.<Filter> emptyList() : index.find(path);
+	}
+
+	private void reindex() {
+		index = new FilterIndex(filters, cacheSize);
 	}
 
 	static String convertPathStringToRegex(String path) {
@@ -216,4 +239,138 @@ public class FilterRegistryImpl implements FilterRegistry {
 		path = path.replaceAll(wildCardPlaceholder, Matcher.quoteReplacement("[" + Route.AcceptableMultiPathCharacters + "]*?"));
 		return path + Route.SemiColonDelimitedRequestParameters;
 	}
+
+	/**
+	 * Returns the literal first segment of the given filter path, or null if the path does not start with one.
+	 */
+	static String firstSegment(String path) {
+		if (!path.startsWith("/")) {
+			return null;
+		}
+		int end = path.indexOf('/', 1);
+		String segment = end < 0 ? path.substring(1) : path.substring(1, end);
+		if (segment.isEmpty()) {
+			return null;
+		}
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+				return null;
+			}
+		}
+		return segment;
+	}
+
+	/**
+	 * Returns the first segment of the given request path, ignoring any semi-colon delimited parameters.
+	 */
+	static String requestSegment(String path) {
+		if (!path.startsWith("/")) {
+			return null;
+		}
+		int end = 1;
+		while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != ';') {
+			end++;
+		}
+		return path.substring(1, end);
+	}
+
+	private static class FilterMapping {
+		private final String regex;
+		private final Filter filter;
+		private final String firstSegment;
+		private final Pattern pattern;
+
+		private FilterMapping(String path, Filter filter) {
+			this.regex = convertPathStringToRegex(path);
+			this.pattern = Pattern.compile(regex);
+			this.filter = filter;
+			this.firstSegment = firstSegment(path);
+		}
+
+		private boolean matches(String path) {
+			return pattern.matcher(path).matches();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * regex.hashCode() + (filter == null ? 0 : filter.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FilterMapping)) {
+				return false;
+			}
+			FilterMapping other = (FilterMapping) obj;
+			return regex.equals(other.regex) && (filter == null ? other.filter == null : filter.equals(other.filter));
+		}
+	}
+
+	/**
+	 * An immutable snapshot of the registered filters, replaced whenever filters are added or removed.
+	 */
+	private static class FilterIndex {
+		private final List<Integer> unindexed = new ArrayList<>();
+		private final Map<String, List<Integer>> indexed = new HashMap<>();
+		private final FilterMapping[] mappings;
+		private final ConcurrentMap<String, List<Filter>> cache = new ConcurrentHashMap<>();
+		private final AtomicInteger cached = new AtomicInteger();
+		private final int cacheSize;
+
+		private FilterIndex(List<FilterMapping> filters, int cacheSize) {
+			this.cacheSize = cacheSize;
+			this.mappings = filters.toArray(new FilterMapping[filters.size()]);
+			for (int i = 0; i < mappings.length; i++) {
+				FilterMapping mapping = mappings[i];
+				if (mapping.firstSegment == null) {
+					unindexed.add(i);
+				} else {
+					List<Integer> positions = indexed.get(mapping.firstSegment);
+					if (positions == null) {
+						positions = new ArrayList<>();
+						indexed.put(mapping.firstSegment, positions);
+					}
+					positions.add(i);
+				}
+			}
+		}
+
+		private List<Filter> find(String path) {
+			List<Filter> matching = cache.get(path);
+			if (matching == null) {
+				matching = match(path);
+				// the count is approximate under contention, which only affects how soon the cache is emptied
+				if (cache.putIfAbsent(path, matching) == null && cached.incrementAndGet() > cacheSize) {
+					cached.set(0);
+					cache.clear();
+				}
+			}
+			return matching;
+		}
+
+		// merges the candidates indexed under the request's first segment with those which could not be indexed, keeping registration order
+		private List<Filter> match(String path) {
+			String segment = requestSegment(path);
+			List<Integer> candidates = segment == null ? null : indexed.get(segment);
+			if (candidates == null) {
+				candidates = Collections.emptyList();
+			}
+			List<Filter> matching = new ArrayList<>();
+			int i = 0;
+			int j = 0;
+			while (i < candidates.size() || j < unindexed.size()) {
+				int position;
+				if (j >= unindexed.size() || i < candidates.size() && candidates.get(i) < unindexed.get(j)) {
+					position = candidates.get(i++);
+				} else {
+					position = unindexed.get(j++);
+				}
+				if (mappings[position].matches(path)) {
+					matching.add(mappings[position].filter);
+				}
+			}
+			return Collections.unmodifiableList(matching);
+		}
+	}
 }
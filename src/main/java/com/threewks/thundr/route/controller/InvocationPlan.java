@@ -0,0 +1,261 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.controller;
+
+import java.lang.annotation.Annotation;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.threewks.thundr.introspection.ParameterDescription;
+
+/**
+ * Everything the {@link ControllerRouteResolver} needs to invoke a {@link Controller}, worked out the first
+ * time the controller is resolved rather than on every request.
+ */
+class InvocationPlan {
+	private final Controller action;
+	private final Object controller;
+	private final ControllerInvoker invoker;
+	private final Annotation[] annotations;
+	private final Interceptor<Annotation>[] interceptors;
+	private final ParameterDescription[] parameters;
+	private final int version;
+
+	InvocationPlan(Controller action, Object controller, ControllerInvoker invoker, Map<Annotation, Interceptor<Annotation>> interceptors) {
+		this(action, controller, invoker, interceptors, 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	InvocationPlan(Controller action, Object controller, ControllerInvoker invoker, Map<Annotation, Interceptor<Annotation>> interceptors, int version) {
+		this.version = version;
+		this.action = action;
+		this.controller = controller;
+		this.invoker = invoker;
+		this.annotations = interceptors.keySet().toArray(new Annotation[interceptors.size()]);
+		this.interceptors = interceptors.values().toArray(new Interceptor[interceptors.size()]);
+		List<ParameterDescription> parameters = action.parameters();
+		this.parameters = parameters.toArray(new ParameterDescription[parameters.size()]);
+	}
+
+	public Controller getAction() {
+		return action;
+	}
+
+	public Object getController() {
+		return controller;
+	}
+
+	/**
+	 * Invokes the controller method with the given arguments
+	 * 
+	 * @param arguments
+	 * @return
+	 * @throws Exception
+	 * @see ControllerInvoker#invoke(Object, Object[])
+	 */
+	public Object invoke(Object[] arguments) throws Exception {
+		return invoker.invoke(controller, arguments);
+	}
+
+	/**
+	 * @return the number of interceptors which apply to the controller method
+	 */
+	public int interceptorCount() {
+		return interceptors.length;
+	}
+
+	public Annotation annotation(int index) {
+		return annotations[index];
+	}
+
+	public Interceptor<Annotation> interceptor(int index) {
+		return interceptors[index];
+	}
+
+	public boolean hasParameters() {
+		return parameters.length > 0;
+	}
+
+	/**
+	 * @return an array to hold the bound value of each of the controller method's parameters, in order
+	 */
+	public Object[] createArguments() {
+		return new Object[parameters.length];
+	}
+
+	/**
+	 * @param arguments an array from {@link #createArguments()}
+	 * @return a map of each of the controller method's parameters, in order, to its element of the given arguments, ready for binding
+	 */
+	public Map<ParameterDescription, Object> bindings(Object[] arguments) {
+		return new Bindings(parameters, arguments);
+	}
+
+	/**
+	 * @return the version of the registered interceptors and invoker strategy this plan was created with
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * A map with a fixed set of keys, the parameters of the controller method, which reads and writes their values in an array rather
+	 * than in hashed entries. Parameters are found by a linear search, as controller methods have few of them.
+	 */
+	static final class Bindings extends AbstractMap<ParameterDescription, Object> {
+		private final ParameterDescription[] parameters;
+		private final Object[] values;
+
+		Bindings(ParameterDescription[] parameters, Object[] values) {
+			this.parameters = parameters;
+			this.values = values;
+		}
+
+		@Override
+		public int size() {
+			return parameters.length;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return indexOf(key) >= 0;
+		}
+
+		@Override
+		public boolean containsValue(Object value) {
+			for (Object existing : values) {
+				if (value == null ? existing == null : value.equals(existing)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Object get(Object key) {
+			int index = indexOf(key);
+			return index < 0 ? null : values[index];
+		}
+
+		@Override
+		public Object put(ParameterDescription key, Object value) {
+			int index = indexOf(key);
+			if (index < 0) {
+				throw new IllegalArgumentException(String.format("%s is not a parameter of the controller method", key));
+			}
+			Object previous = values[index];
+			values[index] = value;
+			return previous;
+		}
+
+		@Override
+		public Set<Map.Entry<ParameterDescription, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<ParameterDescription, Object>>() {
+				@Override
+				public Iterator<Map.Entry<ParameterDescription, Object>> iterator() {
+					return new Iterator<Map.Entry<ParameterDescription, Object>>() {
+						private int next = 0;
+
+						@Override
+						public boolean hasNext() {
+							return next < parameters.length;
+						}
+
+						@Override
+						public Map.Entry<ParameterDescription, Object> next() {
+							if (next >= parameters.length) {
+								throw new NoSuchElementException();
+							}
+							return new Binding(next++);
+						}
+
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException("Controller method parameters cannot be removed");
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return parameters.length;
+				}
+			};
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < parameters.length; i++) {
+				if (parameters[i] == key || parameters[i].equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private final class Binding implements Map.Entry<ParameterDescription, Object> {
+			private final int index;
+
+			private Binding(int index) {
+				this.index = index;
+			}
+
+			@Override
+			public ParameterDescription getKey() {
+				return parameters[index];
+			}
+
+			@Override
+			public Object getValue() {
+				return values[index];
+			}
+
+			@Override
+			public Object setValue(Object value) {
+				Object previous = values[index];
+				values[index] = value;
+				return previous;
+			}
+
+			@Override
+			public boolean equals(Object o) {
+				if (!(o instanceof Map.Entry)) {
+					return false;
+				}
+				Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+				Object value = getValue();
+				return getKey().equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+			}
+
+			@Override
+			public int hashCode() {
+				Object value = getValue();
+				return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+			}
+
+			@Override
+			public String toString() {
+				return getKey() + "=" + getValue();
+			}
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.controller;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.threewks.thundr.logger.Logger;
+
+/**
+ * Invokes controller methods using a {@link MethodHandle} adapted to take the controller and an argument array,
+ * which avoids the access checks and argument copying done by {@link Method#invoke(Object, Object...)} on each call.
+ * 
+ * This is the default {@link ControllerInvokerStrategy}. Where a method handle cannot be created for a controller method
+ * the method is invoked reflectively instead.
+ */
+public class MethodHandleControllerInvokerStrategy implements ControllerInvokerStrategy {
+	private static final MethodType InvokerType = MethodType.methodType(Object.class, Object.class, Object[].class);
+	private static final MethodHandle TargetThrew = targetThrewHandle();
+	private ControllerInvokerStrategy fallback = new ReflectionControllerInvokerStrategy();
+
+	@Override
+	public ControllerInvoker createInvoker(Method method) {
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			// only exceptions thrown by the method itself are wrapped, failures adapting the arguments are not
+			MethodHandle wrapException = TargetThrew.asType(MethodType.methodType(handle.type().returnType(), Throwable.class));
+			handle = MethodHandles.catchException(handle, Throwable.class, wrapException);
+			if (Modifier.isStatic(method.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			int parameterCount = method.getParameterTypes().length;
+			handle = handle.asType(MethodType.genericMethodType(parameterCount + 1));
+			handle = handle.asSpreader(Object[].class, parameterCount).asType(InvokerType);
+			return new MethodHandleControllerInvoker(handle, method.getParameterTypes(), Modifier.isStatic(method.getModifiers()));
+		} catch (IllegalAccessException e) {
+			Logger.debug("Unable to create a method handle for %s.%s, invoking reflectively: %s", method.getDeclaringClass().getName(), method.getName(), e.getMessage());
+			return fallback.createInvoker(method);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static Object targetThrew(Throwable t) throws InvocationTargetException {
+		throw new InvocationTargetException(t);
+	}
+
+	private static MethodHandle targetThrewHandle() {
+		try {
+			return MethodHandles.lookup().findStatic(MethodHandleControllerInvokerStrategy.class, "targetThrew", MethodType.methodType(Object.class, Throwable.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class MethodHandleControllerInvoker implements ControllerInvoker {
+		private final MethodHandle handle;
+		private final boolean isStatic;
+		private final int parameterCount;
+		private final int[] primitiveParameters;
+
+		private MethodHandleControllerInvoker(MethodHandle handle, Class<?>[] parameterTypes, boolean isStatic) {
+			this.handle = handle;
+			this.isStatic = isStatic;
+			this.parameterCount = parameterTypes.length;
+			int primitives = 0;
+			for (Class<?> type : parameterTypes) {
+				primitives += type.isPrimitive() ? 1 : 0;
+			}
+			this.primitiveParameters = new int[primitives];
+			for (int i = 0, p = 0; i < parameterTypes.length; i++) {
+				if (parameterTypes[i].isPrimitive()) {
+					primitiveParameters[p++] = i;
+				}
+			}
+		}
+
+		@Override
+		public Object invoke(Object controller, Object[] arguments) throws Exception {
+			verifyArguments(controller, arguments);
+			try {
+				return (Object) handle.invokeExact(controller, arguments);
+			} catch (InvocationTargetException e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				// the controller or arguments could not be converted to the method's types, which reflection reports as an IllegalArgumentException
+				throw new IllegalArgumentException("argument type mismatch", t);
+			}
+		}
+
+		// reject the same arguments Method.invoke would, rather than having them fail inside the controller invocation
+		private void verifyArguments(Object controller, Object[] arguments) {
+			if (controller == null && !isStatic) {
+				throw new NullPointerException();
+			}
+			int length = arguments == null ? 0 : arguments.length;
+			if (length != parameterCount) {
+				throw new IllegalArgumentException(String.format("wrong number of arguments: expected %d, got %d", parameterCount, length));
+			}
+			for (int index : primitiveParameters) {
+				if (arguments[index] == null) {
+					throw new IllegalArgumentException(String.format("null supplied for the primitive argument %d", index));
+				}
+			}
+		}
+	}
+}
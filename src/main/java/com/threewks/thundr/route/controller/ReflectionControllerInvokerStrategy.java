@@ -0,0 +1,43 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.controller;
+
+import java.lang.reflect.Method;
+
+/**
+ * Invokes controller methods using {@link Method#invoke(Object, Object...)}.
+ */
+public class ReflectionControllerInvokerStrategy implements ControllerInvokerStrategy {
+	@Override
+	public ControllerInvoker createInvoker(Method method) {
+		return new ReflectionControllerInvoker(method);
+	}
+
+	private static class ReflectionControllerInvoker implements ControllerInvoker {
+		private final Method method;
+
+		private ReflectionControllerInvoker(Method method) {
+			this.method = method;
+		}
+
+		@Override
+		public Object invoke(Object controller, Object[] arguments) throws Exception {
+			return method.invoke(controller, arguments);
+		}
+	}
+}
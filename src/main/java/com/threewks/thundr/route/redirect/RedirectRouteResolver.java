@@ -17,21 +17,22 @@
  */
 package com.threewks.thundr.route.redirect;
 
+import java.util.Collections;
 import java.util.Map;
 
 import com.threewks.thundr.http.Header;
 import com.threewks.thundr.http.StatusCode;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
-import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteMatch;
 import com.threewks.thundr.route.RouteResolver;
 import com.threewks.thundr.route.RouteResolverException;
 
 public class RedirectRouteResolver implements RouteResolver<Redirect> {
 	@Override
 	public Object resolve(Redirect redirect, Request req, Response resp) throws RouteResolverException {
-		Route route = req.getRoute();
-		Map<String, String> pathVars = route.getPathVars(req.getRequestPath());
+		RouteMatch routeMatch = req.getRouteMatch();
+		Map<String, String> pathVars = routeMatch == null ? Collections.<String, String> emptyMap() : routeMatch.getPathVars();
 		String redirectTo = redirect.getRedirectTo(pathVars);
 		try {
 			resp
@@ -0,0 +1,91 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.resource;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A file served by a {@link StaticResource}, along with its validators and any compressed forms of its content.
+ * Content is held on the heap for small files, and as a {@link MappedByteBuffer} for large ones. Files too large to map have no
+ * content, and are streamed from the file system instead.
+ */
+class Asset {
+	final Path path;
+	final long size;
+	final long lastModified;
+	final String contentType;
+	final String etag;
+	private final ByteBuffer content;
+	private final Map<String, ByteBuffer> encoded;
+
+	Asset(Path path, BasicFileAttributes attributes, String contentType, String etag, ByteBuffer content, Map<String, ByteBuffer> encoded) {
+		this.path = path;
+		this.size = attributes.size();
+		this.lastModified = attributes.lastModifiedTime().toMillis();
+		this.contentType = contentType;
+		this.etag = etag;
+		this.content = content;
+		this.encoded = encoded.isEmpty() ? Collections.<String, ByteBuffer> emptyMap() : encoded;
+	}
+
+	boolean isCurrent(BasicFileAttributes attributes) {
+		return attributes.size() == size && attributes.lastModifiedTime().toMillis() == lastModified;
+	}
+
+	/**
+	 * @param encoding a content coding, or null for the unencoded content
+	 * @return the etag of the content in the given encoding
+	 */
+	String etag(String encoding) {
+		return encoding == null ? etag : etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+	}
+
+	boolean isMapped() {
+		return content instanceof MappedByteBuffer;
+	}
+
+	boolean hasEncodings() {
+		return !encoded.isEmpty();
+	}
+
+	/**
+	 * @param encoding a content coding, or null for the unencoded content
+	 * @return a buffer positioned at the start of the content in the given encoding, or null if it is not available or must be
+	 *         streamed
+	 */
+	ByteBuffer content(String encoding) {
+		ByteBuffer buffer = encoding == null ? content : encoded.get(encoding);
+		return buffer == null ? null : buffer.duplicate();
+	}
+
+	/**
+	 * @return the number of bytes of heap used by this asset
+	 */
+	long heapSize() {
+		long heapSize = content == null || isMapped() ? 0 : content.capacity();
+		for (ByteBuffer buffer : encoded.values()) {
+			heapSize += buffer instanceof MappedByteBuffer ? 0 : buffer.capacity();
+		}
+		return heapSize;
+	}
+}
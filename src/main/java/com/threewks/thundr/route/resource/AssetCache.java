@@ -0,0 +1,87 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.resource;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of {@link Asset}s, bounded by the heap used by small assets and by the number of large assets mapped
+ * into memory.
+ */
+class AssetCache {
+	private final long maxHeapSize;
+	private final int maxMapped;
+	private final LinkedHashMap<Path, Asset> assets = new LinkedHashMap<>(64, 0.75f, true);
+	private long heapSize;
+	private int mapped;
+
+	AssetCache(long maxHeapSize, int maxMapped) {
+		this.maxHeapSize = maxHeapSize;
+		this.maxMapped = maxMapped;
+	}
+
+	synchronized Asset get(Path path) {
+		return assets.get(path);
+	}
+
+	synchronized void put(Asset asset) {
+		remove(assets.put(asset.path, asset));
+		add(asset);
+		Iterator<Map.Entry<Path, Asset>> iterator = assets.entrySet().iterator();
+		while ((heapSize > maxHeapSize || mapped > maxMapped) && iterator.hasNext()) {
+			Asset eldest = iterator.next().getValue();
+			if (eldest.isMapped() ? mapped > maxMapped : heapSize > maxHeapSize) {
+				iterator.remove();
+				remove(eldest);
+			}
+		}
+	}
+
+	synchronized void remove(Path path) {
+		remove(assets.remove(path));
+	}
+
+	synchronized int size() {
+		return assets.size();
+	}
+
+	synchronized long heapSize() {
+		return heapSize;
+	}
+
+	synchronized void clear() {
+		assets.clear();
+		heapSize = 0;
+		mapped = 0;
+	}
+
+	private void add(Asset asset) {
+		heapSize += asset.heapSize();
+		mapped += asset.isMapped() ? 1 : 0;
+	}
+
+	private void remove(Asset asset) {
+		if (asset != null) {
+			heapSize -= asset.heapSize();
+			mapped -= asset.isMapped() ? 1 : 0;
+		}
+	}
+}
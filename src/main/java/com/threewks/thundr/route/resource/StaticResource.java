@@ -0,0 +1,86 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.resource;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.threewks.thundr.route.RouteResult;
+
+/**
+ * Serves the files in a directory tree directly, without passing through a controller.
+ * 
+ * The part of the request path following the literal prefix of the route is used as the path of the file relative to the directory,
+ * so a route of '/static/**' for the directory 'web' serves the request '/static/css/site.css' from 'web/css/site.css'. A route
+ * without a wildcard can be used to serve a single file.
+ * 
+ * @see StaticResourceRouteResolver
+ */
+public class StaticResource implements RouteResult {
+	private Path directory;
+	private String cacheControl;
+
+	public StaticResource(String directory) {
+		this(Paths.get(directory));
+	}
+
+	public StaticResource(Path directory) {
+		this.directory = directory.toAbsolutePath().normalize();
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public String getCacheControl() {
+		return cacheControl;
+	}
+
+	/**
+	 * @param cacheControl the value of the Cache-Control header sent with each file, for example 'public, max-age=86400'
+	 * @return
+	 */
+	public StaticResource withCacheControl(String cacheControl) {
+		this.cacheControl = cacheControl;
+		return this;
+	}
+
+	/**
+	 * @param relativePath
+	 * @return the location of the given path within the directory, or null if it is not a valid path or would be outside the
+	 *         directory
+	 */
+	public Path resolve(String relativePath) {
+		try {
+			int start = 0;
+			while (start < relativePath.length() && relativePath.charAt(start) == '/') {
+				start++;
+			}
+			Path resolved = directory.resolve(relativePath.substring(start)).normalize();
+			return resolved.startsWith(directory) ? resolved : null;
+		} catch (InvalidPathException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "StaticResource:" + directory;
+	}
+}
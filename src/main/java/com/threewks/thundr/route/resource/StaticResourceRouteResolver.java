@@ -0,0 +1,359 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.threewks.thundr.exception.BaseException;
+import com.threewks.thundr.http.AcceptEncoding;
+import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.http.Validators;
+import com.threewks.thundr.request.Request;
+import com.threewks.thundr.request.Response;
+import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteNotFoundException;
+import com.threewks.thundr.route.RouteResolver;
+import com.threewks.thundr.route.RouteResolverException;
+import com.threewks.thundr.util.Encoder;
+
+import jodd.util.MimeTypes;
+
+/**
+ * Serves files for {@link StaticResource} routes.
+ * 
+ * Files no larger than the maximum cached file size are read into memory once, along with a gzip compressed copy for compressible
+ * content types, and kept in a least recently used cache bounded by the total heap they use. Larger files are memory mapped, with the
+ * number of mappings retained also bounded. Files too large to map are streamed from the file system on each request without being
+ * cached. Precompressed siblings of a file, such as 'site.css.br' or 'site.css.gz', are served in preference when the client accepts
+ * them. Strong etags are derived from a hash of the content of files held in memory, and from the size and modification time of
+ * larger files, with a suffix for each content coding so that each form of a file has its own etag. Cached files are checked against
+ * the file system on each request, and reloaded when their size or modification time has changed. Concurrent requests for a file
+ * which is not cached wait for a single load of it.
+ */
+public class StaticResourceRouteResolver implements RouteResolver<StaticResource> {
+	public static final int DefaultMaxCachedFileSize = 64 * 1024;
+	public static final long DefaultMaxCacheSize = 32 * 1024 * 1024;
+	public static final int DefaultMaxMappedFiles = 256;
+	public static final long MaxMappedFileSize = Integer.MAX_VALUE;
+
+	private static final Map<String, String> PrecompressedExtensions = new LinkedHashMap<>();
+
+	static {
+		PrecompressedExtensions.put(AcceptEncoding.Brotli, ".br");
+		PrecompressedExtensions.put(AcceptEncoding.Gzip, ".gz");
+	}
+
+	private final int maxCachedFileSize;
+	private final AssetCache cache;
+	private final ConcurrentMap<Path, FutureTask<Asset>> loading = new ConcurrentHashMap<>();
+
+	public StaticResourceRouteResolver() {
+		this(DefaultMaxCachedFileSize, DefaultMaxCacheSize, DefaultMaxMappedFiles);
+	}
+
+	/**
+	 * @param maxCachedFileSize files up to this size in bytes are held on the heap, larger files are memory mapped
+	 * @param maxCacheSize the total heap in bytes used by cached files and their compressed forms
+	 * @param maxMappedFiles the number of memory mapped files retained
+	 */
+	public StaticResourceRouteResolver(int maxCachedFileSize, long maxCacheSize, int maxMappedFiles) {
+		this.maxCachedFileSize = maxCachedFileSize;
+		this.cache = new AssetCache(maxCacheSize, maxMappedFiles);
+	}
+
+	@Override
+	public Object resolve(StaticResource resource, Request req, Response resp) throws RouteResolverException {
+		Path path = resource.resolve(getRelativePath(req));
+		Asset asset = path == null ? null : getAsset(path);
+		if (asset == null) {
+			throw new RouteNotFoundException("No static resource matching the request %s %s", req.getMethod(), req.getRequestPath());
+		}
+		try {
+			String encoding = selectEncoding(req.getHeader(Header.AcceptEncoding), asset);
+			String etag = asset.etag(encoding);
+			resp.withHeader(Header.ETag, etag)
+				.withHeader(Header.LastModified, Validators.formatDate(asset.lastModified))
+				.withHeader(Header.CacheControl, resource.getCacheControl(), resource.getCacheControl() != null)
+				.withHeader(Header.Vary, Header.AcceptEncoding, asset.hasEncodings());
+			if (Validators.isNotModified(req, etag, asset.lastModified)) {
+				resp.withStatusCode(StatusCode.NotModified).finaliseHeaders();
+				return null;
+			}
+			ByteBuffer content = asset.content(encoding);
+			// @formatter:off
+			resp.withStatusCode(StatusCode.OK)
+				.withContentType(asset.contentType)
+				.withHeader(Header.ContentEncoding, encoding, encoding != null)
+				.withContentLength(content == null ? asset.size : content.remaining())
+				.finaliseHeaders();
+			// @formatter:on
+			if (!req.isA(HttpMethod.HEAD)) {
+				OutputStream outputStream = resp.getOutputStream();
+				if (content == null) {
+					transfer(asset.path, asset.size, outputStream);
+				} else {
+					write(content, outputStream);
+				}
+				outputStream.flush();
+			}
+			return null;
+		} catch (Exception e) {
+			throw new RouteResolverException(e, "Failed to write static resource %s: %s", path, e.getMessage());
+		}
+	}
+
+	/**
+	 * Removes all files from the cache, causing them to be read again when next requested.
+	 */
+	public void clearCache() {
+		cache.clear();
+	}
+
+	protected String getRelativePath(Request req) {
+		String requestPath = StringUtils.trimToEmpty(req.getRequestPath());
+		Route route = req.getRoute();
+		if (route != null) {
+			String prefix = getLiteralPrefix(route.getRoute());
+			if (requestPath.startsWith(prefix)) {
+				requestPath = requestPath.substring(prefix.length());
+			}
+		}
+		try {
+			return URLDecoder.decode(requestPath.replace("+", "%2B"), "UTF-8");
+		} catch (UnsupportedEncodingException | IllegalArgumentException e) {
+			return requestPath;
+		}
+	}
+
+	protected String getLiteralPrefix(String route) {
+		int end = route.length();
+		int wildcard = route.indexOf('*');
+		int pathParameter = route.indexOf('{');
+		end = wildcard < 0 ? end : Math.min(end, wildcard);
+		end = pathParameter < 0 ? end : Math.min(end, pathParameter);
+		return route.substring(0, end);
+	}
+
+	private Asset getAsset(Path path) throws RouteResolverException {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+			if (!attributes.isRegularFile()) {
+				cache.remove(path);
+				return null;
+			}
+			if (attributes.size() > MaxMappedFileSize) {
+				cache.remove(path);
+				return new Asset(path, attributes, getContentType(path), etag(attributes), null, Collections.<String, ByteBuffer> emptyMap());
+			}
+			Asset asset = cache.get(path);
+			return asset == null || !asset.isCurrent(attributes) ? loadOnce(path, attributes) : asset;
+		} catch (NoSuchFileException e) {
+			cache.remove(path);
+			return null;
+		} catch (IOException e) {
+			throw new RouteResolverException(e, "Failed to read static resource %s: %s", path, e.getMessage());
+		}
+	}
+
+	/**
+	 * Loads the given file into the cache, or waits for a load of it already in progress.
+	 */
+	private Asset loadOnce(final Path path, final BasicFileAttributes attributes) throws IOException {
+		FutureTask<Asset> task = new FutureTask<>(new Callable<Asset>() {
+			@Override
+			public Asset call() throws IOException {
+				Asset asset = load(path, attributes);
+				cache.put(asset);
+				return asset;
+			}
+		});
+		FutureTask<Asset> loadingTask = loading.putIfAbsent(path, task);
+		if (loadingTask == null) {
+			loadingTask = task;
+			try {
+				task.run();
+			} finally {
+				loading.remove(path, task);
+			}
+		}
+		try {
+			return loadingTask.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw (IOException) cause;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for " + path + " to load");
+		}
+	}
+
+	private Asset load(Path path, BasicFileAttributes attributes) throws IOException {
+		boolean small = attributes.size() <= maxCachedFileSize;
+		ByteBuffer content = small ? ByteBuffer.wrap(Files.readAllBytes(path)) : map(path);
+		String contentType = getContentType(path);
+		Map<String, ByteBuffer> encoded = new LinkedHashMap<>();
+		for (Map.Entry<String, String> precompressed : PrecompressedExtensions.entrySet()) {
+			Path sibling = path.resolveSibling(path.getFileName() + precompressed.getValue());
+			if (Files.isRegularFile(sibling) && Files.getLastModifiedTime(sibling).compareTo(attributes.lastModifiedTime()) >= 0) {
+				long siblingSize = Files.size(sibling);
+				if (siblingSize <= MaxMappedFileSize) {
+					encoded.put(precompressed.getKey(), siblingSize <= maxCachedFileSize ? ByteBuffer.wrap(Files.readAllBytes(sibling)) : map(sibling));
+				}
+			}
+		}
+		if (small && !encoded.containsKey(AcceptEncoding.Gzip) && isCompressible(contentType)) {
+			byte[] gzipped = gzip(content.duplicate());
+			if (gzipped.length < content.remaining()) {
+				encoded.put(AcceptEncoding.Gzip, ByteBuffer.wrap(gzipped));
+			}
+		}
+		String etag = small ? etag(content.duplicate()) : etag(attributes);
+		return new Asset(path, attributes, contentType, etag, content, encoded);
+	}
+
+	protected String getContentType(Path path) {
+		String extension = StringUtils.substringAfterLast(path.getFileName().toString(), ".");
+		String mimeType = MimeTypes.getMimeType(extension.toLowerCase());
+		return mimeType == null ? MimeTypes.MIME_APPLICATION_OCTET_STREAM : mimeType;
+	}
+
+	protected boolean isCompressible(String contentType) {
+		return contentType.startsWith("text/") || contentType.contains("json") || contentType.contains("javascript") || contentType.contains("xml")
+				|| contentType.equals("image/svg+xml");
+	}
+
+	private String selectEncoding(String acceptEncoding, Asset asset) {
+		if (acceptEncoding != null) {
+			for (String encoding : PrecompressedExtensions.keySet()) {
+				if (asset.content(encoding) != null && AcceptEncoding.accepts(acceptEncoding, encoding)) {
+					return encoding;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static ByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	private static String etag(ByteBuffer content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("MD5");
+			digest.update(content);
+			return "\"" + new Encoder(digest.digest()).hex().string() + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new BaseException(e, "'%s' MessageDigest algorithm unavailable", "MD5");
+		}
+	}
+
+	/**
+	 * Large files are not hashed, as doing so would read the whole file each time it was loaded.
+	 */
+	private static String etag(BasicFileAttributes attributes) {
+		return "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+	}
+
+	private static byte[] gzip(ByteBuffer content) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.remaining() / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gzip.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+		}
+		return compressed.toByteArray();
+	}
+
+	private static void write(ByteBuffer content, OutputStream outputStream) throws IOException {
+		if (content.hasArray()) {
+			outputStream.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+		} else {
+			WritableByteChannel channel = outputStream instanceof WritableByteChannel ? (WritableByteChannel) outputStream : Channels.newChannel(outputStream);
+			while (content.hasRemaining()) {
+				channel.write(content);
+			}
+		}
+	}
+
+	private static void transfer(Path path, long size, OutputStream outputStream) throws IOException {
+		WritableByteChannel target = outputStream instanceof WritableByteChannel ? (WritableByteChannel) outputStream : Channels.newChannel(outputStream);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long position = 0;
+			while (position < size) {
+				long transferred = channel.transferTo(position, size - position, target);
+				if (transferred <= 0) {
+					// transferTo can make no progress without failing, so copy through the heap, which either progresses or reaches the end
+					ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(8192, size - position));
+					int read = channel.read(buffer, position);
+					if (read <= 0) {
+						throw new IOException(String.format("%s was truncated to %d bytes while being written", path, position));
+					}
+					outputStream.write(buffer.array(), 0, read);
+					transferred = read;
+				}
+				position += transferred;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName();
+	}
+}
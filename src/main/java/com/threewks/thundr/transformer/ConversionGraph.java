@@ -0,0 +1,283 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.transformer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.atomicleopard.expressive.ETransformer;
+import com.atomicleopard.expressive.collection.Pair;
+import com.threewks.thundr.introspection.ClassIntrospector;
+
+/**
+ * An immutable graph of the transformers registered in a {@link TransformerManager}, used to find the best single transformer for a
+ * conversion and, when asked for, conversions which need more than one transformer, such as Long to DateTime to Date.
+ * 
+ * Each registered type is a node. A node has an edge to every type a registered transformer produces, where the transformer accepts the
+ * node's type or one of its supertypes. Chains of transformers do not pass through String, as parsing the text of another type rarely
+ * means anything (Boolean to String to Long), do not use transformers registered for Object, which accept values they cannot convert
+ * (UUID to DateTime), and do not narrow numbers (Date to Long to Integer), as these fail or lose information where a single
+ * transformer would not. The shortest path between every pair of nodes is computed the first time a chain is needed.
+ */
+final class ConversionGraph {
+	private static final int Unreachable = Integer.MAX_VALUE;
+	private static final Map<Class<?>, Integer> IntegralWidths = new HashMap<Class<?>, Integer>();
+	private static final Map<Class<?>, Integer> DecimalWidths = new HashMap<Class<?>, Integer>();
+
+	static {
+		IntegralWidths.put(Byte.class, 1);
+		IntegralWidths.put(Short.class, 2);
+		IntegralWidths.put(Integer.class, 3);
+		IntegralWidths.put(AtomicInteger.class, 3);
+		IntegralWidths.put(Long.class, 4);
+		IntegralWidths.put(AtomicLong.class, 4);
+		IntegralWidths.put(BigInteger.class, 5);
+		DecimalWidths.put(Float.class, 6);
+		DecimalWidths.put(Double.class, 7);
+		DecimalWidths.put(BigDecimal.class, 8);
+		DecimalWidths.put(Number.class, 9);
+	}
+
+	private final int version;
+	private final ClassIntrospector classIntrospector;
+	private final Map<Class<?>, Map<Class<?>, ETransformer<?, ?>>> registered;
+	private final List<Class<?>> types = new ArrayList<Class<?>>();
+	private final Map<Class<?>, Integer> index = new HashMap<Class<?>, Integer>();
+	private Class<?>[] nodes;
+	private ETransformer<?, ?>[][] edges;
+	private int[][] distance;
+	private int[][] next;
+
+	ConversionGraph(int version, Map<Pair<Class<?>, Class<?>>, ETransformer<?, ?>> transformers, ClassIntrospector classIntrospector) {
+		this.version = version;
+		this.classIntrospector = classIntrospector;
+		this.registered = new LinkedHashMap<Class<?>, Map<Class<?>, ETransformer<?, ?>>>();
+		for (Map.Entry<Pair<Class<?>, Class<?>>, ETransformer<?, ?>> entry : transformers.entrySet()) {
+			Class<?> from = entry.getKey().getA();
+			Class<?> to = entry.getKey().getB();
+			// unboxed registrations duplicate the boxed ones, lookups are always made using boxed types
+			if (!from.isPrimitive() && !to.isPrimitive()) {
+				Map<Class<?>, ETransformer<?, ?>> targets = registered.get(from);
+				if (targets == null) {
+					targets = new LinkedHashMap<Class<?>, ETransformer<?, ?>>();
+					registered.put(from, targets);
+				}
+				targets.put(to, entry.getValue());
+				addNode(from);
+				addNode(to);
+			}
+		}
+	}
+
+	/**
+	 * @return the version of the registered transformers this graph was built from
+	 */
+	int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Finds a single transformer converting the given type to the given type, preferring transformers for the most specific supertype of
+	 * the source.
+	 * 
+	 * @param fromType
+	 * @param toType
+	 * @return the transformer, or null if there is none
+	 */
+	ETransformer<?, ?> findTransformer(Class<?> fromType, Class<?> toType) {
+		for (Class<?> implemented : classIntrospector.listImplementedTypes(fromType)) {
+			Map<Class<?>, ETransformer<?, ?>> targets = registered.get(implemented);
+			if (targets != null) {
+				for (Map.Entry<Class<?>, ETransformer<?, ?>> target : targets.entrySet()) {
+					if (toType.isAssignableFrom(target.getKey())) {
+						return target.getValue();
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the shortest chain of transformers converting the given type to the given type, preferring chains which start with a transformer
+	 * for the most specific supertype of the source. Chains do not pass through String, use transformers for Object or narrow numbers.
+	 * 
+	 * @param fromType
+	 * @param toType
+	 * @return the chain of transformers, or null if there is no conversion
+	 */
+	List<ETransformer<?, ?>> findPath(Class<?> fromType, Class<?> toType) {
+		computeShortestPaths();
+		int bestLength = Unreachable;
+		ETransformer<?, ?> bestFirst = null;
+		int bestStart = -1;
+		int bestEnd = -1;
+		for (Map.Entry<Class<?>, ETransformer<?, ?>> first : edgesFrom(fromType).entrySet()) {
+			int start = index.get(first.getKey());
+			for (int end = 0; end < nodes.length; end++) {
+				int length = distance[start][end];
+				if (length != Unreachable && length + 1 < bestLength && toType.isAssignableFrom(nodes[end])) {
+					bestLength = length + 1;
+					bestFirst = first.getValue();
+					bestStart = start;
+					bestEnd = end;
+				}
+			}
+		}
+		if (bestFirst == null) {
+			return null;
+		}
+		List<ETransformer<?, ?>> path = new ArrayList<ETransformer<?, ?>>(bestLength);
+		path.add(bestFirst);
+		for (int current = bestStart; current != bestEnd; current = next[current][bestEnd]) {
+			path.add(edges[current][next[current][bestEnd]]);
+		}
+		return path;
+	}
+
+	/**
+	 * The transformers applicable to values of the given type which may start a chain, by the type they produce. Where more than one
+	 * transformer produces the same type, the one registered for the most specific supertype is used. Transformers registered for Object
+	 * are left to single conversions.
+	 */
+	private Map<Class<?>, ETransformer<?, ?>> edgesFrom(Class<?> type) {
+		Map<Class<?>, ETransformer<?, ?>> edgesFrom = new LinkedHashMap<Class<?>, ETransformer<?, ?>>();
+		for (Class<?> implemented : classIntrospector.listImplementedTypes(type)) {
+			Map<Class<?>, ETransformer<?, ?>> targets = implemented == Object.class ? null : registered.get(implemented);
+			if (targets != null) {
+				for (Map.Entry<Class<?>, ETransformer<?, ?>> target : targets.entrySet()) {
+					if (!edgesFrom.containsKey(target.getKey()) && !isNarrowing(type, target.getKey())) {
+						edgesFrom.put(target.getKey(), target.getValue());
+					}
+				}
+			}
+		}
+		return edgesFrom;
+	}
+
+	private synchronized void computeShortestPaths() {
+		if (distance != null) {
+			return;
+		}
+		Class<?>[] nodes = types.toArray(new Class<?>[types.size()]);
+		ETransformer<?, ?>[][] edges = new ETransformer<?, ?>[nodes.length][nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			// a chain may end at String, but not continue from it
+			if (nodes[i] != String.class) {
+				for (Map.Entry<Class<?>, ETransformer<?, ?>> edge : edgesFrom(nodes[i]).entrySet()) {
+					int to = index.get(edge.getKey());
+					if (to != i) {
+						edges[i][to] = edge.getValue();
+					}
+				}
+			}
+		}
+		this.nodes = nodes;
+		this.edges = edges;
+		this.next = new int[nodes.length][nodes.length];
+		int[][] distance = new int[nodes.length][nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			shortestPathsFrom(i, distance);
+		}
+		this.distance = distance;
+	}
+
+	/**
+	 * Breadth first search from the given node, as all edges are of equal length.
+	 */
+	private void shortestPathsFrom(int from, int[][] distance) {
+		int[] distances = distance[from];
+		int[] firstStep = next[from];
+		Arrays.fill(distances, Unreachable);
+		Arrays.fill(firstStep, -1);
+		distances[from] = 0;
+		int[] queue = new int[nodes.length];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = from;
+		while (head < tail) {
+			int current = queue[head++];
+			for (int to = 0; to < nodes.length; to++) {
+				if (edges[current][to] != null && distances[to] == Unreachable) {
+					distances[to] = distances[current] + 1;
+					firstStep[to] = current == from ? to : firstStep[current];
+					queue[tail++] = to;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if converting the given numeric type to the other given numeric type could lose magnitude or precision
+	 */
+	static boolean isNarrowing(Class<?> fromType, Class<?> toType) {
+		Integer from = width(fromType);
+		Integer to = width(toType);
+		if (from == null || to == null) {
+			return false;
+		}
+		return to < from || DecimalWidths.containsKey(fromType) && IntegralWidths.containsKey(toType);
+	}
+
+	private static Integer width(Class<?> type) {
+		Integer width = IntegralWidths.get(type);
+		return width == null ? DecimalWidths.get(type) : width;
+	}
+
+	private void addNode(Class<?> type) {
+		if (!index.containsKey(type)) {
+			index.put(type, types.size());
+			types.add(type);
+		}
+	}
+
+	/**
+	 * Applies a chain of transformers in order. A null result part way through the chain is returned as is.
+	 */
+	static final class ComposedTransformer<From, To> implements ETransformer<From, To> {
+		private final ETransformer<Object, Object>[] transformers;
+
+		@SuppressWarnings("unchecked")
+		ComposedTransformer(List<ETransformer<?, ?>> transformers) {
+			this.transformers = transformers.toArray(new ETransformer[transformers.size()]);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public To from(From from) {
+			Object value = from;
+			for (int i = 0; i < transformers.length && value != null; i++) {
+				value = transformers[i].from(value);
+			}
+			return (To) value;
+		}
+
+		@Override
+		public String toString() {
+			return "Composed" + Arrays.toString(transformers);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.transformer;
+
+/**
+ * A transformer producing a primitive double, allowing conversions to double to be made without boxing the result.
+ * 
+ * Transformers registered with a {@link TransformerManager} for conversion to {@link Double} may also implement this interface, see
+ * {@link TransformerManager#getDoubleTransformer(Class)}.
+ * 
+ * @param <From>
+ */
+public interface ToDoubleTransformer<From> {
+	/**
+	 * @param from
+	 * @return the double value of the given value
+	 * @throws RuntimeException if the value cannot be converted, including when it is null
+	 */
+	public double toDouble(From from);
+}
@@ -22,16 +22,20 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.joda.time.DateTime;
 import org.joda.time.ReadableInstant;
 
+import com.atomicleopard.expressive.Cast;
 import com.atomicleopard.expressive.EList;
 import com.atomicleopard.expressive.ETransformer;
 import com.atomicleopard.expressive.Expressive;
@@ -104,10 +108,20 @@ import com.threewks.thundr.transformer.uuid.StringToUUID;
 import com.threewks.thundr.transformer.uuid.UUIDToString;
 
 public class TransformerManager {
-	private Triplets<Class<?>, Class<?>, ETransformer<?, ?>> transformers = new Triplets<Class<?>, Class<?>, ETransformer<?, ?>>(new ConcurrentHashMap<Pair<Class<?>, Class<?>>, ETransformer<?, ?>>());
-	private Triplets<Class<?>, Class<?>, ETransformer<?, ?>> transformerCache = new Triplets<Class<?>, Class<?>, ETransformer<?, ?>>(
-			new ConcurrentHashMap<Pair<Class<?>, Class<?>>, ETransformer<?, ?>>());
+	private ConcurrentMap<Pair<Class<?>, Class<?>>, ETransformer<?, ?>> transformerMap = new ConcurrentHashMap<Pair<Class<?>, Class<?>>, ETransformer<?, ?>>();
+	private Triplets<Class<?>, Class<?>, ETransformer<?, ?>> transformers = new Triplets<Class<?>, Class<?>, ETransformer<?, ?>>(transformerMap);
 	private ClassIntrospector classIntrospector = new ClassIntrospector();
+	/*
+	 * Best transformers are cached by source type then target type, so a cached lookup is a ClassValue read and a single hash probe. The
+	 * source types with cache entries are tracked so that registering a transformer only evicts the entries it could affect. Composed
+	 * transformers are cached separately, and all of them are evicted when the registered transformers change.
+	 */
+	private final ClassValue<ConcurrentMap<Class<?>, ETransformer<?, ?>>> transformerCache = new TypeCache();
+	private final ClassValue<ConcurrentMap<Class<?>, ETransformer<?, ?>>> composedCache = new TypeCache();
+	private final Set<Class<?>> cachedTypes = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	// built on first use after the registered transformers change, which is tracked by the version
+	private volatile ConversionGraph conversionGraph;
+	private final AtomicInteger version = new AtomicInteger();
 
 	private TransformerManager() {
 	}
@@ -129,11 +143,8 @@ public class TransformerManager {
 		return Expressive.Transformers.transformAllUsing(transformer).from(from);
 	}
 
-	public <From, To> void register(Class<From> fromType, Class<To> toType, ETransformer<From, To> transformer) {
+	public synchronized <From, To> void register(Class<From> fromType, Class<To> toType, ETransformer<From, To> transformer) {
 		this.transformers.put(fromType, toType, transformer);
-		// There is a race condition between clearing the cache and registration of the unboxed types
-		// Generally this should not be an issue
-		clearCache();
 		Class<?> unboxedFrom = TypeIntrospector.unbox(fromType);
 		Class<?> unboxedTo = TypeIntrospector.unbox(toType);
 		if (unboxedFrom != null) {
@@ -145,11 +156,12 @@ public class TransformerManager {
 		if (unboxedTo != null && unboxedFrom != null) {
 			this.transformers.put(unboxedFrom, unboxedTo, transformer);
 		}
+		transformersChanged(fromType);
 	}
 
-	public <From, To> void unregister(Class<From> fromType, Class<To> toType) {
+	public synchronized <From, To> void unregister(Class<From> fromType, Class<To> toType) {
 		this.transformers.remove(fromType, toType);
-		clearCache();
+		transformersChanged(fromType);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -192,20 +204,47 @@ public class TransformerManager {
 			return transformer;
 		}
 
-		List<Class<?>> fromTypes = classIntrospector.listImplementedTypes(fromType);
-		for (Class<?> f : fromTypes) {
-			for (Pair<Class<?>, Class<?>> entry : transformers.keySet()) {
-				Class<?> t = entry.getB();
-				if (toType.isAssignableFrom(t)) {
-					transformer = (ETransformer<? super From, ? extends To>) getTransformer(f, t);
-					if (transformer != null) {
-						addToCache(fromType, toType, transformer);
-						return transformer;
-					}
-				}
-			}
+		transformer = (ETransformer<? super From, ? extends To>) getConversionGraph().findTransformer(fromType, toType);
+		if (transformer != null) {
+			addToCache(fromType, toType, transformer);
 		}
-		return null;
+		return transformer;
+	}
+
+	/**
+	 * Return the best transformer from the given type to the given type as {@link #getBestTransformer(Class, Class)} does, or if there
+	 * is none, a transformer applying the shortest chain of registered transformers which converts between them, such as Long to
+	 * DateTime to Date. Chains do not pass through String, use transformers registered for Object or narrow numbers, so Boolean is
+	 * not converted to Long by way of its text.
+	 * 
+	 * @param fromType
+	 * @param toType
+	 * @return the transformer, or null if there is no conversion
+	 */
+	@SuppressWarnings("unchecked")
+	public <From, To> ETransformer<? super From, ? extends To> getComposedTransformer(Class<From> fromType, Class<To> toType) {
+		ETransformer<? super From, ? extends To> transformer = getBestTransformer(fromType, toType);
+		if (transformer != null) {
+			return transformer;
+		}
+		if (TypeIntrospector.isABasicType(fromType)) {
+			fromType = (Class<From>) TypeIntrospector.box(fromType);
+		}
+		if (TypeIntrospector.isABasicType(toType)) {
+			toType = (Class<To>) TypeIntrospector.box(toType);
+		}
+		transformer = (ETransformer<? super From, ? extends To>) composedCache.get(fromType).get(toType);
+		if (transformer != null) {
+			return transformer;
+		}
+
+		List<ETransformer<?, ?>> path = getConversionGraph().findPath(fromType, toType);
+		if (path == null) {
+			return null;
+		}
+		transformer = new ConversionGraph.ComposedTransformer<From, To>(path);
+		composedCache.get(fromType).put(toType, transformer);
+		return transformer;
 	}
 
 	/**
@@ -224,6 +263,42 @@ public class TransformerManager {
 		return transformer;
 	}
 
+	/**
+	 * Return a transformer producing a primitive int from the given type, if the best transformer from the given type to
+	 * {@link Integer} supports it.
+	 * 
+	 * @param fromType
+	 * @return the transformer, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public <From> ToIntTransformer<? super From> getIntTransformer(Class<From> fromType) {
+		return Cast.as(getBestTransformer(fromType, Integer.class), ToIntTransformer.class);
+	}
+
+	/**
+	 * Return a transformer producing a primitive long from the given type, if the best transformer from the given type to
+	 * {@link Long} supports it.
+	 * 
+	 * @param fromType
+	 * @return the transformer, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public <From> ToLongTransformer<? super From> getLongTransformer(Class<From> fromType) {
+		return Cast.as(getBestTransformer(fromType, Long.class), ToLongTransformer.class);
+	}
+
+	/**
+	 * Return a transformer producing a primitive double from the given type, if the best transformer from the given type to
+	 * {@link Double} supports it.
+	 * 
+	 * @param fromType
+	 * @return the transformer, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public <From> ToDoubleTransformer<? super From> getDoubleTransformer(Class<From> fromType) {
+		return Cast.as(getBestTransformer(fromType, Double.class), ToDoubleTransformer.class);
+	}
+
 	public TransformerManager copy() {
 		TransformerManager transformerManager = new TransformerManager();
 		transformerManager.transformers.putAll(this.transformers);
@@ -231,18 +306,56 @@ public class TransformerManager {
 	}
 
 	protected <From, To> void addToCache(Class<From> fromType, Class<To> toType, ETransformer<? super From, ? extends To> transformer) {
-		transformerCache.put(fromType, toType, transformer);
+		transformerCache.get(fromType).put(toType, transformer);
 	}
 
 	protected <From, To> void clearCache() {
-		// TODO - this is very heavy handed - removing just those relevant entries
-		// would be more effective
-		transformerCache.clear();
+		for (Class<?> type : cachedTypes) {
+			transformerCache.get(type).clear();
+			composedCache.get(type).clear();
+		}
+	}
+
+	/**
+	 * Evicts the cached transformers which could be affected by a change to the transformers from the given type, that is the best
+	 * transformers for the given type and its subtypes, and all composed transformers.
+	 */
+	protected void clearCache(Class<?> changedType) {
+		Class<?> boxed = TypeIntrospector.isABasicType(changedType) ? TypeIntrospector.box(changedType) : changedType;
+		for (Class<?> type : cachedTypes) {
+			if (boxed.isAssignableFrom(type)) {
+				transformerCache.get(type).clear();
+			}
+			composedCache.get(type).clear();
+		}
 	}
 
 	@SuppressWarnings("unchecked")
 	protected <From, To> ETransformer<? super From, ? extends To> getFromCache(Class<From> fromType, Class<To> toType) {
-		return (ETransformer<? super From, ? extends To>) transformerCache.get(fromType, toType);
+		return (ETransformer<? super From, ? extends To>) transformerCache.get(fromType).get(toType);
+	}
+
+	private ConversionGraph getConversionGraph() {
+		int currentVersion = version.get();
+		ConversionGraph graph = conversionGraph;
+		if (graph == null || graph.getVersion() != currentVersion) {
+			graph = new ConversionGraph(currentVersion, transformerMap, classIntrospector);
+			conversionGraph = graph;
+		}
+		return graph;
+	}
+
+	private void transformersChanged(Class<?> changedType) {
+		version.incrementAndGet();
+		clearCache(changedType);
+	}
+
+	/**
+	 * @return a number which changes whenever a transformer is registered or unregistered, so that anything remembered about the
+	 *         available transformers can be discarded when they change
+	 */
+	public int getVersion() {
+		return version.get();
 	}
 
 	public static TransformerManager createEmpty() {
@@ -340,6 +453,14 @@ public class TransformerManager {
 		return new ObjectToEnum(toType);
 	}
 
+	private final class TypeCache extends ClassValue<ConcurrentMap<Class<?>, ETransformer<?, ?>>> {
+		@Override
+		protected ConcurrentMap<Class<?>, ETransformer<?, ?>> computeValue(Class<?> type) {
+			cachedTypes.add(type);
+			return new ConcurrentHashMap<Class<?>, ETransformer<?, ?>>();
+		}
+	}
+
 	@SuppressWarnings("rawtypes")
 	protected static final NoopTransformer NoopTransformerInstance = new NoopTransformer();
 
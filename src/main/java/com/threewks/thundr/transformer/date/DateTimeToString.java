@@ -18,17 +18,14 @@
 package com.threewks.thundr.transformer.date;
 
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
 
 import com.atomicleopard.expressive.ETransformer;
 
 public class DateTimeToString implements ETransformer<DateTime, String> {
-	private static final DateTimeFormatter IsoFormat = ISODateTimeFormat.dateTime();
 
 	@Override
 	public String from(DateTime from) {
-		return from == null ? null : IsoFormat.print(from);
+		return from == null ? null : IsoDateTimes.print(from);
 	}
 
 }
@@ -19,17 +19,15 @@ package com.threewks.thundr.transformer.date;
 
 import java.util.Date;
 
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
+import org.joda.time.DateTimeZone;
 
 import com.atomicleopard.expressive.ETransformer;
 
 public class DateToString implements ETransformer<Date, String> {
-	private static final DateTimeFormatter IsoFormat = ISODateTimeFormat.dateTime().withZoneUTC();
 
 	@Override
 	public String from(Date from) {
-		return from == null ? null : IsoFormat.print(from.getTime());
+		return from == null ? null : IsoDateTimes.print(from.getTime(), DateTimeZone.UTC);
 	}
 
 }
@@ -0,0 +1,370 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.transformer.date;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.ReadableInstant;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+/**
+ * Parses and prints the ISO-8601 formats used by the date transformers, reading and writing the characters directly rather
+ * than going through a {@link DateTimeFormatter}.
+ * 
+ * Parsing accepts the same input as {@link ISODateTimeFormat#dateOptionalTimeParser()} and printing produces the same output as
+ * {@link ISODateTimeFormat#dateTime()}. The common forms, such as "2014-06-01", "2014-06-01T12:34:56.123" and
+ * "2014-06-01T12:34:56.123+10:00" for years 0000 to 9999, are handled here. Anything else, including invalid input, is passed to
+ * the Joda formatters so that results and failures are unchanged.
+ */
+public class IsoDateTimes {
+	private static final DateTimeFormatter LenientIsoParser = ISODateTimeFormat.dateOptionalTimeParser();
+	private static final DateTimeFormatter OffsetRetainingIsoParser = LenientIsoParser.withOffsetParsed();
+	private static final DateTimeFormatter IsoFormat = ISODateTimeFormat.dateTime();
+
+	private static final long MillisPerMinute = 60 * 1000;
+	private static final long MillisPerDay = 24 * 60 * MillisPerMinute;
+	// days from 0000-03-01 to 1970-01-01 in the proleptic gregorian calendar
+	private static final long DaysToEpoch = 719468;
+	private static final int[] DaysInMonth = { 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+	// 'yyyy-MM-ddTHH:mm:ss.SSS+hh:mm'
+	private static final int MaxLength = 29;
+
+	// DateTimeZone.forOffsetMillis synchronizes on its cache, parsed offsets are looked up here first
+	private static final ConcurrentMap<Integer, DateTimeZone> OffsetZones = new ConcurrentHashMap<>();
+
+	/**
+	 * Parses the given ISO-8601 date and optional time. If the value specifies an offset and offsetParsed is true the result
+	 * is in a fixed zone for that offset, otherwise it is in the default zone.
+	 * 
+	 * @param value
+	 * @param offsetParsed
+	 * @return
+	 * @throws IllegalArgumentException if the value is not a valid date
+	 */
+	public static DateTime parseDateTime(String value, boolean offsetParsed) {
+		Parsed parsed = parse(value);
+		if (parsed != null) {
+			DateTimeZone defaultZone = DateTimeZone.getDefault();
+			if (parsed.hasOffset) {
+				long millis = parsed.localMillis - parsed.offsetMillis;
+				return new DateTime(millis, offsetParsed ? offsetZone(parsed.offsetMillis) : defaultZone);
+			}
+			int offset = defaultZone.getOffsetFromLocal(parsed.localMillis);
+			long millis = parsed.localMillis - offset;
+			// a local time in a daylight savings gap does not exist, leave the joda parser to reject it
+			if (offset == defaultZone.getOffset(millis)) {
+				return new DateTime(millis, defaultZone);
+			}
+		}
+		return (offsetParsed ? OffsetRetainingIsoParser : LenientIsoParser).parseDateTime(value);
+	}
+
+	/**
+	 * Parses the given ISO-8601 date and optional time to milliseconds since the epoch, using the default zone if the value
+	 * specifies no offset.
+	 * 
+	 * @param value
+	 * @return
+	 * @throws IllegalArgumentException if the value is not a valid date
+	 */
+	public static long parseMillis(String value) {
+		Parsed parsed = parse(value);
+		if (parsed != null) {
+			if (parsed.hasOffset) {
+				return parsed.localMillis - parsed.offsetMillis;
+			}
+			DateTimeZone defaultZone = DateTimeZone.getDefault();
+			int offset = defaultZone.getOffsetFromLocal(parsed.localMillis);
+			long millis = parsed.localMillis - offset;
+			if (offset == defaultZone.getOffset(millis)) {
+				return millis;
+			}
+		}
+		return LenientIsoParser.parseMillis(value);
+	}
+
+	/**
+	 * Returns true if the given value is a whole number, which can be read as milliseconds since the epoch.
+	 * 
+	 * The string transformers in this package only read whole numbers this way when constructed to, as ISO-8601 reads a plain
+	 * number such as "2014" as a year.
+	 * 
+	 * @param value
+	 * @return
+	 */
+	public static boolean isEpochMillis(String value) {
+		int length = value.length();
+		int i = length > 1 && value.charAt(0) == '-' ? 1 : 0;
+		if (i == length) {
+			return false;
+		}
+		for (; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Prints the given instant in its own zone, as 'yyyy-MM-ddTHH:mm:ss.SSSZZ'.
+	 * 
+	 * @param instant
+	 * @return
+	 */
+	public static String print(ReadableInstant instant) {
+		if (instant.getChronology() instanceof ISOChronology) {
+			String printed = print(instant.getMillis(), instant.getZone().getOffset(instant.getMillis()));
+			if (printed != null) {
+				return printed;
+			}
+		}
+		return IsoFormat.print(instant);
+	}
+
+	/**
+	 * Prints the given milliseconds since the epoch in the given zone, as 'yyyy-MM-ddTHH:mm:ss.SSSZZ'.
+	 * 
+	 * @param millis
+	 * @param zone
+	 * @return
+	 */
+	public static String print(long millis, DateTimeZone zone) {
+		String printed = print(millis, zone.getOffset(millis));
+		return printed == null ? IsoFormat.withZone(zone).print(millis) : printed;
+	}
+
+	/**
+	 * @return the printed value, or null if the year is out of the range 0000-9999 or the offset is not in whole minutes
+	 */
+	private static String print(long millis, int offsetMillis) {
+		if (offsetMillis % MillisPerMinute != 0) {
+			return null;
+		}
+		long local = millis + offsetMillis;
+		long days = floorDiv(local, MillisPerDay);
+		int millisOfDay = (int) (local - days * MillisPerDay);
+
+		// civil date from days since the epoch, counting years from march so that leap days fall at the end of the year
+		long shifted = days + DaysToEpoch;
+		long era = floorDiv(shifted, 146097);
+		int dayOfEra = (int) (shifted - era * 146097);
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int monthFromMarch = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+		int month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+		long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		if (year < 0 || year > 9999) {
+			return null;
+		}
+
+		char[] chars = new char[MaxLength];
+		write(chars, 0, (int) year, 4);
+		chars[4] = '-';
+		write(chars, 5, month, 2);
+		chars[7] = '-';
+		write(chars, 8, day, 2);
+		chars[10] = 'T';
+		write(chars, 11, millisOfDay / 3600000, 2);
+		chars[13] = ':';
+		write(chars, 14, millisOfDay / 60000 % 60, 2);
+		chars[16] = ':';
+		write(chars, 17, millisOfDay / 1000 % 60, 2);
+		chars[19] = '.';
+		write(chars, 20, millisOfDay % 1000, 3);
+		if (offsetMillis == 0) {
+			chars[23] = 'Z';
+			return new String(chars, 0, 24);
+		}
+		int offsetMinutes = Math.abs(offsetMillis / 60000);
+		chars[23] = offsetMillis < 0 ? '-' : '+';
+		write(chars, 24, offsetMinutes / 60, 2);
+		chars[26] = ':';
+		write(chars, 27, offsetMinutes % 60, 2);
+		return new String(chars, 0, MaxLength);
+	}
+
+	private static void write(char[] chars, int start, int value, int digits) {
+		for (int i = start + digits - 1; i >= start; i--) {
+			chars[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+	/**
+	 * Parses 'yyyy[-MM[-dd[THH[:mm[:ss[.S*]]][Z|+hh|+hh:mm|+hhmm]]]]'.
+	 * 
+	 * @return the parsed value, or null if the value is not in this form or has out of range fields
+	 */
+	private static Parsed parse(String value) {
+		int length = value.length();
+		int year = digits(value, 0, 4);
+		if (year < 0) {
+			return null;
+		}
+		int month = 1;
+		int day = 1;
+		int i = 4;
+		if (i < length && value.charAt(i) == '-') {
+			month = digits(value, i + 1, 2);
+			i += 3;
+			if (i < length && value.charAt(i) == '-') {
+				day = digits(value, i + 1, 2);
+				i += 3;
+			}
+		}
+		if (month < 1 || month > 12 || day < 1 || day > DaysInMonth[month - 1] || month == 2 && day == 29 && !isLeapYear(year)) {
+			return null;
+		}
+		long localMillis = daysFromEpoch(year, month, day) * MillisPerDay;
+		if (i == length) {
+			return new Parsed(localMillis, false, 0);
+		}
+		if (value.charAt(i) != 'T') {
+			return null;
+		}
+
+		int hour = digits(value, i + 1, 2);
+		int minute = 0;
+		int second = 0;
+		int millis = 0;
+		i += 3;
+		if (i < length && value.charAt(i) == ':') {
+			minute = digits(value, i + 1, 2);
+			i += 3;
+			if (i < length && value.charAt(i) == ':') {
+				second = digits(value, i + 1, 2);
+				i += 3;
+				if (i < length && value.charAt(i) == '.') {
+					// up to nine digits are accepted, anything beyond milliseconds is truncated
+					int start = ++i;
+					for (int scale = 100; i < length && i - start < 9; i++) {
+						int digit = value.charAt(i) - '0';
+						if (digit < 0 || digit > 9) {
+							break;
+						}
+						millis += digit * scale;
+						scale /= 10;
+					}
+					if (i == start) {
+						return null;
+					}
+				}
+			}
+		}
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || i > length) {
+			return null;
+		}
+		localMillis += ((hour * 60 + minute) * 60 + second) * 1000L + millis;
+		if (i == length) {
+			return new Parsed(localMillis, false, 0);
+		}
+
+		int offsetMinutes;
+		char c = value.charAt(i);
+		if (c == 'Z' && i + 1 == length) {
+			offsetMinutes = 0;
+		} else if (c == '+' || c == '-') {
+			int offsetHours = digits(value, i + 1, 2);
+			int minutes = 0;
+			i += 3;
+			if (i < length) {
+				if (value.charAt(i) == ':') {
+					i++;
+				}
+				minutes = digits(value, i, 2);
+				i += 2;
+			}
+			if (offsetHours < 0 || offsetHours > 23 || minutes < 0 || minutes > 59 || i != length) {
+				return null;
+			}
+			offsetMinutes = offsetHours * 60 + minutes;
+			offsetMinutes = c == '-' ? -offsetMinutes : offsetMinutes;
+		} else {
+			return null;
+		}
+		return new Parsed(localMillis, true, (int) (offsetMinutes * MillisPerMinute));
+	}
+
+	/**
+	 * @return the value of the given number of decimal digits starting at the given index, or -1 if they are not all present
+	 */
+	private static int digits(String value, int start, int count) {
+		if (start + count > value.length()) {
+			return -1;
+		}
+		int result = 0;
+		for (int i = start; i < start + count; i++) {
+			int digit = value.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			result = result * 10 + digit;
+		}
+		return result;
+	}
+
+	private static long floorDiv(long value, long divisor) {
+		long result = value / divisor;
+		return value % divisor < 0 ? result - 1 : result;
+	}
+
+	private static boolean isLeapYear(int year) {
+		return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	private static long daysFromEpoch(int year, int month, int day) {
+		int y = month <= 2 ? year - 1 : year;
+		int era = (int) floorDiv(y, 400);
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - DaysToEpoch;
+	}
+
+	private static DateTimeZone offsetZone(int offsetMillis) {
+		if (offsetMillis == 0) {
+			return DateTimeZone.UTC;
+		}
+		DateTimeZone zone = OffsetZones.get(offsetMillis);
+		if (zone == null) {
+			zone = DateTimeZone.forOffsetMillis(offsetMillis);
+			OffsetZones.putIfAbsent(offsetMillis, zone);
+		}
+		return zone;
+	}
+
+	private static final class Parsed {
+		private final long localMillis;
+		private final boolean hasOffset;
+		private final int offsetMillis;
+
+		private Parsed(long localMillis, boolean hasOffset, int offsetMillis) {
+			this.localMillis = localMillis;
+			this.hasOffset = hasOffset;
+			this.offsetMillis = offsetMillis;
+		}
+	}
+}
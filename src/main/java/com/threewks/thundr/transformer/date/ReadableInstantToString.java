@@ -18,17 +18,14 @@
 package com.threewks.thundr.transformer.date;
 
 import org.joda.time.ReadableInstant;
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
 
 import com.atomicleopard.expressive.ETransformer;
 
 public class ReadableInstantToString implements ETransformer<ReadableInstant, String> {
-	private static final DateTimeFormatter IsoFormat = ISODateTimeFormat.dateTime();
 
 	@Override
 	public String from(ReadableInstant from) {
-		return from == null ? null : IsoFormat.print(from);
+		return from == null ? null : IsoDateTimes.print(from);
 	}
 
 }
@@ -19,17 +19,32 @@ package com.threewks.thundr.transformer.date;
 
 import java.util.Date;
 
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
-
 import com.atomicleopard.expressive.ETransformer;
 
+/**
+ * Transforms ISO-8601 dates and times to the {@link Date} given by {@link IsoDateTimes#parseMillis(String)}, or optionally
+ * {@linkplain IsoDateTimes#isEpochMillis(String) milliseconds since the epoch}.
+ */
 public class StringToDate implements ETransformer<String, Date> {
-	private static final DateTimeFormatter LenientIsoParser = ISODateTimeFormat.dateOptionalTimeParser();
+	private final boolean acceptEpochMillis;
+
+	public StringToDate() {
+		this(false);
+	}
+
+	public StringToDate(boolean acceptEpochMillis) {
+		this.acceptEpochMillis = acceptEpochMillis;
+	}
 
 	@Override
 	public Date from(String from) {
-		return from == null ? null : LenientIsoParser.parseDateTime(from).toDate();
+		if (from == null) {
+			return null;
+		}
+		if (acceptEpochMillis && IsoDateTimes.isEpochMillis(from)) {
+			return new Date(Long.parseLong(from));
+		}
+		return new Date(IsoDateTimes.parseMillis(from));
 	}
 
 }
@@ -18,17 +18,34 @@
 package com.threewks.thundr.transformer.date;
 
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
 
 import com.atomicleopard.expressive.ETransformer;
 
+/**
+ * Transforms ISO-8601 dates and times to the {@link DateTime} given by {@link IsoDateTimes#parseDateTime(String, boolean)},
+ * retaining the offset if one is specified, or optionally {@linkplain IsoDateTimes#isEpochMillis(String) milliseconds since the
+ * epoch}.
+ */
 public class StringToDateTime implements ETransformer<String, DateTime> {
-	private static final DateTimeFormatter LenientIsoParser = ISODateTimeFormat.dateOptionalTimeParser().withOffsetParsed();
+	private final boolean acceptEpochMillis;
+
+	public StringToDateTime() {
+		this(false);
+	}
+
+	public StringToDateTime(boolean acceptEpochMillis) {
+		this.acceptEpochMillis = acceptEpochMillis;
+	}
 
 	@Override
 	public DateTime from(String from) {
-		return from == null ? null : LenientIsoParser.parseDateTime(from);
+		if (from == null) {
+			return null;
+		}
+		if (acceptEpochMillis && IsoDateTimes.isEpochMillis(from)) {
+			return new DateTime(Long.parseLong(from));
+		}
+		return IsoDateTimes.parseDateTime(from, true);
 	}
 
 }
@@ -17,18 +17,36 @@
  */
 package com.threewks.thundr.transformer.date;
 
+import org.joda.time.DateTime;
 import org.joda.time.ReadableInstant;
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
 
 import com.atomicleopard.expressive.ETransformer;
 
+/**
+ * Transforms ISO-8601 dates and times to the instant in the default zone given by
+ * {@link IsoDateTimes#parseDateTime(String, boolean)}, or optionally {@linkplain IsoDateTimes#isEpochMillis(String) milliseconds
+ * since the epoch}.
+ */
 public class StringToReadableInstant implements ETransformer<String, ReadableInstant> {
-	private static final DateTimeFormatter LenientIsoParser = ISODateTimeFormat.dateOptionalTimeParser();
+	private final boolean acceptEpochMillis;
+
+	public StringToReadableInstant() {
+		this(false);
+	}
+
+	public StringToReadableInstant(boolean acceptEpochMillis) {
+		this.acceptEpochMillis = acceptEpochMillis;
+	}
 
 	@Override
 	public ReadableInstant from(String from) {
-		return from == null ? null : LenientIsoParser.parseDateTime(from);
+		if (from == null) {
+			return null;
+		}
+		if (acceptEpochMillis && IsoDateTimes.isEpochMillis(from)) {
+			return new DateTime(Long.parseLong(from));
+		}
+		return IsoDateTimes.parseDateTime(from, false);
 	}
 
 }
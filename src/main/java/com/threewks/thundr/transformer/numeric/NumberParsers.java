@@ -0,0 +1,134 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.transformer.numeric;
+
+/**
+ * Parses numbers directly from a {@link CharSequence}, or a range of one, without creating intermediate strings.
+ * 
+ * These accept the same input as {@link Integer#parseInt(String)}, {@link Long#parseLong(String)} and {@link Double#parseDouble(String)}
+ * and throw the same exceptions for input they do not accept.
+ */
+public class NumberParsers {
+	// powers of ten which are exactly representable as a double
+	private static final double[] ExactPowersOfTen = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	// any integer with this many digits or fewer is exactly representable as a double
+	private static final int MaxExactDigits = 15;
+
+	public static int parseInt(CharSequence value) {
+		return parseInt(value, 0, value == null ? 0 : value.length());
+	}
+
+	public static int parseInt(CharSequence value, int start, int end) {
+		return (int) parse(value, start, end, Integer.MIN_VALUE);
+	}
+
+	public static long parseLong(CharSequence value) {
+		return parseLong(value, 0, value == null ? 0 : value.length());
+	}
+
+	public static long parseLong(CharSequence value, int start, int end) {
+		return parse(value, start, end, Long.MIN_VALUE);
+	}
+
+	public static double parseDouble(CharSequence value) {
+		return parseDouble(value, 0, value == null ? 0 : value.length());
+	}
+
+	/**
+	 * Plain decimals of up to 15 digits, such as "-1234.5", are converted exactly without allocating. Anything else, such as exponents,
+	 * surrounding whitespace or "NaN", is left to {@link Double#parseDouble(String)}.
+	 */
+	public static double parseDouble(CharSequence value, int start, int end) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		int i = start;
+		boolean negative = false;
+		if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+			negative = value.charAt(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean fraction = false;
+		for (; i < end; i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if (fraction) {
+					fractionDigits++;
+				}
+			} else if (c == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (i == end && digits > 0 && digits <= MaxExactDigits && fractionDigits < ExactPowersOfTen.length) {
+			// both operands are exact, so the division is correctly rounded
+			double result = mantissa / ExactPowersOfTen[fractionDigits];
+			return negative ? -result : result;
+		}
+		return Double.parseDouble(value.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Accumulates negatively, as the magnitude of the minimum value is one more than that of the maximum.
+	 */
+	private static long parse(CharSequence value, int start, int end, long min) {
+		if (value == null) {
+			throw new NumberFormatException("null");
+		}
+		int i = start;
+		boolean negative = false;
+		long limit = min + 1;
+		if (i < end) {
+			char first = value.charAt(i);
+			if (first == '-') {
+				negative = true;
+				limit = min;
+				i++;
+			} else if (first == '+') {
+				i++;
+			}
+		}
+		if (i == end) {
+			throw invalid(value, start, end);
+		}
+		long multiplyLimit = limit / 10;
+		long result = 0;
+		for (; i < end; i++) {
+			int digit = Character.digit(value.charAt(i), 10);
+			if (digit < 0 || result < multiplyLimit) {
+				throw invalid(value, start, end);
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				throw invalid(value, start, end);
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	private static NumberFormatException invalid(CharSequence value, int start, int end) {
+		return new NumberFormatException("For input string: \"" + value.subSequence(start, end) + "\"");
+	}
+}
@@ -18,12 +18,17 @@
 package com.threewks.thundr.transformer.numeric;
 
 import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.transformer.ToDoubleTransformer;
 
-public class NumberToDouble implements ETransformer<Number, Double> {
+public class NumberToDouble implements ETransformer<Number, Double>, ToDoubleTransformer<Number> {
 
 	@Override
 	public Double from(Number from) {
 		return from == null ? null : from.doubleValue();
 	}
 
+	@Override
+	public double toDouble(Number from) {
+		return from.doubleValue();
+	}
 }
@@ -18,12 +18,17 @@
 package com.threewks.thundr.transformer.numeric;
 
 import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.transformer.ToIntTransformer;
 
-public class NumberToInteger implements ETransformer<Number, Integer> {
+public class NumberToInteger implements ETransformer<Number, Integer>, ToIntTransformer<Number> {
 
 	@Override
 	public Integer from(Number from) {
 		return from == null ? null : from.intValue();
 	}
 
+	@Override
+	public int toInt(Number from) {
+		return from.intValue();
+	}
 }
@@ -18,12 +18,17 @@
 package com.threewks.thundr.transformer.numeric;
 
 import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.transformer.ToLongTransformer;
 
-public class NumberToLong implements ETransformer<Number, Long> {
+public class NumberToLong implements ETransformer<Number, Long>, ToLongTransformer<Number> {
 
 	@Override
 	public Long from(Number from) {
 		return from == null ? null : from.longValue();
 	}
 
+	@Override
+	public long toLong(Number from) {
+		return from.longValue();
+	}
 }
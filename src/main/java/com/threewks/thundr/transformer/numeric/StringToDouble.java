@@ -18,12 +18,17 @@
 package com.threewks.thundr.transformer.numeric;
 
 import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.transformer.ToDoubleTransformer;
 
-public class StringToDouble implements ETransformer<String, Double> {
+public class StringToDouble implements ETransformer<String, Double>, ToDoubleTransformer<CharSequence> {
 
 	@Override
 	public Double from(String from) {
-		return from == null ? null : Double.parseDouble(from);
+		return from == null ? null : NumberParsers.parseDouble(from);
 	}
 
+	@Override
+	public double toDouble(CharSequence from) {
+		return NumberParsers.parseDouble(from);
+	}
 }
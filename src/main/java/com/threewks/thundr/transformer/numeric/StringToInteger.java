@@ -18,12 +18,17 @@
 package com.threewks.thundr.transformer.numeric;
 
 import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.transformer.ToIntTransformer;
 
-public class StringToInteger implements ETransformer<String, Integer> {
+public class StringToInteger implements ETransformer<String, Integer>, ToIntTransformer<CharSequence> {
 
 	@Override
 	public Integer from(String from) {
-		return from == null ? null : Integer.parseInt(from);
+		return from == null ? null : NumberParsers.parseInt(from);
 	}
 
+	@Override
+	public int toInt(CharSequence from) {
+		return NumberParsers.parseInt(from);
+	}
 }
@@ -18,12 +18,17 @@
 package com.threewks.thundr.transformer.numeric;
 
 import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.transformer.ToLongTransformer;
 
-public class StringToLong implements ETransformer<String, Long> {
+public class StringToLong implements ETransformer<String, Long>, ToLongTransformer<CharSequence> {
 
 	@Override
 	public Long from(String from) {
-		return from == null ? null : Long.parseLong(from);
+		return from == null ? null : NumberParsers.parseLong(from);
 	}
 
+	@Override
+	public long toLong(CharSequence from) {
+		return NumberParsers.parseLong(from);
+	}
 }
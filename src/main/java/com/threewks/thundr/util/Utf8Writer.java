@@ -0,0 +1,258 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A {@link Writer} encoding characters as UTF-8 into a reusable byte buffer, avoiding the intermediate {@link String} and byte[]
+ * copies of building output before writing it.
+ * 
+ * When created for an {@link OutputStream} the buffer is written out each time it fills. When created without one, all output is
+ * retained so that its {@link #size()} is known before it is written using {@link #writeTo(OutputStream)}.
+ * 
+ * Instances are pooled per thread through {@link #acquire(OutputStream)}, and must be {@link #close()}d or {@link #release()}d to be
+ * reused. Closing does not close the underlying {@link OutputStream}. Malformed surrogate pairs are written as '?', as
+ * {@link String#getBytes(String)} does.
+ * 
+ * A pooled writer keeps a buffer grown to retain large output for as long as output of a similar size keeps being written, so
+ * that repeated large payloads reuse it. Once output has been smaller for a while, or if the buffer is larger than the maximum
+ * retained size given to {@link #acquire(OutputStream, int)}, the buffer is discarded on {@link #release()}. As each thread can keep
+ * a buffer of that size, whoever acquires writers decides how much memory they may hold.
+ */
+public class Utf8Writer extends Writer {
+	private static final int BufferSize = 8 * 1024;
+	public static final String MaxRetainedBufferSizeProperty = "utf8WriterMaxRetainedBufferSize";
+	public static final int DefaultMaxRetainedBufferSize = 1024 * 1024;
+	private static final ThreadLocal<Utf8Writer> pool = new ThreadLocal<Utf8Writer>() {
+		@Override
+		protected Utf8Writer initialValue() {
+			return new Utf8Writer();
+		}
+	};
+
+	private byte[] buffer = new byte[BufferSize];
+	private int count;
+	private int limit;
+	private char highSurrogate;
+	private OutputStream target;
+	private boolean inUse;
+	private int writtenSize;
+	private int recentSize;
+	private int maxRetainedBufferSize = DefaultMaxRetainedBufferSize;
+
+	/**
+	 * Acquires a writer which keeps a buffer of at most {@value #DefaultMaxRetainedBufferSize} bytes between uses.
+	 * 
+	 * @param target the stream to write to as the buffer fills, or null to retain all output until {@link #writeTo(OutputStream)}
+	 * @return a {@link Utf8Writer} for the current thread, or a new one if the pooled writer is already in use
+	 */
+	public static Utf8Writer acquire(OutputStream target) {
+		return acquire(target, DefaultMaxRetainedBufferSize);
+	}
+
+	/**
+	 * @param target the stream to write to as the buffer fills, or null to retain all output until {@link #writeTo(OutputStream)}
+	 * @param maxRetainedBufferSize the largest buffer, in bytes, the writer keeps for the current thread once released
+	 * @return a {@link Utf8Writer} for the current thread, or a new one if the pooled writer is already in use
+	 */
+	public static Utf8Writer acquire(OutputStream target, int maxRetainedBufferSize) {
+		Utf8Writer writer = pool.get();
+		if (writer.inUse) {
+			writer = new Utf8Writer();
+		}
+		writer.inUse = true;
+		writer.target = target;
+		writer.maxRetainedBufferSize = maxRetainedBufferSize;
+		// a buffer retained from earlier output is only used in full when retaining output, so streamed output is still written as it is generated
+		writer.limit = target == null ? writer.buffer.length : BufferSize;
+		return writer;
+	}
+
+	/**
+	 * @param maxRetainedBufferSize
+	 * @return the given size, if it is a valid maximum size for {@link #acquire(OutputStream, int)}
+	 * @throws IllegalArgumentException if the size is smaller than the initial buffer
+	 */
+	public static int checkMaxRetainedBufferSize(int maxRetainedBufferSize) {
+		if (maxRetainedBufferSize < BufferSize) {
+			throw new IllegalArgumentException(String.format("The maximum retained buffer size must be at least %d bytes, not %d", BufferSize, maxRetainedBufferSize));
+		}
+		return maxRetainedBufferSize;
+	}
+
+	/**
+	 * @return the number of bytes written but not yet flushed
+	 */
+	public int size() {
+		return count;
+	}
+
+	int capacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Writes all bytes written but not yet flushed to the given stream.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		completeSurrogate();
+		out.write(buffer, 0, count);
+		writtenSize = Math.max(writtenSize, count);
+		count = 0;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		encode((char) c);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			encode(cbuf[i]);
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			encode(str.charAt(i));
+		}
+	}
+
+	@Override
+	public Writer append(CharSequence csq) throws IOException {
+		if (csq == null) {
+			csq = "null";
+		}
+		for (int i = 0, end = csq.length(); i < end; i++) {
+			encode(csq.charAt(i));
+		}
+		return this;
+	}
+
+	/**
+	 * Writes the buffer to the {@link OutputStream} this writer was acquired for and flushes it. Does nothing if there is no stream.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (target != null) {
+			drain();
+			target.flush();
+		}
+	}
+
+	/**
+	 * Flushes any remaining output, then {@link #release()}s this writer.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (target != null) {
+				completeSurrogate();
+				flush();
+			}
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * Discards any output not yet flushed and returns this writer to the pool for reuse.
+	 */
+	public void release() {
+		// remember the size of recent output, forgetting an eighth of it each time less is written
+		recentSize = Math.max(Math.max(writtenSize, count), recentSize - recentSize / 8);
+		if (buffer.length > maxRetainedBufferSize || buffer.length / 2 > Math.max(recentSize, BufferSize)) {
+			buffer = new byte[BufferSize];
+		}
+		count = 0;
+		writtenSize = 0;
+		highSurrogate = 0;
+		target = null;
+		inUse = false;
+	}
+
+	private void encode(char c) throws IOException {
+		if (highSurrogate != 0) {
+			char high = highSurrogate;
+			highSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int codePoint = Character.toCodePoint(high, c);
+				ensureCapacity(4);
+				buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+				buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+				return;
+			}
+			encode('?');
+		}
+		if (c < 0x80) {
+			if (count == limit) {
+				ensureCapacity(1);
+			}
+			buffer[count++] = (byte) c;
+		} else if (c < 0x800) {
+			ensureCapacity(2);
+			buffer[count++] = (byte) (0xC0 | (c >> 6));
+			buffer[count++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isHighSurrogate(c)) {
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			encode('?');
+		} else {
+			ensureCapacity(3);
+			buffer[count++] = (byte) (0xE0 | (c >> 12));
+			buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			buffer[count++] = (byte) (0x80 | (c & 0x3F));
+		}
+	}
+
+	private void completeSurrogate() throws IOException {
+		if (highSurrogate != 0) {
+			highSurrogate = 0;
+			encode('?');
+		}
+	}
+
+	private void ensureCapacity(int bytes) throws IOException {
+		if (count + bytes > limit) {
+			if (target != null) {
+				drain();
+			} else {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + bytes));
+				limit = buffer.length;
+			}
+		}
+	}
+
+	private void drain() throws IOException {
+		if (count > 0) {
+			target.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+}
@@ -17,6 +17,8 @@
  */
 package com.threewks.thundr.view;
 
+import org.apache.commons.lang3.StringUtils;
+
 import com.google.gson.GsonBuilder;
 import com.threewks.thundr.http.exception.HttpStatusException;
 import com.threewks.thundr.injection.BaseModule;
@@ -24,6 +26,7 @@ import com.threewks.thundr.injection.UpdatableInjectionContext;
 import com.threewks.thundr.module.DependencyRegistry;
 import com.threewks.thundr.route.RouteNotFoundException;
 import com.threewks.thundr.route.Router;
+import com.threewks.thundr.util.Utf8Writer;
 import com.threewks.thundr.view.exception.ExceptionViewResolver;
 import com.threewks.thundr.view.exception.HttpStatusExceptionViewResolver;
 import com.threewks.thundr.view.exception.RouteNotFoundViewResolver;
@@ -90,6 +93,13 @@ public class ViewModule extends BaseModule {
                         .as(NegotiatingViewResolver.class);
 
         GsonBuilder gsonBuilder = injectionContext.get(GsonBuilder.class);
+        JsonViewResolver jsonViewResolver = new JsonViewResolver(gsonBuilder);
+        JsonpViewResolver jsonpViewResolver = new JsonpViewResolver(gsonBuilder);
+        Integer maxRetainedBufferSize = getMaxRetainedBufferSize(injectionContext);
+        if (maxRetainedBufferSize != null) {
+            jsonViewResolver.setMaxRetainedBufferSize(maxRetainedBufferSize);
+            jsonpViewResolver.setMaxRetainedBufferSize(maxRetainedBufferSize);
+        }
         // Register built in content negotiators
 
         viewNegotiatorRegistry.setDefaultNegotiator(new JsonNegotiator());
@@ -101,10 +111,18 @@ public class ViewModule extends BaseModule {
         viewResolverRegistry.addResolver(RouteNotFoundException.class, new RouteNotFoundViewResolver(statusViewResolver));
         viewResolverRegistry.addResolver(RouteRedirectView.class, new RouteRedirectViewResolver(router));
         viewResolverRegistry.addResolver(RedirectView.class, new RedirectViewResolver());
-        viewResolverRegistry.addResolver(JsonView.class, new JsonViewResolver(gsonBuilder));
-        viewResolverRegistry.addResolver(JsonpView.class, new JsonpViewResolver(gsonBuilder));
+        viewResolverRegistry.addResolver(JsonView.class, jsonViewResolver);
+        viewResolverRegistry.addResolver(JsonpView.class, jsonpViewResolver);
         viewResolverRegistry.addResolver(FileView.class, new FileViewResolver());
         viewResolverRegistry.addResolver(StringView.class, new StringViewResolver());
         viewResolverRegistry.addResolver(NegotiatingView.class, negotiatingViewResolver);
     }
+
+    private Integer getMaxRetainedBufferSize(UpdatableInjectionContext injectionContext) {
+        if (!injectionContext.containsNamed(String.class, Utf8Writer.MaxRetainedBufferSizeProperty)) {
+            return null;
+        }
+        String maxRetainedBufferSize = injectionContext.get(String.class, Utf8Writer.MaxRetainedBufferSizeProperty);
+        return StringUtils.isBlank(maxRetainedBufferSize) ? null : Integer.parseInt(maxRetainedBufferSize.trim());
+    }
 }
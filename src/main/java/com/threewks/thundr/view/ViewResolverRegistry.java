@@ -18,28 +18,57 @@
 package com.threewks.thundr.view;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.threewks.thundr.introspection.ClassIntrospector;
 import com.threewks.thundr.logger.Logger;
+import com.threewks.thundr.profiler.StartupProfiler;
+import com.threewks.thundr.profiler.StartupProfiler.Span;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
 
 public class ViewResolverRegistry {
-	private Map<Class<?>, ViewResolver<?>> resolvers = new HashMap<Class<?>, ViewResolver<?>>();
-	private List<Class<?>> resolversOrder = new ArrayList<Class<?>>();
-	private Map<Class<?>, ViewResolver<?>> resolversCache = new WeakHashMap<Class<?>, ViewResolver<?>>();
+	private Map<Class<?>, ViewResolver<?>> resolvers = new ConcurrentHashMap<Class<?>, ViewResolver<?>>();
+	private List<Class<?>> resolversOrder = new CopyOnWriteArrayList<Class<?>>();
+	/*
+	 * Resolved view types are published as an immutable snapshot, so finding the resolver for a view is a single unsynchronized map read.
+	 * Caching a resolution copies the snapshot, which happens once per view type. The version changes whenever resolvers are added or
+	 * removed, so that a resolution made against the old resolvers is not published after the cache is cleared.
+	 */
+	private volatile Map<Class<?>, ViewResolver<?>> resolversCache = Collections.emptyMap();
+	private volatile long version = 0;
+	private Lock resolversCacheLock = new ReentrantLock();
 	private ClassIntrospector classIntrospector = new ClassIntrospector();
+	private StartupProfiler startupProfiler;
+
+	/**
+	 * Sets the {@link StartupProfiler} which records the time taken to add each view resolver. When this registry is created by
+	 * the injection context, this is injected if a profiler is available.
+	 * 
+	 * @param startupProfiler
+	 */
+	public void setStartupProfiler(StartupProfiler startupProfiler) {
+		this.startupProfiler = startupProfiler;
+	}
 
 	public <T> void addResolver(Class<T> viewResult, ViewResolver<T> resolver) {
-		resolvers.put(viewResult, (ViewResolver<T>) resolver);
-		resolversOrder.add(viewResult);
-		clearResolversCache();
-		Logger.info("Added ViewResolver %s for views of %s", resolver, viewResult);
+		Span span = StartupProfiler.begin(startupProfiler, StartupProfiler.View, viewResult.getName());
+		try {
+			resolvers.put(viewResult, (ViewResolver<T>) resolver);
+			resolversOrder.add(viewResult);
+			clearResolversCache();
+			Logger.info("Added ViewResolver %s for views of %s", resolver, viewResult);
+		} finally {
+			span.end();
+		}
 	}
 
 	public void removeResolver(Class<?> viewResult) {
@@ -49,8 +78,12 @@ public class ViewResolverRegistry {
 	}
 
 	private void clearResolversCache() {
-		synchronized (resolversCache) {
-			resolversCache.clear();
+		resolversCacheLock.lock();
+		try {
+			version++;
+			resolversCache = Collections.emptyMap();
+		} finally {
+			resolversCacheLock.unlock();
 		}
 	}
 
@@ -62,32 +95,66 @@ public class ViewResolverRegistry {
 		return viewResolver;
 	}
 
-	@SuppressWarnings("unchecked")
-	protected <T> ViewResolver<T> createAndCacheResolver(T viewResult) {
-		Class<?> resultType = getViewResultType(viewResult);
-		List<Class<?>> orderedTypes = classIntrospector.listImplementedTypes(resultType);
-		synchronized (resolversCache) {
-			for (Class<?> type : orderedTypes) {
-				for (int i = resolversOrder.size() - 1; i >= 0; i--) {
-					Class<?> resolverClass = resolversOrder.get(i);
-					Class<?> viewResultClass = type;
-					if (resolverClass == viewResultClass) {
-						ViewResolver<T> viewResolver = (ViewResolver<T>) resolvers.get(resolverClass);
-						resolversCache.put(resultType, viewResolver);
-						return viewResolver;
-					}
-				}
+	/**
+	 * Finds and caches the {@link ViewResolver} for each of the given view types ahead of time, so that the first view of each type does not
+	 * need to search its type hierarchy. Types which no resolver handles are ignored.
+	 * 
+	 * @param viewTypes
+	 */
+	public void precompute(Collection<Class<?>> viewTypes) {
+		int resolved = 0;
+		for (Class<?> viewType : viewTypes) {
+			if (viewType != null && (resolversCache.containsKey(viewType) || cacheResolverFor(viewType) != null)) {
+				resolved++;
 			}
-			return null;
 		}
+		Logger.debug("Precomputed view resolvers for %d of %d view types", resolved, viewTypes.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	protected <T> ViewResolver<T> createAndCacheResolver(T viewResult) {
+		return (ViewResolver<T>) cacheResolverFor(getViewResultType(viewResult));
 	}
 
 	@SuppressWarnings("unchecked")
 	protected <T> ViewResolver<T> findViewResolverInCache(T viewResult) {
 		Class<?> type = getViewResultType(viewResult);
-		synchronized (resolversCache) {
-			return (ViewResolver<T>) resolversCache.get(type);
+		return type == null ? null : (ViewResolver<T>) resolversCache.get(type);
+	}
+
+	private ViewResolver<?> cacheResolverFor(Class<?> resultType) {
+		if (resultType == null) {
+			return null;
+		}
+		long expectedVersion = version;
+		ViewResolver<?> viewResolver = findResolver(resultType);
+		if (viewResolver != null) {
+			resolversCacheLock.lock();
+			try {
+				if (version == expectedVersion && !resolversCache.containsKey(resultType)) {
+					Map<Class<?>, ViewResolver<?>> updated = new HashMap<Class<?>, ViewResolver<?>>(resolversCache);
+					updated.put(resultType, viewResolver);
+					resolversCache = Collections.unmodifiableMap(updated);
+				}
+			} finally {
+				resolversCacheLock.unlock();
+			}
+		}
+		return viewResolver;
+	}
+
+	private ViewResolver<?> findResolver(Class<?> resultType) {
+		List<Class<?>> orderedTypes = classIntrospector.listImplementedTypes(resultType);
+		List<Class<?>> resolversOrder = new ArrayList<Class<?>>(this.resolversOrder);
+		for (Class<?> type : orderedTypes) {
+			for (int i = resolversOrder.size() - 1; i >= 0; i--) {
+				Class<?> resolverClass = resolversOrder.get(i);
+				if (resolverClass == type) {
+					return resolvers.get(resolverClass);
+				}
+			}
 		}
+		return null;
 	}
 
 	private <T> Class<?> getViewResultType(T viewResult) {
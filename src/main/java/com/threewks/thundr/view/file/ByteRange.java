@@ -0,0 +1,118 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.view.file;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An inclusive range of bytes requested using the Range header, as described in RFC 7233.
+ */
+class ByteRange {
+	/**
+	 * Requests for more ranges than this are served in full rather than as many small parts
+	 */
+	static final int MaxRanges = 16;
+
+	final long start;
+	final long end;
+
+	ByteRange(long start, long end) {
+		this.start = start;
+		this.end = end;
+	}
+
+	long length() {
+		return end - start + 1;
+	}
+
+	String contentRange(long total) {
+		return String.format("bytes %d-%d/%d", start, end, total);
+	}
+
+	@Override
+	public String toString() {
+		return start + "-" + end;
+	}
+
+	/**
+	 * @param header the value of the Range header
+	 * @param length the total length of the data
+	 * @return the satisfiable ranges in the order requested, an empty list if none are satisfiable, or null if the header is absent, not
+	 *         for bytes or malformed and so should be ignored
+	 */
+	static List<ByteRange> parse(String header, long length) {
+		if (header == null) {
+			return null;
+		}
+		header = header.trim();
+		if (!header.regionMatches(true, 0, "bytes=", 0, 6)) {
+			return null;
+		}
+		String[] specs = header.substring(6).split(",");
+		if (specs.length > MaxRanges) {
+			return null;
+		}
+		List<ByteRange> ranges = new ArrayList<>(specs.length);
+		try {
+			for (String spec : specs) {
+				int dash = spec.indexOf('-');
+				if (dash < 0) {
+					return null;
+				}
+				String first = spec.substring(0, dash).trim();
+				String last = spec.substring(dash + 1).trim();
+				if (first.isEmpty()) {
+					long suffix = Long.parseLong(last);
+					if (suffix < 0) {
+						return null;
+					}
+					if (suffix > 0 && length > 0) {
+						ranges.add(new ByteRange(Math.max(0, length - suffix), length - 1));
+					}
+				} else {
+					long start = Long.parseLong(first);
+					long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+					if (start < 0 || end < start) {
+						return null;
+					}
+					if (start < length) {
+						ranges.add(new ByteRange(start, Math.min(end, length - 1)));
+					}
+				}
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		return ranges;
+	}
+
+	/**
+	 * @return true if each range starts after the end of the previous one, meaning they can be read from a stream in a single pass
+	 */
+	static boolean isAscending(List<ByteRange> ranges) {
+		long previousEnd = -1;
+		for (ByteRange range : ranges) {
+			if (range.start <= previousEnd) {
+				return false;
+			}
+			previousEnd = range.end;
+		}
+		return true;
+	}
+}
@@ -21,21 +21,35 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import com.threewks.thundr.view.BaseView;
 import com.threewks.thundr.view.View;
 
 /**
  * This view is for serving files to controller consumers.
- * The given data (InputStream, byte[] or File) will be streamed to the client with the specified filename (as content-disposition) and content-type.
+ * The given data (InputStream, byte[], File, Path or FileChannel) will be streamed to the client with the specified filename (as content-disposition) and content-type.
+ * 
+ * When the length of the data is known, byte ranges of it can be requested. When served from a file the last modified time and an etag
+ * are also derived, allowing conditional requests to be answered without sending the file again.
  * 
  * @see FileViewResolver
  */
 public class FileView extends BaseView<FileView> implements View {
 	private InputStream is;
+	private FileChannel channel;
 	private String fileName;
 	private Disposition disposition = Disposition.Attachment;
+	private Long length;
+	private Long lastModified;
+	private String etag;
 
 	public FileView(String filename, InputStream stream, String contentType) {
 		this.fileName = filename;
@@ -45,10 +59,33 @@ public class FileView extends BaseView<FileView> implements View {
 
 	public FileView(String filename, byte[] data, String contentType) {
 		this(filename, new ByteArrayInputStream(data), contentType);
+		this.length = (long) data.length;
 	}
 
 	public FileView(String filename, File file, String contentType) throws FileNotFoundException {
 		this(filename, new FileInputStream(file), contentType);
+		this.channel = ((FileInputStream) is).getChannel();
+		withFileAttributes(file.length(), file.lastModified());
+	}
+
+	public FileView(String filename, Path path, String contentType) throws IOException {
+		this(filename, path, Files.readAttributes(path, BasicFileAttributes.class), contentType);
+	}
+
+	public FileView(String filename, FileChannel channel, String contentType) throws IOException {
+		this(filename, channel, channel.size(), contentType);
+	}
+
+	// the attributes are read before the channel is opened, so that nothing can fail and leave it open
+	private FileView(String filename, Path path, BasicFileAttributes attributes, String contentType) throws IOException {
+		this(filename, FileChannel.open(path, StandardOpenOption.READ), attributes.size(), contentType);
+		withFileAttributes(attributes.size(), attributes.lastModifiedTime().toMillis());
+	}
+
+	private FileView(String filename, FileChannel channel, long length, String contentType) {
+		this(filename, Channels.newInputStream(channel), contentType);
+		this.channel = channel;
+		this.length = length;
 	}
 
 	public String getFileName() {
@@ -59,6 +96,13 @@ public class FileView extends BaseView<FileView> implements View {
 		return is;
 	}
 
+	/**
+	 * @return the channel to read the data from, or null if the data is only available from {@link #getData()}
+	 */
+	public FileChannel getChannel() {
+		return channel;
+	}
+
 	public Disposition getDisposition() {
 		return disposition;
 	}
@@ -68,9 +112,50 @@ public class FileView extends BaseView<FileView> implements View {
 		return this;
 	}
 
+	/**
+	 * @return the length of the data in bytes, or null if it is not known
+	 */
+	public Long getLength() {
+		return length;
+	}
+
+	public FileView withLength(Long length) {
+		this.length = length;
+		return this;
+	}
+
+	/**
+	 * @return the last modified time of the data in milliseconds since the epoch, or null if it is not known
+	 */
+	public Long getLastModified() {
+		return lastModified;
+	}
+
+	public FileView withLastModified(Long lastModified) {
+		this.lastModified = lastModified;
+		return this;
+	}
+
+	/**
+	 * @return the entity tag identifying this version of the data, including its surrounding quotes, or null if there is none
+	 */
+	public String getETag() {
+		return etag;
+	}
+
+	public FileView withETag(String etag) {
+		this.etag = etag;
+		return this;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s (%s)", fileName, getContentType());
 	}
 
+	private void withFileAttributes(long length, long lastModified) {
+		this.length = length;
+		this.lastModified = lastModified;
+		this.etag = String.format("\"%s-%s\"", Long.toHexString(length), Long.toHexString(lastModified));
+	}
 }
@@ -17,29 +17,91 @@
  */
 package com.threewks.thundr.view.file;
 
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.http.Validators;
 import com.threewks.thundr.logger.Logger;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
+import com.threewks.thundr.route.HttpMethod;
 import com.threewks.thundr.util.Streams;
 import com.threewks.thundr.view.BaseView;
 import com.threewks.thundr.view.ViewResolutionException;
 import com.threewks.thundr.view.ViewResolver;
 
+/**
+ * Writes a {@link FileView} to the response.
+ * 
+ * When the view has an etag or last modified time, conditional GET requests using If-None-Match or If-Modified-Since are answered with
+ * a 304 when the client already has the data. When the length of the view is known the Content-Length is set, and requests for single
+ * or multiple byte ranges are answered with a 206. Data backed by a {@link FileChannel} is transferred using
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} rather than being copied through the heap.
+ */
 public class FileViewResolver implements ViewResolver<FileView> {
+	private static final String CRLF = "\r\n";
+
 	@Override
 	public void resolve(Request req, Response resp, FileView viewResult) {
 		InputStream inputStream = viewResult.getData();
 		try {
+			String etag = viewResult.getETag();
+			Long lastModified = viewResult.getLastModified();
+			String lastModifiedDate = lastModified == null ? null : Validators.formatDate(lastModified);
 			resp.withHeader(Header.ContentDisposition, String.format("%s; filename=%s", viewResult.getDisposition().value(), viewResult.getFileName()));
+			resp.withHeader(Header.ETag, etag, etag != null);
+			resp.withHeader(Header.LastModified, lastModifiedDate, lastModifiedDate != null);
 			BaseView.applyToResponse(viewResult, resp);
-			resp.finaliseHeaders();
-			OutputStream outputStream = resp.getOutputStream();
-			Streams.copy(inputStream, outputStream);
-			outputStream.flush();
+
+			boolean conditional = isConditional(req);
+			if (conditional && Validators.isNotModified(req, etag, lastModified)) {
+				resp.withStatusCode(StatusCode.NotModified);
+				resp.finaliseHeaders();
+				return;
+			}
+
+			Long length = viewResult.getLength();
+			if (length == null) {
+				resp.finaliseHeaders();
+				OutputStream outputStream = resp.getOutputStream();
+				Streams.copy(inputStream, outputStream);
+				outputStream.flush();
+				return;
+			}
+
+			resp.withHeader(Header.AcceptRanges, "bytes");
+			List<ByteRange> ranges = conditional ? getRequestedRanges(req, viewResult, length, etag, lastModified) : null;
+			if (ranges == null) {
+				resp.withContentLength(length);
+				resp.finaliseHeaders();
+				write(viewResult, resp, new ByteRange(0, length - 1));
+			} else if (ranges.isEmpty()) {
+				resp.withStatusCode(StatusCode.RequestedRangeNotSatisfiable);
+				resp.withHeader(Header.ContentRange, "bytes */" + length);
+				resp.withContentLength(0);
+				resp.finaliseHeaders();
+			} else if (ranges.size() == 1) {
+				ByteRange range = ranges.get(0);
+				resp.withStatusCode(StatusCode.PartialContent);
+				resp.withHeader(Header.ContentRange, range.contentRange(length));
+				resp.withContentLength(range.length());
+				resp.finaliseHeaders();
+				write(viewResult, resp, range);
+			} else {
+				writeMultipart(viewResult, resp, ranges, length);
+			}
 		} catch (Exception e) {
 			throw new ViewResolutionException(e, "Failed to write FileView result: %s", e.getMessage());
 		} finally {
@@ -47,6 +109,25 @@ public class FileViewResolver implements ViewResolver<FileView> {
 		}
 	}
 
+	protected boolean isConditional(Request req) {
+		HttpMethod method = req.getMethod();
+		return method == null || method == HttpMethod.GET || method == HttpMethod.HEAD;
+	}
+
+	/**
+	 * @return the ranges to serve, an empty list if none can be satisfied, or null if the whole of the data should be served
+	 */
+	private List<ByteRange> getRequestedRanges(Request req, FileView viewResult, long length, String etag, Long lastModified) {
+		List<ByteRange> ranges = ByteRange.parse(req.getHeader(Header.Range), length);
+		if (ranges == null || !matchesIfRange(req.getHeader(Header.IfRange), etag, lastModified)) {
+			return null;
+		}
+		if (viewResult.getChannel() == null && !ByteRange.isAscending(ranges)) {
+			return null;
+		}
+		return ranges;
+	}
+
 	protected void closeInputStream(InputStream inputStream) {
 		try {
 			inputStream.close();
@@ -59,4 +140,118 @@ public class FileViewResolver implements ViewResolver<FileView> {
 	public String toString() {
 		return this.getClass().getSimpleName();
 	}
-}
\ No newline at end of file
+
+	private void write(FileView viewResult, Response resp, ByteRange range) throws IOException {
+		OutputStream outputStream = resp.getOutputStream();
+		transfer(viewResult, outputStream, range, 0);
+		outputStream.flush();
+	}
+
+	private void writeMultipart(FileView viewResult, Response resp, List<ByteRange> ranges, long length) throws IOException {
+		String boundary = UUID.randomUUID().toString();
+		String contentType = viewResult.getContentType();
+		List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+		long contentLength = 0;
+		for (ByteRange range : ranges) {
+			StringBuilder partHeader = new StringBuilder();
+			partHeader.append(CRLF).append("--").append(boundary).append(CRLF);
+			if (contentType != null) {
+				partHeader.append(Header.ContentType).append(": ").append(contentType).append(CRLF);
+			}
+			partHeader.append(Header.ContentRange).append(": ").append(range.contentRange(length)).append(CRLF).append(CRLF);
+			byte[] bytes = partHeader.toString().getBytes(StandardCharsets.ISO_8859_1);
+			partHeaders.add(bytes);
+			contentLength += bytes.length + range.length();
+		}
+		byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.ISO_8859_1);
+		contentLength += end.length;
+
+		resp.withStatusCode(StatusCode.PartialContent);
+		resp.withContentType("multipart/byteranges; boundary=" + boundary);
+		resp.withContentLength(contentLength);
+		resp.finaliseHeaders();
+
+		OutputStream outputStream = resp.getOutputStream();
+		long streamPosition = 0;
+		for (int i = 0; i < ranges.size(); i++) {
+			outputStream.write(partHeaders.get(i));
+			streamPosition = transfer(viewResult, outputStream, ranges.get(i), streamPosition);
+		}
+		outputStream.write(end);
+		outputStream.flush();
+	}
+
+	/**
+	 * Writes the given range of the view's data to the output stream. Ranges are read from the channel when there is one, otherwise
+	 * from the input stream which is currently at the given position.
+	 * 
+	 * @return the position of the input stream after writing
+	 */
+	private long transfer(FileView viewResult, OutputStream outputStream, ByteRange range, long streamPosition) throws IOException {
+		FileChannel channel = viewResult.getChannel();
+		if (channel != null) {
+			WritableByteChannel target = outputStream instanceof WritableByteChannel ? (WritableByteChannel) outputStream : Channels.newChannel(outputStream);
+			long position = range.start;
+			long remaining = range.length();
+			while (remaining > 0) {
+				long transferred = channel.transferTo(position, remaining, target);
+				if (transferred <= 0) {
+					// transferTo can make no progress without failing, so copy through the heap, which either progresses or reaches the end
+					transferred = copy(channel, position, remaining, outputStream, viewResult.getFileName());
+				}
+				position += transferred;
+				remaining -= transferred;
+			}
+			return streamPosition;
+		}
+		InputStream inputStream = viewResult.getData();
+		skipFully(inputStream, range.start - streamPosition);
+		byte[] buffer = new byte[(int) Math.min(8192, range.length())];
+		long remaining = range.length();
+		while (remaining > 0) {
+			int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (read < 0) {
+				throw new EOFException(String.format("Expected %d more bytes from %s", remaining, viewResult.getFileName()));
+			}
+			outputStream.write(buffer, 0, read);
+			remaining -= read;
+		}
+		return range.end + 1;
+	}
+
+	private static long copy(FileChannel channel, long position, long remaining, OutputStream outputStream, String fileName) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(8192, remaining));
+		int read = channel.read(buffer, position);
+		if (read <= 0) {
+			throw new EOFException(String.format("Expected %d more bytes from %s", remaining, fileName));
+		}
+		outputStream.write(buffer.array(), 0, read);
+		return read;
+	}
+
+	private static void skipFully(InputStream inputStream, long bytes) throws IOException {
+		while (bytes > 0) {
+			long skipped = inputStream.skip(bytes);
+			if (skipped <= 0) {
+				if (inputStream.read() < 0) {
+					throw new EOFException("Unable to skip to the start of the requested range");
+				}
+				skipped = 1;
+			}
+			bytes -= skipped;
+		}
+	}
+
+	private static boolean matchesIfRange(String ifRange, String etag, Long lastModified) {
+		if (ifRange == null) {
+			return true;
+		}
+		ifRange = ifRange.trim();
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			// only strong validators can be used with If-Range
+			return etag != null && !etag.startsWith("W/") && ifRange.equals(etag);
+		}
+		Long date = Validators.parseDate(ifRange);
+		return date != null && lastModified != null && lastModified / 1000 == date / 1000;
+	}
+}
@@ -17,56 +17,177 @@
  */
 package com.threewks.thundr.view.json;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
-import com.atomicleopard.expressive.Cast;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import com.threewks.thundr.json.GsonSupport;
+import com.threewks.thundr.json.SharedGson;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
+import com.threewks.thundr.util.Utf8Writer;
 import com.threewks.thundr.view.BaseView;
 import com.threewks.thundr.view.ViewResolutionException;
 import com.threewks.thundr.view.ViewResolver;
 
 public class JsonViewResolver implements ViewResolver<JsonView> {
 	private GsonBuilder gsonBuilder;
+	private SharedGson gson;
+	private boolean streaming = false;
+	private int maxRetainedBufferSize = Utf8Writer.DefaultMaxRetainedBufferSize;
 
 	public JsonViewResolver(GsonBuilder gsonBuilder) {
 		this.gsonBuilder = gsonBuilder;
+		this.gson = SharedGson.forBuilder(gsonBuilder);
 	}
 
 	/**
 	 * Exposes the underlying gson builder, allowing modification of the properties controlling how json is serialized.
 	 * 
 	 * @return
+	 * @see SharedGson#modify()
 	 */
 	public GsonBuilder getGsonBuilder() {
-		return gsonBuilder;
+		return gson.modify();
+	}
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * When streaming, json is written directly to the response as it is generated. No content length is set, so the response
+	 * is sent using chunked transfer encoding, and a failure part way through will leave partial output in the response.
+	 * 
+	 * Otherwise json is buffered so that the content length is known and failures can be reported cleanly. This is the default.
+	 * 
+	 * @param streaming
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public int getMaxRetainedBufferSize() {
+		return maxRetainedBufferSize;
+	}
+
+	/**
+	 * Sets the largest buffer, in bytes, kept for each thread between json views. Buffered json larger than this is written
+	 * from a buffer allocated for that view.
+	 * 
+	 * @param maxRetainedBufferSize
+	 * @see Utf8Writer#acquire(OutputStream, int)
+	 */
+	public void setMaxRetainedBufferSize(int maxRetainedBufferSize) {
+		this.maxRetainedBufferSize = Utf8Writer.checkMaxRetainedBufferSize(maxRetainedBufferSize);
 	}
 
 	@Override
 	public void resolve(Request req, Response resp, JsonView viewResult) {
 		Object output = viewResult.getOutput();
 		try {
-			Gson create = gsonBuilder.create();
-			JsonElement jsonElement = Cast.as(output, JsonElement.class);
-			String json = jsonElement == null ? create.toJson(output) : create.toJson(jsonElement);
-			String encoding = viewResult.getCharacterEncoding();
-			byte[] data = json.getBytes(encoding);
-			BaseView.applyToResponse(viewResult, resp);
-			resp.withContentLength(data.length);
+			writeJson(gson.get(), output, null, null, viewResult, resp, streaming, maxRetainedBufferSize);
+		} catch (Exception e) {
+			throw new ViewResolutionException(e, "Failed to generate JSON output for object '%s': %s", output.toString(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the given output as json to the response in the view's character encoding, preceded by the prefix and followed
+	 * by the suffix if they are not null. The view is applied to the response before any output is written.
+	 * 
+	 * @param gson
+	 * @param output
+	 * @param prefix
+	 * @param suffix
+	 * @param view
+	 * @param resp
+	 * @param streaming true to write json to the response as it is generated, false to buffer it and set the content length
+	 * @throws IOException
+	 */
+	public static void writeJson(Gson gson, Object output, String prefix, String suffix, BaseView<?> view, Response resp, boolean streaming) throws IOException {
+		writeJson(gson, output, prefix, suffix, view, resp, streaming, Utf8Writer.DefaultMaxRetainedBufferSize);
+	}
+
+	/**
+	 * As {@link #writeJson(Gson, Object, String, String, BaseView, Response, boolean)}, keeping a buffer of at most the given
+	 * size for the current thread afterwards.
+	 * 
+	 * @param gson
+	 * @param output
+	 * @param prefix
+	 * @param suffix
+	 * @param view
+	 * @param resp
+	 * @param streaming
+	 * @param maxRetainedBufferSize
+	 * @throws IOException
+	 */
+	public static void writeJson(Gson gson, Object output, String prefix, String suffix, BaseView<?> view, Response resp, boolean streaming, int maxRetainedBufferSize) throws IOException {
+		Charset charset = Charset.forName(view.getCharacterEncoding());
+		boolean utf8 = StandardCharsets.UTF_8.equals(charset);
+		if (streaming) {
+			BaseView.applyToResponse(view, resp);
 			resp.finaliseHeaders();
 			OutputStream outputStream = resp.getOutputStream();
-			outputStream.write(data);
+			Utf8Writer utf8Writer = utf8 ? Utf8Writer.acquire(outputStream, maxRetainedBufferSize) : null;
+			try {
+				Writer writer = utf8 ? utf8Writer : new OutputStreamWriter(outputStream, charset);
+				writeJson(gson, output, prefix, suffix, writer);
+				writer.flush();
+			} finally {
+				if (utf8Writer != null) {
+					utf8Writer.release();
+				}
+			}
+		} else if (utf8) {
+			Utf8Writer writer = Utf8Writer.acquire(null, maxRetainedBufferSize);
+			try {
+				writeJson(gson, output, prefix, suffix, writer);
+				OutputStream outputStream = prepareResponse(view, resp, writer.size());
+				writer.writeTo(outputStream);
+				outputStream.flush();
+			} finally {
+				writer.release();
+			}
+		} else {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			Writer writer = new OutputStreamWriter(buffer, charset);
+			writeJson(gson, output, prefix, suffix, writer);
+			writer.flush();
+			OutputStream outputStream = prepareResponse(view, resp, buffer.size());
+			buffer.writeTo(outputStream);
 			outputStream.flush();
-			// @formatter:on
-		} catch (Exception e) {
-			throw new ViewResolutionException(e, "Failed to generate JSON output for object '%s': %s", output.toString(), e.getMessage());
 		}
 	}
 
+	private static void writeJson(Gson gson, Object output, String prefix, String suffix, Writer writer) throws IOException {
+		if (prefix != null) {
+			writer.write(prefix);
+		}
+		if (output instanceof JsonElement) {
+			gson.toJson((JsonElement) output, writer);
+		} else {
+			gson.toJson(output, writer);
+		}
+		if (suffix != null) {
+			writer.write(suffix);
+		}
+	}
+
+	private static OutputStream prepareResponse(BaseView<?> view, Response resp, int contentLength) throws IOException {
+		BaseView.applyToResponse(view, resp);
+		resp.withContentLength(contentLength);
+		resp.finaliseHeaders();
+		return resp.getOutputStream();
+	}
+
 	@Override
 	public String toString() {
 		return this.getClass().getSimpleName();
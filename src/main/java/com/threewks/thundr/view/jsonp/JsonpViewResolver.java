@@ -17,53 +17,67 @@
  */
 package com.threewks.thundr.view.jsonp;
 
-import java.io.OutputStream;
-
 import org.apache.commons.lang3.StringUtils;
 
-import com.atomicleopard.expressive.Cast;
-import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.threewks.thundr.json.GsonSupport;
+import com.threewks.thundr.json.SharedGson;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
-import com.threewks.thundr.view.BaseView;
+import com.threewks.thundr.util.Utf8Writer;
 import com.threewks.thundr.view.ViewResolutionException;
 import com.threewks.thundr.view.ViewResolver;
+import com.threewks.thundr.view.json.JsonViewResolver;
 
 public class JsonpViewResolver implements ViewResolver<JsonpView> {
 	private GsonBuilder gsonBuilder;
+	private SharedGson gson;
+	private boolean streaming = false;
+	private int maxRetainedBufferSize = Utf8Writer.DefaultMaxRetainedBufferSize;
 
 	public JsonpViewResolver(GsonBuilder gsonBuilder) {
 		this.gsonBuilder = gsonBuilder;
+		this.gson = SharedGson.forBuilder(gsonBuilder);
 	}
 
 	/**
 	 * Exposes the underlying gson builder, allowing modification of the properties controlling how json is serialized.
 	 * 
 	 * @return
+	 * @see SharedGson#modify()
 	 */
 	public GsonBuilder getGsonBuilder() {
-		return gsonBuilder;
+		return gson.modify();
+	}
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * @param streaming
+	 * @see JsonViewResolver#setStreaming(boolean)
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public int getMaxRetainedBufferSize() {
+		return maxRetainedBufferSize;
+	}
+
+	/**
+	 * @param maxRetainedBufferSize
+	 * @see JsonViewResolver#setMaxRetainedBufferSize(int)
+	 */
+	public void setMaxRetainedBufferSize(int maxRetainedBufferSize) {
+		this.maxRetainedBufferSize = Utf8Writer.checkMaxRetainedBufferSize(maxRetainedBufferSize);
 	}
 
 	@Override
 	public void resolve(Request req, Response resp, JsonpView viewResult) {
 		Object output = viewResult.getOutput();
 		try {
-			Gson create = gsonBuilder.create();
-			JsonElement jsonElement = Cast.as(output, JsonElement.class);
-			String json = jsonElement == null ? create.toJson(output) : create.toJson(jsonElement);
-			String jsonp = wrapJsonInCallback(req, json);
-			String encoding = viewResult.getCharacterEncoding();
-			byte[] data = jsonp.getBytes(encoding);
-			BaseView.applyToResponse(viewResult, resp);
-			resp.withContentLength(data.length);
-			resp.finaliseHeaders();
-			OutputStream outputStream = resp.getOutputStream();
-			outputStream.write(data);
-			outputStream.flush();
+			JsonViewResolver.writeJson(gson.get(), output, getCallback(req) + "(", ");", viewResult, resp, streaming, maxRetainedBufferSize);
 		} catch (Exception e) {
 			throw new ViewResolutionException(e, "Failed to generate JSONP output for object '%s': %s", output.toString(), e.getMessage());
 		}
@@ -17,25 +17,37 @@
  */
 package com.threewks.thundr;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.threewks.thundr.configuration.ConfigurationModule;
 import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.http.exception.HttpStatusException;
 import com.threewks.thundr.injection.InjectionContextImpl;
 import com.threewks.thundr.injection.Module;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
 import com.threewks.thundr.json.GsonModule;
+import com.threewks.thundr.json.SharedGson;
 import com.threewks.thundr.module.Modules;
 import com.threewks.thundr.module.ModulesModule;
+import com.threewks.thundr.profiler.StartupProfiler;
+import com.threewks.thundr.request.AsyncResult;
+import com.threewks.thundr.request.CompressingResponse;
 import com.threewks.thundr.request.MutableRequestContainer;
 import com.threewks.thundr.request.Request;
+import com.threewks.thundr.request.RequestExecutors;
 import com.threewks.thundr.request.Response;
+import com.threewks.thundr.request.ResponseCompression;
 import com.threewks.thundr.request.ThreadLocalRequestContainer;
 import com.threewks.thundr.request.mock.MockRequest;
+import com.threewks.thundr.request.mock.MockResponse;
 import com.threewks.thundr.route.HttpMethod;
 import com.threewks.thundr.route.Route;
 import com.threewks.thundr.route.RouteResolverException;
 import com.threewks.thundr.route.Router;
 import com.threewks.thundr.route.RouterModule;
+import com.threewks.thundr.test.TestSupport;
 import com.threewks.thundr.transformer.TransformerModule;
+import com.threewks.thundr.util.Streams;
 import com.threewks.thundr.view.ViewModule;
 import com.threewks.thundr.view.ViewResolver;
 import com.threewks.thundr.view.ViewResolverNotFoundException;
@@ -49,8 +61,18 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
@@ -117,6 +139,76 @@ public class ThundrTest {
 		verify(thundr).initModules(thundr.injectionContext, thundr.modules);
 	}
 
+	@Test
+	public void shouldProfileStartupAndMakeProfilerAvailable() {
+		thundr = spy(new Thundr());
+		when(thundr.getBaseModules()).thenReturn(Collections.<Class<? extends Module>> singletonList(TestApplicationModule.class));
+
+		thundr.start();
+
+		StartupProfiler startupProfiler = thundr.getStartupProfiler();
+		assertThat(startupProfiler, is(notNullValue()));
+		assertThat(startupProfiler.isActive(), is(false));
+		assertThat(thundr.getInjectionContext().get(StartupProfiler.class), is(sameInstance(startupProfiler)));
+		assertThat(startupProfiler.getEvents(StartupProfiler.Module).isEmpty(), is(false));
+	}
+
+	@Test
+	public void shouldConfigureAsyncTimeoutOnlyFromNamedProperty() {
+		thundr = spy(new Thundr());
+		when(thundr.getBaseModules()).thenReturn(Collections.<Class<? extends Module>> emptyList());
+		thundr.getInjectionContext().inject("soon").as(String.class);
+		thundr.start();
+		assertThat(thundr.getAsyncTimeout(), is(Thundr.DefaultAsyncTimeout));
+
+		thundr = spy(new Thundr());
+		when(thundr.getBaseModules()).thenReturn(Collections.<Class<? extends Module>> emptyList());
+		thundr.getInjectionContext().inject("1000").named(Thundr.AsyncTimeoutProperty).as(String.class);
+		thundr.start();
+		assertThat(thundr.getAsyncTimeout(), is(1000L));
+	}
+
+	@Test
+	public void shouldFreezeInjectionContextOnceStarted() {
+		thundr = spy(new Thundr());
+		when(thundr.getBaseModules()).thenReturn(Collections.<Class<? extends Module>> emptyList());
+		assertThat(TestSupport.<Boolean> getField(thundr.getInjectionContext(), "frozen"), is(false));
+
+		thundr.start();
+
+		assertThat(TestSupport.<Boolean> getField(thundr.getInjectionContext(), "frozen"), is(true));
+	}
+
+	@Test
+	public void shouldShareGsonIncludingChangesMadeToGsonBuilderWhileStarting() {
+		thundr = spy(new Thundr());
+		when(thundr.getBaseModules()).thenReturn(Collections.<Class<? extends Module>> singletonList(TestApplicationModule.class));
+		GsonBuilder gsonBuilder = new GsonBuilder();
+		thundr.getInjectionContext().inject(gsonBuilder).as(GsonBuilder.class);
+		SharedGson sharedGson = SharedGson.forBuilder(gsonBuilder);
+		assertThat(sharedGson.get().toJson(Collections.singletonMap("key", null)), is("{}"));
+		gsonBuilder.serializeNulls();
+
+		thundr.start();
+
+		Gson gson = sharedGson.get();
+		assertThat(gson.toJson(Collections.singletonMap("key", null)), is("{\"key\":null}"));
+		assertThat(sharedGson.get(), is(sameInstance(gson)));
+	}
+
+	@Test
+	public void shouldKeepStartupProfileForEachInstance() {
+		Thundr other = spy(new Thundr());
+		thundr = spy(new Thundr());
+		when(thundr.getBaseModules()).thenReturn(Collections.<Class<? extends Module>> singletonList(TestApplicationModule.class));
+		other.getStartupProfiler().activate();
+
+		thundr.start();
+
+		assertThat(other.getStartupProfiler().getEvents(), is(empty()));
+		assertThat(thundr.getStartupProfiler().getEvents(StartupProfiler.Module).isEmpty(), is(false));
+	}
+
 	@Test
 	public void shouldDependOnBaseModulesAndStartThem() {
 		Modules modules = mock(Modules.class);
@@ -294,6 +386,280 @@ public class ThundrTest {
 		thundr.resolve(req, resp);
 	}
 
+	@Test
+	public void shouldCompressResponseWhenResponseCompressionIsEnabledAndAccepted() throws IOException {
+		final StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			body.append("line ").append(i).append("\n");
+		}
+		viewResolverRegistry.addResolver(String.class, new ViewResolver<String>() {
+			@Override
+			public void resolve(Request req, Response resp, String viewResult) {
+				assertThat(resp, is(instanceOf(CompressingResponse.class)));
+				resp.withContentType("text/plain").withBody(body.toString());
+			}
+		});
+		injectionContext.inject(new ResponseCompression().withEnabled(true)).as(ResponseCompression.class);
+		MockRequest request = new MockRequest(HttpMethod.GET, "/get/").withHeader("Accept-Encoding", "gzip");
+		MockResponse response = new MockResponse();
+
+		thundr.resolve(request, response);
+
+		assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+		GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(response.getBodyAsBytes()));
+		assertThat(Streams.readString(inputStream, "UTF-8"), is(body.toString()));
+	}
+
+	@Test
+	public void shouldResolveViewOfAsyncResultOnCompletingThread() throws Exception {
+		final AsyncResult<String> pending = new AsyncResult<String>();
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(pending);
+		final MutableRequestContainer requestContainer = injectionContext.get(MutableRequestContainer.class);
+		final List<Object> seen = new ArrayList<Object>();
+		viewResolverRegistry.addResolver(String.class, new ViewResolver<String>() {
+			@Override
+			public void resolve(Request req, Response resp, String viewResult) {
+				seen.add(viewResult);
+				seen.add(requestContainer.getRequest());
+				seen.add(Thread.currentThread().getName());
+				resp.withStatusCode(StatusCode.ImATeapot);
+			}
+		});
+
+		AsyncResult<Void> result = thundr.resolveAsync(req, resp);
+		assertThat(result.isDone(), is(false));
+		assertThat(requestContainer.getRequest(), is(nullValue()));
+		verify(resp, never()).withStatusCode(Mockito.any(StatusCode.class));
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				pending.complete("view");
+			}
+		}, "completing-thread");
+		thread.start();
+		thread.join();
+
+		assertThat(result.isDone(), is(true));
+		assertThat(result.get(), is(nullValue()));
+		assertThat(seen, contains((Object) "view", req, "completing-thread"));
+		verify(resp).withStatusCode(StatusCode.ImATeapot);
+	}
+
+	@Test
+	public void shouldResolveExceptionViewWhenAsyncResultFails() throws Exception {
+		AsyncResult<String> pending = new AsyncResult<String>();
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(pending);
+		viewResolverRegistry.addResolver(Exception.class, new ViewResolver<Exception>() {
+			@Override
+			public void resolve(Request req, Response resp, Exception viewResult) {
+				resp.withStatusCode(StatusCode.ImATeapot);
+			}
+		});
+
+		AsyncResult<Void> result = thundr.resolveAsync(req, resp);
+		pending.fail(new IOException("Intentional Exception"));
+
+		assertThat(result.isDone(), is(true));
+		result.get();
+		verify(resp).withStatusCode(StatusCode.ImATeapot);
+	}
+
+	@Test
+	public void shouldWaitForAsyncResultWhenResolvingSynchronously() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(AsyncResult.submit(executor, new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				Thread.sleep(10);
+				return "view";
+			}
+		}));
+		viewResolverRegistry.addResolver(String.class, new ViewResolver<String>() {
+			@Override
+			public void resolve(Request req, Response resp, String viewResult) {
+				resp.withStatusCode(StatusCode.ImATeapot);
+			}
+		});
+
+		thundr.resolve(req, resp);
+		verify(resp).withStatusCode(StatusCode.ImATeapot);
+		executor.shutdown();
+	}
+
+	@Test
+	public void shouldFailAsyncResultWithServiceUnavailableWhenItTimesOut() {
+		AsyncResult<String> pending = new AsyncResult<String>();
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(pending);
+		viewResolverRegistry.addResolver(HttpStatusException.class, new ViewResolver<HttpStatusException>() {
+			@Override
+			public void resolve(Request req, Response resp, HttpStatusException viewResult) {
+				resp.withStatusCode(viewResult.getStatus());
+			}
+		});
+		viewResolverRegistry.addResolver(String.class, new ViewResolver<String>() {
+			@Override
+			public void resolve(Request req, Response resp, String viewResult) {
+				resp.withStatusCode(StatusCode.ImATeapot);
+			}
+		});
+		thundr.setAsyncTimeout(10);
+
+		thundr.resolve(req, resp);
+		verify(resp).withStatusCode(StatusCode.ServiceUnavailable);
+
+		assertThat(pending.complete("view"), is(false));
+		verify(resp, never()).withStatusCode(StatusCode.ImATeapot);
+	}
+
+	@Test
+	public void shouldWaitForViewBeingWrittenWhenAsyncResultTimesOut() throws Exception {
+		final AsyncResult<String> pending = new AsyncResult<String>();
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(pending);
+		final CountDownLatch writing = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		viewResolverRegistry.addResolver(HttpStatusException.class, new ViewResolver<HttpStatusException>() {
+			@Override
+			public void resolve(Request req, Response resp, HttpStatusException viewResult) {
+				resp.withStatusCode(viewResult.getStatus());
+			}
+		});
+		viewResolverRegistry.addResolver(String.class, new ViewResolver<String>() {
+			@Override
+			public void resolve(Request req, Response resp, String viewResult) {
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				resp.withStatusCode(StatusCode.ImATeapot);
+			}
+		});
+		thundr.setAsyncTimeout(50);
+
+		Thread resolving = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				thundr.resolve(req, resp);
+			}
+		}, "resolving-thread");
+		Thread completing = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				pending.complete("view");
+			}
+		}, "completing-thread");
+		resolving.start();
+		completing.start();
+		assertThat(writing.await(1, TimeUnit.SECONDS), is(true));
+
+		// the timeout fires while the view is being written, so the resolving thread must keep waiting for it
+		resolving.join(200);
+		assertThat(resolving.isAlive(), is(true));
+		verify(resp, never()).withStatusCode(StatusCode.ServiceUnavailable);
+
+		release.countDown();
+		resolving.join(1000);
+		completing.join(1000);
+		assertThat(resolving.isAlive(), is(false));
+		verify(resp).withStatusCode(StatusCode.ImATeapot);
+		verify(resp, never()).withStatusCode(StatusCode.ServiceUnavailable);
+	}
+
+	@Test
+	public void shouldNotFailResultOnceViewIsBeingWritten() throws Exception {
+		final AsyncResult<String> pending = new AsyncResult<String>();
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(pending);
+		final AsyncResult<Void> result = thundr.resolveAsync(req, resp);
+		final List<Boolean> failed = new ArrayList<Boolean>();
+		viewResolverRegistry.addResolver(String.class, new ViewResolver<String>() {
+			@Override
+			public void resolve(Request req, Response resp, String viewResult) {
+				failed.add(result.fail(new RuntimeException("Intentional Exception")));
+				resp.withStatusCode(StatusCode.ImATeapot);
+			}
+		});
+
+		pending.complete("view");
+		assertThat(failed, contains(false));
+		assertThat(result.get(), is(nullValue()));
+		verify(resp).withStatusCode(StatusCode.ImATeapot);
+	}
+
+	@Test
+	public void shouldRestoreRequestBoundBeforeResolving() throws Exception {
+		AsyncResult<String> pending = new AsyncResult<String>();
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(pending);
+		MutableRequestContainer requestContainer = injectionContext.get(MutableRequestContainer.class);
+		Request otherReq = new MockRequest();
+		Response otherResp = new MockResponse();
+		requestContainer.set(otherReq, otherResp);
+
+		AsyncResult<Void> result = thundr.resolveAsync(req, resp);
+		assertThat(requestContainer.getRequest(), is(otherReq));
+		assertThat(requestContainer.getResponse(), is(otherResp));
+
+		pending.complete("view");
+		assertThat(result.isDone(), is(true));
+		assertThat(requestContainer.getRequest(), is(otherReq));
+		assertThat(requestContainer.getResponse(), is(otherResp));
+		requestContainer.clear();
+	}
+
+	@Test
+	public void shouldResolveRequestAsTaskOnGivenExecutor() throws Exception {
+		final MutableRequestContainer requestContainer = injectionContext.get(MutableRequestContainer.class);
+		final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+		doAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				threads.add(Thread.currentThread());
+				assertThat(requestContainer.getRequest(), is(req));
+				return "view";
+			}
+		}).when(router).resolve(Mockito.any(Request.class), Mockito.any(Response.class));
+
+		ExecutorService executor = RequestExecutors.perRequest();
+		try {
+			thundr.resolveOn(executor, req, resp).get();
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(threads.size(), is(1));
+		assertThat(threads.get(0), is(not(Thread.currentThread())));
+	}
+
+	@Test
+	public void shouldFailResolutionOnGivenExecutorWhenNoExceptionViewResolverExists() throws Exception {
+		RuntimeException exception = new RuntimeException("Intentional Exception");
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenThrow(exception);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			thundr.resolveOn(executor, req, resp).get();
+			fail("Expected an ExecutionException");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is((Throwable) exception));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void shouldFailAsyncResolutionWhenNoExceptionViewResolverExists() throws Exception {
+		RuntimeException exception = new RuntimeException("Intentional Exception");
+		when(router.resolve(Mockito.any(Request.class), Mockito.any(Response.class))).thenReturn(AsyncResult.failed(exception));
+
+		AsyncResult<Void> result = thundr.resolveAsync(req, resp);
+		try {
+			result.get();
+			fail("Expected an ExecutionException");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is((Throwable) exception));
+		}
+	}
+
 	@Test
 	public void shouldSetAndClearRequestAndResponseIntoRequestScope() throws IOException {
 		final MutableRequestContainer requestContainer = injectionContext.get(MutableRequestContainer.class);
@@ -80,4 +80,56 @@ public class HttpPostDataMapTest {
 		assertThat(newPathMap.get(list("[twoTwo]", "threeThree")), contains("value-value"));
 		assertThat(newPathMap.get(list("[one]", "two")), contains("value2"));
 	}
+
+	@Test
+	public void shouldNotSplitForEmptyIndex() {
+		Map<String, List<String>> map = map("one[]", Arrays.asList("value"));
+		RequestDataMap pathMap = new RequestDataMap(map);
+		assertThat(pathMap.get("one[]"), contains("value"));
+		assertThat(pathMap.uniqueChildren(), contains("one[]"));
+	}
+
+	@Test
+	public void shouldReturnEmptyPathMapForUnknownOrLeafPath() {
+		Map<String, List<String>> map = map("one", Arrays.asList("value"));
+		RequestDataMap pathMap = new RequestDataMap(map);
+		assertThat(pathMap.pathMapFor("two").size(), is(0));
+		assertThat(pathMap.pathMapFor("one").size(), is(0));
+		assertThat(pathMap.pathMapFor("one").uniqueChildren(), is(empty()));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldDescendNestedPathMaps() {
+		Map<String, List<String>> map = mapKeys("one[0].two.three", "one[0].two.four", "one[1].two").to(Arrays.asList("value"), Arrays.asList("value2"), Arrays.asList("value3"));
+		RequestDataMap pathMap = new RequestDataMap(map);
+		RequestDataMap newPathMap = pathMap.pathMapFor("one").pathMapFor("[0]").pathMapFor("two");
+		assertThat(newPathMap.size(), is(2));
+		assertThat(newPathMap.uniqueChildren(), containsInAnyOrder("three", "four"));
+		assertThat(newPathMap.get("three"), contains("value"));
+		assertThat(pathMap.pathMapFor("one").get(list("[1]", "two")), contains("value3"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldCreateStringMapForNamedEntity() {
+		Map<String, List<String>> map = mapKeys("one.two", "one.three[0].four", "one.five", "other").to(Arrays.asList("value"), Arrays.asList("value2"), Arrays.asList("a", "b"), Arrays.asList("value3"));
+		RequestDataMap pathMap = new RequestDataMap(map);
+		Map<String, Object> stringMap = pathMap.toStringMap("one");
+		assertThat(stringMap.size(), is(3));
+		assertThat(stringMap.get("two"), is((Object) "value"));
+		assertThat(stringMap.get("three[0].four"), is((Object) "value2"));
+		assertThat(stringMap.get("five"), is((Object) Arrays.asList("a", "b")));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldCreateStringMapForUnnamedEntity() {
+		Map<String, List<String>> map = mapKeys("one.two", "three[0].four").to(Arrays.asList("value"), Arrays.asList("value2"));
+		RequestDataMap pathMap = new RequestDataMap(map);
+		Map<String, List<String>> stringMap = pathMap.toStringMap();
+		assertThat(stringMap.size(), is(2));
+		assertThat(stringMap.get("one.two"), contains("value"));
+		assertThat(stringMap.get("three[0].four"), contains("value2"));
+	}
 }
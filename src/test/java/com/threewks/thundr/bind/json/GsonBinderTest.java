@@ -43,6 +43,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.internal.LinkedTreeMap;
 import com.threewks.thundr.bind.BindException;
@@ -50,6 +51,7 @@ import com.threewks.thundr.http.ContentType;
 import com.threewks.thundr.introspection.MethodIntrospector;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.json.GsonSupport;
+import com.threewks.thundr.json.SharedGson;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.mock.MockRequest;
 import com.threewks.thundr.request.mock.MockResponse;
@@ -159,6 +161,46 @@ public class GsonBinderTest {
 		assertThat(intValue, is((Object) 5));
 	}
 
+	@Test
+	public void shouldSkipUnknownMembersWhenBindingJsonToExplodedParameters() {
+		ParameterDescription stringParameterDescription = new ParameterDescription("name", String.class);
+		ParameterDescription intParameterDescription = new ParameterDescription("value", int.class);
+		Map<ParameterDescription, Object> bindings = mapKeys(intParameterDescription, stringParameterDescription).to(null, null, null);
+		req.withBody("{ \"other\": { \"name\": \"nested\", \"list\": [1, { \"value\": 2 }] }, \"name\": \"pojo name\", \"ignored\": null, \"value\": 5 }");
+
+		gsonBinder.bindAll(bindings, req, resp);
+
+		assertThat(bindings.get(stringParameterDescription), is((Object) "pojo name"));
+		assertThat(bindings.get(intParameterDescription), is((Object) 5));
+	}
+
+	@Test
+	public void shouldNotReplaceBoundParametersWhenBindingJsonToExplodedParameters() {
+		ParameterDescription stringParameterDescription = new ParameterDescription("name", String.class);
+		ParameterDescription intParameterDescription = new ParameterDescription("value", int.class);
+		Map<ParameterDescription, Object> bindings = mapKeys(intParameterDescription, stringParameterDescription).to(null, (Object) "existing");
+		req.withBody("{ \"name\": \"pojo name\", \"value\": 5 }");
+
+		gsonBinder.bindAll(bindings, req, resp);
+
+		assertThat(bindings.get(stringParameterDescription), is((Object) "existing"));
+		assertThat(bindings.get(intParameterDescription), is((Object) 5));
+	}
+
+	@Test
+	public void shouldReuseGsonExceptWhileGsonBuilderIsModified() {
+		SharedGson sharedGson = TestSupport.getField(gsonBinder, "gson");
+		Gson gson = sharedGson.get();
+		assertThat(sharedGson.get(), is(sameInstance(gson)));
+
+		gsonBinder.getGsonBuilder().serializeNulls();
+		assertThat(sharedGson.get(), is(not(sameInstance(gson))));
+
+		sharedGson.invalidate();
+		gson = sharedGson.get();
+		assertThat(sharedGson.get(), is(sameInstance(gson)));
+	}
+
 	@Test
 	public void shouldNotBindJsonToExplodedParametersWhenNoContentStreamAvailable() throws IOException {
 		ParameterDescription stringParameterDescription = new ParameterDescription("name", String.class);
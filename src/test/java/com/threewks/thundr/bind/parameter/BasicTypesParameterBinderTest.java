@@ -0,0 +1,107 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.bind.parameter;
+
+import static com.atomicleopard.expressive.Expressive.list;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.atomicleopard.expressive.ETransformer;
+import com.atomicleopard.expressive.Expressive;
+import com.threewks.thundr.introspection.ParameterDescription;
+import com.threewks.thundr.transformer.TransformerManager;
+import com.threewks.thundr.transformer.numeric.StringToInteger;
+
+public class BasicTypesParameterBinderTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private TransformerManager transformerManager = TransformerManager.createWithDefaults();
+	private BasicTypesParameterBinder binder = new BasicTypesParameterBinder();
+	private Map<String, List<String>> values = Expressive.<String, List<String>> map("int", list("123"), "long", list("-9000000000"), "double", list("1.5"), "short", list("7"), "invalid",
+			list("abc"));
+	private RequestDataMap requestData = new RequestDataMap(values);
+
+	@Test
+	public void shouldBindPrimitiveTypes() {
+		assertThat(binder.bind(null, new ParameterDescription("int", int.class), requestData, transformerManager), is((Object) 123));
+		assertThat(binder.bind(null, new ParameterDescription("long", long.class), requestData, transformerManager), is((Object) (-9000000000l)));
+		assertThat(binder.bind(null, new ParameterDescription("double", double.class), requestData, transformerManager), is((Object) 1.5d));
+		assertThat(binder.bind(null, new ParameterDescription("short", short.class), requestData, transformerManager), is((Object) (short) 7));
+	}
+
+	@Test
+	public void shouldBindBoxedTypes() {
+		assertThat(binder.bind(null, new ParameterDescription("int", Integer.class), requestData, transformerManager), is((Object) 123));
+		assertThat(binder.bind(null, new ParameterDescription("long", Long.class), requestData, transformerManager), is((Object) (-9000000000l)));
+		assertThat(binder.bind(null, new ParameterDescription("double", Double.class), requestData, transformerManager), is((Object) 1.5d));
+	}
+
+	@Test
+	public void shouldReturnNullWhenNoValuePresent() {
+		assertThat(binder.bind(null, new ParameterDescription("missing", int.class), requestData, transformerManager), is(nullValue()));
+	}
+
+	@Test
+	public void shouldUseTransformersOfGivenTransformerManager() {
+		TransformerManager other = TransformerManager.createEmpty();
+		assertThat(binder.bind(null, new ParameterDescription("int", int.class), requestData, transformerManager), is((Object) 123));
+
+		thrown.expect(RuntimeException.class);
+		thrown.expectMessage("No transformation available from 'java.lang.String' to 'int'");
+		binder.bind(null, new ParameterDescription("int", int.class), requestData, other);
+	}
+
+	@Test
+	public void shouldUseTransformersRegisteredAfterEarlierBinds() {
+		TransformerManager manager = TransformerManager.createEmpty();
+		assertThat(binder.bind(null, new ParameterDescription("int", Integer.class), requestData, transformerManager), is((Object) 123));
+
+		manager.register(String.class, Integer.class, new StringToInteger());
+		assertThat(binder.bind(null, new ParameterDescription("int", int.class), requestData, manager), is((Object) 123));
+
+		manager.register(String.class, Integer.class, new ETransformer<String, Integer>() {
+			@Override
+			public Integer from(String from) {
+				return -1;
+			}
+		});
+		assertThat(binder.bind(null, new ParameterDescription("int", int.class), requestData, manager), is((Object) (-1)));
+	}
+
+	@Test
+	public void shouldFailToBindInvalidPrimitive() {
+		thrown.expect(NumberFormatException.class);
+		thrown.expectMessage("For input string: \"abc\"");
+		binder.bind(null, new ParameterDescription("invalid", int.class), requestData, transformerManager);
+	}
+
+	@Test
+	public void shouldOnlyBindTypesWithTransformerFromString() {
+		assertThat(binder.willBind(new ParameterDescription("int", int.class), transformerManager), is(true));
+		assertThat(binder.willBind(new ParameterDescription("long", Long.class), transformerManager), is(true));
+		assertThat(binder.willBind(new ParameterDescription("object", BasicTypesParameterBinderTest.class), transformerManager), is(false));
+	}
+}
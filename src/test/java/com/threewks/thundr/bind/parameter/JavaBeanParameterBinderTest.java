@@ -33,6 +33,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.atomicleopard.expressive.ETransformer;
 import com.threewks.thundr.bind.BindException;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.transformer.TransformerManager;
@@ -75,6 +76,23 @@ public class JavaBeanParameterBinderTest {
 		assertThat(bean.getDateTime(), is(new DateTime(2014, 6, 2, 12, 1, 1, 1).withZoneRetainFields(DateTimeZone.UTC)));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldUseTransformersRegisteredAfterEarlierBinds() {
+		ParameterDescription parameterDescription = new ParameterDescription("bean", BasicTestBean.class);
+		Map<String, List<String>> map = mapKeys("bean.name", "bean.id").to(values("string"), values("1"));
+		binder.bind(binders, parameterDescription, new RequestDataMap(map), transformerManager);
+
+		transformerManager.register(String.class, Long.class, new ETransformer<String, Long>() {
+			@Override
+			public Long from(String from) {
+				return 42L;
+			}
+		});
+		BasicTestBean bean = (BasicTestBean) binder.bind(binders, parameterDescription, new RequestDataMap(map), transformerManager);
+		assertThat(bean.getId(), is(42l));
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void shouldBindANestedJavabean() {
@@ -113,6 +131,40 @@ public class JavaBeanParameterBinderTest {
 		assertThat(nested.get(1).getId(), is(2l));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldBindIndexedListsOfValuesAndPublicFields() {
+		ParameterDescription parameterDescription = new ParameterDescription("bean", FieldTestBean.class);
+		Map<String, List<String>> map = mapKeys("bean.count", "bean.ids[0]", "bean.ids[2]", "bean.existing.name").to(values("3"), values("1"), values("3"), values("inner"));
+
+		FieldTestBean bean = (FieldTestBean) binder.bind(binders, parameterDescription, new RequestDataMap(map), transformerManager);
+		assertThat(bean.count, is(3));
+		assertThat(bean.ids, contains(1L, null, 3L));
+		assertThat(bean.existing, is(sameInstance(bean.initial)));
+		assertThat(bean.existing.getName(), is("inner"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldIgnoreUnknownPropertiesAndValuesWhichCannotBeConverted() {
+		ParameterDescription parameterDescription = new ParameterDescription("bean", BasicTestBean.class);
+		Map<String, List<String>> map = mapKeys("bean.name", "bean.id", "bean.unknown").to(values("string"), values("not a number"), values("value"));
+
+		BasicTestBean bean = (BasicTestBean) binder.bind(binders, parameterDescription, new RequestDataMap(map), transformerManager);
+		assertThat(bean.getName(), is("string"));
+		assertThat(bean.getId(), is(nullValue()));
+	}
+
+	@Test
+	public void shouldIntrospectEachBeanClassOnce() {
+		assertThat(binder.getBeanBinder(BasicTestBean.class), is(sameInstance(binder.getBeanBinder(BasicTestBean.class))));
+		assertThat(binder.getBeanBinder(BasicTestBean.class).getProperty("name").getType(), is((Object) String.class));
+		assertThat(binder.getBeanBinder(BasicTestBean.class).getProperty("unknown"), is(nullValue()));
+		assertThat(binder.getBeanBinder(MultidimensionalTestBean.class).getProperty("nested").isList(), is(true));
+		assertThat(binder.getBeanBinder(MultidimensionalTestBean.class).getProperty("nested").hasJavabeanElements(), is(true));
+		assertThat(binder.getBeanBinder(NestedTestBean.class).getProperty("nested").isJavabean(), is(true));
+	}
+
 	@Test
 	public void shouldThrowBindExceptionWhenCannotBind() {
 		thrown.expect(BindException.class);
@@ -224,6 +276,13 @@ public class JavaBeanParameterBinderTest {
 		}
 	}
 
+	public static class FieldTestBean {
+		public int count;
+		public List<Long> ids;
+		public BasicTestBean initial = new BasicTestBean();
+		public BasicTestBean existing = initial;
+	}
+
 	static class UnbindableTestBean {
 		public UnbindableTestBean() {
 			throw new RuntimeException("Intentional");
@@ -20,6 +20,7 @@ package com.threewks.thundr.bind.parameter;
 import static com.atomicleopard.expressive.Expressive.*;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
 
 import java.util.Arrays;
 import java.util.List;
@@ -27,7 +28,9 @@ import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import com.atomicleopard.expressive.ETransformer;
 import com.threewks.thundr.http.MultipartFile;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.test.TestSupport;
@@ -86,6 +89,57 @@ public class ParameterBinderRegistryTest {
 		assertThat(registry.createFor(new ParameterDescription("bind", TestBindable.class), new MultipartFile("Bound", new byte[0], null)), is((Object) new TestBindable("Bound")));
 	}
 
+	@Test
+	public void shouldDetermineBindersForAParameterOnceUntilBindersChange() {
+		ParameterBinder<?> binder1 = mock(ParameterBinder.class);
+		ParameterBinder<?> binder2 = mock(ParameterBinder.class);
+		when(binder1.willBind(Mockito.any(ParameterDescription.class), Mockito.any(TransformerManager.class))).thenReturn(false);
+		when(binder2.willBind(Mockito.any(ParameterDescription.class), Mockito.any(TransformerManager.class))).thenReturn(true);
+		registry.addBinder(binder1);
+		registry.addBinder(binder2);
+
+		assertThat(registry.getBindersFor(new ParameterDescription("bind", TestBindable.class)), contains((Object) binder2));
+		assertThat(registry.getBindersFor(new ParameterDescription("bind", TestBindable.class)), contains((Object) binder2));
+		verify(binder1, times(1)).willBind(Mockito.any(ParameterDescription.class), Mockito.any(TransformerManager.class));
+		verify(binder2, times(1)).willBind(Mockito.any(ParameterDescription.class), Mockito.any(TransformerManager.class));
+
+		assertThat(registry.getBindersFor(new ParameterDescription("other", TestBindable.class)), contains((Object) binder2));
+		verify(binder2, times(1)).willBind(Mockito.any(ParameterDescription.class), Mockito.any(TransformerManager.class));
+
+		registry.removeBinder(binder2);
+		assertThat(registry.getBindersFor(new ParameterDescription("bind", TestBindable.class)), is(empty()));
+	}
+
+	@Test
+	public void shouldDetermineBindersForAParameterAgainWhenTransformersChange() {
+		ParameterBinderRegistry.addDefaultBinders(registry);
+		ParameterDescription parameterDescription = new ParameterDescription("bind", TestBindable.class);
+		assertThat(hasBasicTypesBinder(registry.getBindersFor(parameterDescription)), is(false));
+
+		transformerManager.register(String.class, TestBindable.class, new ETransformer<String, TestBindable>() {
+			@Override
+			public TestBindable from(String from) {
+				return new TestBindable(from);
+			}
+		});
+
+		assertThat(hasBasicTypesBinder(registry.getBindersFor(parameterDescription)), is(true));
+	}
+
+	@Test
+	public void shouldDetermineBinaryBindersForAParameterOnceUntilBindersChange() {
+		BinaryParameterBinder<?> binder1 = mock(BinaryParameterBinder.class);
+		when(binder1.willBind(Mockito.any(ParameterDescription.class))).thenReturn(true);
+		registry.addBinder(binder1);
+
+		assertThat(registry.getBinaryBindersFor(new ParameterDescription("bind", TestBindable.class)), contains((Object) binder1));
+		assertThat(registry.getBinaryBindersFor(new ParameterDescription("bind", TestBindable.class)), contains((Object) binder1));
+		verify(binder1, times(1)).willBind(Mockito.any(ParameterDescription.class));
+
+		registry.addBinder(binaryBinder);
+		assertThat(registry.getBinaryBindersFor(new ParameterDescription("bind", TestBindable.class)), contains((Object) binder1, (Object) binaryBinder));
+	}
+
 	@Test
 	public void shouldAllowUnregistrationOfParameterBinders() {
 		registry.addBinder(binder);
@@ -165,10 +219,51 @@ public class ParameterBinderRegistryTest {
 		assertThat(bindings.get(parameterDescription5), is((Object) new byte[] { 3, 2, 1 }));
 	}
 
+	@Test
+	public void shouldDetermineBindersAgainWhenBinderIsAddedWhileTheyAreBeingDetermined() {
+		final ParameterBinder<TestBindable> added = new TestParameterBinder();
+		registry.addBinder(new TestParameterBinder() {
+			@Override
+			public boolean willBind(ParameterDescription parameterDescription, TransformerManager transformerManager) {
+				registry.addBinder(added);
+				return false;
+			}
+		});
+		ParameterDescription parameterDescription = new ParameterDescription("bind", TestBindable.class);
+
+		assertThat(registry.getBindersFor(parameterDescription).isEmpty(), is(true));
+		assertThat(registry.getBindersFor(parameterDescription).contains(added), is(true));
+	}
+
+	@Test
+	public void shouldDetermineBinaryBindersAgainWhenBinderIsAddedWhileTheyAreBeingDetermined() {
+		final BinaryParameterBinder<TestBindable> added = new TestBinaryParameterBinder();
+		registry.addBinder(new TestBinaryParameterBinder() {
+			@Override
+			public boolean willBind(ParameterDescription parameterDescription) {
+				registry.addBinder(added);
+				return false;
+			}
+		});
+		ParameterDescription parameterDescription = new ParameterDescription("bind", TestBindable.class);
+
+		assertThat(registry.getBinaryBindersFor(parameterDescription).isEmpty(), is(true));
+		assertThat(registry.getBinaryBindersFor(parameterDescription).contains(added), is(true));
+	}
+
 	private List<String> values(String... values) {
 		return Arrays.asList(values);
 	}
 
+	private static boolean hasBasicTypesBinder(List<ParameterBinder<?>> binders) {
+		for (ParameterBinder<?> binder : binders) {
+			if (binder instanceof BasicTypesParameterBinder) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private static class TestBindable {
 		private String value;
 
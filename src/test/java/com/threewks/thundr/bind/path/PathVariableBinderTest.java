@@ -33,12 +33,15 @@ import java.util.UUID;
 import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import com.atomicleopard.expressive.ETransformer;
 import com.threewks.thundr.introspection.ParameterDescription;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
 import com.threewks.thundr.route.HttpMethod;
-import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteMatch;
 import com.threewks.thundr.route.controller.TestAnnotation;
 import com.threewks.thundr.transformer.TransformerManager;
 
@@ -49,7 +52,7 @@ public class PathVariableBinderTest {
 	private HashMap<String, String> pathVariables;
 	private Request request;
 	private Response response;
-	private Route route;
+	private RouteMatch routeMatch;
 
 	@Before
 	public void before() {
@@ -58,9 +61,15 @@ public class PathVariableBinderTest {
 		pathVariables = new HashMap<String, String>();
 		request = mock(Request.class);
 		response = mock(Response.class);
-		route = mock(Route.class);
-		when(route.getPathVars(anyString())).thenReturn(pathVariables);
-		when(request.getRoute()).thenReturn(route);
+		routeMatch = mock(RouteMatch.class);
+		when(routeMatch.hasPathVars()).thenReturn(true);
+		when(routeMatch.getPathVar(anyString())).thenAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				return pathVariables.get(invocation.getArguments()[0]);
+			}
+		});
+		when(request.getRouteMatch()).thenReturn(routeMatch);
 	}
 
 	@Test
@@ -163,4 +172,59 @@ public class PathVariableBinderTest {
 		assertThat(parameterDescriptions.get(param3), is((Object) "3"));
 		assertThat(parameterDescriptions.get(param4), is(nullValue()));
 	}
+
+	@Test
+	public void shouldNotBindWhenRequestHasNoRouteMatch() {
+		ParameterDescription param1 = new ParameterDescription("param1", String.class);
+		parameterDescriptions.put(param1, null);
+		pathVariables.put("param1", "string-value");
+		when(request.getRouteMatch()).thenReturn(null);
+
+		pathVariableBinder.bindAll(parameterDescriptions, request, response);
+
+		assertThat(parameterDescriptions.get(param1), is(nullValue()));
+	}
+
+	@Test
+	public void shouldResolveTransformerForEachTypeOnce() {
+		TransformerManager transformerManager = spy(TransformerManager.createWithDefaults());
+		pathVariableBinder = new PathVariableBinder(transformerManager);
+		pathVariables.put("param1", "1");
+		pathVariables.put("param2", "2");
+
+		for (int i = 0; i < 3; i++) {
+			ParameterDescription param1 = new ParameterDescription("param1", Integer.class);
+			ParameterDescription param2 = new ParameterDescription("param2", Integer.class);
+			parameterDescriptions.clear();
+			parameterDescriptions.put(param1, null);
+			parameterDescriptions.put(param2, null);
+
+			pathVariableBinder.bindAll(parameterDescriptions, request, response);
+
+			assertThat(parameterDescriptions.get(param1), is((Object) 1));
+			assertThat(parameterDescriptions.get(param2), is((Object) 2));
+		}
+		verify(transformerManager, times(1)).getTransformer(String.class, Integer.class);
+	}
+
+	@Test
+	public void shouldUseTransformersRegisteredAfterEarlierBinds() {
+		TransformerManager transformerManager = TransformerManager.createWithDefaults();
+		pathVariableBinder = new PathVariableBinder(transformerManager);
+		ParameterDescription param1 = new ParameterDescription("param1", Color.class);
+		parameterDescriptions.put(param1, null);
+		pathVariables.put("param1", "black");
+		pathVariableBinder.bindAll(parameterDescriptions, request, response);
+		assertThat(parameterDescriptions.get(param1), is(nullValue()));
+
+		transformerManager.register(String.class, Color.class, new ETransformer<String, Color>() {
+			@Override
+			public Color from(String from) {
+				return Color.BLACK;
+			}
+		});
+		pathVariableBinder.bindAll(parameterDescriptions, request, response);
+
+		assertThat(parameterDescriptions.get(param1), is((Object) Color.BLACK));
+	}
 }
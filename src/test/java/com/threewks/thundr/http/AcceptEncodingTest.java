@@ -0,0 +1,52 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.http;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class AcceptEncodingTest {
+	@Test
+	public void shouldAcceptNamedCodings() {
+		assertThat(AcceptEncoding.accepts("gzip, deflate, br", "br"), is(true));
+		assertThat(AcceptEncoding.accepts("gzip, deflate", "br"), is(false));
+		assertThat(AcceptEncoding.accepts("GZIP", "gzip"), is(true));
+	}
+
+	@Test
+	public void shouldRespectQualityValues() {
+		assertThat(AcceptEncoding.accepts("br;q=0, gzip", "br"), is(false));
+		assertThat(AcceptEncoding.quality("gzip ; q=0.3", "gzip"), is(0.3f));
+		assertThat(AcceptEncoding.quality("gzip;q=invalid", "gzip"), is(0f));
+	}
+
+	@Test
+	public void shouldAcceptCodingsCoveredByWildcard() {
+		assertThat(AcceptEncoding.accepts("*", "gzip"), is(true));
+		assertThat(AcceptEncoding.accepts("gzip;q=0, *", "gzip"), is(false));
+		assertThat(AcceptEncoding.accepts("*;q=0", "br"), is(false));
+	}
+
+	@Test
+	public void shouldAcceptNothingWithoutHeader() {
+		assertThat(AcceptEncoding.accepts(null, "gzip"), is(false));
+		assertThat(AcceptEncoding.accepts("", "gzip"), is(false));
+	}
+}
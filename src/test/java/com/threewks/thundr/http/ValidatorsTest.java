@@ -0,0 +1,74 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.http;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.threewks.thundr.request.mock.MockRequest;
+
+public class ValidatorsTest {
+	private MockRequest req = new MockRequest();
+
+	@Test
+	public void shouldFormatAndParseHttpDates() {
+		assertThat(Validators.formatDate(300000), is("Thu, 01 Jan 1970 00:05:00 GMT"));
+		assertThat(Validators.parseDate("Thu, 01 Jan 1970 00:05:00 GMT"), is(300000L));
+		assertThat(Validators.parseDate("yesterday"), is(nullValue()));
+		assertThat(Validators.parseDate(null), is(nullValue()));
+	}
+
+	@Test
+	public void shouldMatchETagsUsingWeakComparison() {
+		assertThat(Validators.matchesETag("\"a\", \"b\"", "\"b\""), is(true));
+		assertThat(Validators.matchesETag("W/\"b\"", "\"b\""), is(true));
+		assertThat(Validators.matchesETag("\"b\"", "W/\"b\""), is(true));
+		assertThat(Validators.matchesETag(" * ", "\"b\""), is(true));
+		assertThat(Validators.matchesETag("\"a\"", "\"b\""), is(false));
+	}
+
+	@Test
+	public void shouldBeNotModifiedWhenETagMatches() {
+		req.withHeader(Header.IfNoneMatch, "\"a\"");
+		assertThat(Validators.isNotModified(req, "\"a\"", null), is(true));
+		assertThat(Validators.isNotModified(req, "\"b\"", null), is(false));
+		assertThat(Validators.isNotModified(req, null, 300000L), is(false));
+	}
+
+	@Test
+	public void shouldBeNotModifiedWhenNotModifiedSince() {
+		req.withHeader(Header.IfModifiedSince, "Thu, 01 Jan 1970 00:05:00 GMT");
+		assertThat(Validators.isNotModified(req, null, 300999L), is(true));
+		assertThat(Validators.isNotModified(req, null, 301000L), is(false));
+		assertThat(Validators.isNotModified(req, null, null), is(false));
+	}
+
+	@Test
+	public void shouldPreferIfNoneMatchOverIfModifiedSince() {
+		req.withHeader(Header.IfNoneMatch, "\"a\"");
+		req.withHeader(Header.IfModifiedSince, "Thu, 01 Jan 1970 00:05:00 GMT");
+		assertThat(Validators.isNotModified(req, "\"b\"", 300000L), is(false));
+	}
+
+	@Test
+	public void shouldBeModifiedWithoutConditions() {
+		assertThat(Validators.isNotModified(req, "\"a\"", 300000L), is(false));
+	}
+}
@@ -46,6 +46,7 @@ import com.atomicleopard.expressive.Expressive;
 import com.threewks.thundr.aop.AdviceRegistry;
 import com.threewks.thundr.aop.BaseAdvice;
 import com.threewks.thundr.configuration.Environment;
+import com.threewks.thundr.test.TestSupport;
 
 public class InjectionContextImplTest {
 	@Rule
@@ -336,6 +337,22 @@ public class InjectionContextImplTest {
 		assertThat(context.contains(Date.class), is(true));
 	}
 
+	@Test
+	public void shouldOnlyConsiderNamedEntriesForContainsNamed() {
+		context.inject("unnamed").as(String.class);
+		context.inject(Date.class).as(Date.class);
+		assertThat(context.contains(String.class, "value"), is(true));
+		assertThat(context.containsNamed(String.class, "value"), is(false));
+		assertThat(context.containsNamed(Date.class, "date"), is(false));
+		assertThat(context.containsNamed(String.class, null), is(false));
+
+		context.inject("named").named("value").as(String.class);
+		context.inject(Date.class).named("date").as(Date.class);
+		assertThat(context.containsNamed(String.class, "value"), is(true));
+		assertThat(context.containsNamed(Date.class, "date"), is(true));
+		assertThat(context.get(String.class, "value"), is("named"));
+	}
+
 	@Test
 	public void shouldReturnTrueWhenContainsAValidInstanceEntry() {
 		assertThat(context.contains(Date.class), is(false));
@@ -489,6 +506,17 @@ public class InjectionContextImplTest {
 		context.get(TestClass2.class);
 	}
 
+	@Test
+	public void shouldNotWrapErrorsThrownWhenSettingFieldOnType() {
+		thrown.expect(StackOverflowError.class);
+		thrown.expectMessage("expected");
+
+		context.inject("value").named("value").as(String.class);
+		context.inject(ErroringSetter.class).as(ErroringSetter.class);
+
+		context.get(ErroringSetter.class);
+	}
+
 	@Test
 	public void shouldThrowInjectionExceptionWhenSettingFieldOnTypeFails() {
 		thrown.expect(InjectionException.class);
@@ -528,6 +556,96 @@ public class InjectionContextImplTest {
 		assertThat(context.contains(String.class, "key"), is(true));
 	}
 
+	@Test
+	public void shouldReturnSameInstanceForRepeatedLookups() {
+		context.inject(TestClass.class).as(TestClass.class);
+		TestClass first = context.get(TestClass.class);
+		assertThat(first, is(notNullValue()));
+		assertThat(context.get(TestClass.class), is(sameInstance(first)));
+		assertThat(context.get(TestClass.class), is(sameInstance(first)));
+	}
+
+	@Test
+	public void shouldReturnNewlyInjectedInstanceAfterPreviousLookup() {
+		context.inject("first").as(String.class);
+		assertThat(context.get(String.class), is("first"));
+
+		context.inject("second").as(String.class);
+		assertThat(context.get(String.class), is("second"));
+	}
+
+	@Test
+	public void shouldReturnNewlyInjectedNamedInstanceAfterPreviousLookupFellBackToUnnamedInstance() {
+		context.inject("unnamed").as(String.class);
+		assertThat(context.get(String.class, "key"), is("unnamed"));
+
+		context.inject("named").named("key").as(String.class);
+		assertThat(context.get(String.class, "key"), is("named"));
+		assertThat(context.get(String.class), is("unnamed"));
+	}
+
+	@Test
+	public void shouldFailForAmbiguousLookupWhenAdditionalNamedInstanceInjectedAfterPreviousLookup() {
+		Date date = new Date();
+		context.inject(date).named("first").as(Date.class);
+		assertThat(context.get(Date.class), is(sameInstance(date)));
+
+		context.inject(new Date()).named("second").as(Date.class);
+
+		thrown.expect(InjectionException.class);
+		thrown.expectMessage("the result is ambiguous");
+		context.get(Date.class);
+	}
+
+	@Test
+	public void shouldResolveTheSameInstancesOnceFrozen() {
+		Date date = new Date();
+		context.inject("unnamed").as(String.class);
+		context.inject("defaultvalue").named("key").as(String.class);
+		context.inject("value").named("key%dev").as(String.class);
+		context.inject("prodvalue").named("key%prod").as(String.class);
+		context.inject(date).named("only").as(Date.class);
+		context.freeze();
+
+		assertThat(TestSupport.<LookupSnapshot> getField(context, "lookups").get(String.class, "key", Environment.DEV), is((Object) "value"));
+		assertThat(context.get(String.class), is("unnamed"));
+		assertThat(context.get(String.class, "key"), is("value"));
+		assertThat(context.get(String.class, "key%dev"), is("value"));
+		assertThat(context.get(String.class, "missing"), is("unnamed"));
+		assertThat(context.get(Date.class), is(sameInstance(date)));
+		assertThat(context.get(Date.class, "only"), is(sameInstance(date)));
+		Environment.set("prod");
+		assertThat(context.get(String.class, "key"), is("prodvalue"));
+	}
+
+	@Test
+	public void shouldResolveInstancesInjectedOrCreatedOnceFrozen() {
+		context.inject("first").as(String.class);
+		context.inject(TestClass.class).as(TestClass.class);
+		context.freeze();
+
+		TestClass created = context.get(TestClass.class);
+		assertThat(created, is(notNullValue()));
+		assertThat(context.get(TestClass.class), is(sameInstance(created)));
+		assertThat(TestSupport.<LookupSnapshot> getField(context, "lookups").get(TestClass.class, null, Environment.DEV), is((Object) created));
+
+		context.inject("second").as(String.class);
+		assertThat(context.get(String.class), is("second"));
+		context.inject("named").named("key").as(String.class);
+		assertThat(context.get(String.class, "key"), is("named"));
+	}
+
+	@Test
+	public void shouldFailForAmbiguousLookupOnceFrozen() {
+		context.inject(new Date()).named("first").as(Date.class);
+		context.freeze();
+		context.inject(new Date()).named("second").as(Date.class);
+
+		thrown.expect(InjectionException.class);
+		thrown.expectMessage("the result is ambiguous");
+		context.get(Date.class);
+	}
+
 	@Test
 	public void shouldReturnProxiedInstanceWhenPointcutPresent() {
 		context.adviceRegistry.add(Pointcut.class, new PointcutAdvice());
@@ -565,4 +683,10 @@ public class InjectionContextImplTest {
 			return 1;
 		}
 	}
+
+	public static class ErroringSetter {
+		public void setValue(String value) {
+			throw new StackOverflowError("expected");
+		}
+	}
 }
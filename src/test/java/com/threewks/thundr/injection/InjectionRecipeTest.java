@@ -0,0 +1,110 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.injection;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+import com.threewks.thundr.injection.InjectionRecipe.ConstructorRecipe;
+import com.threewks.thundr.injection.InjectionRecipe.PropertyRecipe;
+import com.threewks.thundr.introspection.ClassIntrospector;
+import com.threewks.thundr.introspection.ParameterDescription;
+
+public class InjectionRecipeTest {
+	private ClassIntrospector classIntrospector = new ClassIntrospector();
+
+	@Test
+	public void shouldListConstructorsWithMostParametersFirst() {
+		InjectionRecipe<TestClass> recipe = new InjectionRecipe<>(TestClass.class, classIntrospector);
+		assertThat(recipe.getType() == TestClass.class, is(true));
+
+		List<ConstructorRecipe<TestClass>> constructors = recipe.getConstructors();
+		assertThat(constructors.size(), is(3));
+		assertThat(names(constructors.get(0).getParameters()), contains("arg1", "arg2"));
+		assertThat(names(constructors.get(1).getParameters()), contains("arg1"));
+		assertThat(constructors.get(2).getParameters().isEmpty(), is(true));
+		assertThat(constructors.get(2).getConstructor().getParameterTypes().length, is(0));
+	}
+
+	@Test
+	public void shouldReturnParametersOfSmallestConstructorAsMinimalParameters() {
+		InjectionRecipe<TestClass2> recipe = new InjectionRecipe<>(TestClass2.class, classIntrospector);
+		List<ConstructorRecipe<TestClass2>> constructors = recipe.getConstructors();
+		assertThat(recipe.getMinimalParameters(), is(constructors.get(constructors.size() - 1).getParameters()));
+	}
+
+	@Test
+	public void shouldListSettersAndInjectionFields() throws Throwable {
+		InjectionRecipe<TestClass> recipe = new InjectionRecipe<>(TestClass.class, classIntrospector);
+
+		assertThat(recipe.getSetters().size(), is(1));
+		PropertyRecipe setter = recipe.getSetters().get(0);
+		assertThat(setter.getName(), is("settableArg"));
+		assertThat(setter.getMember(), is("setSettableArg"));
+		assertThat(setter.getType() == String.class, is(true));
+
+		assertThat(recipe.getFields().size(), is(1));
+		PropertyRecipe field = recipe.getFields().get(0);
+		assertThat(field.getName(), is("injectedArg"));
+		assertThat(field.getMember(), is("injectedArg"));
+		assertThat(field.getType() == String.class, is(true));
+
+		TestClass instance = new TestClass();
+		setter.set(instance, "set");
+		field.set(instance, "injected");
+		assertThat(instance.getSettableArg(), is("set"));
+		assertThat(instance.getInjectedArg(), is("injected"));
+	}
+
+	@Test
+	public void shouldSetPrimitiveSettersAndFinalFields() throws Throwable {
+		InjectionRecipe<PropertyClass> recipe = new InjectionRecipe<>(PropertyClass.class, classIntrospector);
+		PropertyClass instance = new PropertyClass();
+
+		recipe.getSetters().get(0).set(instance, 8080);
+		recipe.getFields().get(0).set(instance, "value");
+
+		assertThat(instance.port, is(8080));
+		assertThat(instance.value, is("value"));
+	}
+
+	private List<String> names(List<ParameterDescription> parameters) {
+		List<String> names = new ArrayList<>();
+		for (ParameterDescription parameter : parameters) {
+			names.add(parameter.name());
+		}
+		return names;
+	}
+
+	public static class PropertyClass {
+		@Inject
+		private final String value = null;
+		private int port;
+
+		public void setPort(int port) {
+			this.port = port;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.injection;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class LookupSnapshotTest {
+	private LookupSnapshot snapshot = new LookupSnapshot("dev");
+
+	@Test
+	public void shouldReturnNullWhenEmpty() {
+		assertThat(snapshot.get(String.class, null, "dev"), is(nullValue()));
+		assertThat(snapshot.get(String.class, "name", "dev"), is(nullValue()));
+		assertThat(snapshot.size(), is(0));
+	}
+
+	@Test
+	public void shouldReturnAddedUnnamedAndNamedInstances() {
+		LookupSnapshot built = new LookupSnapshot.Builder("dev").add(String.class, null, "unnamed").add(String.class, "name", "named").add(Integer.class, "name", 1).build();
+		assertThat(built.get(String.class, null, "dev"), is((Object) "unnamed"));
+		assertThat(built.get(String.class, "name", "dev"), is((Object) "named"));
+		assertThat(built.get(Integer.class, "name", "dev"), is((Object) 1));
+		assertThat(built.get(Integer.class, null, "dev"), is(nullValue()));
+		assertThat(built.get(String.class, "other", "dev"), is(nullValue()));
+		assertThat(built.size(), is(3));
+	}
+
+	@Test
+	public void shouldReturnNullForADifferentEnvironment() {
+		LookupSnapshot built = new LookupSnapshot.Builder("dev").add(String.class, null, "unnamed").build();
+		assertThat(built.isFor("dev"), is(true));
+		assertThat(built.isFor("prod"), is(false));
+		assertThat(built.isFor(null), is(false));
+		assertThat(built.get(String.class, null, "prod"), is(nullValue()));
+		assertThat(new LookupSnapshot(null).isFor(null), is(true));
+	}
+}
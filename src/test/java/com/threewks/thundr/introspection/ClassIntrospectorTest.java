@@ -68,6 +68,14 @@ public class ClassIntrospectorTest {
 		assertThat(types, is(Arrays.asList(TestCA.class, TestC.class, Object.class, TestBA.class, TestB.class, TestAA.class, TestA.class)));
 	}
 
+	@Test
+	public void shouldReturnANewListOfImplementedTypesEachTime() {
+		List<Class<?>> types = new ClassIntrospector().listImplementedTypes(TestCA.class);
+		types.remove(Object.class);
+
+		assertThat(new ClassIntrospector().listImplementedTypes(TestCA.class), hasItem(Object.class));
+	}
+
 	static interface TestA {
 
 	}
@@ -20,6 +20,7 @@ package com.threewks.thundr.introspection;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -94,6 +95,48 @@ public class TypeIntrospectorTest {
 		assertThat(TypeIntrospector.isAJavabean(TestCA.class), is(true));
 	}
 
+	@Test
+	public void shouldDetermineIsAJavabeanWithoutCreatingAnInstance() {
+		CountingCtor.count = 0;
+		assertThat(TypeIntrospector.isAJavabean(CountingCtor.class), is(true));
+		assertThat(TypeIntrospector.isAJavabean(CountingCtor.class), is(true));
+		assertThat(CountingCtor.count, is(0));
+
+		assertThat(TypeIntrospector.isAJavabean(AbstractBean.class), is(false));
+		assertThat(TypeIntrospector.isAJavabean(List.class), is(false));
+	}
+
+	@Test
+	public void shouldReturnNoArgConstructorIfAccessible() throws Throwable {
+		CountingCtor.count = 0;
+		MethodHandle ctor = TypeIntrospector.getNoArgConstructor(CountingCtor.class);
+		assertThat(ctor, is(notNullValue()));
+		assertThat(ctor.invoke(), instanceOf(CountingCtor.class));
+		assertThat(CountingCtor.count, is(1));
+
+		assertThat(TypeIntrospector.getNoArgConstructor(null), is(nullValue()));
+		assertThat(TypeIntrospector.getNoArgConstructor(PrivateCtor.class), is(nullValue()));
+		assertThat(TypeIntrospector.getNoArgConstructor(NoDefaultCtor.class), is(nullValue()));
+		assertThat(TypeIntrospector.getNoArgConstructor(AbstractBean.class), is(nullValue()));
+		assertThat(TypeIntrospector.getNoArgConstructor(int.class), is(nullValue()));
+	}
+
+	@Test
+	public void shouldReturnTrueIfEnum() {
+		assertThat(TypeIntrospector.isAnEnum(HttpMethod.class), is(true));
+		assertThat(TypeIntrospector.isAnEnum(String.class), is(false));
+		assertThat(TypeIntrospector.isAnEnum(null), is(false));
+	}
+
+	@Test
+	public void shouldReturnTrueIfCanBoxOrUnbox() {
+		assertThat(TypeIntrospector.canBoxOrUnbox(int.class, Integer.class), is(true));
+		assertThat(TypeIntrospector.canBoxOrUnbox(Integer.class, int.class), is(true));
+		assertThat(TypeIntrospector.canBoxOrUnbox(int.class, Long.class), is(false));
+		assertThat(TypeIntrospector.canBoxOrUnbox(String.class, String.class), is(false));
+		assertThat(TypeIntrospector.canBoxOrUnbox(int.class, null), is(false));
+	}
+
 	@Test
 	public void shouldReturnTrueIfBoxedType() {
 		assertThat(TypeIntrospector.isABoxedType(Long.class), is(true));
@@ -182,6 +225,19 @@ public class TypeIntrospectorTest {
 
 	}
 
+	public static class CountingCtor {
+		public static int count = 0;
+
+		public CountingCtor() {
+			count++;
+		}
+	}
+
+	public static abstract class AbstractBean {
+		public AbstractBean() {
+		}
+	}
+
 	private Type getType(String methodName) {
 		try {
 			return this.getClass().getDeclaredMethod(methodName).getGenericReturnType();
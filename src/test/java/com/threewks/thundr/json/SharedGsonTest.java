@@ -0,0 +1,99 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.json;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+public class SharedGsonTest {
+	private GsonBuilder gsonBuilder = new GsonBuilder();
+
+	@Test
+	public void shouldShareInstanceForTheSameBuilder() {
+		assertThat(SharedGson.forBuilder(gsonBuilder), is(sameInstance(SharedGson.forBuilder(gsonBuilder))));
+		assertThat(SharedGson.forBuilder(gsonBuilder), is(not(sameInstance(SharedGson.forBuilder(new GsonBuilder())))));
+	}
+
+	@Test
+	public void shouldCreateGsonOnceUntilInvalidated() {
+		SharedGson sharedGson = SharedGson.forBuilder(gsonBuilder);
+		Gson gson = sharedGson.get();
+		assertThat(gson, is(notNullValue()));
+		assertThat(sharedGson.get(), is(sameInstance(gson)));
+
+		sharedGson.invalidate();
+		assertThat(sharedGson.get(), is(not(sameInstance(gson))));
+	}
+
+	@Test
+	public void shouldCreateGsonReflectingChangesToTheBuilderAfterInvalidation() {
+		SharedGson sharedGson = SharedGson.forBuilder(gsonBuilder);
+		assertThat(sharedGson.get().toJson(new Holder()), is("{}"));
+
+		gsonBuilder.serializeNulls();
+		sharedGson.invalidate();
+		assertThat(sharedGson.get().toJson(new Holder()), is("{\"value\":null}"));
+	}
+
+	@Test
+	public void shouldCreateGsonForEachUseWhileModifying() {
+		SharedGson sharedGson = SharedGson.forBuilder(gsonBuilder);
+		Gson gson = sharedGson.get();
+
+		GsonBuilder builder = sharedGson.modify();
+		assertThat(builder, is(sameInstance(gsonBuilder)));
+		Gson modifying = sharedGson.get();
+		assertThat(modifying, is(not(sameInstance(gson))));
+		assertThat(sharedGson.get(), is(not(sameInstance(modifying))));
+
+		builder.serializeNulls();
+		assertThat(sharedGson.get().toJson(new Holder()), is("{\"value\":null}"));
+
+		sharedGson.invalidate();
+		Gson shared = sharedGson.get();
+		assertThat(sharedGson.get(), is(sameInstance(shared)));
+	}
+
+	@Test
+	public void shouldKeepSharingGsonWhenBuilderIsObtainedOnceInvalidated() {
+		SharedGson sharedGson = SharedGson.forBuilder(gsonBuilder);
+		sharedGson.modify();
+		sharedGson.invalidate();
+		Gson gson = sharedGson.get();
+
+		GsonBuilder builder = sharedGson.modify();
+		Gson shared = sharedGson.get();
+		assertThat(shared, is(not(sameInstance(gson))));
+		assertThat(sharedGson.get(), is(sameInstance(shared)));
+
+		builder.serializeNulls();
+		sharedGson.invalidate();
+		assertThat(sharedGson.get().toJson(new Holder()), is("{\"value\":null}"));
+		assertThat(sharedGson.get(), is(sameInstance(sharedGson.get())));
+	}
+
+	private static class Holder {
+		@SuppressWarnings("unused")
+		private String value;
+	}
+}
@@ -21,12 +21,19 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.threewks.thundr.injection.BaseModule;
 import com.threewks.thundr.injection.InjectionContext;
 import com.threewks.thundr.injection.InjectionContextImpl;
 import com.threewks.thundr.injection.Module;
@@ -135,6 +142,148 @@ public class ModulesTest {
 		assertThat(injectionContext.get(String.class, "TestModule3"), is("Invoked"));
 	}
 
+	@Test
+	public void shouldRunModulesOneAtATimeByDefault() {
+		assertThat(modules.getExecutor(), is(nullValue()));
+		modules.addModule(TestModule5.class);
+		modules.runStartupLifecycle(injectionContext);
+		assertThat(injectionContext.get(String.class, "TestModule1"), is("Invoked"));
+		assertThat(injectionContext.get(String.class, "TestModule2"), is("Invoked"));
+		assertThat(injectionContext.get(String.class, "TestModule3"), is("Invoked"));
+	}
+
+	@Test
+	public void shouldRunIndependentModulesConcurrentlyWhenExecutorSet() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			modules.setExecutor(executor);
+			assertThat(modules.getExecutor(), is((Executor) executor));
+			ConcurrentModule.barrier = new CyclicBarrier(2);
+			modules.addModule(ConcurrentModule1.class);
+			modules.addModule(ConcurrentModule2.class);
+			modules.addModule(TestModule5.class);
+			modules.runStartupLifecycle(injectionContext);
+
+			assertThat(modules.getModule(ConcurrentModule1.class).initialised, is(true));
+			assertThat(modules.getModule(ConcurrentModule2.class).initialised, is(true));
+			assertThat(injectionContext.get(String.class, "TestModule1"), is("Invoked"));
+			assertThat(injectionContext.get(String.class, "TestModule2"), is("Invoked"));
+			assertThat(injectionContext.get(String.class, "TestModule3"), is("Invoked"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldRunIndependentModulesConcurrentlyWhenExecutorInjected() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			injectionContext.inject(executor).named(Modules.ExecutorName).as(Executor.class);
+			ConcurrentModule.barrier = new CyclicBarrier(2);
+			modules.addModule(ConcurrentModule1.class);
+			modules.addModule(ConcurrentModule2.class);
+			modules.runStartupLifecycle(injectionContext);
+
+			assertThat(modules.getExecutor(), is(nullValue()));
+			assertThat(modules.getModule(ConcurrentModule1.class).initialised, is(true));
+			assertThat(modules.getModule(ConcurrentModule2.class).initialised, is(true));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldRunIndependentModulesConcurrentlyWhenThreadsConfigured() {
+		injectionContext.inject("2").named(Modules.ThreadsProperty).as(String.class);
+		ConcurrentModule.barrier = new CyclicBarrier(2);
+		modules.addModule(ConcurrentModule1.class);
+		modules.addModule(ConcurrentModule2.class);
+		modules.runStartupLifecycle(injectionContext);
+
+		assertThat(modules.getModule(ConcurrentModule1.class).initialised, is(true));
+		assertThat(modules.getModule(ConcurrentModule2.class).initialised, is(true));
+	}
+
+	@Test
+	public void shouldFailWhenConfiguredThreadsIsNotANumber() {
+		injectionContext.inject("many").named(Modules.ThreadsProperty).as(String.class);
+		modules.addModule(TestModule1.class);
+
+		thrown.expect(ModuleLoadingException.class);
+		thrown.expectMessage("The configuration property moduleStartupThreads must be a number of threads, but was 'many'");
+		modules.runStartupLifecycle(injectionContext);
+	}
+
+	@Test
+	public void shouldNotUseExecutorOrThreadsInjectedWithoutAName() {
+		final AtomicInteger executed = new AtomicInteger();
+		injectionContext.inject(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				executed.incrementAndGet();
+				command.run();
+			}
+		}).as(Executor.class);
+		injectionContext.inject("many").as(String.class);
+		modules.addModule(TestModule5.class);
+		modules.runStartupLifecycle(injectionContext);
+
+		assertThat(executed.get(), is(0));
+		assertThat(injectionContext.get(String.class, "TestModule1"), is("Invoked"));
+		assertThat(injectionContext.get(String.class, "TestModule2"), is("Invoked"));
+		assertThat(injectionContext.get(String.class, "TestModule3"), is("Invoked"));
+	}
+
+	@Test
+	public void shouldPermitAddingOfModulesWhileModulesLoadingConcurrently() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			modules.setExecutor(executor);
+			modules.addModule(TestModule6.class);
+			modules.addModule(TestModule4Independent.class);
+			modules.runStartupLifecycle(injectionContext);
+			assertThat(injectionContext.get(String.class, "TestModule1"), is("Invoked"));
+			assertThat(injectionContext.get(String.class, "TestModule2"), is("Invoked"));
+			assertThat(injectionContext.get(String.class, "TestModule3"), is("Invoked"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldPropagateFailureOfModuleRunConcurrently() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			modules.setExecutor(executor);
+			modules.addModule(FailingModule.class);
+			modules.addModule(TestModule1.class);
+
+			thrown.expect(IllegalStateException.class);
+			thrown.expectMessage("Failed to configure");
+			modules.runStartupLifecycle(injectionContext);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldRecordTimingsForEachModule() {
+		modules.addModule(TestModule2.class);
+		modules.runStartupLifecycle(injectionContext);
+		modules.runStopLifecycle(injectionContext);
+
+		List<ModuleTiming> timings = modules.getTimings();
+		assertThat(timings.size(), is(2));
+		assertThat(timings.get(0).getModule() == TestModule2.class, is(true));
+		assertThat(timings.get(1).getModule() == TestModule3.class, is(true));
+		assertThat(timings.get(0).getTotalDuration(TimeUnit.NANOSECONDS) > 0, is(true));
+		for (ModulePhase phase : ModulePhase.values()) {
+			assertThat(timings.get(0).getDuration(phase, TimeUnit.NANOSECONDS) >= 0, is(true));
+		}
+		assertThat(timings.get(0).toString(), startsWith("TestModule2: "));
+		assertThat(timings.get(0).toString(), containsString("configure"));
+	}
+
 	public static class TestModule1 implements Module {
 		@Override
 		public void requires(DependencyRegistry dependencyRegistry) {
@@ -254,6 +403,38 @@ public class ModulesTest {
 		}
 	}
 
+	public static class TestModule4Independent extends BaseModule {
+	}
+
+	public static class FailingModule extends BaseModule {
+		@Override
+		public void configure(UpdatableInjectionContext injectionContext) {
+			throw new IllegalStateException("Failed to configure");
+		}
+	}
+
+	public static class ConcurrentModule extends BaseModule {
+		private static CyclicBarrier barrier;
+		public boolean initialised = false;
+
+		@Override
+		public void initialise(UpdatableInjectionContext injectionContext) {
+			try {
+				// both modules must be initialising at the same time to pass the barrier
+				barrier.await(5, TimeUnit.SECONDS);
+				initialised = true;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	public static class ConcurrentModule1 extends ConcurrentModule {
+	}
+
+	public static class ConcurrentModule2 extends ConcurrentModule {
+	}
+
 	public static class TestModule6 implements Module {
 		@Override
 		public void requires(DependencyRegistry dependencyRegistry) {
@@ -0,0 +1,158 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.profiler;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.threewks.thundr.profiler.StartupProfiler.Span;
+
+public class StartupProfilerTest {
+	private StartupProfiler profiler = new StartupProfiler();
+
+	@After
+	public void after() {
+		profiler.deactivate();
+	}
+
+	@Test
+	public void shouldRecordNothingWhenNotActive() {
+		assertThat(profiler.isActive(), is(false));
+		profiler.begin(StartupProfiler.Module, "Module").end();
+
+		assertThat(profiler.getEvents(), is(empty()));
+	}
+
+	@Test
+	public void shouldRecordSpansWhileActive() {
+		profiler.activate();
+		assertThat(profiler.isActive(), is(true));
+
+		Span outer = profiler.begin(StartupProfiler.Module, "Module start");
+		Span inner = profiler.begin(StartupProfiler.Injection, "java.lang.String");
+		inner.end();
+		outer.end();
+		profiler.deactivate();
+		profiler.begin(StartupProfiler.Route, "GET /ignored").end();
+
+		List<ProfileEvent> events = profiler.getEvents();
+		assertThat(events.size(), is(2));
+		ProfileEvent injection = events.get(0);
+		ProfileEvent module = events.get(1);
+		assertThat(injection.getCategory(), is(StartupProfiler.Injection));
+		assertThat(injection.getName(), is("java.lang.String"));
+		assertThat(injection.getThread(), is(Thread.currentThread().getName()));
+		assertThat(injection.getThreadId(), is(Thread.currentThread().getId()));
+		assertThat(module.getName(), is("Module start"));
+		assertThat(module.getStart(TimeUnit.NANOSECONDS) <= injection.getStart(TimeUnit.NANOSECONDS), is(true));
+		assertThat(module.getDuration(TimeUnit.NANOSECONDS) >= injection.getDuration(TimeUnit.NANOSECONDS), is(true));
+		assertThat(profiler.getEvents(StartupProfiler.Module), contains(module));
+	}
+
+	@Test
+	public void shouldMeasureAllocationWhereSupported() {
+		profiler.activate();
+		Span span = profiler.begin(StartupProfiler.Injection, "byte[]");
+		byte[] allocated = new byte[1024 * 1024];
+		span.end();
+
+		long allocatedBytes = profiler.getEvents().get(0).getAllocatedBytes();
+		if (profiler.isAllocationSupported()) {
+			assertThat(allocatedBytes >= allocated.length, is(true));
+		} else {
+			assertThat(allocatedBytes, is(-1L));
+		}
+	}
+
+	@Test
+	public void shouldClearEventsWhenReactivated() {
+		profiler.activate();
+		profiler.begin(StartupProfiler.View, "java.lang.String").end();
+		profiler.activate();
+
+		assertThat(profiler.getEvents(), is(empty()));
+	}
+
+	@Test
+	public void shouldRecordOnlyAgainstTheGivenProfiler() {
+		StartupProfiler other = new StartupProfiler();
+		other.activate();
+		profiler.activate();
+		StartupProfiler.begin(profiler, StartupProfiler.Module, "Module").end();
+		other.deactivate();
+
+		assertThat(other.isActive(), is(false));
+		assertThat(profiler.isActive(), is(true));
+		assertThat(profiler.getEvents().size(), is(1));
+		assertThat(other.getEvents(), is(empty()));
+	}
+
+	@Test
+	public void shouldRecordNothingWhenNoProfilerGiven() {
+		profiler.activate();
+		StartupProfiler.begin(null, StartupProfiler.Module, "Module").end();
+
+		assertThat(profiler.getEvents(), is(empty()));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldExportAsJson() {
+		profiler.activate();
+		profiler.begin(StartupProfiler.Route, "GET /path").end();
+
+		Map<String, Object> json = new Gson().fromJson(profiler.toJson(), Map.class);
+		assertThat(json.get("allocationSupported"), is((Object) profiler.isAllocationSupported()));
+		List<Map<String, Object>> events = (List<Map<String, Object>>) json.get("events");
+		assertThat(events.size(), is(1));
+		assertThat(events.get(0).get("category"), is((Object) "route"));
+		assertThat(events.get(0).get("name"), is((Object) "GET /path"));
+		assertThat(events.get(0), hasKey("startMicros"));
+		assertThat(events.get(0), hasKey("durationMicros"));
+		assertThat(events.get(0), hasKey("allocatedBytes"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldExportAsChromeTrace() {
+		profiler.activate();
+		profiler.begin(StartupProfiler.Module, "Module configure").end();
+
+		Map<String, Object> json = new Gson().fromJson(profiler.toChromeTrace(), Map.class);
+		assertThat(json.get("displayTimeUnit"), is((Object) "ms"));
+		List<Map<String, Object>> events = (List<Map<String, Object>>) json.get("traceEvents");
+		assertThat(events.size(), is(1));
+		Map<String, Object> event = events.get(0);
+		assertThat(event.get("name"), is((Object) "Module configure"));
+		assertThat(event.get("cat"), is((Object) "module"));
+		assertThat(event.get("ph"), is((Object) "X"));
+		assertThat(event.get("pid"), is((Object) 1.0));
+		assertThat(event.get("tid"), is((Object) (double) Thread.currentThread().getId()));
+		assertThat(event, hasKey("ts"));
+		assertThat(event, hasKey("dur"));
+		assertThat(event, hasKey("args"));
+	}
+}
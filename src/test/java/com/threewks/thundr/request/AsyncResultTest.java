@@ -0,0 +1,181 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class AsyncResultTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ExecutorService executor = Executors.newSingleThreadExecutor();
+	private List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldRunCallbacksOnCompletingThread() {
+		AsyncResult<String> result = new AsyncResult<String>();
+		result.onComplete(new RecordingCallback());
+		assertThat(result.isDone(), is(false));
+		assertThat(events.isEmpty(), is(true));
+
+		assertThat(result.complete("value"), is(true));
+		assertThat(result.isDone(), is(true));
+		assertThat(events, contains("completed value on " + Thread.currentThread().getName()));
+	}
+
+	@Test
+	public void shouldRunCallbackImmediatelyWhenAlreadyComplete() {
+		AsyncResult<String> result = AsyncResult.completed("value");
+		result.onComplete(new RecordingCallback());
+		assertThat(events, contains("completed value on " + Thread.currentThread().getName()));
+	}
+
+	@Test
+	public void shouldOnlyCompleteOnce() throws Exception {
+		AsyncResult<String> result = new AsyncResult<String>();
+		result.onComplete(new RecordingCallback());
+		assertThat(result.complete("first"), is(true));
+		assertThat(result.complete("second"), is(false));
+		assertThat(result.fail(new RuntimeException("expected")), is(false));
+
+		assertThat(result.get(), is("first"));
+		assertThat(events.size(), is(1));
+	}
+
+	@Test
+	public void shouldRunCallbacksOnFailure() {
+		AsyncResult<String> result = new AsyncResult<String>();
+		result.onComplete(new RecordingCallback());
+		result.fail(new IOException("expected"));
+		assertThat(events, contains("failed expected"));
+	}
+
+	@Test
+	public void shouldThrowFailureFromGetWrappedInExecutionException() throws Exception {
+		try {
+			AsyncResult.<String> failed(new IOException("expected")).get();
+			fail("Expected an ExecutionException");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(IOException.class));
+		}
+	}
+
+	@Test
+	public void shouldCompleteWithResultOfSubmittedCallable() throws Exception {
+		AsyncResult<String> result = AsyncResult.submit(executor, new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return "value";
+			}
+		});
+		assertThat(result.get(1, TimeUnit.SECONDS), is("value"));
+	}
+
+	@Test
+	public void shouldFailWithExceptionOfSubmittedCallable() throws Exception {
+		AsyncResult<String> result = AsyncResult.submit(executor, new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				throw new IOException("expected");
+			}
+		});
+		try {
+			result.get(1, TimeUnit.SECONDS);
+			fail("Expected an ExecutionException");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(IOException.class));
+		}
+	}
+
+	@Test
+	public void shouldTimeOutWaitingForResult() throws Exception {
+		thrown.expect(TimeoutException.class);
+		new AsyncResult<String>().get(1, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void shouldCancel() throws Exception {
+		AsyncResult<String> result = new AsyncResult<String>();
+		assertThat(result.cancel(true), is(true));
+		assertThat(result.isCancelled(), is(true));
+		assertThat(result.isDone(), is(true));
+
+		thrown.expect(CancellationException.class);
+		result.get();
+	}
+
+	@Test
+	public void shouldRunRemainingCallbacksWhenCallbackThrows() {
+		AsyncResult<String> result = new AsyncResult<String>();
+		result.onComplete(new AsyncResult.Callback<String>() {
+			@Override
+			public void completed(String result) {
+				throw new RuntimeException("expected");
+			}
+
+			@Override
+			public void failed(Throwable failure) {
+			}
+		});
+		result.onComplete(new RecordingCallback());
+		result.complete("value");
+		assertThat(events.size(), is(1));
+	}
+
+	@Test
+	public void shouldNotAllowFailureWithoutException() {
+		thrown.expect(IllegalArgumentException.class);
+		new AsyncResult<String>().fail(null);
+	}
+
+	private class RecordingCallback implements AsyncResult.Callback<String> {
+		@Override
+		public void completed(String result) {
+			events.add("completed " + result + " on " + Thread.currentThread().getName());
+		}
+
+		@Override
+		public void failed(Throwable failure) {
+			events.add("failed " + failure.getMessage());
+		}
+	}
+}
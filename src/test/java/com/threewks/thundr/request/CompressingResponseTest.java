@@ -0,0 +1,241 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import com.threewks.thundr.http.ContentType;
+import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.request.mock.MockResponse;
+import com.threewks.thundr.util.Streams;
+
+public class CompressingResponseTest {
+	private ResponseCompression compression = new ResponseCompression();
+	private MockResponse resp = new MockResponse();
+	private CompressingResponse compressingResponse = new CompressingResponse(resp, compression, "gzip");
+	private String body = createBody(2000);
+
+	@Test
+	public void shouldCompressLargeBodyWithKnownLength() throws IOException {
+		byte[] data = body.getBytes("UTF-8");
+		compressingResponse.withContentType(ContentType.ApplicationJson).withContentLength(data.length).finaliseHeaders();
+		assertThat(compressingResponse.isCompressing(), is(true));
+
+		compressingResponse.getOutputStream().write(data);
+		compressingResponse.finish();
+
+		assertThat(resp.getHeader(Header.ContentEncoding), is("gzip"));
+		assertThat(resp.getHeaders(Header.Vary), is(Arrays.asList(Header.AcceptEncoding)));
+		assertThat(resp.getContentLength(), is(nullValue()));
+		assertThat(compressingResponse.getContentLength(), is(nullValue()));
+		assertThat(resp.getBodyAsBytes().length < data.length, is(true));
+		assertThat(gunzip(resp.getBodyAsBytes()), is(body));
+	}
+
+	@Test
+	public void shouldNotCompressSmallBodyWithKnownLength() throws IOException {
+		compressingResponse.withContentType(ContentType.TextHtml).withContentLength(4).finaliseHeaders();
+		assertThat(compressingResponse.isCompressing(), is(false));
+
+		compressingResponse.getOutputStream().write("<p/>".getBytes("UTF-8"));
+		compressingResponse.finish();
+
+		assertThat(resp.getHeader(Header.ContentEncoding), is(nullValue()));
+		assertThat(resp.getHeader(Header.Vary), is(nullValue()));
+		assertThat(resp.getContentLength(), is(4L));
+		assertThat(resp.getBodyAsString(), is("<p/>"));
+	}
+
+	@Test
+	public void shouldHoldBackSmallStreamedBodyAndSendItUncompressedWithLength() throws IOException {
+		compressingResponse.withContentType(ContentType.TextHtml).finaliseHeaders();
+		assertThat(compressingResponse.isCompressing(), is(nullValue()));
+
+		OutputStream outputStream = compressingResponse.getOutputStream();
+		outputStream.write("<p>".getBytes("UTF-8"));
+		outputStream.write('x');
+		outputStream.flush();
+		assertThat(resp.getBodyAsBytes().length, is(0));
+
+		compressingResponse.finish();
+		assertThat(compressingResponse.isCompressing(), is(false));
+		assertThat(resp.getHeader(Header.ContentEncoding), is(nullValue()));
+		assertThat(resp.getContentLength(), is(4L));
+		assertThat(resp.getBodyAsString(), is("<p>x"));
+	}
+
+	@Test
+	public void shouldCompressLargeStreamedBodyOnceMinimumSizeIsReached() throws IOException {
+		compressingResponse.withContentType(ContentType.TextPlain).finaliseHeaders();
+
+		OutputStream outputStream = compressingResponse.getOutputStream();
+		byte[] data = body.getBytes("UTF-8");
+		outputStream.write(data, 0, 1000);
+		assertThat(compressingResponse.isCompressing(), is(nullValue()));
+		outputStream.write(data, 1000, data.length - 1000);
+		assertThat(compressingResponse.isCompressing(), is(true));
+		outputStream.flush();
+		assertThat(resp.getBodyAsBytes().length > 0, is(true));
+
+		compressingResponse.finish();
+		assertThat(resp.getHeader(Header.ContentEncoding), is("gzip"));
+		assertThat(resp.getContentLength(), is(nullValue()));
+		assertThat(gunzip(resp.getBodyAsBytes()), is(body));
+	}
+
+	@Test
+	public void shouldWeakenStrongEtagWhenCompressing() throws IOException {
+		compressingResponse.withHeader(Header.ETag, "\"abc\"").withContentType(ContentType.TextPlain).withBody(body);
+		compressingResponse.finish();
+
+		assertThat(resp.getHeader(Header.ContentEncoding), is("gzip"));
+		assertThat(resp.getHeader(Header.ETag), is("W/\"abc\""));
+	}
+
+	@Test
+	public void shouldWeakenStrongEtagSetAfterDecidingToCompress() throws IOException {
+		compressingResponse.withContentType(ContentType.TextPlain).withContentLength(2000).finaliseHeaders();
+		compressingResponse.withHeader(Header.ETag, "\"abc\"");
+		assertThat(resp.getHeader(Header.ETag), is("W/\"abc\""));
+
+		compressingResponse.withHeader(Header.ETag, "W/\"def\"", true);
+		assertThat(resp.getHeader(Header.ETag), is("W/\"def\""));
+	}
+
+	@Test
+	public void shouldKeepStrongEtagWhenNotCompressing() throws IOException {
+		compressingResponse.withHeader(Header.ETag, "\"abc\"").withContentType(ContentType.TextPlain).withBody("small");
+		compressingResponse.finish();
+
+		assertThat(resp.getHeader(Header.ContentEncoding), is(nullValue()));
+		assertThat(resp.getHeader(Header.ETag), is("\"abc\""));
+	}
+
+	@Test
+	public void shouldCompressUsingDeflate() throws IOException {
+		compressingResponse = new CompressingResponse(resp, compression.withLevel(9), "deflate");
+		compressingResponse.withContentType(ContentType.TextCss).withBody(body);
+		compressingResponse.finish();
+
+		assertThat(resp.getHeader(Header.ContentEncoding), is("deflate"));
+		assertThat(inflate(resp.getBodyAsBytes()), is(body));
+	}
+
+	@Test
+	public void shouldNotCompressIncompressibleContent() throws IOException {
+		compressingResponse.withContentType(ContentType.ImagePng).withContentLength(5000);
+		assertThat(compressingResponse.getOutputStream(), is(sameInstance(resp.getOutputStream())));
+		assertThat(compressingResponse.isCompressing(), is(false));
+		assertThat(compressingResponse.mayCompress(ContentType.ImagePng.value()), is(false));
+		assertThat(resp.getContentLength(), is(5000L));
+	}
+
+	@Test
+	public void shouldNotCompressContentWhichIsAlreadyEncoded() throws IOException {
+		compressingResponse.withContentType(ContentType.TextHtml).withHeader(Header.ContentEncoding, "br").withContentLength(5000).finaliseHeaders();
+		assertThat(compressingResponse.isCompressing(), is(false));
+		assertThat(resp.getHeader(Header.ContentEncoding), is("br"));
+		assertThat(resp.getContentLength(), is(5000L));
+	}
+
+	@Test
+	public void shouldAddToExistingVaryHeader() throws IOException {
+		resp.withHeader(Header.Vary, "Origin");
+		compressingResponse.withContentType(ContentType.TextHtml).withBody(body);
+		compressingResponse.finish();
+
+		assertThat(resp.getHeaders(Header.Vary), is(Arrays.asList("Origin", Header.AcceptEncoding)));
+	}
+
+	@Test
+	public void shouldNotRepeatVaryHeader() throws IOException {
+		resp.withHeader(Header.Vary, "Origin, accept-encoding");
+		compressingResponse.withContentType(ContentType.TextHtml).withBody(body);
+		compressingResponse.finish();
+
+		assertThat(resp.getHeaders(Header.Vary), is(Arrays.asList("Origin, accept-encoding")));
+	}
+
+	@Test
+	public void shouldWriteCompleteCompressedStreamWhenNoBodyWritten() throws IOException {
+		compressingResponse.withContentType(ContentType.TextHtml).withContentLength(5000).finaliseHeaders();
+		compressingResponse.finish();
+
+		assertThat(gunzip(resp.getBodyAsBytes()), is(""));
+	}
+
+	@Test
+	public void shouldPassContentLengthThroughWhenFinishedWithoutBody() throws IOException {
+		compressingResponse.withContentType(ContentType.TextHtml).withContentLength(0);
+		compressingResponse.finish();
+
+		assertThat(compressingResponse.isCompressing(), is(false));
+		assertThat(resp.getContentLength(), is(0L));
+	}
+
+	@Test
+	public void shouldAllowFinishToBeCalledRepeatedly() throws IOException {
+		compressingResponse.withContentType(ContentType.TextHtml).withBody(body);
+		compressingResponse.finish();
+		compressingResponse.finish();
+
+		assertThat(gunzip(resp.getBodyAsBytes()), is(body));
+	}
+
+	@Test
+	public void shouldIndicateWhetherContentMayBeCompressed() {
+		assertThat(compressingResponse.mayCompress("application/json"), is(true));
+		assertThat(compressingResponse.mayCompress("image/gif"), is(false));
+	}
+
+	@Test
+	public void shouldDelegateToWrappedResponse() {
+		compressingResponse.withStatusCode(StatusCode.Created).withCharacterEncoding("ISO-8859-1").withHeader("X-Header", "value");
+		assertThat(resp.getStatusCode(), is(StatusCode.Created));
+		assertThat(compressingResponse.getCharacterEncoding(), is("ISO-8859-1"));
+		assertThat(compressingResponse.getHeader("X-Header"), is("value"));
+		assertThat(compressingResponse.isUncommitted(), is(true));
+	}
+
+	private static String gunzip(byte[] data) throws IOException {
+		return Streams.readString(new GZIPInputStream(new ByteArrayInputStream(data)), "UTF-8");
+	}
+
+	private static String inflate(byte[] data) throws IOException {
+		return Streams.readString(new InflaterInputStream(new ByteArrayInputStream(data)), "UTF-8");
+	}
+
+	private static String createBody(int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append("{\"value\":").append(i).append("}");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class RequestExecutorsTest {
+
+	@Test
+	public void shouldRunEachTaskOnAThreadOtherThanTheCaller() throws Exception {
+		ExecutorService executor = RequestExecutors.perRequest();
+		try {
+			Future<Thread> thread = executor.submit(new Callable<Thread>() {
+				@Override
+				public Thread call() {
+					return Thread.currentThread();
+				}
+			});
+			assertThat(thread.get(), is(notNullValue()));
+			assertThat(thread.get(), is(not(Thread.currentThread())));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void shouldProvideVirtualThreadExecutorOnlyWhenRuntimeSupportsIt() throws Exception {
+		boolean supported = true;
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			supported = false;
+		}
+
+		ExecutorService executor = RequestExecutors.virtualThreadPerTask();
+		assertThat(executor != null, is(supported));
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+}
@@ -39,4 +39,48 @@ public class RequestModuleTest {
 		RequestContainer requestContainer = injectionContext.get(RequestContainer.class);
 		assertThat(requestContainer instanceof ThreadLocalRequestContainer, is(true));
 	}
+
+	@Test
+	public void shouldProvideAScopedRequestContainerWhenConfigured() {
+		injectionContext.inject("true").named(RequestModule.ScopedRequestContainerProperty).as(String.class);
+		module.initialise(injectionContext);
+
+		assertThat(injectionContext.get(RequestContainer.class) instanceof ScopedRequestContainer, is(true));
+		assertThat(injectionContext.get(MutableRequestContainer.class) instanceof ScopedRequestContainer, is(true));
+	}
+
+	@Test
+	public void shouldProvideDefaultResponseCompressionAtInitialise() {
+		module.initialise(injectionContext);
+
+		ResponseCompression compression = injectionContext.get(ResponseCompression.class);
+		assertThat(compression.isEnabled(), is(false));
+		assertThat(compression.getLevel(), is(ResponseCompression.DefaultLevel));
+		assertThat(compression.getMinimumSize(), is(ResponseCompression.DefaultMinimumSize));
+	}
+
+	@Test
+	public void shouldConfigureResponseCompressionFromProperties() {
+		injectionContext.inject("true").named(ResponseCompression.EnabledProperty).as(String.class);
+		injectionContext.inject("9").named(ResponseCompression.LevelProperty).as(String.class);
+		injectionContext.inject(" 256 ").named(ResponseCompression.MinimumSizeProperty).as(String.class);
+		module.initialise(injectionContext);
+
+		ResponseCompression compression = injectionContext.get(ResponseCompression.class);
+		assertThat(compression.isEnabled(), is(true));
+		assertThat(compression.getLevel(), is(9));
+		assertThat(compression.getMinimumSize(), is(256));
+	}
+
+	@Test
+	public void shouldOnlyConfigureFromPropertiesInjectedByName() {
+		injectionContext.inject("true").as(String.class);
+		module.initialise(injectionContext);
+
+		assertThat(injectionContext.get(RequestContainer.class) instanceof ThreadLocalRequestContainer, is(true));
+		ResponseCompression compression = injectionContext.get(ResponseCompression.class);
+		assertThat(compression.isEnabled(), is(false));
+		assertThat(compression.getLevel(), is(ResponseCompression.DefaultLevel));
+		assertThat(compression.getMinimumSize(), is(ResponseCompression.DefaultMinimumSize));
+	}
 }
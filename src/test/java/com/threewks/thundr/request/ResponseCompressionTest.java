@@ -0,0 +1,144 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.request.mock.MockRequest;
+import com.threewks.thundr.request.mock.MockResponse;
+import com.threewks.thundr.route.HttpMethod;
+
+public class ResponseCompressionTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ResponseCompression compression = new ResponseCompression().withEnabled(true);
+	private MockRequest req = new MockRequest(HttpMethod.GET, "/path");
+	private MockResponse resp = new MockResponse();
+
+	@Test
+	public void shouldHaveDefaults() {
+		compression = new ResponseCompression();
+		assertThat(compression.isEnabled(), is(false));
+		assertThat(compression.getLevel(), is(6));
+		assertThat(compression.getMinimumSize(), is(1024));
+	}
+
+	@Test
+	public void shouldWrapResponseWhenRequestAcceptsGzipOrDeflate() {
+		req.withHeader(Header.AcceptEncoding, "gzip, deflate");
+		Response wrapped = compression.wrap(req, resp);
+		assertThat(wrapped, is(instanceOf(CompressingResponse.class)));
+		assertThat(((CompressingResponse) wrapped).getEncoding(), is("gzip"));
+		assertThat(((CompressingResponse) wrapped).getDelegate(), is((Response) resp));
+	}
+
+	@Test
+	public void shouldNotWrapResponseWhenRequestDoesNotAcceptCompression() {
+		assertThat(compression.wrap(req, resp), is((Response) resp));
+		req.withHeader(Header.AcceptEncoding, "br, identity");
+		assertThat(compression.wrap(req, resp), is((Response) resp));
+	}
+
+	@Test
+	public void shouldNotWrapResponseForHeadRequest() {
+		req.withMethod(HttpMethod.HEAD).withHeader(Header.AcceptEncoding, "gzip");
+		assertThat(compression.wrap(req, resp), is((Response) resp));
+	}
+
+	@Test
+	public void shouldNotWrapResponseWhenDisabled() {
+		req.withHeader(Header.AcceptEncoding, "gzip");
+		assertThat(compression.withEnabled(false).wrap(req, resp), is((Response) resp));
+	}
+
+	@Test
+	public void shouldSelectEncodingByQuality() {
+		assertThat(compression.selectEncoding(null), is(nullValue()));
+		assertThat(compression.selectEncoding("gzip"), is("gzip"));
+		assertThat(compression.selectEncoding("deflate"), is("deflate"));
+		assertThat(compression.selectEncoding("deflate, gzip"), is("gzip"));
+		assertThat(compression.selectEncoding("deflate, gzip;q=0.5"), is("deflate"));
+		assertThat(compression.selectEncoding("*"), is("gzip"));
+		assertThat(compression.selectEncoding("*;q=0"), is(nullValue()));
+		assertThat(compression.selectEncoding("gzip;q=0, deflate;q=0"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldOnlyConsiderTextualContentCompressible() {
+		assertThat(compression.isCompressible("text/html"), is(true));
+		assertThat(compression.isCompressible("text/html; charset=UTF-8"), is(true));
+		assertThat(compression.isCompressible("TEXT/CSS"), is(true));
+		assertThat(compression.isCompressible("text/markdown"), is(true));
+		assertThat(compression.isCompressible("application/json"), is(true));
+		assertThat(compression.isCompressible("application/javascript"), is(true));
+		assertThat(compression.isCompressible("application/vnd.api+json"), is(true));
+		assertThat(compression.isCompressible("image/svg+xml"), is(true));
+
+		assertThat(compression.isCompressible(null), is(false));
+		assertThat(compression.isCompressible("image/png"), is(false));
+		assertThat(compression.isCompressible("application/zip"), is(false));
+		assertThat(compression.isCompressible("application/octet-stream"), is(false));
+		assertThat(compression.isCompressible("text/event-stream"), is(false));
+	}
+
+	@Test
+	public void shouldCompressLargeOrUnknownLengthCompressibleContent() {
+		assertThat(compression.shouldCompress(StatusCode.OK, "text/html", null, null), is(true));
+		assertThat(compression.shouldCompress(StatusCode.OK, "text/html", 1024L, null), is(true));
+		assertThat(compression.shouldCompress(StatusCode.NotFound, "application/json", null, ""), is(true));
+		assertThat(compression.shouldCompress(null, "application/json", null, null), is(true));
+	}
+
+	@Test
+	public void shouldNotCompressSmallContent() {
+		assertThat(compression.shouldCompress(StatusCode.OK, "text/html", 1023L, null), is(false));
+		assertThat(compression.withMinimumSize(10).shouldCompress(StatusCode.OK, "text/html", 10L, null), is(true));
+	}
+
+	@Test
+	public void shouldNotCompressEncodedOrIncompressibleContent() {
+		assertThat(compression.shouldCompress(StatusCode.OK, "text/html", null, "br"), is(false));
+		assertThat(compression.shouldCompress(StatusCode.OK, "image/jpeg", null, null), is(false));
+	}
+
+	@Test
+	public void shouldNotCompressResponsesWithoutFullContent() {
+		assertThat(compression.shouldCompress(StatusCode.Continue, "text/html", null, null), is(false));
+		assertThat(compression.shouldCompress(StatusCode.NoContent, "text/html", null, null), is(false));
+		assertThat(compression.shouldCompress(StatusCode.PartialContent, "text/html", null, null), is(false));
+		assertThat(compression.shouldCompress(StatusCode.NotModified, "text/html", null, null), is(false));
+	}
+
+	@Test
+	public void shouldRejectInvalidLevel() {
+		assertThat(compression.withLevel(9).getLevel(), is(9));
+		assertThat(compression.withLevel(1).getLevel(), is(1));
+
+		thrown.expect(IllegalArgumentException.class);
+		thrown.expectMessage("Compression level must be between 1 and 9, not 0");
+		compression.withLevel(0);
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.request;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.threewks.thundr.request.mock.MockRequest;
+import com.threewks.thundr.request.mock.MockResponse;
+
+public class ScopedRequestContainerTest {
+	private ScopedRequestContainer container = new ScopedRequestContainer();
+	private Request req = new MockRequest();
+	private Response resp = new MockResponse();
+
+	@After
+	public void after() {
+		container.clear();
+	}
+
+	@Test
+	public void shouldStoreGivenRequestAndResponse() {
+		assertThat(container.getRequest(), is(nullValue()));
+		assertThat(container.getResponse(), is(nullValue()));
+		assertThat(container.getId(), is(nullValue()));
+
+		container.set(req, resp);
+
+		assertThat(container.getRequest(), is(req));
+		assertThat(container.getResponse(), is(resp));
+		assertThat(container.getId(), is(req.getId()));
+
+		container.clear();
+		assertThat(container.getRequest(), is(nullValue()));
+		assertThat(container.getResponse(), is(nullValue()));
+		assertThat(container.getId(), is(nullValue()));
+	}
+
+	@Test
+	public void shouldBindRequestAndResponseOnlyForDurationOfCall() throws Exception {
+		final Request inner = new MockRequest();
+		final Response innerResp = new MockResponse();
+		container.set(req, resp);
+
+		String result = container.call(inner, innerResp, new Callable<String>() {
+			@Override
+			public String call() {
+				assertThat(container.getRequest(), is(inner));
+				assertThat(container.getResponse(), is(innerResp));
+				return "result";
+			}
+		});
+
+		assertThat(result, is("result"));
+		assertThat(container.getRequest(), is(req));
+		assertThat(container.getResponse(), is(resp));
+	}
+
+	@Test
+	public void shouldRestoreOuterScopeWhenCallThrows() throws Exception {
+		try {
+			container.call(req, resp, new Callable<String>() {
+				@Override
+				public String call() {
+					throw new IllegalStateException("Intentional");
+				}
+			});
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertThat(container.getRequest(), is(nullValue()));
+		assertThat(container.getResponse(), is(nullValue()));
+	}
+
+	@Test
+	public void shouldPropagateScopeToAnotherThread() throws Exception {
+		final AtomicReference<Request> seenRequest = new AtomicReference<Request>();
+		final AtomicReference<Response> seenResponse = new AtomicReference<Response>();
+		container.set(req, resp);
+		Runnable runnable = container.propagate(new Runnable() {
+			@Override
+			public void run() {
+				seenRequest.set(container.getRequest());
+				seenResponse.set(container.getResponse());
+			}
+		});
+		container.clear();
+
+		Thread thread = new Thread(runnable);
+		thread.start();
+		thread.join();
+
+		assertThat(seenRequest.get(), is(req));
+		assertThat(seenResponse.get(), is(resp));
+		assertThat(container.getRequest(), is(nullValue()));
+	}
+
+	@Test
+	public void shouldRestoreScopeOfRunningThreadAfterPropagatedRunnable() {
+		container.set(req, resp);
+		Runnable runnable = container.propagate(new Runnable() {
+			@Override
+			public void run() {
+			}
+		});
+		Request other = new MockRequest();
+		container.set(other, resp);
+
+		runnable.run();
+
+		assertThat(container.getRequest(), is(other));
+	}
+
+	@Test
+	public void shouldNotLeakScopeIntoThreadsStartedWithoutPropagation() throws Exception {
+		final AtomicReference<Request> seenRequest = new AtomicReference<Request>(req);
+		container.set(req, resp);
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				seenRequest.set(container.getRequest());
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertThat(seenRequest.get(), is(nullValue()));
+	}
+}
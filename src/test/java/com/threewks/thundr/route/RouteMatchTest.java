@@ -0,0 +1,54 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.atomicleopard.expressive.Expressive;
+
+public class RouteMatchTest {
+	private Route route = new Route(HttpMethod.GET, "/path/{var}/split/{var2}", null);
+
+	@Test
+	public void shouldReturnRouteAndPath() {
+		RouteMatch match = new RouteMatch(route, "/path/a/split/b", new int[] { 6, 7, 14, 15 });
+		assertThat(match.getRoute(), is(route));
+		assertThat(match.getPath(), is("/path/a/split/b"));
+	}
+
+	@Test
+	public void shouldReturnDecodedPathVariables() {
+		RouteMatch match = new RouteMatch(route, "/path/a%20b/split/c", new int[] { 6, 11, 18, 19 });
+		assertThat(match.hasPathVars(), is(true));
+		assertThat(match.getPathVar("var"), is("a b"));
+		assertThat(match.getPathVar("var2"), is("c"));
+		assertThat(match.getPathVar("var3"), is(nullValue()));
+		assertThat(match.getPathVars(), is(Expressive.<String, String> map("var", "a b", "var2", "c")));
+	}
+
+	@Test
+	public void shouldHaveNoPathVariablesWhenRouteHasNone() {
+		RouteMatch match = new RouteMatch(new Route(HttpMethod.GET, "/path", null), "/path", new int[0]);
+		assertThat(match.hasPathVars(), is(false));
+		assertThat(match.getPathVar("var"), is(nullValue()));
+		assertThat(match.getPathVars().isEmpty(), is(true));
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.atomicleopard.expressive.Expressive;
+
+public class RouteMatcherTest {
+	private RouteMatcher matcher;
+
+	@Before
+	public void before() {
+		matcher = new RouteMatcher();
+	}
+
+	@Test
+	public void shouldMatchLiteralRoutes() {
+		Route root = add("/");
+		Route path = add("/path");
+		Route pathSlash = add("/path/");
+		Route nested = add("/path/to/resource");
+
+		assertThat(find("/"), is(root));
+		assertThat(find("/path"), is(path));
+		assertThat(find("/path/"), is(pathSlash));
+		assertThat(find("/path/to/resource"), is(nested));
+		assertThat(find("/path/to"), is(nullValue()));
+		assertThat(find("path"), is(nullValue()));
+		assertThat(find("/PATH"), is(nullValue()));
+		assertThat(find(""), is(nullValue()));
+		assertThat(find(null), is(nullValue()));
+	}
+
+	@Test
+	public void shouldMatchVariableRoutes() {
+		Route route = add("/path/{var}/split/{var2}");
+
+		assertThat(matcher.find("/path/1/split/2").getRoute(), is(route));
+		assertThat(matcher.find("/path/1/split/2").getPathVars(), is(Expressive.<String, String> map("var", "1", "var2", "2")));
+		assertThat(matcher.find("/path/Here%2C%20be%20/split/dragons").getPathVars(), is(Expressive.<String, String> map("var", "Here, be ", "var2", "dragons")));
+		assertThat(find("/path//split/2"), is(nullValue()));
+		assertThat(find("/path/1/split/2/3"), is(nullValue()));
+		assertThat(find("/path/a b/split/2"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldCaptureVariablesAfterMultiSegmentWildcards() {
+		add("/**/{id}/**");
+
+		assertThat(matcher.find("/a/b/c/d").getPathVar("id"), is("b"));
+		assertThat(matcher.find("/a/b/c/d;x=1").getPathVar("id"), is("b"));
+	}
+
+	@Test
+	public void shouldCaptureVariablesForFallbackRoutes() {
+		add("/path/{id}.json");
+
+		assertThat(matcher.find("/path/123.json").getPathVar("id"), is("123"));
+	}
+
+	@Test
+	public void shouldMatchWildcardRoutes() {
+		Route single = add("/single/*");
+		Route multi = add("/multi/**");
+		Route middle = add("/middle/**/end");
+
+		assertThat(find("/single/"), is(single));
+		assertThat(find("/single/file.ext"), is(single));
+		assertThat(find("/single/more/"), is(nullValue()));
+		assertThat(find("/single"), is(nullValue()));
+
+		assertThat(find("/multi/"), is(multi));
+		assertThat(find("/multi/resource/1/is/here/"), is(multi));
+		assertThat(find("/multi"), is(nullValue()));
+
+		assertThat(find("/middle//end"), is(middle));
+		assertThat(find("/middle/a/b/c/end"), is(middle));
+		assertThat(find("/middle/end"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldIgnoreSemiColonDelimitedRequestParameters() {
+		Route route = add("/path/{var}/{var2}");
+
+		assertThat(find("/path/result1/result2;jsessionid=ASD123-123DAFa"), is(route));
+		assertThat(find("/path/result1/result2;jsessionid=ASD123-123DAFa;other=some%20value"), is(route));
+		assertThat(find("/path/result1;jsessionid=ASD123/result2"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldFallBackToRegexForRoutesWhichCannotBeIndexed() {
+		Route jpg = add("/path/*.jpg");
+		Route json = add("/path/{id}.json");
+
+		assertThat(find("/path/image.jpg"), is(jpg));
+		assertThat(find("/path/image.jpeg"), is(nullValue()));
+		assertThat(find("/path/123.json"), is(json));
+	}
+
+	@Test
+	public void shouldReturnFirstRegisteredRouteWhenMoreThanOneMatches() {
+		Route variable = add("/path/{id}");
+		Route literal = add("/path/new");
+		Route wildcard = add("/**");
+
+		assertThat(find("/path/new"), is(variable));
+		assertThat(find("/path/other"), is(variable));
+		assertThat(find("/other"), is(wildcard));
+
+		matcher.remove(variable);
+		assertThat(find("/path/new"), is(literal));
+		assertThat(find("/path/other"), is(wildcard));
+	}
+
+	@Test
+	public void shouldReturnFirstRegisteredRouteAcrossIndexedAndFallbackRoutes() {
+		Route fallback = add("/path/*.jpg");
+		Route indexed = add("/path/*");
+
+		assertThat(find("/path/image.jpg"), is(fallback));
+		assertThat(find("/path/image.png"), is(indexed));
+
+		matcher = new RouteMatcher();
+		indexed = add("/path/*");
+		fallback = add("/path/*.jpg");
+		assertThat(find("/path/image.jpg"), is(indexed));
+	}
+
+	@Test
+	public void shouldNotMatchRemovedRoutes() {
+		Route route = add("/path/{id}");
+		Route other = add("/path/{id}/more");
+		matcher.remove(route);
+
+		assertThat(find("/path/1"), is(nullValue()));
+		assertThat(find("/path/1/more"), is(other));
+
+		matcher.remove(other);
+		assertThat(find("/path/1/more"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldMatchTheSameRoutesAsMatchingEachRouteInOrder() {
+		List<Route> routes = new ArrayList<>();
+		for (String route : new String[] { "/", "/a", "/a/", "/a/{b}", "/a/b", "/a/*", "/a/**", "/a/{b}/c", "/**/c", "**", "/a/b.c", "/a/*c" }) {
+			routes.add(add(route));
+		}
+		String[] paths = { "", "/", "/a", "/a/", "/a/b", "/a/b/", "/a/b/c", "/a/bxc", "/a/b.c", "/x/y/c", "/a/b;x=1", "/a/b c", "a", "/a/%20/c" };
+		for (String path : paths) {
+			Route expected = null;
+			for (Route route : routes) {
+				if (route.matches(path)) {
+					expected = route;
+					break;
+				}
+			}
+			assertThat(path, find(path), is(expected));
+		}
+	}
+
+	private Route find(String path) {
+		RouteMatch match = matcher.find(path);
+		return match == null ? null : match.getRoute();
+	}
+
+	private Route add(String path) {
+		Route route = new Route(HttpMethod.GET, path, null);
+		matcher.add(route);
+		return route;
+	}
+}
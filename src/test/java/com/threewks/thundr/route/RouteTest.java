@@ -157,6 +157,14 @@ public class RouteTest {
 		assertThat(new Route(null, "/something/{var}/more/{var2}", null).getPathVars("/something/123/more/1234/5678"), is(Expressive.<String, String> map("var", "123", "var2", "1234")));
 	}
 
+	@Test
+	public void shouldMatchPathCapturingPathVariables() {
+		RouteMatch match = new Route(null, "/something/{var}/more/{var2}", null).match("/something/123/more/Here%20be;jsessionid=1");
+		assertThat(match.getPath(), is("/something/123/more/Here%20be;jsessionid=1"));
+		assertThat(match.getPathVars(), is(Expressive.<String, String> map("var", "123", "var2", "Here be")));
+		assertThat(new Route(null, "/something/{var}/more/{var2}", null).match("/something/123/more/1234/5678"), is(Matchers.nullValue()));
+	}
+
 	@Test
 	public void shouldReturnRoute() {
 		Route route = new Route(null, "/path/{var}/split/{var2}", null);
@@ -32,6 +32,8 @@ import com.threewks.thundr.route.controller.ControllerRouteResolver;
 import com.threewks.thundr.route.controller.InterceptorRegistry;
 import com.threewks.thundr.route.redirect.Redirect;
 import com.threewks.thundr.route.redirect.RedirectRouteResolver;
+import com.threewks.thundr.route.resource.StaticResource;
+import com.threewks.thundr.route.resource.StaticResourceRouteResolver;
 import com.threewks.thundr.view.ViewModule;
 
 public class RouterModuleTest {
@@ -71,5 +73,6 @@ public class RouterModuleTest {
 
 		assertThat(router.getResolver(Controller.class) instanceof ControllerRouteResolver, is(true));
 		assertThat(router.getResolver(Redirect.class) instanceof RedirectRouteResolver, is(true));
+		assertThat(router.getResolver(StaticResource.class) instanceof StaticResourceRouteResolver, is(true));
 	}
 }
@@ -68,6 +68,28 @@ public class RouterTest {
 		assertThat(router.findMatchingRoute(HttpMethod.GET, "/path/image.jpeg"), is(nullValue()));
 	}
 
+	@Test
+	public void shouldFindMatchIncludingPathVariables() {
+		router.add(HttpMethod.GET, "/path/{id}", new TestResolve("action"), null);
+
+		RouteMatch match = router.findMatch(HttpMethod.GET, "/path/123");
+		assertThat(match.getRoute().getRoute(), is("/path/{id}"));
+		assertThat(match.getPathVar("id"), is("123"));
+		assertThat(router.findMatch(HttpMethod.PUT, "/path/123"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldListActionsOfAllRoutes() {
+		TestResolve first = new TestResolve("first");
+		TestResolve second = new TestResolve("second");
+		router.add(HttpMethod.GET, "/first", first, null);
+		router.add(HttpMethod.POST, "/second", second, null);
+
+		List<RouteResult> actions = router.listActions();
+		assertThat(actions.size(), is(2));
+		assertThat(actions, hasItems((RouteResult) first, second));
+	}
+
 	@Test
 	public void shouldReturnTrueIfNoRoutesHaveBeenAdded() {
 		Router router = new Router();
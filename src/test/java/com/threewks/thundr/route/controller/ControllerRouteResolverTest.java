@@ -22,9 +22,16 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -36,10 +43,14 @@ import com.threewks.thundr.bind.parameter.ParameterBinderRegistry;
 import com.threewks.thundr.http.ContentType;
 import com.threewks.thundr.injection.InjectionContextImpl;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
+import com.threewks.thundr.request.AsyncResult;
+import com.threewks.thundr.request.MutableRequestContainer;
 import com.threewks.thundr.request.Request;
 import com.threewks.thundr.request.Response;
+import com.threewks.thundr.request.ThreadLocalRequestContainer;
 import com.threewks.thundr.request.mock.MockRequest;
 import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.RouteResolverException;
 import com.threewks.thundr.transformer.TransformerManager;
 
 public class ControllerRouteResolverTest {
@@ -47,6 +58,7 @@ public class ControllerRouteResolverTest {
 	private UpdatableInjectionContext injectionContext;
 	private Request req = mock(Request.class);
 	private Response resp = mock(Response.class);
+	private AsyncResult<String> pending = new AsyncResult<String>();
 
 	private FilterRegistry filterRegistry = new FilterRegistryImpl();
 	private BinderRegistry binderRegistry;
@@ -103,6 +115,122 @@ public class ControllerRouteResolverTest {
 		assertThat(interceptors.get(annotation).equals(registeredInterceptor), is(true));
 	}
 
+	@Test
+	public void shouldReuseInvocationPlanForController() {
+		TestActionInterceptor registeredInterceptor = new TestActionInterceptor(null, null, null);
+		Controller action = prepareActionMethod("intercept", registeredInterceptor);
+
+		InvocationPlan plan = resolver.getInvocationPlan(action);
+		assertThat(plan.getAction(), is(action));
+		assertThat(plan.getController(), is((Object) this));
+		assertThat(plan.interceptorCount(), is(1));
+		assertThat(plan.interceptor(0), is((Object) registeredInterceptor));
+		assertThat(plan.annotation(0).annotationType(), is((Object) TestAnnotation.class));
+		assertThat(resolver.getInvocationPlan(action), is(sameInstance(plan)));
+	}
+
+	@Test
+	public void shouldCreateInvocationPlanAgainWhenInterceptorIsRegistered() {
+		injectionContext.inject(this).as(ControllerRouteResolverTest.class);
+		Controller action = new Controller(ControllerRouteResolverTest.class, "intercept");
+		InvocationPlan plan = resolver.getInvocationPlan(action);
+		assertThat(plan.interceptorCount(), is(0));
+
+		TestActionInterceptor registeredInterceptor = new TestActionInterceptor(null, null, null);
+		resolver.registerInterceptor(TestAnnotation.class, registeredInterceptor);
+
+		assertThat(resolver.getInvocationPlan(action), is(not(sameInstance(plan))));
+		assertThat(resolver.getInvocationPlan(action).interceptorCount(), is(1));
+	}
+
+	@Test
+	public void shouldCreateInvocationPlanAgainWhenInterceptorIsRegisteredWhileItIsBeingCreated() {
+		injectionContext.inject(this).as(ControllerRouteResolverTest.class);
+		Controller action = new Controller(ControllerRouteResolverTest.class, "intercept");
+		final TestActionInterceptor registeredInterceptor = new TestActionInterceptor(null, null, null);
+		resolver.setInvokerStrategy(new ReflectionControllerInvokerStrategy() {
+			@Override
+			public ControllerInvoker createInvoker(Method method) {
+				// registered after the plan has found no interceptors, but before it is stored
+				if (resolver.interceptor(TestAnnotation.class) == null) {
+					resolver.registerInterceptor(TestAnnotation.class, registeredInterceptor);
+				}
+				return super.createInvoker(method);
+			}
+		});
+
+		InvocationPlan stale = resolver.getInvocationPlan(action);
+		InvocationPlan plan = resolver.getInvocationPlan(action);
+		assertThat(plan, is(not(sameInstance(stale))));
+		assertThat(plan.interceptorCount(), is(1));
+		assertThat(resolver.getInvocationPlan(action), is(sameInstance(plan)));
+	}
+
+	@Test
+	public void shouldCreateControllerOnceWhenRequestsRaceToCreateIt() throws Exception {
+		injectionContext.inject(this).as(ControllerRouteResolverTest.class);
+		final Controller action = new Controller(ControllerRouteResolverTest.class, "intercept");
+		final AtomicInteger creations = new AtomicInteger();
+		final CountDownLatch creating = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		resolver = new ControllerRouteResolver(injectionContext, filterRegistry, binderRegistry) {
+			@Override
+			<T> T createController(Controller actionMethod) {
+				if (creations.incrementAndGet() == 1) {
+					creating.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+				}
+				return super.createController(actionMethod);
+			}
+		};
+		final List<Object> controllers = new ArrayList<Object>();
+		Runnable resolve = new Runnable() {
+			@Override
+			public void run() {
+				Object controller = resolver.getInvocationPlan(action).getController();
+				synchronized (controllers) {
+					controllers.add(controller);
+				}
+			}
+		};
+
+		Thread first = new Thread(resolve);
+		first.start();
+		creating.await(5, TimeUnit.SECONDS);
+		Thread second = new Thread(resolve);
+		second.start();
+		Thread.sleep(50);
+		release.countDown();
+		first.join();
+		second.join();
+
+		assertThat(creations.get(), is(1));
+		assertThat(controllers, contains((Object) this, this));
+	}
+
+	@Test
+	public void shouldUseMethodHandleInvokerStrategyByDefault() {
+		assertThat(resolver.getInvokerStrategy(), instanceOf(MethodHandleControllerInvokerStrategy.class));
+	}
+
+	@Test
+	public void shouldCreateInvocationPlanAgainWhenInvokerStrategyChanges() {
+		TestActionInterceptor registeredInterceptor = new TestActionInterceptor(null, null, null);
+		Controller action = prepareActionMethod("intercept", registeredInterceptor);
+		InvocationPlan plan = resolver.getInvocationPlan(action);
+
+		resolver.setInvokerStrategy(new CglibControllerInvokerStrategy());
+
+		assertThat(resolver.getInvokerStrategy(), instanceOf(CglibControllerInvokerStrategy.class));
+		assertThat(resolver.getInvocationPlan(action), is(not(sameInstance(plan))));
+		resolver.resolve(action, req, resp);
+		assertThat(registeredInterceptor.beforeInvoked, is(true));
+	}
+
 	@Test
 	public void shouldInvokeFilterBeforeActionMethod() {
 		Filter filter = mock(Filter.class);
@@ -331,6 +459,130 @@ public class ControllerRouteResolverTest {
 		assertThat(registeredInterceptor.exceptionInvoked, is(true));
 	}
 
+	@Test
+	public void shouldReturnAsyncResultRunningAfterInterceptorsAndFiltersWhenControllerResultCompletes() throws Exception {
+		Filter filter = mock(Filter.class);
+		filterRegistry.add(filter, "/*");
+		TestActionInterceptor registeredInterceptor = new TestActionInterceptor(null, null, null);
+		Controller action = prepareActionMethod("interceptAsync", registeredInterceptor);
+		when(req.getRequestPath()).thenReturn("/request");
+
+		AsyncResult<?> result = (AsyncResult<?>) resolver.resolve(action, req, resp);
+		assertThat(result, is(not(sameInstance((Object) pending))));
+		assertThat(result.isDone(), is(false));
+		assertThat(registeredInterceptor.beforeInvoked, is(true));
+		assertThat(registeredInterceptor.afterInvoked, is(false));
+		verify(filter, never()).after(Mockito.any(), eq(req), eq(resp));
+
+		pending.complete("view");
+
+		assertThat(result.isDone(), is(true));
+		assertThat(result.get(), is((Object) "view"));
+		assertThat(registeredInterceptor.afterInvoked, is(true));
+		assertThat(registeredInterceptor.exceptionInvoked, is(false));
+		verify(filter).after("view", req, resp);
+	}
+
+	@Test
+	public void shouldCompleteAsyncResultWithViewFromAfterInterceptor() throws Exception {
+		TestActionInterceptor registeredInterceptor = new TestActionInterceptor(null, "Expected After", null);
+		Controller action = prepareActionMethod("interceptAsync", registeredInterceptor);
+
+		AsyncResult<?> result = (AsyncResult<?>) resolver.resolve(action, req, resp);
+		pending.complete("view");
+
+		assertThat(result.get(), is((Object) "Expected After"));
+	}
+
+	@Test
+	public void shouldRunExceptionInterceptorsAndFiltersWhenControllerResultFails() throws Exception {
+		Filter filter = mock(Filter.class);
+		filterRegistry.add(filter, "/*");
+		TestActionInterceptor registeredInterceptor = new TestActionInterceptor(null, null, "invoked");
+		Controller action = prepareActionMethod("interceptAsync", registeredInterceptor);
+		when(req.getRequestPath()).thenReturn("/request");
+
+		AsyncResult<?> result = (AsyncResult<?>) resolver.resolve(action, req, resp);
+		IOException failure = new IOException("expected");
+		pending.fail(failure);
+
+		assertThat(result.get(), is((Object) "invoked"));
+		assertThat(registeredInterceptor.exceptionInvoked, is(true));
+		assertThat(registeredInterceptor.afterInvoked, is(false));
+		verify(filter).exception(failure, req, resp);
+	}
+
+	@Test
+	public void shouldFailAsyncResultWhenControllerResultFailureIsNotHandled() throws Exception {
+		Controller action = prepareActionMethod("interceptAsync", new TestActionInterceptor(null, null, null));
+
+		AsyncResult<?> result = (AsyncResult<?>) resolver.resolve(action, req, resp);
+		pending.fail(new IOException("expected"));
+
+		try {
+			result.get();
+			fail("Expected an ExecutionException");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(RouteResolverException.class));
+			assertThat(e.getCause().getCause(), instanceOf(IOException.class));
+		}
+	}
+
+	@Test
+	public void shouldSetRequestContainerWhenResumingOnAnotherThread() throws Exception {
+		final MutableRequestContainer requestContainer = new ThreadLocalRequestContainer();
+		injectionContext.inject(requestContainer).as(MutableRequestContainer.class);
+		final List<Object> seen = new ArrayList<Object>();
+		Interceptor<TestAnnotation> interceptor = new TestActionInterceptor(null, null, null) {
+			@Override
+			public String after(TestAnnotation annotation, Object result, Request req, Response resp) {
+				seen.add(requestContainer.getRequest());
+				seen.add(requestContainer.getResponse());
+				return null;
+			}
+		};
+		Controller action = prepareActionMethod("interceptAsync", interceptor);
+
+		AsyncResult<?> result = (AsyncResult<?>) resolver.resolve(action, req, resp);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				pending.complete("view");
+				seen.add(requestContainer.getRequest());
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertThat(result.get(), is((Object) "view"));
+		assertThat(seen, contains((Object) req, resp, null));
+	}
+
+	@Test
+	public void shouldRestoreRequestBoundOnResumingThread() throws Exception {
+		final MutableRequestContainer requestContainer = new ThreadLocalRequestContainer();
+		injectionContext.inject(requestContainer).as(MutableRequestContainer.class);
+		final Request otherReq = mock(Request.class);
+		final Response otherResp = mock(Response.class);
+		final List<Object> seen = new ArrayList<Object>();
+		Controller action = prepareActionMethod("interceptAsync", new TestActionInterceptor(null, null, null));
+
+		resolver.resolve(action, req, resp);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				requestContainer.set(otherReq, otherResp);
+				pending.complete("view");
+				seen.add(requestContainer.getRequest());
+				seen.add(requestContainer.getResponse());
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertThat(seen, contains((Object) otherReq, otherResp));
+	}
+
 	private Controller prepareActionMethod(String method, Interceptor<TestAnnotation> registeredInterceptor) {
 		injectionContext.inject(this).as(ControllerRouteResolverTest.class);
 		resolver.registerInterceptor(TestAnnotation.class, registeredInterceptor);
@@ -349,6 +601,11 @@ public class ControllerRouteResolverTest {
 		return name;
 	}
 
+	@TestAnnotation("Parameter")
+	public AsyncResult<String> interceptAsync() {
+		return pending;
+	}
+
 	@TestAnnotation("Parameter")
 	public void interceptException() {
 		throw new RuntimeException("Expected");
@@ -81,4 +81,14 @@ public class ControllerTest {
 		assertThat(parameters.get(0).name(), is("argument1"));
 		assertThat(String.class.equals(parameters.get(0).classType()), is(true));
 	}
+
+	@Test
+	public void shouldProvideDeclaredViewType() {
+		assertThat(new Controller(FakeController.class, "methodOne").viewType().equals(String.class), is(true));
+	}
+
+	@Test
+	public void shouldProvideDeclaredResultTypeAsViewTypeOfAsyncResult() {
+		assertThat(new Controller(FakeController.class, "methodAsync").viewType().equals(String.class), is(true));
+	}
 }
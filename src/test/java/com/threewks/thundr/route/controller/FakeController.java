@@ -17,6 +17,8 @@
  */
 package com.threewks.thundr.route.controller;
 
+import com.threewks.thundr.request.AsyncResult;
+
 public class FakeController {
 	public int invocationCount = 0;
 
@@ -24,4 +26,8 @@ public class FakeController {
 		invocationCount++;
 		return "Result: " + argument1;
 	}
+
+	public AsyncResult<String> methodAsync() {
+		return AsyncResult.completed("Result");
+	}
 }
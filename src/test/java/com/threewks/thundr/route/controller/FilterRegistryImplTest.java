@@ -21,6 +21,14 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 import org.mockito.InOrder;
 
@@ -230,4 +238,108 @@ public class FilterRegistryImplTest {
 		inOrder.verify(filter2).before(req, resp);
 
 	}
+
+	@Test
+	public void shouldReuseMatchingFiltersForTheSamePath() {
+		FilterRegistryImpl registry = new FilterRegistryImpl();
+		registry.add(filter1, "/**");
+		registry.add(filter2, "/sub/**");
+
+		List<Filter> filters = registry.findMatchingFilters("/sub/path");
+		assertThat(filters, contains(filter1, filter2));
+		assertThat(registry.findMatchingFilters("/sub/path"), is(sameInstance(filters)));
+	}
+
+	@Test
+	public void shouldMatchFiltersAgainAfterFiltersChange() {
+		FilterRegistryImpl registry = new FilterRegistryImpl();
+		registry.add(filter1, "/sub/**");
+		assertThat(registry.findMatchingFilters("/sub/path"), contains(filter1));
+
+		registry.add(filter2, "/*/path");
+		assertThat(registry.findMatchingFilters("/sub/path"), contains(filter1, filter2));
+
+		registry.remove(filter1);
+		assertThat(registry.findMatchingFilters("/sub/path"), contains(filter2));
+	}
+
+	@Test
+	public void shouldMatchFiltersWhenCacheIsFull() {
+		FilterRegistryImpl registry = new FilterRegistryImpl(1);
+		registry.add(filter1, "/a/**");
+		registry.add(filter2, "/b/**");
+
+		assertThat(registry.findMatchingFilters("/a/path"), contains(filter1));
+		assertThat(registry.findMatchingFilters("/b/path"), contains(filter2));
+		assertThat(registry.findMatchingFilters("/a/path"), contains(filter1));
+		assertThat(registry.findMatchingFilters("/c/path").isEmpty(), is(true));
+		assertThat(registry.findMatchingFilters(null).isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldEmptyCacheWhenItFills() {
+		FilterRegistryImpl registry = new FilterRegistryImpl(2);
+		registry.add(filter1, "/**");
+
+		List<Filter> filters = registry.findMatchingFilters("/a");
+		assertThat(registry.findMatchingFilters("/a"), is(sameInstance(filters)));
+		registry.findMatchingFilters("/b");
+		assertThat(registry.findMatchingFilters("/a"), is(sameInstance(filters)));
+
+		registry.findMatchingFilters("/c");
+		List<Filter> rematched = registry.findMatchingFilters("/a");
+		assertThat(rematched, is(not(sameInstance(filters))));
+		assertThat(rematched, contains(filter1));
+	}
+
+	@Test
+	public void shouldMatchFiltersFromConcurrentRequests() throws Exception {
+		final FilterRegistryImpl registry = new FilterRegistryImpl(8);
+		registry.add(filter1, "/a/**");
+		registry.add(filter2, "/**");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int j = 0; j < 1000; j++) {
+							if (!registry.findMatchingFilters("/a/" + (j % 20)).equals(Arrays.asList(filter1, filter2))) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get(), is(true));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void shouldMatchIndexedFiltersWithSemiColonDelimitedParameters() {
+		FilterRegistryImpl registry = new FilterRegistryImpl();
+		registry.add(filter1, "/sub");
+		registry.add(filter2, "/sub/**");
+
+		assertThat(registry.findMatchingFilters("/sub;jsessionid=123"), contains(filter1));
+		assertThat(registry.findMatchingFilters("/sub/path;jsessionid=123"), contains(filter2));
+	}
+
+	@Test
+	public void shouldOnlyIndexFiltersWithALiteralFirstSegment() {
+		assertThat(FilterRegistryImpl.firstSegment("/sub/**"), is("sub"));
+		assertThat(FilterRegistryImpl.firstSegment("/sub"), is("sub"));
+		assertThat(FilterRegistryImpl.firstSegment("/**"), is(nullValue()));
+		assertThat(FilterRegistryImpl.firstSegment("/sub*/path"), is(nullValue()));
+		assertThat(FilterRegistryImpl.firstSegment("/file.ext"), is(nullValue()));
+		assertThat(FilterRegistryImpl.firstSegment("/{var}/path"), is(nullValue()));
+		assertThat(FilterRegistryImpl.firstSegment("sub/path"), is(nullValue()));
+		assertThat(FilterRegistryImpl.firstSegment("/"), is(nullValue()));
+	}
 }
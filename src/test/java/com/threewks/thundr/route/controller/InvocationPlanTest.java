@@ -0,0 +1,74 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.controller;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.threewks.thundr.introspection.ParameterDescription;
+
+public class InvocationPlanTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	private Controller action = new Controller(FakeController.class, "methodOne");
+	private FakeController controller = new FakeController();
+	private InvocationPlan plan = new InvocationPlan(action, controller, new ReflectionControllerInvokerStrategy().createInvoker(action.method()), Collections.<Annotation, Interceptor<Annotation>> emptyMap());
+
+	@Test
+	public void shouldCreateUnboundBindingsForEachParameter() {
+		Map<ParameterDescription, Object> bindings = plan.bindings(plan.createArguments());
+		assertThat(bindings.keySet(), contains(action.parameters().get(0)));
+		assertThat(bindings.get(action.parameters().get(0)), is(nullValue()));
+		assertThat(bindings.containsValue(null), is(true));
+		assertThat(plan.hasParameters(), is(true));
+	}
+
+	@Test
+	public void shouldWriteBindingsToArgumentsInParameterOrder() {
+		Object[] arguments = plan.createArguments();
+		Map<ParameterDescription, Object> bindings = plan.bindings(arguments);
+		bindings.put(action.parameters().get(0), "value");
+		assertThat(arguments, is(new Object[] { "value" }));
+		assertThat(bindings.get(action.parameters().get(0)), is((Object) "value"));
+		assertThat(bindings.containsValue(null), is(false));
+
+		bindings.entrySet().iterator().next().setValue("other");
+		assertThat(arguments, is(new Object[] { "other" }));
+	}
+
+	@Test
+	public void shouldNotBindParametersTheControllerMethodDoesNotHave() {
+		thrown.expect(IllegalArgumentException.class);
+		plan.bindings(plan.createArguments()).put(new ParameterDescription("unknown", String.class), "value");
+	}
+
+	@Test
+	public void shouldRetainControllerAndAction() {
+		assertThat(plan.getAction(), is(action));
+		assertThat(plan.getController(), is((Object) controller));
+		assertThat(plan.interceptorCount(), is(0));
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.controller;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class MethodHandleControllerInvokerStrategyTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ControllerInvokerStrategy strategy = new MethodHandleControllerInvokerStrategy();
+	private InvokableController controller = new InvokableController();
+
+	@Test
+	public void shouldInvokeMethodWithArguments() throws Exception {
+		ControllerInvoker invoker = strategy.createInvoker(InvokableController.class.getMethod("method", String.class, int.class));
+		assertThat(invoker.invoke(controller, new Object[] { "value", 1 }), is((Object) "value1"));
+	}
+
+	@Test
+	public void shouldInvokeVoidMethodReturningNull() throws Exception {
+		ControllerInvoker invoker = strategy.createInvoker(InvokableController.class.getMethod("voidMethod"));
+		assertThat(invoker.invoke(controller, new Object[0]), is(nullValue()));
+		assertThat(controller.invoked, is(true));
+	}
+
+	@Test
+	public void shouldWrapExceptionsThrownByMethodInInvocationTargetException() throws Exception {
+		ControllerInvoker invoker = strategy.createInvoker(InvokableController.class.getMethod("exceptionMethod"));
+		try {
+			invoker.invoke(controller, new Object[0]);
+			throw new AssertionError("Expected an InvocationTargetException");
+		} catch (InvocationTargetException e) {
+			assertThat(e.getTargetException(), instanceOf(IllegalStateException.class));
+			assertThat(e.getTargetException().getMessage(), is("Intentional"));
+		}
+	}
+
+	@Test
+	public void shouldRejectNullForPrimitiveArgumentsLikeReflection() throws Exception {
+		thrown.expect(IllegalArgumentException.class);
+		ControllerInvoker invoker = strategy.createInvoker(InvokableController.class.getMethod("method", String.class, int.class));
+		invoker.invoke(controller, new Object[] { "value", null });
+	}
+
+	@Test
+	public void shouldRejectTheWrongNumberOfArgumentsLikeReflection() throws Exception {
+		thrown.expect(IllegalArgumentException.class);
+		ControllerInvoker invoker = strategy.createInvoker(InvokableController.class.getMethod("method", String.class, int.class));
+		invoker.invoke(controller, new Object[] { "value" });
+	}
+
+	@Test
+	public void shouldRejectArgumentsOfTheWrongTypeLikeReflection() throws Exception {
+		thrown.expect(IllegalArgumentException.class);
+		thrown.expectMessage("argument type mismatch");
+		ControllerInvoker invoker = strategy.createInvoker(InvokableController.class.getMethod("method", String.class, int.class));
+		invoker.invoke(controller, new Object[] { 1, "value" });
+	}
+
+	@Test
+	public void shouldWrapClassCastExceptionThrownByMethodInInvocationTargetException() throws Exception {
+		ControllerInvoker invoker = strategy.createInvoker(InvokableController.class.getMethod("classCastMethod", Object.class));
+		try {
+			invoker.invoke(controller, new Object[] { 1 });
+			throw new AssertionError("Expected an InvocationTargetException");
+		} catch (InvocationTargetException e) {
+			assertThat(e.getTargetException(), instanceOf(ClassCastException.class));
+		}
+	}
+
+	public static class InvokableController {
+		public boolean invoked = false;
+
+		public String method(String argument, int number) {
+			return argument + number;
+		}
+
+		public void voidMethod() {
+			invoked = true;
+		}
+
+		public String classCastMethod(Object value) {
+			return (String) value;
+		}
+
+		public String exceptionMethod() {
+			throw new IllegalStateException("Intentional");
+		}
+	}
+}
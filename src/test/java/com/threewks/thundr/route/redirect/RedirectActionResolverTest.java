@@ -17,15 +17,12 @@
  */
 package com.threewks.thundr.route.redirect;
 
-import static com.atomicleopard.expressive.Expressive.map;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
-import java.util.Map;
 
-import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -45,20 +42,13 @@ public class RedirectActionResolverTest {
 	public ExpectedException thrown = ExpectedException.none();
 
 	private RedirectRouteResolver resolver = new RedirectRouteResolver();
-	private Route route;
-	
-	@Before
-	public void before() {
-		route = mock(Route.class);
-	}
 
 	@Test
 	public void shouldSendRedirectToClient() throws IOException {
 		Redirect action = new Redirect("/redirect/{to}");
 		HttpMethod method = HttpMethod.POST;
-		Map<String, String> pathVars = map("to", "new");
-		when(route.getPathVars(anyString())).thenReturn(pathVars);
-		Request req = new MockRequest(method, "/request", route);
+		Route route = new Route(method, "/request/{to}", null);
+		Request req = new MockRequest(method, "/request/new", route);
 		MockResponse resp = new MockResponse();
 		resolver.resolve(action, req, resp);
 
@@ -69,13 +59,12 @@ public class RedirectActionResolverTest {
 	@Test
 	public void shouldThrowActionExceptionWhenRedirectFails() throws IOException {
 		thrown.expect(RouteResolverException.class);
-		thrown.expectMessage("Failed to redirect /requested/path to /redirect/new");
+		thrown.expectMessage("Failed to redirect /requested/new to /redirect/new");
 
 		Redirect action = new Redirect("/redirect/{to}");
 		HttpMethod method = HttpMethod.POST;
-		Map<String, String> pathVars = map("to", "new");
-		when(route.getPathVars(anyString())).thenReturn(pathVars);
-		Request req = new MockRequest(method, "/requested/path", route);
+		Route route = new Route(method, "/requested/{to}", null);
+		Request req = new MockRequest(method, "/requested/new", route);
 		Response resp = mock(Response.class);
 		when(resp.withStatusCode(Mockito.any(StatusCode.class))).thenThrow(new RuntimeException("Intentional"));
 
@@ -0,0 +1,293 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.resource;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.request.mock.MockRequest;
+import com.threewks.thundr.request.mock.MockResponse;
+import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.RouteNotFoundException;
+import com.threewks.thundr.util.Streams;
+
+public class StaticResourceRouteResolverTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Route route = new Route(HttpMethod.GET, "/static/**", null);
+	private MockResponse resp = new MockResponse();
+	private StaticResourceRouteResolver resolver = new StaticResourceRouteResolver(1024, 4096, 2);
+	private StaticResource resource;
+	private Path directory;
+
+	@Before
+	public void before() throws IOException {
+		directory = temporaryFolder.newFolder("web").toPath();
+		resource = new StaticResource(directory);
+		Files.createDirectories(directory.resolve("css"));
+		write("css/site.css", StringUtils.repeat("body { color: red; }\n", 10));
+		write("large.txt", StringUtils.repeat("0123456789", 200));
+	}
+
+	@Test
+	public void shouldServeFileRelativeToRoutePrefix() {
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getContentTypeString(), is("text/css"));
+		assertThat(resp.getBodyAsString(), is(StringUtils.repeat("body { color: red; }\n", 10)));
+		assertThat(resp.getContentLength(), is(210L));
+		assertThat(resp.getHeader(Header.LastModified), is("Thu, 01 Jan 1970 00:05:00 GMT"));
+		assertThat(resp.getHeader(Header.ETag), is(notNullValue()));
+		assertThat(resp.getHeader(Header.ContentEncoding), is(nullValue()));
+	}
+
+	@Test
+	public void shouldServeLargeFileFromMappedBuffer() {
+		resolver.resolve(resource, request("/static/large.txt"), resp);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsString(), is(StringUtils.repeat("0123456789", 200)));
+		assertThat(resp.getContentLength(), is(2000L));
+	}
+
+	@Test
+	public void shouldServeGzippedContentWhenAccepted() throws IOException {
+		MockRequest req = request("/static/css/site.css").withHeader(Header.AcceptEncoding, "gzip, deflate");
+		resolver.resolve(resource, req, resp);
+
+		assertThat(resp.getHeader(Header.ContentEncoding), is("gzip"));
+		assertThat(resp.getHeader(Header.Vary), is(Header.AcceptEncoding));
+		assertThat(resp.getContentLength(), is((long) resp.getBodyAsBytes().length));
+		String content = Streams.readString(new GZIPInputStream(new ByteArrayInputStream(resp.getBodyAsBytes())));
+		assertThat(content, is(StringUtils.repeat("body { color: red; }\n", 10)));
+	}
+
+	@Test
+	public void shouldPreferPrecompressedBrotliWhenAccepted() throws IOException {
+		write("css/site.css.br", "brotli");
+		MockRequest req = request("/static/css/site.css").withHeader(Header.AcceptEncoding, "gzip, br");
+		resolver.resolve(resource, req, resp);
+
+		assertThat(resp.getHeader(Header.ContentEncoding), is("br"));
+		assertThat(resp.getBodyAsString(), is("brotli"));
+	}
+
+	@Test
+	public void shouldUseSameStrongEtagForSameContent() throws IOException {
+		write("copy.css", StringUtils.repeat("body { color: red; }\n", 10));
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+		MockResponse other = new MockResponse();
+		resolver.resolve(resource, request("/static/copy.css"), other);
+
+		assertThat(resp.getHeader(Header.ETag), startsWith("\""));
+		assertThat(resp.getHeader(Header.ETag), is(other.getHeader(Header.ETag)));
+	}
+
+	@Test
+	public void shouldRespondNotModifiedWhenEtagMatches() {
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+		String etag = resp.getHeader(Header.ETag);
+
+		resp = new MockResponse();
+		resolver.resolve(resource, request("/static/css/site.css").withHeader(Header.IfNoneMatch, etag), resp);
+		assertThat(resp.getStatusCode(), is(StatusCode.NotModified));
+		assertThat(resp.getBodyAsBytes().length, is(0));
+	}
+
+	@Test
+	public void shouldUseDifferentEtagForEachEncoding() throws IOException {
+		write("css/site.css.br", "brotli");
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+		MockResponse gzipped = new MockResponse();
+		resolver.resolve(resource, request("/static/css/site.css").withHeader(Header.AcceptEncoding, "gzip"), gzipped);
+		MockResponse brotli = new MockResponse();
+		resolver.resolve(resource, request("/static/css/site.css").withHeader(Header.AcceptEncoding, "br"), brotli);
+
+		String etag = resp.getHeader(Header.ETag);
+		assertThat(gzipped.getHeader(Header.ETag), is(etag.substring(0, etag.length() - 1) + "-gzip\""));
+		assertThat(brotli.getHeader(Header.ETag), is(etag.substring(0, etag.length() - 1) + "-br\""));
+	}
+
+	@Test
+	public void shouldRespondNotModifiedOnlyWhenEtagMatchesSelectedEncoding() {
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+		String etag = resp.getHeader(Header.ETag);
+
+		resp = new MockResponse();
+		resolver.resolve(resource, request("/static/css/site.css").withHeader(Header.IfNoneMatch, etag).withHeader(Header.AcceptEncoding, "gzip"), resp);
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getHeader(Header.ContentEncoding), is("gzip"));
+
+		String gzipEtag = resp.getHeader(Header.ETag);
+		resp = new MockResponse();
+		resolver.resolve(resource, request("/static/css/site.css").withHeader(Header.IfNoneMatch, gzipEtag).withHeader(Header.AcceptEncoding, "gzip"), resp);
+		assertThat(resp.getStatusCode(), is(StatusCode.NotModified));
+	}
+
+	@Test
+	public void shouldDeriveEtagOfLargeFileFromSizeAndModificationTime() {
+		resolver.resolve(resource, request("/static/large.txt"), resp);
+		assertThat(resp.getHeader(Header.ETag), is("\"7d0-493e0\""));
+	}
+
+	@Test
+	public void shouldStreamFileTooLargeToMapWithoutCachingIt() throws IOException {
+		Path huge = directory.resolve("huge.bin");
+		try (RandomAccessFile file = new RandomAccessFile(huge.toFile(), "rw")) {
+			file.setLength(StaticResourceRouteResolver.MaxMappedFileSize + 1);
+		}
+		Files.setLastModifiedTime(huge, FileTime.fromMillis(300000));
+		resolver.resolve(resource, new MockRequest(HttpMethod.HEAD, "/static/huge.bin", route), resp);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getContentLength(), is(StaticResourceRouteResolver.MaxMappedFileSize + 1));
+		assertThat(resp.getHeader(Header.ETag), is("\"80000000-493e0\""));
+	}
+
+	@Test
+	public void shouldLoadFileOnceForConcurrentRequests() throws InterruptedException {
+		final AtomicInteger loads = new AtomicInteger();
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch proceed = new CountDownLatch(1);
+		resolver = new StaticResourceRouteResolver(1024, 4096, 2) {
+			@Override
+			protected String getContentType(Path path) {
+				loads.incrementAndGet();
+				loading.countDown();
+				try {
+					proceed.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.getContentType(path);
+			}
+		};
+		Thread first = resolveInBackground("/static/css/site.css");
+		loading.await();
+		Thread second = resolveInBackground("/static/css/site.css");
+		proceed.countDown();
+		first.join();
+		second.join();
+
+		assertThat(loads.get(), is(1));
+	}
+
+	@Test
+	public void shouldReloadFileWhenItChanges() throws IOException {
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+		String etag = resp.getHeader(Header.ETag);
+
+		write("css/site.css", "p {}");
+		Files.setLastModifiedTime(directory.resolve("css/site.css"), FileTime.fromMillis(600000));
+		resp = new MockResponse();
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+		assertThat(resp.getBodyAsString(), is("p {}"));
+		assertThat(resp.getHeader(Header.ETag), is(not(etag)));
+	}
+
+	@Test
+	public void shouldSetCacheControlFromResource() {
+		resource.withCacheControl("public, max-age=60");
+		resolver.resolve(resource, request("/static/css/site.css"), resp);
+		assertThat(resp.getHeader(Header.CacheControl), is("public, max-age=60"));
+	}
+
+	@Test
+	public void shouldNotWriteBodyForHeadRequests() {
+		resolver.resolve(resource, new MockRequest(HttpMethod.HEAD, "/static/css/site.css", route), resp);
+		assertThat(resp.getContentLength(), is(210L));
+		assertThat(resp.getBodyAsBytes().length, is(0));
+	}
+
+	@Test
+	public void shouldServeSingleFileForRouteWithoutWildcard() {
+		resource = new StaticResource(directory.resolve("large.txt"));
+		resolver.resolve(resource, new MockRequest(HttpMethod.GET, "/large.txt", new Route(HttpMethod.GET, "/large.txt", null)), resp);
+		assertThat(resp.getContentLength(), is(2000L));
+	}
+
+	@Test
+	public void shouldThrowRouteNotFoundForMissingFile() {
+		thrown.expect(RouteNotFoundException.class);
+		thrown.expectMessage("No static resource matching the request GET /static/missing.css");
+		resolver.resolve(resource, request("/static/missing.css"), resp);
+	}
+
+	@Test
+	public void shouldThrowRouteNotFoundForDirectory() {
+		thrown.expect(RouteNotFoundException.class);
+		resolver.resolve(resource, request("/static/css"), resp);
+	}
+
+	@Test
+	public void shouldThrowRouteNotFoundForPathOutsideDirectory() throws IOException {
+		temporaryFolder.newFile("secret.txt");
+		thrown.expect(RouteNotFoundException.class);
+		resolver.resolve(resource, request("/static/..%2Fsecret.txt"), resp);
+	}
+
+	@Test
+	public void shouldReturnClassNameForToString() {
+		assertThat(resolver.toString(), is("StaticResourceRouteResolver"));
+	}
+
+	private Thread resolveInBackground(final String path) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				resolver.resolve(resource, request(path), new MockResponse());
+			}
+		};
+		thread.start();
+		return thread;
+	}
+
+	private MockRequest request(String path) {
+		return new MockRequest(HttpMethod.GET, path, route);
+	}
+
+	private void write(String path, String content) throws IOException {
+		Path file = directory.resolve(path);
+		Files.write(file, content.getBytes("UTF-8"));
+		Files.setLastModifiedTime(file, FileTime.fromMillis(300000));
+	}
+}
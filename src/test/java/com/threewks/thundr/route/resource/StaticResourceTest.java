@@ -0,0 +1,54 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.route.resource;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+public class StaticResourceTest {
+	private StaticResource resource = new StaticResource("/var/www");
+
+	@Test
+	public void shouldResolvePathsWithinDirectory() {
+		assertThat(resource.resolve("css/site.css"), is(Paths.get("/var/www/css/site.css")));
+		assertThat(resource.resolve("/css/site.css"), is(Paths.get("/var/www/css/site.css")));
+		assertThat(resource.resolve("css/../js/site.js"), is(Paths.get("/var/www/js/site.js")));
+		assertThat(resource.resolve(""), is(Paths.get("/var/www")));
+	}
+
+	@Test
+	public void shouldNotResolvePathsOutsideDirectory() {
+		assertThat(resource.resolve("../etc/passwd"), is(nullValue()));
+		assertThat(resource.resolve("css/../../www-private/secret"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldRetainCacheControl() {
+		assertThat(resource.getCacheControl(), is(nullValue()));
+		assertThat(resource.withCacheControl("public, max-age=60").getCacheControl(), is("public, max-age=60"));
+	}
+
+	@Test
+	public void shouldHaveToStringIncludingDirectory() {
+		assertThat(resource.toString(), is("StaticResource:" + Paths.get("/var/www")));
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.transformer;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.ReadableInstant;
+import org.junit.Test;
+
+import com.atomicleopard.expressive.ETransformer;
+import com.atomicleopard.expressive.collection.Pair;
+import com.threewks.thundr.introspection.ClassIntrospector;
+import com.threewks.thundr.transformer.ConversionGraph.ComposedTransformer;
+import com.threewks.thundr.transformer.date.DateTimeToDate;
+import com.threewks.thundr.transformer.date.DateTimeToLong;
+import com.threewks.thundr.transformer.date.LongToDateTime;
+import com.threewks.thundr.transformer.date.ObjectToDateTime;
+import com.threewks.thundr.transformer.date.ReadableInstantToDate;
+import com.threewks.thundr.transformer.numeric.IntegerToString;
+import com.threewks.thundr.transformer.numeric.NumberToBigDecimal;
+import com.threewks.thundr.transformer.numeric.NumberToInteger;
+import com.threewks.thundr.transformer.numeric.NumberToLong;
+import com.threewks.thundr.transformer.numeric.StringToLong;
+
+public class ConversionGraphTest {
+	private Map<Pair<Class<?>, Class<?>>, ETransformer<?, ?>> transformers = new LinkedHashMap<Pair<Class<?>, Class<?>>, ETransformer<?, ?>>();
+	private StringToLong stringToLong = new StringToLong();
+	private LongToDateTime longToDateTime = new LongToDateTime();
+	private IntegerToString integerToString = new IntegerToString();
+	private NumberToLong numberToLong = new NumberToLong();
+	private NumberToInteger numberToInteger = new NumberToInteger();
+	private NumberToBigDecimal numberToBigDecimal = new NumberToBigDecimal();
+	private DateTimeToDate dateTimeToDate = new DateTimeToDate();
+	private DateTimeToLong dateTimeToLong = new DateTimeToLong();
+	private ReadableInstantToDate readableInstantToDate = new ReadableInstantToDate();
+	private ObjectToDateTime objectToDateTime = new ObjectToDateTime();
+
+	@Test
+	public void shouldFindSingleTransformerForMostSpecificSupertype() {
+		register(Object.class, DateTime.class, objectToDateTime);
+		register(Long.class, DateTime.class, longToDateTime);
+		register(DateTime.class, Date.class, dateTimeToDate);
+
+		ConversionGraph graph = graph();
+		assertThat(graph.findTransformer(Long.class, ReadableInstant.class), is((Object) longToDateTime));
+		assertThat(graph.findTransformer(Integer.class, DateTime.class), is((Object) objectToDateTime));
+		assertThat(graph.findTransformer(Long.class, Date.class), is(nullValue()));
+	}
+
+	@Test
+	public void shouldFindSingleTransformerPath() {
+		register(String.class, Long.class, stringToLong);
+
+		List<ETransformer<?, ?>> path = graph().findPath(String.class, Number.class);
+		assertThat(path.size(), is(1));
+		assertThat(path.get(0), is((Object) stringToLong));
+	}
+
+	@Test
+	public void shouldFindShortestMultipleTransformerPath() {
+		register(Number.class, Long.class, numberToLong);
+		register(Long.class, DateTime.class, longToDateTime);
+		register(DateTime.class, Date.class, dateTimeToDate);
+
+		List<ETransformer<?, ?>> path = graph().findPath(Integer.class, Date.class);
+		assertThat(path.size(), is(3));
+		assertThat(path.get(0), is((Object) numberToLong));
+		assertThat(path.get(1), is((Object) longToDateTime));
+		assertThat(path.get(2), is((Object) dateTimeToDate));
+
+		path = graph().findPath(Long.class, Date.class);
+		assertThat(path.size(), is(2));
+	}
+
+	@Test
+	public void shouldUseTransformersRegisteredForSupertypesOfIntermediateTypes() {
+		register(Long.class, DateTime.class, longToDateTime);
+		register(ReadableInstant.class, Date.class, readableInstantToDate);
+
+		List<ETransformer<?, ?>> path = graph().findPath(Long.class, Date.class);
+		assertThat(path.size(), is(2));
+		assertThat(path.get(0), is((Object) longToDateTime));
+		assertThat(path.get(1), is((Object) readableInstantToDate));
+	}
+
+	@Test
+	public void shouldNotFindPathThroughString() {
+		register(Integer.class, String.class, integerToString);
+		register(String.class, Long.class, stringToLong);
+
+		assertThat(graph().findPath(Integer.class, Long.class), is(nullValue()));
+		assertThat(graph().findPath(Integer.class, String.class).size(), is(1));
+		assertThat(graph().findPath(String.class, Long.class).size(), is(1));
+	}
+
+	@Test
+	public void shouldNotFindPathWhichNarrowsNumbers() {
+		register(DateTime.class, Long.class, dateTimeToLong);
+		register(Number.class, Integer.class, numberToInteger);
+		register(Number.class, BigDecimal.class, numberToBigDecimal);
+
+		assertThat(graph().findPath(DateTime.class, Integer.class), is(nullValue()));
+		List<ETransformer<?, ?>> path = graph().findPath(DateTime.class, BigDecimal.class);
+		assertThat(path.size(), is(2));
+		assertThat(path.get(0), is((Object) dateTimeToLong));
+		assertThat(path.get(1), is((Object) numberToBigDecimal));
+	}
+
+	@Test
+	public void shouldNotFindPathUsingTransformersForObject() {
+		register(Object.class, DateTime.class, objectToDateTime);
+		register(DateTime.class, Date.class, dateTimeToDate);
+
+		assertThat(graph().findPath(Long.class, Date.class), is(nullValue()));
+		assertThat(graph().findPath(DateTime.class, Date.class).size(), is(1));
+	}
+
+	@Test
+	public void shouldDetermineWhetherNumericConversionNarrows() {
+		assertThat(ConversionGraph.isNarrowing(Long.class, Integer.class), is(true));
+		assertThat(ConversionGraph.isNarrowing(Double.class, Long.class), is(true));
+		assertThat(ConversionGraph.isNarrowing(BigDecimal.class, Double.class), is(true));
+		assertThat(ConversionGraph.isNarrowing(Number.class, Integer.class), is(true));
+		assertThat(ConversionGraph.isNarrowing(Integer.class, Long.class), is(false));
+		assertThat(ConversionGraph.isNarrowing(Long.class, BigDecimal.class), is(false));
+		assertThat(ConversionGraph.isNarrowing(Integer.class, Integer.class), is(false));
+		assertThat(ConversionGraph.isNarrowing(String.class, Integer.class), is(false));
+		assertThat(ConversionGraph.isNarrowing(Long.class, DateTime.class), is(false));
+	}
+
+	@Test
+	public void shouldReturnNullWhenNoPathExists() {
+		register(String.class, Long.class, stringToLong);
+
+		assertThat(graph().findPath(Long.class, String.class), is(nullValue()));
+		assertThat(graph().findPath(String.class, DateTime.class), is(nullValue()));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void shouldComposeTransformersInOrder() {
+		register(String.class, Long.class, stringToLong);
+		register(Long.class, DateTime.class, longToDateTime);
+
+		ETransformer<String, DateTime> composed = new ComposedTransformer<String, DateTime>((List) graph().findPath(String.class, DateTime.class));
+		assertThat(composed.from("1000"), is(new DateTime(1000)));
+		assertThat(composed.from(null), is(nullValue()));
+	}
+
+	private void register(Class<?> from, Class<?> to, ETransformer<?, ?> transformer) {
+		transformers.put(new Pair<Class<?>, Class<?>>(from, to), transformer);
+	}
+
+	private ConversionGraph graph() {
+		return new ConversionGraph(0, transformers, new ClassIntrospector());
+	}
+}
@@ -309,6 +309,87 @@ public class TransformerManagerTest {
 		assertThat(cached2, is(nullValue()));
 	}
 
+	@Test
+	public void shouldOnlyComposeTransformersWhenComposedTransformerIsRequested() {
+		transformerManager.register(String.class, Long.class, new StringToLong());
+		transformerManager.register(Long.class, DateTime.class, new LongToDateTime());
+
+		assertThat(transformerManager.getBestTransformer(String.class, ReadableInstant.class), is(nullValue()));
+		ETransformer<? super String, ? extends ReadableInstant> transformer = transformerManager.getComposedTransformer(String.class, ReadableInstant.class);
+		assertThat(transformer, is(notNullValue()));
+		assertThat(transformer.from("123456").getMillis(), is(123456l));
+		assertThat(transformer.from(null), is(nullValue()));
+		assertThat(transformerManager.getComposedTransformer(String.class, ReadableInstant.class), is(sameInstance((Object) transformer)));
+		assertThat(transformerManager.getFromCache(String.class, ReadableInstant.class), is(nullValue()));
+	}
+
+	@Test
+	public void shouldComposeTransformersUsingShortestAvailablePath() {
+		transformerManager.register(Number.class, Long.class, new NumberToLong());
+		transformerManager.register(Long.class, DateTime.class, new LongToDateTime());
+		transformerManager.register(DateTime.class, Date.class, new DateTimeToDate());
+
+		ETransformer<? super Integer, ? extends Date> transformer = transformerManager.getComposedTransformer(Integer.class, Date.class);
+		assertThat(transformer.from(42).getTime(), is(42l));
+		assertThat(transformerManager.getComposedTransformer(int.class, Date.class).from(42).getTime(), is(42l));
+
+		ObjectToDateTime direct = new ObjectToDateTime();
+		transformerManager.register(Object.class, DateTime.class, direct);
+		assertThat(transformerManager.getComposedTransformer(Integer.class, DateTime.class), is(sameInstance((Object) direct)));
+	}
+
+	@Test
+	public void shouldNotComposeTransformersThroughStringOrNarrowingNumbers() {
+		transformerManager = TransformerManager.createWithDefaults();
+
+		assertThat(transformerManager.getComposedTransformer(Boolean.class, Long.class), is(nullValue()));
+		assertThat(transformerManager.getComposedTransformer(Date.class, Integer.class), is(nullValue()));
+		assertThat(transformerManager.getComposedTransformer(UUID.class, Long.class), is(nullValue()));
+		assertThat(transformerManager.getComposedTransformer(Boolean.class, Date.class), is(nullValue()));
+		assertThat(transformerManager.getComposedTransformer(Date.class, BigDecimal.class), is(notNullValue()));
+	}
+
+	@Test
+	public void shouldOnlyFindSingleBestTransformerFromDefaults() {
+		transformerManager = TransformerManager.createWithDefaults();
+
+		assertThat(transformerManager.getBestTransformer(Boolean.class, Long.class), is(nullValue()));
+		assertThat(transformerManager.getBestTransformer(Date.class, Integer.class), is(nullValue()));
+		assertThat(transformerManager.getBestTransformer(UUID.class, Long.class), is(nullValue()));
+		assertThat(transformerManager.getBestTransformer(Boolean.class, Date.class), is(nullValue()));
+		assertThat(transformerManager.getBestTransformer(Date.class, BigDecimal.class), is(nullValue()));
+	}
+
+	@Test
+	public void shouldOnlyClearCachedTransformersAffectedByNewRegistration() {
+		ObjectToDateTime objectToDateTime = new ObjectToDateTime();
+		transformerManager.register(Object.class, DateTime.class, objectToDateTime);
+		transformerManager.getBestTransformer(String.class, ReadableInstant.class);
+		transformerManager.getBestTransformer(Long.class, ReadableInstant.class);
+
+		transformerManager.register(UUID.class, String.class, new UUIDToString());
+		assertThat(transformerManager.getFromCache(String.class, ReadableInstant.class), is(notNullValue()));
+		assertThat(transformerManager.getFromCache(Long.class, ReadableInstant.class), is(notNullValue()));
+
+		LongToDateTime longToDateTime = new LongToDateTime();
+		transformerManager.register(Long.class, DateTime.class, longToDateTime);
+		assertThat(transformerManager.getFromCache(String.class, ReadableInstant.class), is(notNullValue()));
+		assertThat(transformerManager.getFromCache(Long.class, ReadableInstant.class), is(nullValue()));
+		assertThat(transformerManager.getBestTransformer(Long.class, ReadableInstant.class), is(sameInstance((Object) longToDateTime)));
+	}
+
+	@Test
+	public void shouldClearComposedTransformersWhenNewTransformersRegistered() {
+		transformerManager.register(Long.class, DateTime.class, new LongToDateTime());
+		transformerManager.register(DateTime.class, Date.class, new DateTimeToDate());
+		ETransformer<? super Long, ? extends Date> composed = transformerManager.getComposedTransformer(Long.class, Date.class);
+
+		transformerManager.register(ReadableInstant.class, Date.class, new ReadableInstantToDate());
+		ETransformer<? super Long, ? extends Date> recomposed = transformerManager.getComposedTransformer(Long.class, Date.class);
+		assertThat(recomposed, is(not(sameInstance((Object) composed))));
+		assertThat(recomposed.from(1000l), is(new Date(1000)));
+	}
+
 	@Test
 	public void shouldReturnNullWhenNoBestTransformerFound() {
 		assertThat(transformerManager.getBestTransformer(String.class, Integer.class), is(nullValue()));
@@ -378,6 +459,39 @@ public class TransformerManagerTest {
 		assertThat(copy.getTransformer(Long.class, String.class), is((ETransformer<Long, String>) transformer2));
 	}
 
+	@Test
+	public void shouldGetPrimitiveTransformersForRegisteredTransformers() {
+		StringToInteger toInteger = new StringToInteger();
+		NumberToLong toLong = new NumberToLong();
+		StringToDouble toDouble = new StringToDouble();
+		transformerManager.register(String.class, Integer.class, toInteger);
+		transformerManager.register(Number.class, Long.class, toLong);
+		transformerManager.register(String.class, Double.class, toDouble);
+
+		assertThat(transformerManager.getIntTransformer(String.class), sameInstance((Object) toInteger));
+		assertThat(transformerManager.getLongTransformer(Integer.class), sameInstance((Object) toLong));
+		assertThat(transformerManager.getDoubleTransformer(String.class), sameInstance((Object) toDouble));
+		assertThat(transformerManager.getIntTransformer(String.class).toInt("12"), is(12));
+	}
+
+	@Test
+	public void shouldReturnNullPrimitiveTransformerWhenNoneRegistered() {
+		assertThat(transformerManager.getIntTransformer(String.class), is(nullValue()));
+		assertThat(transformerManager.getLongTransformer(String.class), is(nullValue()));
+		assertThat(transformerManager.getDoubleTransformer(String.class), is(nullValue()));
+	}
+
+	@Test
+	public void shouldReturnNullPrimitiveTransformerWhenRegisteredTransformerIsNotPrimitive() {
+		transformerManager.register(String.class, Integer.class, new ETransformer<String, Integer>() {
+			@Override
+			public Integer from(String from) {
+				return Integer.valueOf(from);
+			}
+		});
+		assertThat(transformerManager.getIntTransformer(String.class), is(nullValue()));
+	}
+
 	@Test
 	public void shouldRegisterDefaultTransformers() {
 		transformerManager = TransformerManager.createWithDefaults();
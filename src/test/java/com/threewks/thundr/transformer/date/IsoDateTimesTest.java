@@ -0,0 +1,134 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.transformer.date;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.BuddhistChronology;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class IsoDateTimesTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private DateTimeFormatter jodaParser = ISODateTimeFormat.dateOptionalTimeParser();
+	private DateTimeFormatter jodaFormat = ISODateTimeFormat.dateTime();
+	private DateTimeZone defaultZone;
+
+	@Before
+	public void before() {
+		defaultZone = DateTimeZone.getDefault();
+		DateTimeZone.setDefault(DateTimeZone.forID("Australia/Sydney"));
+	}
+
+	@After
+	public void after() {
+		DateTimeZone.setDefault(defaultZone);
+	}
+
+	@Test
+	public void shouldParseTheSameAsJoda() {
+		String[] values = { "2014", "2014-06", "2014-06-01", "2014-06-01T12", "2014-06-01T12:34", "2014-06-01T12:34:56", "2014-06-01T12:34:56.1",
+				"2014-06-01T12:34:56.123456789", "2014-06-01T12:34:56.123Z", "2014-06-01T12+08:00", "2014-06-01T12:34:56.123-0330",
+				"2014-06-01T12:34:56.123+05", "2014-06-01T12:34:56.123-00:00", "2016-02-29", "0000-01-01", "9999-12-31T23:59:59.999",
+				"1969-12-31T23:59:59.999Z", "2014-04-06T02:30", "2014-W01-1", "2014-123", "10000-01-01", "2014-6-1", "2014-06-01t12" };
+		for (String value : values) {
+			assertThat(value, IsoDateTimes.parseDateTime(value, true), is(jodaParser.withOffsetParsed().parseDateTime(value)));
+			assertThat(value, IsoDateTimes.parseDateTime(value, false), is(jodaParser.parseDateTime(value)));
+			assertThat(value, IsoDateTimes.parseMillis(value), is(jodaParser.parseMillis(value)));
+		}
+	}
+
+	@Test
+	public void shouldRetainParsedOffsetWhenRequested() {
+		DateTime parsed = IsoDateTimes.parseDateTime("2014-06-01T12:34:56.123+10:30", true);
+		assertThat(parsed.getZone(), is(DateTimeZone.forOffsetHoursMinutes(10, 30)));
+		assertThat(parsed.getHourOfDay(), is(12));
+		assertThat(IsoDateTimes.parseDateTime("2014-06-01T12:34:56.123Z", true).getZone(), is(DateTimeZone.UTC));
+		assertThat(IsoDateTimes.parseDateTime("2014-06-01T12:34:56.123+10:30", false).getZone(), is(DateTimeZone.getDefault()));
+	}
+
+	@Test
+	public void shouldFailToParseInvalidMonth() {
+		thrown.expect(IllegalArgumentException.class);
+		IsoDateTimes.parseDateTime("2014-13-01", true);
+	}
+
+	@Test
+	public void shouldFailToParseInvalidDayOfMonth() {
+		thrown.expect(IllegalArgumentException.class);
+		IsoDateTimes.parseMillis("2014-02-29");
+	}
+
+	@Test
+	public void shouldFailToParseInvalidTime() {
+		thrown.expect(IllegalArgumentException.class);
+		IsoDateTimes.parseDateTime("2014-06-01T23:60", true);
+	}
+
+	@Test
+	public void shouldFailToParseOffsetWithoutTime() {
+		thrown.expect(IllegalArgumentException.class);
+		IsoDateTimes.parseDateTime("2014-06-01Z", true);
+	}
+
+	@Test
+	public void shouldFailToParseTimeInDaylightSavingsGap() {
+		thrown.expect(IllegalArgumentException.class);
+		IsoDateTimes.parseDateTime("2014-10-05T02:30", false);
+	}
+
+	@Test
+	public void shouldPrintTheSameAsJoda() {
+		DateTime[] values = { new DateTime(2014, 6, 1, 12, 34, 56, 123, DateTimeZone.UTC), new DateTime(2014, 6, 1, 12, 34, 56, 123, DateTimeZone.forOffsetHours(-10)),
+				new DateTime(2014, 6, 1, 12, 34, 56, 123, DateTimeZone.forOffsetHoursMinutes(5, 30)), new DateTime(2014, 6, 1, 0, 0, 0, 0, DateTimeZone.forID("Australia/Sydney")),
+				new DateTime(0, 1, 1, 0, 0, 0, 0, DateTimeZone.UTC), new DateTime(9999, 12, 31, 23, 59, 59, 999, DateTimeZone.UTC), new DateTime(-1l, DateTimeZone.UTC),
+				new DateTime(10000, 1, 1, 0, 0, 0, 0, DateTimeZone.UTC), new DateTime(-1, 1, 1, 0, 0, 0, 0, DateTimeZone.UTC),
+				new DateTime(123456789l, DateTimeZone.forOffsetMillis(1234)), new DateTime(0l, BuddhistChronology.getInstance(DateTimeZone.UTC)) };
+		for (DateTime value : values) {
+			assertThat(IsoDateTimes.print(value), is(jodaFormat.print(value)));
+			assertThat(IsoDateTimes.print(value.getMillis(), value.getZone()), is(jodaFormat.withZone(value.getZone()).print(value.getMillis())));
+		}
+	}
+
+	@Test
+	public void shouldPrintMillisInGivenZone() {
+		assertThat(IsoDateTimes.print(1401626096123l, DateTimeZone.UTC), is("2014-06-01T12:34:56.123Z"));
+		assertThat(IsoDateTimes.print(1401626096123l, DateTimeZone.forOffsetHours(10)), is("2014-06-01T22:34:56.123+10:00"));
+	}
+
+	@Test
+	public void shouldRecogniseEpochMillis() {
+		assertThat(IsoDateTimes.isEpochMillis("0"), is(true));
+		assertThat(IsoDateTimes.isEpochMillis("1401626096123"), is(true));
+		assertThat(IsoDateTimes.isEpochMillis("-1000"), is(true));
+		assertThat(IsoDateTimes.isEpochMillis(""), is(false));
+		assertThat(IsoDateTimes.isEpochMillis("-"), is(false));
+		assertThat(IsoDateTimes.isEpochMillis("2014-06-01"), is(false));
+		assertThat(IsoDateTimes.isEpochMillis("1e3"), is(false));
+	}
+}
@@ -20,6 +20,8 @@ package com.threewks.thundr.transformer.date;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 
+import java.util.Date;
+
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.junit.Rule;
@@ -66,4 +68,11 @@ public class StringToDateTest {
 		thrown.expect(IllegalArgumentException.class);
 		transformer.from("");
 	}
+
+	@Test
+	public void shouldTransformEpochMillisOnlyWhenEnabled() {
+		assertThat(new StringToDate(true).from("1401626096123"), is(new Date(1401626096123l)));
+		assertThat(new StringToDate(true).from("2014-06-01T12:34:56.123Z"), is(new Date(1401626096123l)));
+		assertThat(transformer.from("2014"), is(new DateTime(2014, 1, 1, 0, 0, 0).toDate()));
+	}
 }
@@ -76,4 +76,18 @@ public class StringToDateTimeTest {
 		thrown.expect(IllegalArgumentException.class);
 		transformer.from("");
 	}
+
+	@Test
+	public void shouldTransformEpochMillisOnlyWhenEnabled() {
+		assertThat(new StringToDateTime(true).from("1401626096123"), is(new DateTime(1401626096123l)));
+		assertThat(new StringToDateTime(true).from("-1000"), is(new DateTime(-1000l)));
+		assertThat(new StringToDateTime(true).from("2014-06-01T12:34:56.123Z"), is(new DateTime(2014, 6, 1, 12, 34, 56, 123, DateTimeZone.UTC)));
+		assertThat(transformer.from("2014").compareTo(new DateTime(2014, 1, 1, 0, 0, 0)), is(0));
+	}
+
+	@Test
+	public void shouldFailToTransformInvalidDate() {
+		thrown.expect(IllegalArgumentException.class);
+		transformer.from("2014-02-30");
+	}
 }
@@ -66,4 +66,10 @@ public class StringToReadableInstantTest {
 		thrown.expect(IllegalArgumentException.class);
 		transformer.from("");
 	}
+
+	@Test
+	public void shouldTransformEpochMillisOnlyWhenEnabled() {
+		assertThat(new StringToReadableInstant(true).from("1401626096123").getMillis(), is(1401626096123l));
+		assertThat(transformer.from("2014").compareTo(new DateTime(2014, 1, 1, 0, 0, 0)), is(0));
+	}
 }
@@ -0,0 +1,118 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.transformer.numeric;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class NumberParsersTest {
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void shouldParseInt() {
+		assertThat(NumberParsers.parseInt("0"), is(0));
+		assertThat(NumberParsers.parseInt("+12"), is(12));
+		assertThat(NumberParsers.parseInt("-12"), is(-12));
+		assertThat(NumberParsers.parseInt("007"), is(7));
+		assertThat(NumberParsers.parseInt("2147483647"), is(Integer.MAX_VALUE));
+		assertThat(NumberParsers.parseInt("-2147483648"), is(Integer.MIN_VALUE));
+	}
+
+	@Test
+	public void shouldParseIntFromRange() {
+		assertThat(NumberParsers.parseInt("id=1234;", 3, 7), is(1234));
+		assertThat(NumberParsers.parseInt(new StringBuilder("a-5b"), 1, 3), is(-5));
+	}
+
+	@Test
+	public void shouldFailToParseIntOnOverflow() {
+		thrown.expect(NumberFormatException.class);
+		thrown.expectMessage("For input string: \"2147483648\"");
+		NumberParsers.parseInt("2147483648");
+	}
+
+	@Test
+	public void shouldFailToParseIntWithInvalidCharacters() {
+		thrown.expect(NumberFormatException.class);
+		thrown.expectMessage("For input string: \"12a\"");
+		NumberParsers.parseInt("12a");
+	}
+
+	@Test
+	public void shouldFailToParseEmptyOrSignOnlyInt() {
+		for (String value : new String[] { "", "-", "+" }) {
+			try {
+				NumberParsers.parseInt(value);
+				throw new AssertionError("Expected failure for '" + value + "'");
+			} catch (NumberFormatException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void shouldFailToParseNullInt() {
+		thrown.expect(NumberFormatException.class);
+		NumberParsers.parseInt(null);
+	}
+
+	@Test
+	public void shouldParseLong() {
+		assertThat(NumberParsers.parseLong("0"), is(0l));
+		assertThat(NumberParsers.parseLong("-9000000000"), is(-9000000000l));
+		assertThat(NumberParsers.parseLong("9223372036854775807"), is(Long.MAX_VALUE));
+		assertThat(NumberParsers.parseLong("-9223372036854775808"), is(Long.MIN_VALUE));
+		assertThat(NumberParsers.parseLong("[9000000000]", 1, 11), is(9000000000l));
+	}
+
+	@Test
+	public void shouldFailToParseLongOnOverflow() {
+		thrown.expect(NumberFormatException.class);
+		thrown.expectMessage("For input string: \"9223372036854775808\"");
+		NumberParsers.parseLong("9223372036854775808");
+	}
+
+	@Test
+	public void shouldParseDouble() {
+		assertThat(NumberParsers.parseDouble("0"), is(0d));
+		assertThat(NumberParsers.parseDouble("-0.0"), is(-0d));
+		assertThat(NumberParsers.parseDouble("0.1"), is(0.1d));
+		assertThat(NumberParsers.parseDouble("-1234.5678"), is(-1234.5678d));
+		assertThat(NumberParsers.parseDouble(".5"), is(0.5d));
+		assertThat(NumberParsers.parseDouble("123456789012345"), is(123456789012345d));
+		assertThat(NumberParsers.parseDouble("x=2.25", 2, 6), is(2.25d));
+	}
+
+	@Test
+	public void shouldParseDoubleMatchingDoubleParseDouble() {
+		for (String value : new String[] { "1.2E-35", "1e10", "NaN", "-Infinity", "0x1p3", "12345678901234567890.123", "0.30000000000000004", "1.7976931348623157E308", "4.9E-324", " 12.5 ", "1d" }) {
+			assertThat(value, NumberParsers.parseDouble(value), is(Double.parseDouble(value)));
+		}
+	}
+
+	@Test
+	public void shouldFailToParseInvalidDouble() {
+		thrown.expect(NumberFormatException.class);
+		NumberParsers.parseDouble("1.2.3");
+	}
+}
@@ -45,4 +45,11 @@ public class NumberToDoubleTest {
 		assertThat(transformer.from(10), is(10d));
 		assertThat(transformer.from((int) 11), is(11d));
 	}
+
+	@Test
+	public void shouldTransformToPrimitive() {
+		assertThat(transformer.toDouble(BigDecimal.TEN), is(10d));
+		assertThat(transformer.toDouble(1234), is(1234d));
+		assertThat(transformer.toDouble(1234.01f), is(1234.010009765625d));
+	}
 }
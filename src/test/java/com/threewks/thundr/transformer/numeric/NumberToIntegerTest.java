@@ -46,4 +46,11 @@ public class NumberToIntegerTest {
 		assertThat(transformer.from(10l), is(10));
 		assertThat(transformer.from((int) 11), is(11));
 	}
+
+	@Test
+	public void shouldTransformToPrimitive() {
+		assertThat(transformer.toInt(BigDecimal.TEN), is(10));
+		assertThat(transformer.toInt(1234l), is(1234));
+		assertThat(transformer.toInt(1234.99d), is(1234));
+	}
 }
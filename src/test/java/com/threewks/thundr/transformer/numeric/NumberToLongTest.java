@@ -45,4 +45,11 @@ public class NumberToLongTest {
 		assertThat(transformer.from(10), is(10l));
 		assertThat(transformer.from((int) 11), is(11l));
 	}
+
+	@Test
+	public void shouldTransformToPrimitive() {
+		assertThat(transformer.toLong(BigDecimal.TEN), is(10l));
+		assertThat(transformer.toLong(1234), is(1234l));
+		assertThat(transformer.toLong(1234.99d), is(1234l));
+	}
 }
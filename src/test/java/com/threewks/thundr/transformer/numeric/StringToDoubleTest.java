@@ -34,4 +34,17 @@ public class StringToDoubleTest {
 		assertThat(transformer.from("1.7976931348623157E308"), is(Double.MAX_VALUE));
 		assertThat(transformer.from("4.9E-324"), is(Double.MIN_VALUE));
 	}
+
+	@Test
+	public void shouldTransformToPrimitive() {
+		assertThat(transformer.toDouble("0"), is(0d));
+		assertThat(transformer.toDouble("-1234.5"), is(-1234.5d));
+		assertThat(transformer.toDouble(new StringBuilder("0.1")), is(0.1d));
+		assertThat(transformer.toDouble("1.2E-35"), is(1.2E-35d));
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void shouldFailToTransformInvalidValueToPrimitive() {
+		transformer.toDouble("1.2.3");
+	}
 }
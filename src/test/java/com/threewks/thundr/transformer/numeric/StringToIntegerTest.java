@@ -34,4 +34,17 @@ public class StringToIntegerTest {
 		assertThat(transformer.from("2147483647"), is(Integer.MAX_VALUE));
 		assertThat(transformer.from("-2147483648"), is(Integer.MIN_VALUE));
 	}
+
+	@Test
+	public void shouldTransformToPrimitive() {
+		assertThat(transformer.toInt("0"), is(0));
+		assertThat(transformer.toInt("-1234"), is(-1234));
+		assertThat(transformer.toInt(new StringBuilder("2147483647")), is(Integer.MAX_VALUE));
+		assertThat(transformer.toInt("-2147483648"), is(Integer.MIN_VALUE));
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void shouldFailToTransformInvalidValueToPrimitive() {
+		transformer.toInt("2147483648");
+	}
 }
@@ -34,4 +34,17 @@ public class StringToLongTest {
 		assertThat(transformer.from("9223372036854775807"), is(Long.MAX_VALUE));
 		assertThat(transformer.from("-9223372036854775808"), is(Long.MIN_VALUE));
 	}
+
+	@Test
+	public void shouldTransformToPrimitive() {
+		assertThat(transformer.toLong("0"), is(0l));
+		assertThat(transformer.toLong("-1234"), is(-1234l));
+		assertThat(transformer.toLong(new StringBuilder("9223372036854775807")), is(Long.MAX_VALUE));
+		assertThat(transformer.toLong("-9223372036854775808"), is(Long.MIN_VALUE));
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void shouldFailToTransformInvalidValueToPrimitive() {
+		transformer.toLong("12a");
+	}
 }
@@ -0,0 +1,194 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+public class Utf8WriterTest {
+	private ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	@Test
+	public void shouldEncodeAsUtf8() throws IOException {
+		String value = "ascii \u00e9\u00df \u20ac\uffff \ud83d\ude00";
+		Utf8Writer writer = Utf8Writer.acquire(out);
+		writer.write(value);
+		writer.close();
+		assertThat(out.toByteArray(), is(value.getBytes("UTF-8")));
+	}
+
+	@Test
+	public void shouldEncodeSurrogatePairSplitAcrossWrites() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(out);
+		writer.write('\ud83d');
+		writer.write("\ude00");
+		writer.close();
+		assertThat(out.toByteArray(), is("\ud83d\ude00".getBytes("UTF-8")));
+	}
+
+	@Test
+	public void shouldWriteMalformedSurrogatesAsQuestionMarks() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(out);
+		writer.write("a\ude00b\ud83dc\ud83d");
+		writer.close();
+		assertThat(new String(out.toByteArray(), "UTF-8"), is("a?b?c?"));
+	}
+
+	@Test
+	public void shouldWriteToStreamAsBufferFills() throws IOException {
+		String value = StringUtils.repeat("\u20ac", 10000);
+		Utf8Writer writer = Utf8Writer.acquire(out);
+		writer.write(value);
+		assertThat(out.size(), is(greaterThan(0)));
+		assertThat(writer.size(), is(lessThan(30000)));
+
+		writer.close();
+		assertThat(out.toByteArray(), is(value.getBytes("UTF-8")));
+	}
+
+	@Test
+	public void shouldRetainAllOutputWhenAcquiredWithoutStream() throws IOException {
+		String value = StringUtils.repeat("value", 10000);
+		Utf8Writer writer = Utf8Writer.acquire(null);
+		writer.write(value);
+		assertThat(writer.size(), is(50000));
+
+		writer.writeTo(out);
+		writer.release();
+		assertThat(out.toByteArray(), is(value.getBytes("UTF-8")));
+	}
+
+	@Test
+	public void shouldReusePooledWriterOnceReleased() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(out);
+		Utf8Writer nested = Utf8Writer.acquire(out);
+		assertThat(nested, is(not(sameInstance(writer))));
+		nested.close();
+
+		writer.write("discarded");
+		writer.release();
+		assertThat(out.size(), is(0));
+		Utf8Writer reused = Utf8Writer.acquire(null);
+		assertThat(reused, is(sameInstance(writer)));
+		reused.release();
+	}
+
+	@Test
+	public void shouldNotCloseUnderlyingStream() throws IOException {
+		final boolean[] closed = { false };
+		ByteArrayOutputStream stream = new ByteArrayOutputStream() {
+			@Override
+			public void close() throws IOException {
+				closed[0] = true;
+			}
+		};
+		Utf8Writer writer = Utf8Writer.acquire(stream);
+		writer.write("value");
+		writer.close();
+		assertThat(stream.toString("UTF-8"), is("value"));
+		assertThat(closed[0], is(false));
+	}
+
+	@Test
+	public void shouldKeepLargeBufferWhileLargeOutputIsRepeated() throws IOException {
+		String value = StringUtils.repeat("value", 200000);
+		for (int i = 0; i < 20; i++) {
+			Utf8Writer writer = Utf8Writer.acquire(null);
+			writer.write(value);
+			writer.writeTo(out);
+			writer.release();
+			assertThat(writer.capacity(), is(greaterThanOrEqualTo(1000000)));
+		}
+	}
+
+	@Test
+	public void shouldWriteToStreamAsGeneratedAfterRetainingLargeOutput() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(null);
+		writer.write(StringUtils.repeat("value", 200000));
+		writer.release();
+
+		writer = Utf8Writer.acquire(out);
+		writer.write(StringUtils.repeat("value", 10000));
+		assertThat(out.size(), is(greaterThan(0)));
+		assertThat(writer.size(), is(lessThan(10000)));
+		writer.close();
+	}
+
+	@Test
+	public void shouldDiscardLargeBufferOnceOutputIsSmaller() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(null);
+		writer.write(StringUtils.repeat("value", 200000));
+		writer.writeTo(out);
+		writer.release();
+		assertThat(writer.capacity(), is(greaterThanOrEqualTo(1000000)));
+
+		for (int i = 0; i < 20; i++) {
+			writer = Utf8Writer.acquire(null);
+			writer.write("small");
+			writer.writeTo(out);
+			writer.release();
+		}
+		assertThat(writer.capacity(), is(8 * 1024));
+	}
+
+	@Test
+	public void shouldDiscardBufferLargerThanMaxRetainedBufferSize() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(null, 64 * 1024);
+		writer.write(StringUtils.repeat("value", 20000));
+		writer.writeTo(out);
+		writer.release();
+		assertThat(writer.capacity(), is(8 * 1024));
+	}
+
+	@Test
+	public void shouldApplyMaxRetainedBufferSizeOfEachAcquire() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(null, 256 * 1024);
+		writer.write(StringUtils.repeat("value", 20000));
+		writer.writeTo(out);
+		writer.release();
+		assertThat(writer.capacity(), is(128 * 1024));
+
+		writer = Utf8Writer.acquire(null);
+		writer.release();
+		assertThat(writer.capacity(), is(128 * 1024));
+
+		writer = Utf8Writer.acquire(null, 64 * 1024);
+		writer.release();
+		assertThat(writer.capacity(), is(8 * 1024));
+	}
+
+	@Test
+	public void shouldDiscardBufferLargerThanDefaultMaxRetainedBufferSize() throws IOException {
+		Utf8Writer writer = Utf8Writer.acquire(null);
+		writer.write(StringUtils.repeat("value", 250000));
+		writer.writeTo(out);
+		writer.release();
+		assertThat(writer.capacity(), is(8 * 1024));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectMaxRetainedBufferSizeSmallerThanBuffer() {
+		Utf8Writer.checkMaxRetainedBufferSize(1024);
+	}
+}
@@ -26,8 +26,10 @@ import com.threewks.thundr.http.StatusCode;
 import com.threewks.thundr.http.exception.HttpStatusException;
 import com.threewks.thundr.injection.InjectionContextImpl;
 import com.threewks.thundr.injection.UpdatableInjectionContext;
+import com.threewks.thundr.profiler.StartupProfiler;
 import com.threewks.thundr.route.RouteNotFoundException;
 import com.threewks.thundr.route.Router;
+import com.threewks.thundr.util.Utf8Writer;
 import com.threewks.thundr.view.exception.ExceptionViewResolver;
 import com.threewks.thundr.view.exception.HttpStatusExceptionViewResolver;
 import com.threewks.thundr.view.exception.RouteNotFoundViewResolver;
@@ -86,6 +88,39 @@ public class ViewModuleTest {
 		assertThat(injectionContext.contains(NegotiatingViewResolver.class), is(true));
 	}
 
+	@Test
+	public void shouldConfigureMaxRetainedBufferSizeOfJsonViewResolversFromNamedProperty() {
+		ViewResolverRegistry registry = new ViewResolverRegistry();
+		injectionContext.inject(registry).as(ViewResolverRegistry.class);
+		injectionContext.inject("65536").named(Utf8Writer.MaxRetainedBufferSizeProperty).as(String.class);
+		module.initialise(injectionContext);
+		module.configure(injectionContext);
+
+		assertThat(((JsonViewResolver) registry.findViewResolver(new JsonView(""))).getMaxRetainedBufferSize(), is(65536));
+		assertThat(((JsonpViewResolver) registry.findViewResolver(new JsonpView(""))).getMaxRetainedBufferSize(), is(65536));
+	}
+
+	@Test
+	public void shouldNotConfigureMaxRetainedBufferSizeFromUnnamedString() {
+		ViewResolverRegistry registry = new ViewResolverRegistry();
+		injectionContext.inject(registry).as(ViewResolverRegistry.class);
+		injectionContext.inject("value").as(String.class);
+		module.initialise(injectionContext);
+		module.configure(injectionContext);
+
+		assertThat(((JsonViewResolver) registry.findViewResolver(new JsonView(""))).getMaxRetainedBufferSize(), is(Utf8Writer.DefaultMaxRetainedBufferSize));
+	}
+
+	@Test
+	public void shouldProfileAddingViewResolversWithInjectedProfiler() {
+		StartupProfiler startupProfiler = new StartupProfiler().activate();
+		injectionContext.inject(startupProfiler).as(StartupProfiler.class);
+		module.initialise(injectionContext);
+		module.configure(injectionContext);
+
+		assertThat(startupProfiler.getEvents(StartupProfiler.View).isEmpty(), is(false));
+	}
+
 	@Test
 	public void shouldAddRoutesToGlobalModelOnConfigure() {
 		GlobalModel globalModel = new GlobalModel();
@@ -21,6 +21,8 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class ViewResolverRegistryTest {
@@ -107,4 +109,34 @@ public class ViewResolverRegistryTest {
 		assertThat(registry.findViewResolver(viewResult), is(nullValue()));
 		assertThat(registry.findViewResolverInCache(viewResult), is(nullValue()));
 	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void shouldPrecomputeViewResolverForGivenViewTypes() {
+		ViewResolver resolver = mock(ViewResolver.class);
+		registry.addResolver(Throwable.class, resolver);
+		registry = spy(registry);
+
+		registry.precompute(Arrays.<Class<?>> asList(IllegalArgumentException.class, String.class, null));
+
+		IllegalArgumentException viewResult = new IllegalArgumentException();
+		assertThat(registry.findViewResolverInCache(viewResult), is(resolver));
+		assertThat(registry.findViewResolver(viewResult), is(resolver));
+		verify(registry, times(0)).createAndCacheResolver(viewResult);
+		assertThat(registry.findViewResolverInCache(""), is(nullValue()));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void shouldClearPrecomputedViewResolversWhenResolverIsAdded() {
+		ViewResolver resolverA = mock(ViewResolver.class);
+		ViewResolver resolverB = mock(ViewResolver.class);
+		registry.addResolver(Throwable.class, resolverA);
+		registry.precompute(Arrays.<Class<?>> asList(IllegalArgumentException.class));
+
+		registry.addResolver(RuntimeException.class, resolverB);
+
+		assertThat(registry.findViewResolverInCache(new IllegalArgumentException()), is(nullValue()));
+		assertThat(registry.findViewResolver(new IllegalArgumentException()), is(resolverB));
+	}
 }
@@ -0,0 +1,80 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.view.file;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class ByteRangeTest {
+	@Test
+	public void shouldParseRanges() {
+		assertThat(ByteRange.parse("bytes=0-499", 10000).toString(), is("[0-499]"));
+		assertThat(ByteRange.parse("bytes=500-999,-500", 10000).toString(), is("[500-999, 9500-9999]"));
+		assertThat(ByteRange.parse("bytes=9500-", 10000).toString(), is("[9500-9999]"));
+		assertThat(ByteRange.parse("BYTES= 0-0 , 2-3", 10000).toString(), is("[0-0, 2-3]"));
+	}
+
+	@Test
+	public void shouldLimitRangesToLength() {
+		assertThat(ByteRange.parse("bytes=9000-20000", 10000).toString(), is("[9000-9999]"));
+		assertThat(ByteRange.parse("bytes=-20000", 10000).toString(), is("[0-9999]"));
+	}
+
+	@Test
+	public void shouldReturnNoRangesWhenNoneAreSatisfiable() {
+		assertThat(ByteRange.parse("bytes=10000-", 10000), is(empty()));
+		assertThat(ByteRange.parse("bytes=-0", 10000), is(empty()));
+		assertThat(ByteRange.parse("bytes=0-1", 0), is(empty()));
+	}
+
+	@Test
+	public void shouldReturnNullForAbsentOrMalformedRanges() {
+		assertThat(ByteRange.parse(null, 10000), is(nullValue()));
+		assertThat(ByteRange.parse("items=0-1", 10000), is(nullValue()));
+		assertThat(ByteRange.parse("bytes=5-2", 10000), is(nullValue()));
+		assertThat(ByteRange.parse("bytes=0-1,x", 10000), is(nullValue()));
+		assertThat(ByteRange.parse("bytes=a-b", 10000), is(nullValue()));
+	}
+
+	@Test
+	public void shouldReturnNullForTooManyRanges() {
+		StringBuilder header = new StringBuilder("bytes=0-0");
+		for (int i = 1; i <= ByteRange.MaxRanges; i++) {
+			header.append(",").append(i).append("-").append(i);
+		}
+		assertThat(ByteRange.parse(header.toString(), 10000), is(nullValue()));
+	}
+
+	@Test
+	public void shouldDetermineWhetherRangesAreAscending() {
+		assertThat(ByteRange.isAscending(ByteRange.parse("bytes=0-1,2-3,10-", 100)), is(true));
+		assertThat(ByteRange.isAscending(ByteRange.parse("bytes=0-5,3-7", 100)), is(false));
+		assertThat(ByteRange.isAscending(ByteRange.parse("bytes=10-20,0-1", 100)), is(false));
+	}
+
+	@Test
+	public void shouldDescribeContentRange() {
+		List<ByteRange> ranges = ByteRange.parse("bytes=5-9", 100);
+		assertThat(ranges.get(0).contentRange(100), is("bytes 5-9/100"));
+		assertThat(ranges.get(0).length(), is(5L));
+	}
+}
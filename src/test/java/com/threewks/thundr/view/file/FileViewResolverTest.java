@@ -20,18 +20,31 @@ package com.threewks.thundr.view.file;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
+import org.hamcrest.Matchers;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.threewks.thundr.http.Cookie;
 import com.threewks.thundr.http.Header;
+import com.threewks.thundr.http.StatusCode;
+import com.threewks.thundr.route.HttpMethod;
 import com.threewks.thundr.request.mock.MockRequest;
 import com.threewks.thundr.request.mock.MockResponse;
 import com.threewks.thundr.view.ViewResolutionException;
@@ -39,6 +52,8 @@ import com.threewks.thundr.view.ViewResolutionException;
 public class FileViewResolverTest {
 	@Rule
 	public ExpectedException thrown = ExpectedException.none();
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
 	private MockRequest req = new MockRequest();
 	private MockResponse resp = new MockResponse();
@@ -123,6 +138,217 @@ public class FileViewResolverTest {
 		verify(is).close();
 	}
 
+	@Test
+	public void shouldWriteContentLengthAndAcceptRangesWhenLengthIsKnown() {
+		fileViewResolver.resolve(req, resp, fileView);
+
+		assertThat(resp.getContentLength(), is(3L));
+		assertThat(resp.getHeader(Header.AcceptRanges), is("bytes"));
+		assertThat(resp.getBodyAsBytes(), is(data));
+	}
+
+	@Test
+	public void shouldNotWriteContentLengthWhenLengthIsUnknown() throws IOException {
+		fileView = new FileView("filename.ext", mockInputStream(), "content/type");
+		fileViewResolver.resolve(req, resp, fileView);
+
+		assertThat(resp.getContentLength(), is(nullValue()));
+		assertThat(resp.getHeader(Header.AcceptRanges), is(nullValue()));
+	}
+
+	@Test
+	public void shouldWriteSingleRequestedRange() {
+		req.withHeader(Header.Range, "bytes=1-");
+		fileViewResolver.resolve(req, resp, fileView);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.PartialContent));
+		assertThat(resp.getHeader(Header.ContentRange), is("bytes 1-2/3"));
+		assertThat(resp.getContentLength(), is(2L));
+		assertThat(resp.getBodyAsBytes(), is(new byte[] { 2, 3 }));
+	}
+
+	@Test
+	public void shouldWriteMultipleRequestedRangesAsMultipartByteranges() throws IOException {
+		req.withHeader(Header.Range, "bytes=0-0,-1");
+		fileViewResolver.resolve(req, resp, fileView);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.PartialContent));
+		assertThat(resp.getContentTypeString(), Matchers.startsWith("multipart/byteranges; boundary="));
+		String boundary = resp.getContentTypeString().substring("multipart/byteranges; boundary=".length());
+		String expected = "\r\n--" + boundary + "\r\nContent-Type: content/type\r\nContent-Range: bytes 0-0/3\r\n\r\n\u0001" + "\r\n--" + boundary
+				+ "\r\nContent-Type: content/type\r\nContent-Range: bytes 2-2/3\r\n\r\n\u0003" + "\r\n--" + boundary + "--\r\n";
+		assertThat(new String(resp.getBodyAsBytes(), "ISO-8859-1"), is(expected));
+		assertThat(resp.getContentLength(), is((long) resp.getBodyAsBytes().length));
+	}
+
+	@Test
+	public void shouldWriteWholeStreamWhenRequestedRangesAreOutOfOrder() {
+		req.withHeader(Header.Range, "bytes=2-2,0-0");
+		fileViewResolver.resolve(req, resp, fileView);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsBytes(), is(data));
+	}
+
+	@Test
+	public void shouldRespondRangeNotSatisfiableWhenNoRangeCanBeSatisfied() {
+		req.withHeader(Header.Range, "bytes=5-10");
+		fileViewResolver.resolve(req, resp, fileView);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.RequestedRangeNotSatisfiable));
+		assertThat(resp.getHeader(Header.ContentRange), is("bytes */3"));
+		assertThat(resp.getBodyAsBytes().length, is(0));
+	}
+
+	@Test
+	public void shouldIgnoreMalformedRange() {
+		req.withHeader(Header.Range, "bytes=2-1");
+		fileViewResolver.resolve(req, resp, fileView);
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsBytes(), is(data));
+	}
+
+	@Test
+	public void shouldWriteEtagAndLastModifiedForFiles() throws IOException {
+		Path path = createFile();
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+
+		assertThat(resp.getHeader(Header.ETag), is("\"a-493e0\""));
+		assertThat(resp.getHeader(Header.LastModified), is("Thu, 01 Jan 1970 00:05:00 GMT"));
+		assertThat(resp.getContentLength(), is(10L));
+		assertThat(resp.getBodyAsString(), is("0123456789"));
+	}
+
+	@Test
+	public void shouldTransferRangesFromFile() throws IOException {
+		Path path = createFile();
+		req.withHeader(Header.Range, "bytes=5-7,0-1");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+
+		assertThat(resp.getStatusCode(), is(StatusCode.PartialContent));
+		assertThat(resp.getBodyAsString(), allOf(containsString("bytes 5-7/10\r\n\r\n567\r\n"), containsString("bytes 0-1/10\r\n\r\n01\r\n")));
+	}
+
+	@Test
+	public void shouldRespondNotModifiedWhenEtagMatches() throws IOException {
+		Path path = createFile();
+		req.withHeader(Header.IfNoneMatch, "\"other\", W/\"a-493e0\"");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+
+		assertThat(resp.getStatusCode(), is(StatusCode.NotModified));
+		assertThat(resp.getHeader(Header.ETag), is("\"a-493e0\""));
+		assertThat(resp.getBodyAsBytes().length, is(0));
+	}
+
+	@Test
+	public void shouldRespondNotModifiedWhenNotModifiedSince() throws IOException {
+		Path path = createFile();
+		req.withHeader(Header.IfModifiedSince, "Thu, 01 Jan 1970 00:05:00 GMT");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+
+		assertThat(resp.getStatusCode(), is(StatusCode.NotModified));
+		assertThat(resp.getBodyAsBytes().length, is(0));
+	}
+
+	@Test
+	public void shouldWriteFileWhenModifiedSince() throws IOException {
+		Path path = createFile();
+		req.withHeader(Header.IfModifiedSince, "Thu, 01 Jan 1970 00:04:59 GMT");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsString(), is("0123456789"));
+	}
+
+	@Test
+	public void shouldWriteFileWhenEtagDoesNotMatchEvenIfNotModifiedSince() throws IOException {
+		Path path = createFile();
+		req.withHeader(Header.IfNoneMatch, "\"other\"");
+		req.withHeader(Header.IfModifiedSince, "Thu, 01 Jan 1970 00:05:00 GMT");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsString(), is("0123456789"));
+	}
+
+	@Test
+	public void shouldOnlyApplyConditionsToGetAndHeadRequests() throws IOException {
+		Path path = createFile();
+		req.withMethod(HttpMethod.POST);
+		req.withHeader(Header.IfNoneMatch, "*");
+		req.withHeader(Header.Range, "bytes=0-1");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsString(), is("0123456789"));
+	}
+
+	@Test
+	public void shouldIgnoreRangeWhenIfRangeDoesNotMatch() throws IOException {
+		Path path = createFile();
+		req.withHeader(Header.Range, "bytes=0-1");
+		req.withHeader(Header.IfRange, "\"other\"");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsString(), is("0123456789"));
+
+		resp = new MockResponse();
+		req.replaceHeader(Header.IfRange, "\"a-493e0\"");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", path, "content/type"));
+		assertThat(resp.getStatusCode(), is(StatusCode.PartialContent));
+		assertThat(resp.getBodyAsString(), is("01"));
+	}
+
+	@Test
+	public void shouldCopyFromChannelWhenTransferMakesNoProgress() throws IOException {
+		FileChannel channel = stalledChannel("0123456789".getBytes("UTF-8"), 10);
+		req.withHeader(Header.Range, "bytes=2-5");
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", channel, "content/type"));
+
+		assertThat(resp.getStatusCode(), is(StatusCode.PartialContent));
+		assertThat(resp.getBodyAsString(), is("2345"));
+	}
+
+	@Test
+	public void shouldFailWhenTransferMakesNoProgressAndChannelIsTruncated() throws IOException {
+		thrown.expect(ViewResolutionException.class);
+		thrown.expectMessage("Expected 6 more bytes from filename.ext");
+
+		FileChannel channel = stalledChannel("0123".getBytes("UTF-8"), 10);
+		fileViewResolver.resolve(req, resp, new FileView("filename.ext", channel, "content/type"));
+	}
+
+	/**
+	 * A channel of the given size which never transfers any bytes, but can be read up to the end of the given data
+	 */
+	private FileChannel stalledChannel(final byte[] data, long size) throws IOException {
+		FileChannel channel = mock(FileChannel.class);
+		when(channel.size()).thenReturn(size);
+		when(channel.transferTo(anyLong(), anyLong(), Mockito.any(WritableByteChannel.class))).thenReturn(0L);
+		when(channel.read(Mockito.any(ByteBuffer.class), anyLong())).thenAnswer(new Answer<Integer>() {
+			@Override
+			public Integer answer(InvocationOnMock invocation) throws Throwable {
+				ByteBuffer buffer = (ByteBuffer) invocation.getArguments()[0];
+				int position = ((Long) invocation.getArguments()[1]).intValue();
+				if (position >= data.length) {
+					return -1;
+				}
+				int read = Math.min(buffer.remaining(), data.length - position);
+				buffer.put(data, position, read);
+				return read;
+			}
+		});
+		return channel;
+	}
+
+	private Path createFile() throws IOException {
+		Path path = temporaryFolder.newFile().toPath();
+		Files.write(path, "0123456789".getBytes("UTF-8"));
+		Files.setLastModifiedTime(path, FileTime.fromMillis(300000));
+		return path;
+	}
+
 	public InputStream mockInputStream() throws IOException {
 		InputStream is = mock(InputStream.class);
 		when(is.read()).thenReturn(-1);
@@ -23,10 +23,15 @@ import static org.mockito.Mockito.mock;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.junit.Test;
 
@@ -56,6 +61,53 @@ public class FileViewTest {
 		assertThat(fileView.getContentType(), is("contentType"));
 	}
 
+	@Test
+	public void shouldDeriveLengthLastModifiedAndEtagForFile() throws IOException, URISyntaxException {
+		URI resource = this.getClass().getClassLoader().getResource("streams.txt").toURI();
+		File file = new File(resource);
+
+		FileView fileView = new FileView("filename.ext", file, "contentType");
+		assertThat(fileView.getChannel(), is(notNullValue()));
+		assertThat(fileView.getLength(), is(9L));
+		assertThat(fileView.getLastModified(), is(file.lastModified()));
+		assertThat(fileView.getETag(), is(String.format("\"9-%s\"", Long.toHexString(file.lastModified()))));
+		fileView.getData().close();
+	}
+
+	@Test(expected = NoSuchFileException.class)
+	public void shouldFailToCreateForMissingPath() throws IOException {
+		new FileView("filename.ext", Paths.get("does-not-exist.txt"), "contentType");
+	}
+
+	@Test
+	public void shouldCreateChannelForPathAndRetainContentTypeAndFilename() throws IOException, URISyntaxException {
+		Path path = Paths.get(this.getClass().getClassLoader().getResource("streams.txt").toURI());
+
+		FileView fileView = new FileView("filename.ext", path, "contentType");
+		assertThat(Streams.readString(fileView.getData(), "UTF-8"), is("Test data"));
+		assertThat(fileView.getLength(), is(9L));
+		assertThat(fileView.getLastModified(), is(Files.getLastModifiedTime(path).toMillis()));
+		assertThat(fileView.getETag(), is(notNullValue()));
+		assertThat(fileView.getFileName(), is("filename.ext"));
+		assertThat(fileView.getContentType(), is("contentType"));
+		fileView.getData().close();
+		assertThat(fileView.getChannel().isOpen(), is(false));
+	}
+
+	@Test
+	public void shouldRetainLengthForByteArrayAndAllowValidatorsToBeSet() throws UnsupportedEncodingException {
+		FileView fileView = new FileView("filename.ext", "Test data".getBytes("UTF-8"), "contentType");
+		assertThat(fileView.getLength(), is(9L));
+		assertThat(fileView.getChannel(), is(nullValue()));
+		assertThat(fileView.getLastModified(), is(nullValue()));
+		assertThat(fileView.getETag(), is(nullValue()));
+
+		fileView.withLastModified(1000L).withETag("\"etag\"").withLength(null);
+		assertThat(fileView.getLength(), is(nullValue()));
+		assertThat(fileView.getLastModified(), is(1000L));
+		assertThat(fileView.getETag(), is("\"etag\""));
+	}
+
 	@Test
 	public void shouldCreateInputStreamForByteArrayAndRetainContentTypeAndFilename() throws UnsupportedEncodingException {
 		byte[] data = "Test data".getBytes("UTF-8");
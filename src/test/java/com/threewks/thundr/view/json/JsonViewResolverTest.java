@@ -22,7 +22,13 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,12 +37,20 @@ import org.junit.rules.ExpectedException;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
 import com.threewks.thundr.http.ContentType;
 import com.threewks.thundr.http.Cookie;
 import com.threewks.thundr.http.StatusCode;
 import com.threewks.thundr.json.GsonSupport;
+import com.threewks.thundr.json.SharedGson;
+import com.threewks.thundr.request.CompressingResponse;
+import com.threewks.thundr.request.ResponseCompression;
 import com.threewks.thundr.request.mock.MockRequest;
 import com.threewks.thundr.request.mock.MockResponse;
+import com.threewks.thundr.test.TestSupport;
+import com.threewks.thundr.util.Utf8Writer;
 import com.threewks.thundr.view.ViewResolutionException;
 
 public class JsonViewResolverTest {
@@ -69,6 +83,121 @@ public class JsonViewResolverTest {
 		assertThat(resp.getContentLength(), is(15l));
 	}
 
+	@Test
+	public void shouldResolveByStreamingJsonToOutputStreamWithoutContentLength() throws IOException {
+		resolver.setStreaming(true);
+		assertThat(resolver.isStreaming(), is(true));
+
+		JsonView viewResult = new JsonView(map("key", "value\u20ac"));
+		resolver.resolve(req, resp, viewResult);
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsString(), is("{\"key\":\"value\u20ac\"}"));
+		assertThat(resp.getCharacterEncoding(), is("UTF-8"));
+		assertThat(resp.getContentLength(), is(nullValue()));
+	}
+
+	@Test
+	public void shouldCompressBufferedJsonWhenResponseIsCompressed() throws IOException {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			values.add(i);
+		}
+		CompressingResponse compressingResponse = new CompressingResponse(resp, new ResponseCompression(), "gzip");
+		resolver.resolve(req, compressingResponse, new JsonView(values));
+		compressingResponse.finish();
+
+		assertThat(resp.getHeader("Content-Encoding"), is("gzip"));
+		assertThat(resp.getContentLength(), is(nullValue()));
+		JsonElement json = new JsonParser().parse(new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(resp.getBodyAsBytes())), "UTF-8"));
+		assertThat(json.getAsJsonArray().size(), is(1000));
+		assertThat(json.getAsJsonArray().get(999).getAsInt(), is(999));
+	}
+
+	@Test
+	public void shouldWriteNothingWhenJsonFailsPartWayForCompressedResponse() throws IOException {
+		GsonBuilder gsonBuilder = GsonSupport.createBasicGsonBuilder().registerTypeAdapter(Failing.class, new JsonSerializer<Failing>() {
+			@Override
+			public JsonElement serialize(Failing src, Type typeOfSrc, JsonSerializationContext context) {
+				throw new IllegalStateException("expected");
+			}
+		});
+		resolver = new JsonViewResolver(gsonBuilder);
+		List<Object> values = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			values.add(i);
+		}
+		values.add(new Failing());
+		CompressingResponse compressingResponse = new CompressingResponse(resp, new ResponseCompression(), "gzip");
+		try {
+			resolver.resolve(req, compressingResponse, new JsonView(values));
+		} catch (ViewResolutionException e) {
+			assertThat(e.getMessage(), containsString("expected"));
+		}
+
+		assertThat(compressingResponse.isCompressing(), is(nullValue()));
+		assertThat(resp.getBodyAsBytes().length, is(0));
+	}
+
+	@Test
+	public void shouldNotCompressSmallJsonWhenResponseIsCompressed() throws IOException {
+		CompressingResponse compressingResponse = new CompressingResponse(resp, new ResponseCompression(), "gzip");
+		resolver.resolve(req, compressingResponse, new JsonView(map("key", "value")));
+		compressingResponse.finish();
+
+		assertThat(resp.getHeader("Content-Encoding"), is(nullValue()));
+		assertThat(resp.getBodyAsString(), is("{\"key\":\"value\"}"));
+		assertThat(resp.getContentLength(), is(15l));
+	}
+
+	@Test
+	public void shouldSetContentLengthInBytesOfEncodedJson() throws IOException {
+		JsonView viewResult = new JsonView(map("key", "value\u20ac"));
+		resolver.resolve(req, resp, viewResult);
+		assertThat(resp.getBodyAsString(), is("{\"key\":\"value\u20ac\"}"));
+		assertThat(resp.getContentLength(), is(18l));
+	}
+
+	@Test
+	public void shouldWriteJsonInNonUtf8Encoding() throws IOException {
+		JsonView viewResult = new JsonView(map("key", "value")).withCharacterEncoding("UTF-16BE");
+		resolver.resolve(req, resp, viewResult);
+		assertThat(resp.getContentLength(), is(30l));
+
+		resp = new MockResponse();
+		resolver.setStreaming(true);
+		resolver.resolve(req, resp, viewResult);
+		assertThat(resp.getContentLength(), is(nullValue()));
+		assertThat(new String(resp.getBodyAsBytes(), "UTF-16BE"), is("{\"key\":\"value\"}"));
+	}
+
+	@Test
+	public void shouldAllowMaxRetainedBufferSizeToBeSet() {
+		assertThat(resolver.getMaxRetainedBufferSize(), is(Utf8Writer.DefaultMaxRetainedBufferSize));
+
+		resolver.setMaxRetainedBufferSize(64 * 1024);
+		assertThat(resolver.getMaxRetainedBufferSize(), is(64 * 1024));
+		resolver.resolve(req, resp, new JsonView(map("key", "value")));
+		assertThat(resp.getBodyAsString(), is("{\"key\":\"value\"}"));
+
+		thrown.expect(IllegalArgumentException.class);
+		resolver.setMaxRetainedBufferSize(1024);
+	}
+
+	@Test
+	public void shouldReuseGsonExceptWhileGsonBuilderIsModified() {
+		SharedGson sharedGson = TestSupport.getField(resolver, "gson");
+		Gson gson = sharedGson.get();
+		resolver.resolve(req, resp, new JsonView(map("key", "value")));
+		assertThat(sharedGson.get(), is(sameInstance(gson)));
+
+		resolver.getGsonBuilder().serializeNulls();
+		assertThat(sharedGson.get(), is(not(sameInstance(gson))));
+
+		sharedGson.invalidate();
+		gson = sharedGson.get();
+		assertThat(sharedGson.get(), is(sameInstance(gson)));
+	}
+
 	@Test
 	public void shouldThrowViewResolutionExceptionWhenFailedToWriteJsonToOutputStream() throws IOException {
 		thrown.expect(ViewResolutionException.class);
@@ -120,4 +249,6 @@ public class JsonViewResolverTest {
 		assertThat(resolver.getGsonBuilder(), is(sameInstance(gsonBuilder)));
 	}
 
+	private static class Failing {
+	}
 }
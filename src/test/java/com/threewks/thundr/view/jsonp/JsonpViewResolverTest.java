@@ -59,6 +59,20 @@ public class JsonpViewResolverTest {
 		assertThat(resp.getContentLength(), is(26l));
 	}
 
+	@Test
+	public void shouldResolveByStreamingJsonWrappedInFunctionToOutputStream() throws IOException {
+		resolver.setStreaming(true);
+		assertThat(resolver.isStreaming(), is(true));
+
+		req.withParameter("callback", "abcdef");
+		JsonpView viewResult = new JsonpView(map("key", "value"));
+		resolver.resolve(req, resp, viewResult);
+		assertThat(resp.getStatusCode(), is(StatusCode.OK));
+		assertThat(resp.getBodyAsString(), is("abcdef({\"key\":\"value\"});"));
+		assertThat(resp.getCharacterEncoding(), is("UTF-8"));
+		assertThat(resp.getContentLength(), is(nullValue()));
+	}
+
 	@Test
 	public void shouldResolveJsonElementByWritingJsonToOutputStreamAsJsonElement() throws IOException {
 		JsonElement jsonEl = createJsonElement();
@@ -0,0 +1,42 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import com.threewks.thundr.request.InMemoryRequest;
+import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.RouteMatch;
+
+/**
+ * An {@link InMemoryRequest} which has been matched to a route, as a platform specific request would be before being resolved.
+ */
+public class BenchmarkRequest extends InMemoryRequest {
+	public BenchmarkRequest(HttpMethod httpMethod, String path, RouteMatch routeMatch) {
+		super(httpMethod, path);
+		setRouteMatch(routeMatch);
+	}
+
+	public BenchmarkRequest(HttpMethod httpMethod, String path, RouteMatch routeMatch, String content, String contentType) {
+		super(httpMethod, path, content, contentType);
+		setRouteMatch(routeMatch);
+	}
+
+	private void setRouteMatch(RouteMatch routeMatch) {
+		this.routeMatch = routeMatch;
+		this.route = routeMatch == null ? null : routeMatch.getRoute();
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.threewks.thundr.route.controller.CglibControllerInvokerStrategy;
+import com.threewks.thundr.route.controller.Controller;
+import com.threewks.thundr.route.controller.ControllerInvoker;
+import com.threewks.thundr.route.controller.ControllerInvokerStrategy;
+import com.threewks.thundr.route.controller.MethodHandleControllerInvokerStrategy;
+import com.threewks.thundr.route.controller.ReflectionControllerInvokerStrategy;
+
+/**
+ * Compares the cost of invoking a controller method using each of the available {@link ControllerInvokerStrategy} implementations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerInvokerBenchmark {
+	@Param({ "reflection", "methodHandle", "cglib" })
+	public String strategy;
+
+	private BenchmarkController controller;
+	private ControllerInvoker noArgumentsInvoker;
+	private ControllerInvoker argumentsInvoker;
+	private Object[] noArguments;
+	private Object[] arguments;
+
+	@Setup
+	public void setup() {
+		ControllerInvokerStrategy invokerStrategy = createStrategy(strategy);
+		controller = new BenchmarkController();
+		noArgumentsInvoker = invokerStrategy.createInvoker(new Controller(BenchmarkController.class, "hello").method());
+		argumentsInvoker = invokerStrategy.createInvoker(new Controller(BenchmarkController.class, "item").method());
+		noArguments = new Object[0];
+		arguments = new Object[] { "12345", 2 };
+	}
+
+	@Benchmark
+	public Object invokeNoArguments() throws Exception {
+		return noArgumentsInvoker.invoke(controller, noArguments);
+	}
+
+	@Benchmark
+	public Object invokeWithArguments() throws Exception {
+		return argumentsInvoker.invoke(controller, arguments);
+	}
+
+	private static ControllerInvokerStrategy createStrategy(String strategy) {
+		switch (strategy) {
+		case "reflection":
+			return new ReflectionControllerInvokerStrategy();
+		case "methodHandle":
+			return new MethodHandleControllerInvokerStrategy();
+		case "cglib":
+			return new CglibControllerInvokerStrategy();
+		default:
+			throw new IllegalArgumentException("Unknown invoker strategy " + strategy);
+		}
+	}
+}
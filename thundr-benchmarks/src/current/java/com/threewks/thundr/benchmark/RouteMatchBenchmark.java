@@ -0,0 +1,66 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.RouteMatch;
+import com.threewks.thundr.route.Router;
+
+/**
+ * Measures {@link Router#findMatch(HttpMethod, String)}, which captures path variables along with the matched route, using the
+ * same routes as {@link RouterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteMatchBenchmark {
+	@Param({ "10", "100", "1000" })
+	public int routes;
+
+	private Router router;
+	private String lastPath;
+
+	@Setup
+	public void setup() {
+		router = RouterBenchmark.createRouter(routes);
+		lastPath = "/api/resource" + (routes - 1) + "/123/page/2";
+	}
+
+	@Benchmark
+	public String findMatchAndPathVariable() {
+		RouteMatch match = router.findMatch(HttpMethod.GET, lastPath);
+		return match.getPathVar("id");
+	}
+}
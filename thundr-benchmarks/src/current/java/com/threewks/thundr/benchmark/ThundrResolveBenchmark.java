@@ -0,0 +1,108 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.threewks.thundr.Thundr;
+import com.threewks.thundr.http.ContentType;
+import com.threewks.thundr.request.InMemoryResponse;
+import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.RouteMatch;
+import com.threewks.thundr.transformer.TransformerManager;
+
+/**
+ * Measures {@link Thundr#resolve(com.threewks.thundr.request.Request, com.threewks.thundr.request.Response)} end to end, from
+ * matching the route through binding, invoking the controller and resolving the view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThundrResolveBenchmark {
+	private Thundr thundr;
+	private TransformerManager transformerManager;
+	private String personJson;
+
+	@Setup
+	public void setup() {
+		thundr = new Thundr(BenchmarkModule.class);
+		thundr.start();
+		transformerManager = thundr.getInjectionContext().get(TransformerManager.class);
+		personJson = new Gson().toJson(Person.create());
+	}
+
+	@TearDown
+	public void tearDown() {
+		thundr.stop();
+	}
+
+	@Benchmark
+	public InMemoryResponse resolveStringView() {
+		return resolve(new BenchmarkRequest(HttpMethod.GET, "/hello", match(HttpMethod.GET, "/hello")));
+	}
+
+	@Benchmark
+	public InMemoryResponse resolvePathVariables() {
+		String path = "/items/12345/page/2";
+		return resolve(new BenchmarkRequest(HttpMethod.GET, path, match(HttpMethod.GET, path)));
+	}
+
+	@Benchmark
+	public InMemoryResponse resolveJsonView() {
+		String path = "/people/12345.json";
+		return resolve(new BenchmarkRequest(HttpMethod.GET, path, match(HttpMethod.GET, path)));
+	}
+
+	@Benchmark
+	public InMemoryResponse resolveJsonBody() {
+		String path = "/people";
+		return resolve(new BenchmarkRequest(HttpMethod.POST, path, match(HttpMethod.POST, path), personJson, ContentType.ApplicationJson.value()));
+	}
+
+	@Benchmark
+	public InMemoryResponse resolveMissingRoute() {
+		String path = "/missing";
+		return resolve(new BenchmarkRequest(HttpMethod.GET, path, match(HttpMethod.GET, path)));
+	}
+
+	private RouteMatch match(HttpMethod method, String path) {
+		return thundr.findRouteMatch(method, path);
+	}
+
+	private InMemoryResponse resolve(BenchmarkRequest req) {
+		InMemoryResponse resp = new InMemoryResponse(transformerManager);
+		thundr.resolve(req, resp);
+		return resp;
+	}
+}
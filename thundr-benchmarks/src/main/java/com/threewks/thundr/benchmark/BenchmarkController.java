@@ -0,0 +1,50 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.List;
+
+import com.threewks.thundr.view.json.JsonView;
+import com.threewks.thundr.view.string.StringView;
+
+/**
+ * Controller used by the benchmarks. Actions do as little work as possible so that the cost measured is that of thundr.
+ */
+public class BenchmarkController {
+	private final Person person = Person.create();
+
+	public StringView hello() {
+		return new StringView("hello");
+	}
+
+	public StringView item(String id, int page) {
+		return new StringView(id);
+	}
+
+	public JsonView person(String id) {
+		return new JsonView(person);
+	}
+
+	public JsonView create(Person person) {
+		return new JsonView(person);
+	}
+
+	public StringView form(String id, int page, Person person, List<Person> people) {
+		return new StringView(id);
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import com.threewks.thundr.injection.BaseModule;
+import com.threewks.thundr.injection.UpdatableInjectionContext;
+import com.threewks.thundr.module.DependencyRegistry;
+import com.threewks.thundr.route.Router;
+import com.threewks.thundr.route.RouterModule;
+
+/**
+ * Application module used to start a {@link com.threewks.thundr.Thundr} instance for the end to end benchmarks.
+ */
+public class BenchmarkModule extends BaseModule {
+	@Override
+	public void requires(DependencyRegistry dependencyRegistry) {
+		super.requires(dependencyRegistry);
+		dependencyRegistry.addDependency(RouterModule.class);
+	}
+
+	@Override
+	public void configure(UpdatableInjectionContext injectionContext) {
+		super.configure(injectionContext);
+		Router router = injectionContext.get(Router.class);
+		router.get("/hello", BenchmarkController.class, "hello");
+		router.get("/items/{id}/page/{page}", BenchmarkController.class, "item");
+		router.get("/people/{id}.json", BenchmarkController.class, "person");
+		router.post("/people", BenchmarkController.class, "create");
+	}
+}
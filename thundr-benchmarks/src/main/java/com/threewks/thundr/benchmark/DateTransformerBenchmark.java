@@ -0,0 +1,131 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.threewks.thundr.transformer.date.DateTimeToString;
+import com.threewks.thundr.transformer.date.DateToString;
+import com.threewks.thundr.transformer.date.StringToDate;
+import com.threewks.thundr.transformer.date.StringToDateTime;
+
+/**
+ * Compares the date transformers with the Joda {@link DateTimeFormatter}s they previously delegated to, parsing and printing
+ * ISO-8601 timestamps with and without offsets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTransformerBenchmark {
+	private static final String Timestamp = "2014-06-01T12:34:56.123+10:00";
+	private static final String LocalTimestamp = "2014-06-01T12:34:56.123";
+
+	private DateTimeFormatter jodaParser;
+	private DateTimeFormatter jodaOffsetParser;
+	private DateTimeFormatter jodaFormat;
+	private DateTimeFormatter jodaUtcFormat;
+	private StringToDateTime stringToDateTime;
+	private StringToDate stringToDate;
+	private DateTimeToString dateTimeToString;
+	private DateToString dateToString;
+	private DateTime dateTime;
+	private Date date;
+
+	@Setup
+	public void setup() {
+		jodaParser = ISODateTimeFormat.dateOptionalTimeParser();
+		jodaOffsetParser = jodaParser.withOffsetParsed();
+		jodaFormat = ISODateTimeFormat.dateTime();
+		jodaUtcFormat = jodaFormat.withZoneUTC();
+		stringToDateTime = new StringToDateTime();
+		stringToDate = new StringToDate();
+		dateTimeToString = new DateTimeToString();
+		dateToString = new DateToString();
+		dateTime = new DateTime(2014, 6, 1, 12, 34, 56, 123, DateTimeZone.forOffsetHours(10));
+		date = dateTime.toDate();
+	}
+
+	@Benchmark
+	public DateTime parseDateTimeJoda() {
+		return jodaOffsetParser.parseDateTime(Timestamp);
+	}
+
+	@Benchmark
+	public DateTime parseDateTime() {
+		return stringToDateTime.from(Timestamp);
+	}
+
+	@Benchmark
+	public DateTime parseLocalDateTimeJoda() {
+		return jodaOffsetParser.parseDateTime(LocalTimestamp);
+	}
+
+	@Benchmark
+	public DateTime parseLocalDateTime() {
+		return stringToDateTime.from(LocalTimestamp);
+	}
+
+	@Benchmark
+	public Date parseDateJoda() {
+		return jodaParser.parseDateTime(Timestamp).toDate();
+	}
+
+	@Benchmark
+	public Date parseDate() {
+		return stringToDate.from(Timestamp);
+	}
+
+	@Benchmark
+	public String printDateTimeJoda() {
+		return jodaFormat.print(dateTime);
+	}
+
+	@Benchmark
+	public String printDateTime() {
+		return dateTimeToString.from(dateTime);
+	}
+
+	@Benchmark
+	public String printDateJoda() {
+		return jodaUtcFormat.print(date.getTime());
+	}
+
+	@Benchmark
+	public String printDate() {
+		return dateToString.from(date);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.threewks.thundr.injection.InjectionContextImpl;
+import com.threewks.thundr.transformer.TransformerManager;
+
+/**
+ * Measures {@link InjectionContextImpl#get(Class)} and {@link InjectionContextImpl#get(Class, String)} for injected instances,
+ * injected types which are constructed on each lookup, and named properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionContextBenchmark {
+	private InjectionContextImpl injectionContext;
+
+	@Setup
+	public void setup() {
+		injectionContext = new InjectionContextImpl();
+		injectionContext.inject(TransformerManager.createWithDefaults()).as(TransformerManager.class);
+		injectionContext.inject(BenchmarkController.class).as(BenchmarkController.class);
+		injectionContext.inject("localhost").named("host").as(String.class);
+		injectionContext.inject(8080).named("port").as(Integer.class);
+		for (int i = 0; i < 100; i++) {
+			injectionContext.inject("value" + i).named("property" + i).as(String.class);
+		}
+	}
+
+	@Benchmark
+	public TransformerManager getInstance() {
+		return injectionContext.get(TransformerManager.class);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public TransformerManager getInstanceContended() {
+		return injectionContext.get(TransformerManager.class);
+	}
+
+	@Benchmark
+	public BenchmarkController getType() {
+		return injectionContext.get(BenchmarkController.class);
+	}
+
+	@Benchmark
+	public String getNamed() {
+		return injectionContext.get(String.class, "host");
+	}
+
+	@Benchmark
+	public Integer getNamedBoxed() {
+		return injectionContext.get(Integer.class, "port");
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.threewks.thundr.bind.json.GsonBinder;
+import com.threewks.thundr.http.ContentType;
+import com.threewks.thundr.introspection.ParameterDescription;
+import com.threewks.thundr.json.GsonSupport;
+import com.threewks.thundr.request.InMemoryRequest;
+import com.threewks.thundr.request.InMemoryResponse;
+import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.controller.Controller;
+import com.threewks.thundr.transformer.TransformerManager;
+import com.threewks.thundr.view.json.JsonView;
+import com.threewks.thundr.view.json.JsonViewResolver;
+
+/**
+ * Measures reading json request bodies using {@link GsonBinder} and writing json responses using {@link JsonViewResolver}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+	private GsonBinder gsonBinder;
+	private JsonViewResolver jsonViewResolver;
+	private TransformerManager transformerManager;
+	private ParameterDescription beanParameter;
+	private List<ParameterDescription> formParameters;
+	private String personJson;
+	private String formJson;
+	private JsonView personView;
+
+	@Setup
+	public void setup() {
+		gsonBinder = new GsonBinder(GsonSupport.createBasicGsonBuilder());
+		jsonViewResolver = new JsonViewResolver(GsonSupport.createBasicGsonBuilder());
+		transformerManager = TransformerManager.createWithDefaults();
+
+		beanParameter = new Controller(BenchmarkController.class, "create").parameters().get(0);
+		formParameters = new Controller(BenchmarkController.class, "form").parameters().subList(0, 3);
+
+		Gson gson = new Gson();
+		personJson = gson.toJson(Person.create());
+		Map<String, Object> form = new LinkedHashMap<>();
+		form.put("id", "12345");
+		form.put("page", 2);
+		form.put("person", Person.create());
+		formJson = gson.toJson(form);
+		personView = new JsonView(Person.create());
+	}
+
+	@Benchmark
+	public Map<ParameterDescription, Object> bindBean() {
+		Map<ParameterDescription, Object> bindings = new LinkedHashMap<>();
+		bindings.put(beanParameter, null);
+		gsonBinder.bindAll(bindings, jsonRequest(personJson), null);
+		return bindings;
+	}
+
+	@Benchmark
+	public Map<ParameterDescription, Object> bindParameters() {
+		Map<ParameterDescription, Object> bindings = new LinkedHashMap<>();
+		for (ParameterDescription parameterDescription : formParameters) {
+			bindings.put(parameterDescription, null);
+		}
+		gsonBinder.bindAll(bindings, jsonRequest(formJson), null);
+		return bindings;
+	}
+
+	@Benchmark
+	public InMemoryResponse resolveView() {
+		InMemoryResponse resp = new InMemoryResponse(transformerManager);
+		jsonViewResolver.resolve(new InMemoryRequest(HttpMethod.GET, "/people/12345.json"), resp, personView);
+		return resp;
+	}
+
+	private InMemoryRequest jsonRequest(String json) {
+		return new InMemoryRequest(HttpMethod.POST, "/people", json, ContentType.ApplicationJson.value());
+	}
+}
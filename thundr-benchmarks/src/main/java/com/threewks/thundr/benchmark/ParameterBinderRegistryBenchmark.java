@@ -0,0 +1,114 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.threewks.thundr.bind.parameter.ParameterBinderRegistry;
+import com.threewks.thundr.introspection.ParameterDescription;
+import com.threewks.thundr.route.controller.Controller;
+import com.threewks.thundr.transformer.TransformerManager;
+
+/**
+ * Measures {@link ParameterBinderRegistry#bind(Map, Map, Map)} binding form data to basic types, a nested java bean and a list of java beans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterBinderRegistryBenchmark {
+	private ParameterBinderRegistry parameterBinderRegistry;
+	private List<ParameterDescription> parameters;
+	private ParameterDescription basicParameter;
+	private ParameterDescription beanParameter;
+	private ParameterDescription beanListParameter;
+	private Map<String, List<String>> form;
+
+	@Setup
+	public void setup() {
+		parameterBinderRegistry = new ParameterBinderRegistry(TransformerManager.createWithDefaults());
+		ParameterBinderRegistry.addDefaultBinders(parameterBinderRegistry);
+
+		parameters = new Controller(BenchmarkController.class, "form").parameters();
+		basicParameter = parameters.get(1);
+		beanParameter = parameters.get(2);
+		beanListParameter = parameters.get(3);
+
+		form = new LinkedHashMap<>();
+		form.put("id", Arrays.asList("12345"));
+		form.put("page", Arrays.asList("2"));
+		form.put("person.name", Arrays.asList("Nick"));
+		form.put("person.age", Arrays.asList("34"));
+		form.put("person.email", Arrays.asList("nick@example.com"));
+		form.put("person.address.street", Arrays.asList("1 Main St"));
+		form.put("person.address.city", Arrays.asList("Sydney"));
+		form.put("person.address.postcode", Arrays.asList("2000"));
+		form.put("person.tags", Arrays.asList("admin", "benchmark"));
+		for (int i = 0; i < 5; i++) {
+			form.put("people[" + i + "].name", Arrays.asList("Person " + i));
+			form.put("people[" + i + "].age", Arrays.asList(Integer.toString(20 + i)));
+			form.put("people[" + i + "].address.city", Arrays.asList("Sydney"));
+		}
+	}
+
+	@Benchmark
+	public Map<ParameterDescription, Object> bindAll() {
+		return bind(parameters);
+	}
+
+	@Benchmark
+	public Map<ParameterDescription, Object> bindBasicType() {
+		return bind(Arrays.asList(basicParameter));
+	}
+
+	@Benchmark
+	public Map<ParameterDescription, Object> bindNestedBean() {
+		return bind(Arrays.asList(beanParameter));
+	}
+
+	@Benchmark
+	public Map<ParameterDescription, Object> bindListOfBeans() {
+		return bind(Arrays.asList(beanListParameter));
+	}
+
+	private Map<ParameterDescription, Object> bind(List<ParameterDescription> parameterDescriptions) {
+		Map<ParameterDescription, Object> bindings = new LinkedHashMap<>();
+		for (ParameterDescription parameterDescription : parameterDescriptions) {
+			bindings.put(parameterDescription, null);
+		}
+		parameterBinderRegistry.bind(bindings, form, null);
+		return bindings;
+	}
+}
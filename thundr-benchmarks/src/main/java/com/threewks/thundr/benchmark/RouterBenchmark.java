@@ -0,0 +1,99 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.threewks.thundr.route.HttpMethod;
+import com.threewks.thundr.route.Route;
+import com.threewks.thundr.route.Router;
+
+/**
+ * Measures route lookup in {@link Router} as the number of registered routes grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+	@Param({ "10", "100", "1000" })
+	public int routes;
+
+	private Router router;
+	private String firstPath;
+	private String lastPath;
+	private String wildcardPath;
+	private String missingPath;
+
+	@Setup
+	public void setup() {
+		router = createRouter(routes);
+		firstPath = "/api/resource0/123/page/2";
+		lastPath = "/api/resource" + (routes - 1) + "/123/page/2";
+		wildcardPath = "/static/css/site/main.css";
+		missingPath = "/api/unknown/123";
+	}
+
+	@Benchmark
+	public Route findFirstRoute() {
+		return router.findMatchingRoute(HttpMethod.GET, firstPath);
+	}
+
+	@Benchmark
+	public Route findLastRoute() {
+		return router.findMatchingRoute(HttpMethod.GET, lastPath);
+	}
+
+	@Benchmark
+	public Route findWildcardRoute() {
+		return router.findMatchingRoute(HttpMethod.GET, wildcardPath);
+	}
+
+	@Benchmark
+	public Route findMissingRoute() {
+		return router.findMatchingRoute(HttpMethod.GET, missingPath);
+	}
+
+	/**
+	 * Creates a router with three routes for each of the given number of resources, and a wildcard route.
+	 */
+	public static Router createRouter(int routes) {
+		Router router = new Router();
+		for (int i = 0; i < routes; i++) {
+			router.get("/api/resource" + i, BenchmarkController.class, "hello");
+			router.get("/api/resource" + i + "/{id}/page/{page}", BenchmarkController.class, "item");
+			router.post("/api/resource" + i + "/{id}", BenchmarkController.class, "create");
+		}
+		router.get("/static/**", BenchmarkController.class, "hello");
+		return router;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is a component of thundr, a software library from 3wks.
+ * Read more: http://3wks.github.io/thundr/
+ * Copyright (C) 2015 3wks, <thundr@3wks.com.au>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.threewks.thundr.benchmark;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.atomicleopard.expressive.ETransformer;
+import com.threewks.thundr.transformer.TransformerManager;
+
+/**
+ * Measures {@link TransformerManager#getBestTransformer(Class, Class)} for registered transformers, transformers found
+ * through the type hierarchy (both from the cache and not) and for types which cannot be transformed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformerManagerBenchmark {
+	private TransformerManager transformerManager;
+	private TransformerManager uncachedTransformerManager;
+
+	@Setup
+	public void setup() {
+		transformerManager = TransformerManager.createWithDefaults();
+		uncachedTransformerManager = TransformerManager.createWithDefaults();
+		// populate the cache for the hierarchy lookup
+		transformerManager.getBestTransformer(Timestamp.class, String.class);
+	}
+
+	@Benchmark
+	public ETransformer<?, ?> registered() {
+		return transformerManager.getBestTransformer(String.class, Integer.class);
+	}
+
+	@Benchmark
+	public ETransformer<?, ?> registeredPrimitive() {
+		return transformerManager.getBestTransformer(String.class, int.class);
+	}
+
+	@Benchmark
+	public ETransformer<?, ?> hierarchyCacheHit() {
+		return transformerManager.getBestTransformer(Timestamp.class, String.class);
+	}
+
+	@Benchmark
+	public ETransformer<?, ?> hierarchyCacheMiss() {
+		// unregistering a transformer which was never registered only clears the cache
+		uncachedTransformerManager.unregister(Void.class, Void.class);
+		return uncachedTransformerManager.getBestTransformer(Timestamp.class, String.class);
+	}
+
+	@Benchmark
+	public ETransformer<?, ?> unresolvable() {
+		return transformerManager.getBestTransformer(Person.class, Integer.class);
+	}
+}